@@ -1,40 +1,47 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.annotation;
-
-import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.RUNTIME;
-
-import java.lang.annotation.Documented;
-import java.lang.annotation.Retention;
-import java.lang.annotation.Target;
-
-import com.github.springlink.mybatis.annotation.strategy.NameStrategy;
-import com.github.springlink.mybatis.annotation.strategy.UnderscoreNameStrategy;
-
-@Documented
-@Retention(RUNTIME)
-@Target(TYPE)
-public @interface SqlEntity {
-	String value() default "";
-
-	String schema() default "";
-
-	String catalog() default "";
-
-	Class<? extends NameStrategy> nameStrategy() default UnderscoreNameStrategy.class;
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.annotation;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import com.github.springlink.mybatis.annotation.strategy.NameStrategy;
+import com.github.springlink.mybatis.annotation.strategy.UnderscoreNameStrategy;
+
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface SqlEntity {
+	String value() default "";
+
+	String schema() default "";
+
+	String catalog() default "";
+
+	Class<? extends NameStrategy> nameStrategy() default UnderscoreNameStrategy.class;
+
+	/**
+	 * Whether the identifier properties are unique among the rows, e.g. mapped to
+	 * a primary key. Optimizations relying on one row per identifier only apply
+	 * to entities declaring it.
+	 */
+	boolean uniqueId() default false;
+}
@@ -1,33 +1,33 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.annotation.strategy;
-
-import static com.google.common.base.CaseFormat.LOWER_CAMEL;
-import static com.google.common.base.CaseFormat.LOWER_UNDERSCORE;
-import static com.google.common.base.CaseFormat.UPPER_CAMEL;
-
-public class UnderscoreNameStrategy implements NameStrategy {
-	@Override
-	public String getDefaultTable(Class<?> beanType) {
-		return UPPER_CAMEL.to(LOWER_UNDERSCORE, beanType.getSimpleName());
-	}
-
-	@Override
-	public String getDefaultColumn(Class<?> beanType, String propertyName) {
-		return LOWER_CAMEL.to(LOWER_UNDERSCORE, propertyName);
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.annotation.strategy;
+
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.LOWER_UNDERSCORE;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+
+public class UnderscoreNameStrategy implements NameStrategy {
+	@Override
+	public String getDefaultTable(Class<?> beanType) {
+		return UPPER_CAMEL.to(LOWER_UNDERSCORE, beanType.getSimpleName());
+	}
+
+	@Override
+	public String getDefaultColumn(Class<?> beanType, String propertyName) {
+		return LOWER_CAMEL.to(LOWER_UNDERSCORE, propertyName);
+	}
+}
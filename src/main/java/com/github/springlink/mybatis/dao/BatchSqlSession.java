@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.transaction.Transaction;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Session with a batch executor borrowing the connection of another session.
+ * Committing, rolling back and closing the connection are left to that
+ * session. Pending statements are flushed before every select, the results of
+ * all flushes are collected.
+ * <p>
+ * The executor bypasses the second level caches, so nothing is published
+ * before the other session commits. The namespaces of the executed updates are
+ * collected instead, for the other session to flush their caches and to commit
+ * the updates.
+ */
+class BatchSqlSession extends DefaultSqlSession {
+	private final List<BatchResult> batchResults = Lists.newArrayList();
+	private final Set<String> updatedNamespaces = Sets.newLinkedHashSet();
+
+	BatchSqlSession(Configuration configuration, Connection connection) {
+		super(configuration, newExecutor(configuration, connection), false);
+	}
+
+	private static Executor newExecutor(Configuration configuration, Connection connection) {
+		Executor executor = new BatchExecutor(configuration, new SharedTransaction(connection));
+		for (Interceptor interceptor : configuration.getInterceptors()) {
+			executor = (Executor) interceptor.plugin(executor);
+		}
+		return executor;
+	}
+
+	List<BatchResult> getBatchResults() {
+		return batchResults;
+	}
+
+	Set<String> getUpdatedNamespaces() {
+		return updatedNamespaces;
+	}
+
+	@Override
+	public int update(String statement, Object parameter) {
+		MappedStatement ms = getConfiguration().getMappedStatement(statement);
+		updatedNamespaces.add(ms.getId().substring(0, ms.getId().lastIndexOf('.')));
+		return super.update(statement, parameter);
+	}
+
+	@Override
+	public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds) {
+		flushStatements();
+		return super.selectList(statement, parameter, rowBounds);
+	}
+
+	@Override
+	public <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds) {
+		flushStatements();
+		return super.selectCursor(statement, parameter, rowBounds);
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public void select(String statement, Object parameter, RowBounds rowBounds, ResultHandler handler) {
+		flushStatements();
+		super.select(statement, parameter, rowBounds, handler);
+	}
+
+	@Override
+	public List<BatchResult> flushStatements() {
+		List<BatchResult> results = super.flushStatements();
+		batchResults.addAll(results);
+		return results;
+	}
+
+	private static class SharedTransaction implements Transaction {
+		private final Connection connection;
+
+		SharedTransaction(Connection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public Connection getConnection() {
+			return connection;
+		}
+
+		@Override
+		public void commit() {
+		}
+
+		@Override
+		public void rollback() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public Integer getTimeout() {
+			return null;
+		}
+	}
+}
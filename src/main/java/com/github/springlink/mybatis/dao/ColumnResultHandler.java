@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import com.github.springlink.mybatis.registry.ResultSetRow;
+
+/**
+ * Appends every row of projections to growing column arrays, choosing the
+ * array type of a column from the result set metadata of the first row.
+ */
+class ColumnResultHandler implements ResultHandler<ResultSetRow> {
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final TypeHandlerRegistry typeHandlerRegistry;
+	private final List<String> names;
+	private Column[] columns;
+	private int size;
+
+	ColumnResultHandler(TypeHandlerRegistry typeHandlerRegistry, List<String> names) {
+		this.typeHandlerRegistry = typeHandlerRegistry;
+		this.names = names;
+	}
+
+	@Override
+	public void handleResult(ResultContext<? extends ResultSetRow> context) {
+		ResultSet rs = context.getResultObject().getResultSet();
+		try {
+			if (columns == null) {
+				columns = createColumns(rs.getMetaData());
+			}
+			for (int i = 0; i < columns.length; ++i) {
+				columns[i].read(rs, i + 1, size);
+			}
+			++size;
+		} catch (SQLException e) {
+			throw new ExecutorException("Error reading columns " + names + ". Cause: " + e, e);
+		}
+	}
+
+	SqlColumnResult getResult() {
+		if (columns == null) {
+			return new SqlColumnResult(names, 0, null, null);
+		}
+		Object[] arrays = new Object[columns.length];
+		BitSet[] nulls = new BitSet[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			arrays[i] = columns[i].toArray(size);
+			nulls[i] = columns[i].nulls;
+		}
+		return new SqlColumnResult(names, size, arrays, nulls);
+	}
+
+	private Column[] createColumns(ResultSetMetaData metaData) throws SQLException {
+		if (metaData.getColumnCount() != names.size()) {
+			throw new IllegalStateException("Expected " + names.size() + " columns, got "
+					+ metaData.getColumnCount());
+		}
+		Column[] columns = new Column[names.size()];
+		for (int i = 0; i < columns.length; ++i) {
+			int column = i + 1;
+			switch (metaData.getColumnType(column)) {
+			case Types.BIGINT:
+				columns[i] = new LongColumn();
+				break;
+			case Types.INTEGER:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				columns[i] = new IntColumn();
+				break;
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				// e.g. sums of integers in MySQL
+				if (metaData.getScale(column) == 0 && metaData.getPrecision(column) > 0
+						&& metaData.getPrecision(column) <= 18) {
+					columns[i] = new LongColumn();
+				} else {
+					columns[i] = new DoubleColumn();
+				}
+				break;
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.REAL:
+				columns[i] = new DoubleColumn();
+				break;
+			default:
+				columns[i] = new ObjectColumn(getTypeHandler(metaData.getColumnType(column)));
+				break;
+			}
+		}
+		return columns;
+	}
+
+	private TypeHandler<?> getTypeHandler(int sqlType) {
+		JdbcType jdbcType;
+		try {
+			jdbcType = JdbcType.forCode(sqlType);
+		} catch (IllegalArgumentException e) {
+			jdbcType = null;
+		}
+		TypeHandler<?> typeHandler = jdbcType != null ? typeHandlerRegistry.getTypeHandler(jdbcType) : null;
+		return typeHandler != null ? typeHandler : typeHandlerRegistry.getTypeHandler(Object.class);
+	}
+
+	private abstract static class Column {
+		BitSet nulls;
+
+		abstract void read(ResultSet rs, int column, int row) throws SQLException;
+
+		abstract Object toArray(int size);
+
+		void setNull(int row) {
+			if (nulls == null) {
+				nulls = new BitSet();
+			}
+			nulls.set(row);
+		}
+	}
+
+	private static class LongColumn extends Column {
+		private long[] values = new long[INITIAL_CAPACITY];
+
+		@Override
+		void read(ResultSet rs, int column, int row) throws SQLException {
+			if (row == values.length) {
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = rs.getLong(column);
+			if (values[row] == 0 && rs.wasNull()) {
+				setNull(row);
+			}
+		}
+
+		@Override
+		Object toArray(int size) {
+			return values.length == size ? values : Arrays.copyOf(values, size);
+		}
+	}
+
+	private static class IntColumn extends Column {
+		private int[] values = new int[INITIAL_CAPACITY];
+
+		@Override
+		void read(ResultSet rs, int column, int row) throws SQLException {
+			if (row == values.length) {
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = rs.getInt(column);
+			if (values[row] == 0 && rs.wasNull()) {
+				setNull(row);
+			}
+		}
+
+		@Override
+		Object toArray(int size) {
+			return values.length == size ? values : Arrays.copyOf(values, size);
+		}
+	}
+
+	private static class DoubleColumn extends Column {
+		private double[] values = new double[INITIAL_CAPACITY];
+
+		@Override
+		void read(ResultSet rs, int column, int row) throws SQLException {
+			if (row == values.length) {
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = rs.getDouble(column);
+			if (values[row] == 0 && rs.wasNull()) {
+				setNull(row);
+			}
+		}
+
+		@Override
+		Object toArray(int size) {
+			return values.length == size ? values : Arrays.copyOf(values, size);
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+		private final TypeHandler<?> typeHandler;
+		private Object[] values = new Object[INITIAL_CAPACITY];
+
+		ObjectColumn(TypeHandler<?> typeHandler) {
+			this.typeHandler = typeHandler;
+		}
+
+		@Override
+		void read(ResultSet rs, int column, int row) throws SQLException {
+			if (row == values.length) {
+				values = Arrays.copyOf(values, row * 2);
+			}
+			values[row] = typeHandler.getResult(rs, column);
+		}
+
+		@Override
+		Object toArray(int size) {
+			return values.length == size ? values : Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -1,333 +1,1345 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.dao;
-
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
-
-import org.apache.ibatis.session.RowBounds;
-import org.apache.ibatis.session.SqlSession;
-
-import com.google.common.collect.Maps;
-
-import com.github.springlink.mybatis.registry.SqlContext;
-import com.github.springlink.mybatis.registry.SqlDialect;
-import com.github.springlink.mybatis.registry.SqlRegistry;
-import com.github.springlink.mybatis.sql.SqlCriterion;
-import com.github.springlink.mybatis.sql.SqlOrderBy;
-import com.github.springlink.mybatis.sql.SqlProjections;
-import com.github.springlink.mybatis.sql.SqlUpdate;
-import com.github.springlink.mybatis.util.ArrayBoundList;
-import com.github.springlink.mybatis.util.Asserts;
-import com.github.springlink.mybatis.util.BoundList;
-
-public class DefaultSqlDao implements SqlDao {
-	private final SqlRegistry registry;
-	private final SqlSession session;
-
-	public DefaultSqlDao(DefaultSqlDao dao) {
-		this(dao.registry, dao.session);
-	}
-
-	public DefaultSqlDao(SqlRegistry registry, SqlSession session) {
-		Asserts.notNull(registry, "registry");
-		Asserts.notNull(session, "session");
-		this.registry = registry;
-		this.session = session;
-	}
-
-	@Override
-	public SqlRegistry getRegistry() {
-		return registry;
-	}
-
-	@Override
-	public SqlSession getSession() {
-		return session;
-	}
-
-	@Override
-	public <T> Selector<T> select(Class<T> entityType) {
-		Asserts.notNull(entityType, "entityType");
-		return new SelectorImpl<>(entityType);
-	}
-
-	@Override
-	public <T> int insert(Class<T> entityType, T value) {
-		Asserts.notNull(entityType, "entityType");
-		if (value == null) {
-			return 0;
-		}
-		return session.insert(
-				applyNamespace(entityType, SqlDialect.INSERT_ID),
-				getParameterObject(entityType, ctx -> {
-					ctx.putObject(SqlDialect.VALUE_KEY, value);
-				}));
-	}
-
-	@Override
-	public int delete(Class<?> entityType, SqlCriterion criterion) {
-		Asserts.notNull(entityType, "entityType");
-		return session.delete(
-				applyNamespace(entityType, SqlDialect.DELETE_ID),
-				getParameterObject(entityType, ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(entityType, criterion));
-				}));
-	}
-
-	@Override
-	public long count(Class<?> entityType, SqlCriterion criterion) {
-		Asserts.notNull(entityType, "entityType");
-		return session.selectOne(
-				applyNamespace(entityType, SqlDialect.SELECT_COUNT_ID),
-				getParameterObject(entityType, ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(entityType, criterion));
-				}));
-	}
-
-	@Override
-	public boolean exists(Class<?> entityType, SqlCriterion criterion) {
-		Asserts.notNull(entityType, "entityType");
-		return session.selectOne(
-				applyNamespace(entityType, SqlDialect.SELECT_EXISTS_ID),
-				getParameterObject(entityType, ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(entityType, criterion));
-				}));
-	}
-
-	@Override
-	public <T> int update(Class<T> entityType, SqlUpdate update, SqlCriterion criterion) {
-		Asserts.notNull(entityType, "entityType");
-		if (update == null || update.asList().isEmpty()) {
-			return 0;
-		}
-		return session.update(
-				applyNamespace(entityType, SqlDialect.UPDATE_ID),
-				getParameterObject(entityType, ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(entityType, criterion));
-					ctx.putObject(SqlDialect.UPDATE_KEY, processUpdate(entityType, update));
-				}));
-	}
-
-	protected <T> T selectOne(Selector<T> selector) {
-		return session.selectOne(
-				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
-				getParameterObject(selector.getEntityType(), ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(selector));
-					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
-					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
-				}));
-	}
-
-	protected Object selectOne(Selector<?> selector, SqlProjections projections) {
-		Asserts.notNull(projections, "projections");
-		return extractResult(session.selectOne(
-				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_ID),
-				getParameterObject(selector.getEntityType(), ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(selector));
-					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
-					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
-					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
-				})), projections);
-	}
-
-	protected <T> List<T> selectList(Selector<T> selector, RowBounds rowBounds) {
-		return session.selectList(
-				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
-				getParameterObject(selector.getEntityType(), ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(selector));
-					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
-					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
-					ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
-				}));
-	}
-
-	protected List<Object> selectList(Selector<?> selector, RowBounds rowBounds, SqlProjections projections) {
-		Asserts.notNull(projections, "projections");
-		return extractResultList(session.selectList(
-				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_ID),
-				getParameterObject(selector.getEntityType(), ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(selector));
-					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
-					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
-					ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
-					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
-				})), projections);
-	}
-
-	protected <K, T> Map<K, T> selectMap(Selector<T> selector, String mapKey) {
-		return session.selectMap(
-				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
-				getParameterObject(selector.getEntityType(), ctx -> {
-					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(selector));
-					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
-				}), mapKey);
-	}
-
-	protected String applyNamespace(Class<?> entityType, String statementId) {
-		return entityType.getName() + "." + statementId;
-	}
-
-	protected Map<String, Object> getParameterObject(Class<?> entityType, Consumer<SqlContext> consumer) {
-		SqlContext ctx = registry.getContext(entityType);
-		consumer.accept(ctx);
-		Map<String, Object> parameter = Maps.newHashMap();
-		parameter.put(ctx.getRootPath(), ctx);
-		return parameter;
-	}
-
-	protected Object extractResult(Map<String, Object> result, SqlProjections projections) {
-		if (projections.asMap().size() == 1) {
-			return result != null ? result.values().iterator().next() : null;
-		}
-		return result;
-	}
-
-	protected List<Object> extractResultList(List<Map<String, Object>> resultList, SqlProjections projections) {
-		return resultList.stream().map(result -> extractResult(result, projections)).collect(Collectors.toList());
-	}
-
-	protected SqlCriterion processCriterion(Class<?> entityType, SqlCriterion criterion) {
-		return criterion;
-	}
-
-	protected SqlOrderBy processOrderBy(Class<?> entityType, SqlOrderBy orderBy) {
-		return orderBy;
-	}
-
-	protected SqlUpdate processUpdate(Class<?> entityType, SqlUpdate update) {
-		return update;
-	}
-
-	private SqlCriterion processCriterion(Selector<?> selector) {
-		return processCriterion(selector.getEntityType(), selector.getCriterion());
-	}
-
-	private SqlOrderBy processOrderBy(Selector<?> selector) {
-		return processOrderBy(selector.getEntityType(), selector.getOrderBy());
-	}
-
-	private class SelectorImpl<T> implements Selector<T> {
-		private final Class<T> entityType;
-		private SqlCriterion criterion;
-		private SqlOrderBy orderBy;
-		private boolean forUpdate;
-
-		SelectorImpl(Class<T> entityType) {
-			this.entityType = entityType;
-		}
-
-		@Override
-		public Class<T> getEntityType() {
-			return entityType;
-		}
-
-		@Override
-		public SqlRegistry getRegistry() {
-			return DefaultSqlDao.this.getRegistry();
-		}
-
-		@Override
-		public SqlSession getSession() {
-			return DefaultSqlDao.this.getSession();
-		}
-
-		@Override
-		public SqlCriterion getCriterion() {
-			return criterion;
-		}
-
-		@Override
-		public SqlOrderBy getOrderBy() {
-			return orderBy;
-		}
-
-		@Override
-		public boolean isForUpdate() {
-			return forUpdate;
-		}
-
-		@Override
-		public Selector<T> where(SqlCriterion criterion) {
-			this.criterion = criterion;
-			return this;
-		}
-
-		@Override
-		public Selector<T> orderBy(SqlOrderBy orderBy) {
-			this.orderBy = orderBy;
-			return this;
-		}
-
-		@Override
-		public Selector<T> forUpdate(boolean forUpdate) {
-			this.forUpdate = forUpdate;
-			return this;
-		}
-
-		@Override
-		public Optional<T> asOne() {
-			return Optional.ofNullable(selectOne(this));
-		}
-
-		@Override
-		@SuppressWarnings("unchecked")
-		public <R> Optional<R> asOne(SqlProjections projections) {
-			return Optional.ofNullable(selectOne(this, projections)).map(value -> (R) value);
-		}
-
-		@Override
-		public List<T> asList() {
-			return selectList(this, null);
-		}
-
-		@Override
-		@SuppressWarnings("unchecked")
-		public <R> List<R> asList(SqlProjections projections) {
-			return (List<R>) selectList(this, null, projections);
-		}
-
-		@Override
-		public List<T> asList(RowBounds rowBounds) {
-			return selectList(this, rowBounds);
-		}
-
-		@Override
-		@SuppressWarnings("unchecked")
-		public <R> List<R> asList(RowBounds rowBounds, SqlProjections projections) {
-			return (List<R>) selectList(this, rowBounds, projections);
-		}
-
-		@Override
-		public BoundList<T> asBoundList(RowBounds rowBounds) {
-			return new ArrayBoundList<>(rowBounds, (int) count(entityType, criterion), asList(rowBounds));
-		}
-
-		@Override
-		public <R> BoundList<R> asBoundList(RowBounds rowBounds, SqlProjections projections) {
-			return new ArrayBoundList<>(rowBounds, (int) count(entityType, criterion), asList(rowBounds, projections));
-		}
-
-		@Override
-		public <K> Map<K, T> asMap(String mapKey) {
-			return selectMap(this, mapKey);
-		}
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
+
+import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+import com.github.springlink.mybatis.registry.ResultSetRow;
+import com.github.springlink.mybatis.registry.SqlContext;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.registry.SqlEntityRowMapper;
+import com.github.springlink.mybatis.registry.SqlRegistry;
+import com.github.springlink.mybatis.registry.SqlRowMapper;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlCriterionNormalizer;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlUpdate;
+import com.github.springlink.mybatis.util.ArrayBoundList;
+import com.github.springlink.mybatis.util.ArraySlice;
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.BoundList;
+import com.github.springlink.mybatis.util.CountStats;
+import com.github.springlink.mybatis.util.Cursors;
+import com.github.springlink.mybatis.util.KeysetTokens;
+import com.github.springlink.mybatis.util.LongObjectMap;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+import com.github.springlink.mybatis.util.Slice;
+
+public class DefaultSqlDao implements SqlDao {
+	private static final int MAX_ID_CHUNK_SIZE = 1000;
+
+	private final SqlRegistry registry;
+	private final SqlSession session;
+	private SqlCountStrategy countStrategy = SqlCountStrategy.SEQUENTIAL;
+	private SqlSessionFactory countSessionFactory;
+	private Executor countExecutor;
+	private EntitySnapshots snapshots;
+
+	public DefaultSqlDao(DefaultSqlDao dao) {
+		this(dao.registry, dao.session);
+		copySettings(dao, this);
+	}
+
+	public DefaultSqlDao(SqlRegistry registry, SqlSession session) {
+		Asserts.notNull(registry, "registry");
+		Asserts.notNull(session, "session");
+		this.registry = registry;
+		this.session = session;
+	}
+
+	public SqlCountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * Set how bound lists obtain the total row count.
+	 *
+	 * @param countStrategy count strategy
+	 */
+	public void setCountStrategy(SqlCountStrategy countStrategy) {
+		Asserts.notNull(countStrategy, "countStrategy");
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * Set where {@link SqlCountStrategy#PARALLEL} counts run, each count opens its
+	 * own session from the factory.
+	 *
+	 * @param sessionFactory session factory for counts
+	 * @param executor       executor running counts
+	 */
+	public void setParallelCount(SqlSessionFactory sessionFactory, Executor executor) {
+		Asserts.notNull(sessionFactory, "sessionFactory");
+		Asserts.notNull(executor, "executor");
+		this.countSessionFactory = sessionFactory;
+		this.countExecutor = executor;
+	}
+
+	public boolean isDirtyTracking() {
+		return snapshots != null;
+	}
+
+	/**
+	 * Set whether entity objects selected through this DAO are tracked, which
+	 * makes {@link #updateEntity(Class, Object, boolean, SqlCriterion)} write
+	 * only the properties changed since an object was selected, and skip the
+	 * update when none changed. DAOs created for other sessions share the
+	 * tracked objects.
+	 *
+	 * @param dirtyTracking whether to track selected entity objects
+	 */
+	public void setDirtyTracking(boolean dirtyTracking) {
+		if (!dirtyTracking) {
+			this.snapshots = null;
+		} else if (snapshots == null) {
+			this.snapshots = new EntitySnapshots();
+		}
+	}
+
+	@Override
+	public SqlRegistry getRegistry() {
+		return registry;
+	}
+
+	@Override
+	public SqlSession getSession() {
+		return session;
+	}
+
+	@Override
+	public <T> Selector<T> select(Class<T> entityType) {
+		Asserts.notNull(entityType, "entityType");
+		return new SelectorImpl<>(entityType);
+	}
+
+	@Override
+	public <T> int insert(Class<T> entityType, T value) {
+		Asserts.notNull(entityType, "entityType");
+		if (value == null) {
+			return 0;
+		}
+		return session.insert(
+				applyNamespace(entityType, SqlDialect.INSERT_ID),
+				getParameterObject(entityType, ctx -> {
+					ctx.putObject(SqlDialect.VALUE_KEY, value);
+				}));
+	}
+
+	@Override
+	public <T> int insertAll(Class<T> entityType, Iterable<? extends T> values) {
+		Asserts.notNull(entityType, "entityType");
+		if (values == null) {
+			return 0;
+		}
+		int rows = 0;
+		SqlContext ctx = registry.getContext(entityType);
+		for (List<T> chunk : registry.getDialect().<T>partitionInsertValues(ctx, values)) {
+			rows = addRows(rows, session.insert(
+					applyNamespace(entityType, SqlDialect.INSERT_ALL_ID),
+					getParameterObject(entityType, c -> {
+						c.putObject(SqlDialect.VALUES_KEY, chunk);
+					})));
+		}
+		return rows;
+	}
+
+	@Override
+	public <T, S> int insertFrom(Class<T> target, Selector<S> source, SqlProjections mapping) {
+		Asserts.notNull(target, "target");
+		Asserts.notNull(source, "source");
+		Asserts.notNull(mapping, "mapping");
+		if (mapping.asMap().isEmpty()) {
+			throw new IllegalArgumentException("No projections to insert");
+		}
+		SqlCriterion criterion = processCriterion(source);
+		if (skipQuery(mapping, criterion)) {
+			return 0;
+		}
+		return session.insert(
+				applyNamespace(target, SqlDialect.INSERT_FROM_ID),
+				getParameterObject(source.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, mapping);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(source));
+				}));
+	}
+
+	@Override
+	public SqlBatchResult batch(Consumer<SqlDao> callback) {
+		Asserts.notNull(callback, "callback");
+		session.flushStatements();
+		try (BatchSqlSession batchSession = new BatchSqlSession(session.getConfiguration(),
+				getTransactionalConnection())) {
+			callback.accept(withSession(batchSession));
+			batchSession.flushStatements();
+			// marks this session as modified, so that its commit commits the updates and
+			// flushes the caches of the updated entities
+			for (String namespace : batchSession.getUpdatedNamespaces()) {
+				session.update(namespace + "." + SqlDialect.FLUSH_CACHE_ID);
+			}
+			return new SqlBatchResult(batchSession.getBatchResults());
+		} finally {
+			session.clearCache();
+		}
+	}
+
+	/**
+	 * Get the connection of the session, which must be in a transaction: a
+	 * connection in auto-commit mode or closed, e.g. the one of a managed session
+	 * outside any transaction, cannot be shared by a batch.
+	 */
+	private Connection getTransactionalConnection() {
+		try {
+			Connection connection = session.getConnection();
+			if (!connection.isClosed() && !connection.getAutoCommit()) {
+				return connection;
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("No active transaction to execute the batch in", e);
+		}
+		throw new IllegalStateException("No active transaction to execute the batch in");
+	}
+
+	/**
+	 * Add the affected rows of a statement, a batch executor returns
+	 * {@link BatchExecutor#BATCH_UPDATE_RETURN_VALUE} as the rows are unknown
+	 * until the statements are flushed.
+	 */
+	private static int addRows(int rows, int affected) {
+		if (rows == BatchExecutor.BATCH_UPDATE_RETURN_VALUE || affected == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+			return BatchExecutor.BATCH_UPDATE_RETURN_VALUE;
+		}
+		return rows + affected;
+	}
+
+	/**
+	 * Create a DAO working with another session of the same registry.
+	 *
+	 * @param session the session
+	 * @return DAO instance
+	 */
+	protected SqlDao withSession(SqlSession session) {
+		DefaultSqlDao dao = new DefaultSqlDao(registry, session);
+		copySettings(this, dao);
+		return dao;
+	}
+
+	private static void copySettings(DefaultSqlDao source, DefaultSqlDao target) {
+		target.countStrategy = source.countStrategy;
+		target.countSessionFactory = source.countSessionFactory;
+		target.countExecutor = source.countExecutor;
+		target.snapshots = source.snapshots;
+	}
+
+	@Override
+	public int delete(Class<?> entityType, SqlCriterion criterion) {
+		Asserts.notNull(entityType, "entityType");
+		SqlCriterion processed = prepareCriterion(entityType, criterion);
+		if (skipQuery(processed)) {
+			return 0;
+		}
+		int deleted = 0;
+		for (SqlCriterion chunk : splitCriterion(processed)) {
+			deleted = addRows(deleted, session.delete(
+					applyNamespace(entityType, SqlDialect.DELETE_ID),
+					getParameterObject(entityType, ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, chunk);
+					})));
+		}
+		return deleted;
+	}
+
+	@Override
+	public long count(Class<?> entityType, SqlCriterion criterion) {
+		Asserts.notNull(entityType, "entityType");
+		SqlCriterion processed = prepareCriterion(entityType, criterion);
+		if (skipQuery(processed)) {
+			return 0;
+		}
+		long count = 0;
+		for (SqlCriterion chunk : splitCriterion(processed)) {
+			count += session.<Long>selectOne(
+					applyNamespace(entityType, SqlDialect.SELECT_COUNT_ID),
+					getParameterObject(entityType, ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, chunk);
+					}));
+		}
+		return count;
+	}
+
+	@Override
+	public boolean exists(Class<?> entityType, SqlCriterion criterion) {
+		Asserts.notNull(entityType, "entityType");
+		SqlCriterion processed = prepareCriterion(entityType, criterion);
+		if (skipQuery(processed)) {
+			return false;
+		}
+		for (SqlCriterion chunk : splitCriterion(processed)) {
+			if (session.<Boolean>selectOne(
+					applyNamespace(entityType, SqlDialect.SELECT_EXISTS_ID),
+					getParameterObject(entityType, ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, chunk);
+					}))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public <T> int update(Class<T> entityType, SqlUpdate update, SqlCriterion criterion) {
+		Asserts.notNull(entityType, "entityType");
+		if (update == null || update.asList().isEmpty()) {
+			return 0;
+		}
+		SqlCriterion processed = prepareCriterion(entityType, criterion);
+		if (skipQuery(processed)) {
+			return 0;
+		}
+		SqlUpdate processedUpdate = processUpdate(entityType, update);
+		int updated = 0;
+		for (SqlCriterion chunk : splitCriterion(processed)) {
+			updated = addRows(updated, session.update(
+					applyNamespace(entityType, SqlDialect.UPDATE_ID),
+					getParameterObject(entityType, ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, chunk);
+						ctx.putObject(SqlDialect.UPDATE_KEY, processedUpdate);
+					})));
+		}
+		return updated;
+	}
+
+	@Override
+	public <T> int updateEntity(Class<T> entityType, T entity, boolean ignoreNulls, SqlCriterion criterion) {
+		Asserts.notNull(entityType, "entityType");
+		EntitySnapshots snapshots = this.snapshots;
+		if (entity == null || snapshots == null) {
+			return SqlDao.super.updateEntity(entityType, entity, ignoreNulls, criterion);
+		}
+		SqlEntityMetadata em = registry.getContext(entityType).getEntity();
+		Map<String, Object> changes = snapshots.getChanges(em, entity);
+		if (changes == null) {
+			return SqlDao.super.updateEntity(entityType, entity, ignoreNulls, criterion);
+		}
+		SqlUpdate update = SqlUpdate.create();
+		Iterator<Map.Entry<String, Object>> it = changes.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Object> entry = it.next();
+			if (entry.getValue() != null) {
+				update.set(entry.getKey(), entry.getValue());
+			} else if (!ignoreNulls) {
+				update.nullify(entry.getKey());
+			} else {
+				it.remove();
+			}
+		}
+		if (changes.isEmpty()) {
+			return 0;
+		}
+		int updated = update(entityType, update, criterion);
+		// the rows of a batched update are unknown, it is expected to succeed
+		if (updated > 0 || updated == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+			snapshots.update(em, entity, changes);
+		}
+		return updated;
+	}
+
+	@Override
+	public <T> Optional<T> findById(Class<T> entityType, Object id) {
+		Asserts.notNull(entityType, "entityType");
+		Asserts.notNull(id, "id");
+		List<SqlPropertyMetadata> idProperties = getIdProperties(entityType);
+		Object parameter = getIdParameter(idProperties, getIdValues(entityType, idProperties, id));
+		return Optional.ofNullable(track(entityType, session.selectOne(
+				applyNamespace(entityType, SqlDialect.SELECT_BY_ID_ID),
+				getParameterObject(entityType, ctx -> {
+					ctx.putObject(SqlDialect.ID_KEY, parameter);
+				}))));
+	}
+
+	@Override
+	public <K, T> Map<K, T> findAllByIds(Class<T> entityType, Collection<? extends K> ids) {
+		Asserts.notNull(entityType, "entityType");
+		Map<K, T> result = Maps.newLinkedHashMap();
+		if (ids == null || ids.isEmpty()) {
+			return result;
+		}
+		List<SqlPropertyMetadata> idProperties = getIdProperties(entityType);
+		Map<List<Object>, K> idMap = Maps.newLinkedHashMap();
+		for (K id : ids) {
+			if (id != null) {
+				idMap.putIfAbsent(getIdValues(entityType, idProperties, id), id);
+			}
+		}
+		List<Object> parameters = Lists.newArrayListWithCapacity(idMap.size());
+		for (List<Object> idValues : idMap.keySet()) {
+			parameters.add(getIdParameter(idProperties, idValues));
+		}
+		Map<List<Object>, T> valueMap = Maps.newHashMap();
+		Consumer<T> collector = value -> valueMap.put(getIdValues(entityType, idProperties, value), value);
+		if (isIdCached(entityType)) {
+			parameters = findCachedByIds(entityType, parameters, collector);
+		}
+		for (List<Object> chunk : Lists.partition(parameters, getIdChunkSize())) {
+			selectByIds(entityType, chunk).forEach(collector);
+		}
+		for (Map.Entry<List<Object>, K> entry : idMap.entrySet()) {
+			T value = valueMap.get(entry.getKey());
+			if (value != null) {
+				result.put(entry.getValue(), value);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public <T> LongObjectMap<T> findAllByIds(Class<T> entityType, long[] ids) {
+		Asserts.notNull(ids, "ids");
+		return findAllByIds(entityType, PrimitiveArrayList.of(ids));
+	}
+
+	@Override
+	public <T> LongObjectMap<T> findAllByIds(Class<T> entityType, int[] ids) {
+		Asserts.notNull(ids, "ids");
+		return findAllByIds(entityType, PrimitiveArrayList.of(ids));
+	}
+
+	private <T> LongObjectMap<T> findAllByIds(Class<T> entityType, PrimitiveArrayList<?> ids) {
+		Asserts.notNull(entityType, "entityType");
+		List<SqlPropertyMetadata> idProperties = getIdProperties(entityType);
+		if (idProperties.size() != 1) {
+			throw new UnsupportedOperationException("Primitive identifiers require a single identifier property: "
+					+ entityType.getName());
+		}
+		SqlPropertyMetadata idProperty = idProperties.get(0);
+		PrimitiveArrayList<?> distinct = ids.distinct();
+		LongObjectMap<T> result = new LongObjectMap<>(distinct.size());
+		Consumer<T> collector = value -> result.put(((Number) idProperty.getAccessor().get(value)).longValue(), value);
+		List<?> misses = distinct;
+		if (isIdCached(entityType)) {
+			List<Object> parameters = Lists.newArrayListWithCapacity(distinct.size());
+			for (Object id : distinct) {
+				parameters.add(convertId(idProperty, id));
+			}
+			misses = findCachedByIds(entityType, parameters, collector);
+		}
+		int chunkSize = getIdChunkSize();
+		for (int i = 0; i < misses.size(); i += chunkSize) {
+			selectByIds(entityType, misses.subList(i, Math.min(i + chunkSize, misses.size()))).forEach(collector);
+		}
+		return result;
+	}
+
+	/**
+	 * Find the entities of the identifiers present in the second-level cache
+	 * through the session, which hides the entries its transaction flushed, and
+	 * return the identifiers left to select.
+	 */
+	private <T> List<Object> findCachedByIds(Class<T> entityType, List<Object> ids, Consumer<T> collector) {
+		MappedStatement ms = session.getConfiguration().getMappedStatement(
+				applyNamespace(entityType, SqlDialect.SELECT_BY_ID_ID));
+		List<Object> misses = Lists.newArrayList();
+		for (Object id : ids) {
+			Object parameter = getParameterObject(entityType, ctx -> {
+				ctx.putObject(SqlDialect.ID_KEY, id);
+			});
+			if (ms.getCache().getObject(createCacheKey(ms, parameter)) == null) {
+				misses.add(id);
+				continue;
+			}
+			T value = track(entityType, session.selectOne(ms.getId(), parameter));
+			if (value != null) {
+				collector.accept(value);
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * Create the cache key of a query as
+	 * {@link org.apache.ibatis.executor.BaseExecutor} does.
+	 */
+	private CacheKey createCacheKey(MappedStatement ms, Object parameter) {
+		Configuration configuration = ms.getConfiguration();
+		BoundSql boundSql = ms.getBoundSql(parameter);
+		CacheKey key = new CacheKey();
+		key.update(ms.getId());
+		key.update(RowBounds.DEFAULT.getOffset());
+		key.update(RowBounds.DEFAULT.getLimit());
+		key.update(boundSql.getSql());
+		MetaObject metaObject = null;
+		for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+			if (parameterMapping.getMode() == ParameterMode.OUT) {
+				continue;
+			}
+			String property = parameterMapping.getProperty();
+			if (boundSql.hasAdditionalParameter(property)) {
+				key.update(boundSql.getAdditionalParameter(property));
+			} else if (parameter == null) {
+				key.update(null);
+			} else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+				key.update(parameter);
+			} else {
+				if (metaObject == null) {
+					metaObject = configuration.newMetaObject(parameter);
+				}
+				key.update(metaObject.getValue(property));
+			}
+		}
+		if (configuration.getEnvironment() != null) {
+			key.update(configuration.getEnvironment().getId());
+		}
+		return key;
+	}
+
+	private <T> List<T> selectByIds(Class<T> entityType, List<?> ids) {
+		return trackAll(entityType, session.<T>selectList(
+				applyNamespace(entityType, SqlDialect.SELECT_BY_IDS_ID),
+				getParameterObject(entityType, ctx -> {
+					ctx.putObject(SqlDialect.IDS_KEY, ids);
+				})));
+	}
+
+	private boolean isIdCached(Class<?> entityType) {
+		return session.getConfiguration().getMappedStatement(
+				applyNamespace(entityType, SqlDialect.SELECT_BY_ID_ID)).getCache() != null;
+	}
+
+	private int getIdChunkSize() {
+		return Math.min(registry.getDialect().getMaxInListSize(), MAX_ID_CHUNK_SIZE);
+	}
+
+	protected <T> T selectOne(Selector<T> selector) {
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(criterion)) {
+			return null;
+		}
+		return track(selector.getEntityType(), session.selectOne(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+				})));
+	}
+
+	protected Object selectOne(Selector<?> selector, SqlProjections projections) {
+		Asserts.notNull(projections, "projections");
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(projections, criterion)) {
+			return null;
+		}
+		return extractResult(session.selectOne(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				})), projections);
+	}
+
+	protected <T> List<T> selectList(Selector<T> selector, RowBounds rowBounds) {
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(criterion)) {
+			return Lists.newArrayList();
+		}
+		SqlOrderBy orderBy = processOrderBy(selector);
+		List<SqlCriterion> chunks = isUnordered(orderBy, rowBounds) ? splitCriterion(criterion)
+				: Collections.singletonList(criterion);
+		// the list of a query is kept in the local and second level caches, the
+		// chunks are merged into a list of their own
+		List<T> result = chunks.size() > 1 ? Lists.newArrayList() : null;
+		for (SqlCriterion chunk : chunks) {
+			List<T> list = session.selectList(
+					applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
+					getParameterObject(selector.getEntityType(), ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, chunk);
+						ctx.putObject(SqlDialect.ORDER_BY_KEY, orderBy);
+						ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+						ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
+					}));
+			if (result == null) {
+				result = list;
+			} else {
+				result.addAll(list);
+			}
+		}
+		return trackAll(selector.getEntityType(), result);
+	}
+
+	protected List<Object> selectList(Selector<?> selector, RowBounds rowBounds, SqlProjections projections) {
+		Asserts.notNull(projections, "projections");
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(projections, criterion)) {
+			return Lists.newArrayList();
+		}
+		return extractResultList(session.selectList(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				})), projections);
+	}
+
+	protected <R> List<R> selectList(Selector<?> selector, RowBounds rowBounds, SqlProjections projections,
+			Class<R> resultType) {
+		SqlRowMapper<R> mapper = registry.getRowMapper(projections, resultType);
+		SqlCriterion criterion = processCriterion(selector);
+		List<R> result = Lists.newArrayList();
+		if (skipQuery(projections, criterion)) {
+			return result;
+		}
+		session.select(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTION_ROWS_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				}),
+				context -> result.add(mapper.map(((ResultSetRow) context.getResultObject()).getResultSet())));
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected <T> BoundList<T> selectBoundList(Selector<T> selector, RowBounds rowBounds) {
+		Asserts.notNull(rowBounds, "rowBounds");
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(criterion)) {
+			return new ArrayBoundList<>(rowBounds, 0, Collections.emptyList());
+		}
+		ResultMap resultMap = session.getConfiguration().getResultMap(
+				applyNamespace(selector.getEntityType(), SqlDialect.RESULT_MAP_ID));
+		if (countStrategy == SqlCountStrategy.WINDOW && registry.getDialect().isWindowFunctionsSupported()
+				&& SqlEntityRowMapper.isEntityResultMap(resultMap)) {
+			TotalResultHandler handler = new TotalResultHandler(session.getConfiguration(), resultMap);
+			session.select(
+					applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_TOTAL_ID),
+					getParameterObject(selector.getEntityType(), ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+						ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+						ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+						ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
+					}),
+					handler);
+			if (!handler.getRows().isEmpty()) {
+				return new ArrayBoundList<>(rowBounds, handler.getTotal(),
+						trackAll(selector.getEntityType(), (List<T>) handler.getRows()));
+			}
+			return new ArrayBoundList<>(rowBounds, countPage(selector, null, rowBounds, 0), Collections.emptyList());
+		} else if (countStrategy == SqlCountStrategy.PARALLEL) {
+			CompletableFuture<Long> total = countAsync(selector, null);
+			List<T> rows = selectList(selector, rowBounds);
+			return new ArrayBoundList<>(rowBounds, joinCount(total), rows);
+		}
+		List<T> rows = selectList(selector, rowBounds);
+		return new ArrayBoundList<>(rowBounds, countPage(selector, null, rowBounds, rows.size()), rows);
+	}
+
+	protected BoundList<Object> selectBoundList(Selector<?> selector, RowBounds rowBounds,
+			SqlProjections projections) {
+		Asserts.notNull(rowBounds, "rowBounds");
+		Asserts.notNull(projections, "projections");
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(projections, criterion)) {
+			return new ArrayBoundList<>(rowBounds, 0, Collections.emptyList());
+		}
+		if (countStrategy == SqlCountStrategy.WINDOW && registry.getDialect().isWindowFunctionsSupported()) {
+			List<Map<String, Object>> resultList = session.selectList(
+					applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_TOTAL_ID),
+					getParameterObject(selector.getEntityType(), ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+						ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+						ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+						ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, rowBounds);
+						ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+						ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+					}));
+			if (resultList.isEmpty()) {
+				return new ArrayBoundList<>(rowBounds, countPage(selector, projections, rowBounds, 0),
+						Collections.emptyList());
+			}
+			long total = 0;
+			for (Map<String, Object> result : resultList) {
+				Iterator<Map.Entry<String, Object>> it = result.entrySet().iterator();
+				while (it.hasNext()) {
+					Map.Entry<String, Object> entry = it.next();
+					if (entry.getKey().equalsIgnoreCase(SqlDialect.TOTAL_COLUMN)) {
+						total = ((Number) entry.getValue()).longValue();
+						it.remove();
+					}
+				}
+			}
+			return new ArrayBoundList<>(rowBounds, total, extractResultList(resultList, projections));
+		} else if (countStrategy == SqlCountStrategy.PARALLEL) {
+			CompletableFuture<Long> total = countAsync(selector, projections);
+			List<Object> rows = selectList(selector, rowBounds, projections);
+			return new ArrayBoundList<>(rowBounds, joinCount(total), rows);
+		}
+		List<Object> rows = selectList(selector, rowBounds, projections);
+		return new ArrayBoundList<>(rowBounds, countPage(selector, projections, rowBounds, rows.size()), rows);
+	}
+
+	/**
+	 * Count the rows selected by a selector, ignoring its ordering. Projections
+	 * are only taken into account when they change the number of rows.
+	 */
+	protected long count(Selector<?> selector, @Nullable SqlProjections projections) {
+		if (projections == null) {
+			return count(selector.getEntityType(), selector.getCriterion());
+		}
+		return countProjections(session, selector, projections);
+	}
+
+	private long countProjections(SqlSession session, Selector<?> selector, SqlProjections projections) {
+		return session.selectOne(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_COUNT_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, processCriterion(selector));
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				}));
+	}
+
+	/**
+	 * Count the rows of a selected page, the count query is skipped when the total
+	 * can be inferred from the page size.
+	 */
+	private long countPage(Selector<?> selector, SqlProjections projections, RowBounds rowBounds, int size) {
+		long total = CountStats.inferTotal(rowBounds, size);
+		if (total != CountStats.UNKNOWN_TOTAL) {
+			registry.getCountStats().recordAvoided();
+			return total;
+		}
+		registry.getCountStats().recordExecuted();
+		return count(selector, projections);
+	}
+
+	private CompletableFuture<Long> countAsync(Selector<?> selector, SqlProjections projections) {
+		if (countSessionFactory == null) {
+			throw new IllegalStateException("No session factory specified for parallel count");
+		}
+		SqlSessionFactory sessionFactory = countSessionFactory;
+		return CompletableFuture.supplyAsync(() -> {
+			try (SqlSession countSession = sessionFactory.openSession()) {
+				if (projections != null) {
+					return countProjections(countSession, selector, projections);
+				}
+				return withSession(countSession).count(selector.getEntityType(), selector.getCriterion());
+			}
+		}, countExecutor);
+	}
+
+	private static long joinCount(CompletableFuture<Long> total) {
+		try {
+			return total.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	protected <T> Cursor<T> selectCursor(Selector<T> selector) {
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(criterion)) {
+			return Cursors.empty();
+		}
+		Cursor<T> cursor = session.selectCursor(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_CURSOR_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+				}));
+		return snapshots == null ? cursor : Cursors.transform(cursor, value -> track(selector.getEntityType(), value));
+	}
+
+	protected Cursor<Object> selectCursor(Selector<?> selector, SqlProjections projections) {
+		Asserts.notNull(projections, "projections");
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(projections, criterion)) {
+			return Cursors.empty();
+		}
+		Cursor<Map<String, Object>> cursor = session.selectCursor(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTIONS_CURSOR_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				}));
+		return Cursors.transform(cursor, result -> extractResult(result, projections));
+	}
+
+	protected SqlColumnResult selectColumns(Selector<?> selector, SqlProjections projections) {
+		Asserts.notNull(projections, "projections");
+		ColumnResultHandler handler = new ColumnResultHandler(session.getConfiguration().getTypeHandlerRegistry(),
+				Lists.newArrayList(projections.asMap().keySet()));
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(projections, criterion)) {
+			return handler.getResult();
+		}
+		session.select(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTION_ROWS_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				}),
+				handler);
+		return handler.getResult();
+	}
+
+	protected <R> Cursor<R> selectCursor(Selector<?> selector, SqlProjections projections, Class<R> resultType) {
+		SqlRowMapper<R> mapper = registry.getRowMapper(projections, resultType);
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(projections, criterion)) {
+			return Cursors.empty();
+		}
+		Cursor<ResultSetRow> cursor = session.selectCursor(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_PROJECTION_ROWS_CURSOR_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, criterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, processOrderBy(selector));
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.PROJECTIONS_KEY, projections);
+					ctx.putObject(SqlDialect.HAVING_KEY, processHaving(selector));
+				}));
+		return Cursors.transform(cursor, row -> mapper.map(row.getResultSet()));
+	}
+
+	protected <T> Slice<T> selectSlice(Selector<T> selector, String after, int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Invalid limit: " + limit);
+		}
+		SqlEntityMetadata em = registry.getContext(selector.getEntityType()).getEntity();
+		List<SqlPropertyMetadata> keys = Lists.newArrayList();
+		List<Boolean> descendings = Lists.newArrayList();
+		SqlOrderBy orderBy = processOrderBy(selector);
+		if (orderBy != null) {
+			for (SqlOrderBy.Order order : orderBy.asList()) {
+				SqlPropertyMetadata pm = em.getProperty(order.getProperty());
+				if (pm == null) {
+					throw new IllegalArgumentException("Keyset pagination requires entity properties: "
+							+ order.getProperty());
+				}
+				if (!keys.contains(pm)) {
+					keys.add(pm);
+					descendings.add(order.isDescending());
+				}
+			}
+		}
+		// the identifier breaks the ties of the order by properties
+		if (!em.isUniqueId()) {
+			throw new IllegalStateException("Keyset pagination requires a unique identifier: "
+					+ em.getType().getName());
+		}
+		for (SqlPropertyMetadata pm : em.getIdProperties()) {
+			if (!keys.contains(pm)) {
+				keys.add(pm);
+				descendings.add(false);
+			}
+		}
+
+		SqlOrderBy keyOrderBy = SqlOrderBy.create();
+		for (int i = 0; i < keys.size(); ++i) {
+			keyOrderBy = descendings.get(i) ? keyOrderBy.desc(keys.get(i).getName())
+					: keyOrderBy.asc(keys.get(i).getName());
+		}
+		SqlCriterion criterion = processCriterion(selector);
+		if (after != null) {
+			Object[] values = KeysetTokens.decode(after,
+					keys.stream().map(SqlPropertyMetadata::getType).collect(Collectors.toList()));
+			SqlCriterion keyCriterion = getKeysetCriterion(keys, descendings, values);
+			criterion = SqlCriterionNormalizer.normalize(SqlCriterion.and(criterion, keyCriterion));
+		}
+		if (skipQuery(criterion)) {
+			return new ArraySlice<>(limit, null, Collections.emptyList());
+		}
+		SqlCriterion sliceCriterion = criterion;
+		SqlOrderBy sliceOrderBy = keyOrderBy;
+		List<T> rows = session.selectList(
+				applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
+				getParameterObject(selector.getEntityType(), ctx -> {
+					ctx.putObject(SqlDialect.CRITERION_KEY, sliceCriterion);
+					ctx.putObject(SqlDialect.ORDER_BY_KEY, sliceOrderBy);
+					ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					ctx.putObject(SqlDialect.ROW_BOUNDS_KEY, new RowBounds(0, limit + 1));
+				}));
+		String nextToken = null;
+		if (rows.size() > limit) {
+			rows = rows.subList(0, limit);
+			T last = rows.get(limit - 1);
+			nextToken = KeysetTokens.encode(keys.stream().map(pm -> pm.getAccessor().get(last))
+					.collect(Collectors.toList()));
+		}
+		return new ArraySlice<>(limit, nextToken, trackAll(selector.getEntityType(), rows));
+	}
+
+	/**
+	 * Build the row value comparison {@code (k1, k2, ...) > (v1, v2, ...)} for keys
+	 * of mixed directions as
+	 * {@code k1 >= v1 AND (k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...)}, where the
+	 * leading range lets the database seek on an index of the first key. Nulls
+	 * sort first in ascending order, as in MySQL and H2.
+	 */
+	private SqlCriterion getKeysetCriterion(List<SqlPropertyMetadata> keys, List<Boolean> descendings,
+			Object[] values) {
+		List<SqlCriterion> alternatives = Lists.newArrayList();
+		List<SqlCriterion> equalities = Lists.newArrayList();
+		for (int i = 0; i < keys.size(); ++i) {
+			String property = keys.get(i).getName();
+			boolean descending = descendings.get(i);
+			Object value = values[i];
+			SqlCriterion following;
+			if (value == null) {
+				following = descending ? null : SqlCriterion.isNotNull(property);
+			} else if (descending) {
+				following = SqlCriterion.or(SqlCriterion.lt(property, value), SqlCriterion.isNull(property));
+			} else {
+				following = SqlCriterion.gt(property, value);
+			}
+			if (following != null) {
+				List<SqlCriterion> alternative = Lists.newArrayList(equalities);
+				alternative.add(following);
+				alternatives.add(alternative.size() == 1 ? following : SqlCriterion.and(alternative));
+			}
+			equalities.add(value == null ? SqlCriterion.isNull(property) : SqlCriterion.eq(property, value));
+		}
+		SqlCriterion criterion = alternatives.isEmpty() ? SqlCriterion.falseValue()
+				: alternatives.size() == 1 ? alternatives.get(0) : SqlCriterion.or(alternatives);
+		String first = keys.get(0).getName();
+		if (values[0] == null) {
+			return descendings.get(0) ? SqlCriterion.and(SqlCriterion.isNull(first), criterion) : criterion;
+		} else if (descendings.get(0)) {
+			return criterion;
+		}
+		return SqlCriterion.and(SqlCriterion.ge(first, values[0]), criterion);
+	}
+
+	protected <K, T> Map<K, T> selectMap(Selector<T> selector, String mapKey) {
+		SqlCriterion criterion = processCriterion(selector);
+		if (skipQuery(criterion)) {
+			return Maps.newHashMap();
+		}
+		Map<K, T> result = null;
+		for (SqlCriterion chunk : splitCriterion(criterion)) {
+			Map<K, T> map = session.selectMap(
+					applyNamespace(selector.getEntityType(), SqlDialect.SELECT_ENTITY_ID),
+					getParameterObject(selector.getEntityType(), ctx -> {
+						ctx.putObject(SqlDialect.CRITERION_KEY, chunk);
+						ctx.putObject(SqlDialect.FOR_UPDATE_KEY, selector.isForUpdate());
+					}), mapKey);
+			if (result == null) {
+				result = map;
+			} else {
+				result.putAll(map);
+			}
+		}
+		trackAll(selector.getEntityType(), result.values());
+		return result;
+	}
+
+	private <T> T track(Class<?> entityType, T entity) {
+		EntitySnapshots snapshots = this.snapshots;
+		if (snapshots != null && entity != null) {
+			snapshots.capture(registry.getContext(entityType).getEntity(), entity);
+		}
+		return entity;
+	}
+
+	private <C extends Collection<?>> C trackAll(Class<?> entityType, C entities) {
+		EntitySnapshots snapshots = this.snapshots;
+		if (snapshots != null) {
+			SqlEntityMetadata em = registry.getContext(entityType).getEntity();
+			for (Object entity : entities) {
+				snapshots.capture(em, entity);
+			}
+		}
+		return entities;
+	}
+
+	protected String applyNamespace(Class<?> entityType, String statementId) {
+		return entityType.getName() + "." + statementId;
+	}
+
+	protected Map<String, Object> getParameterObject(Class<?> entityType, Consumer<SqlContext> consumer) {
+		SqlContext ctx = registry.getContext(entityType);
+		consumer.accept(ctx);
+		Map<String, Object> parameter = Maps.newHashMap();
+		parameter.put(ctx.getRootPath(), ctx);
+		return parameter;
+	}
+
+	protected Object extractResult(Map<String, Object> result, SqlProjections projections) {
+		if (projections.asMap().size() == 1) {
+			return result != null ? result.values().iterator().next() : null;
+		}
+		return result;
+	}
+
+	protected List<Object> extractResultList(List<Map<String, Object>> resultList, SqlProjections projections) {
+		return resultList.stream().map(result -> extractResult(result, projections)).collect(Collectors.toList());
+	}
+
+	protected SqlCriterion processCriterion(Class<?> entityType, SqlCriterion criterion) {
+		return criterion;
+	}
+
+	protected SqlOrderBy processOrderBy(Class<?> entityType, SqlOrderBy orderBy) {
+		return orderBy;
+	}
+
+	protected SqlUpdate processUpdate(Class<?> entityType, SqlUpdate update) {
+		return update;
+	}
+
+	private SqlCriterion processCriterion(Selector<?> selector) {
+		return prepareCriterion(selector.getEntityType(), selector.getCriterion());
+	}
+
+	/**
+	 * Normalize the {@code HAVING} criterion of a selector like its criterion.
+	 * It is not passed to {@link #processCriterion(Class, SqlCriterion)}, as its
+	 * properties are looked up among the projections first.
+	 */
+	private SqlCriterion processHaving(Selector<?> selector) {
+		return SqlCriterionNormalizer.normalize(selector.getHaving());
+	}
+
+	private SqlCriterion prepareCriterion(Class<?> entityType, SqlCriterion criterion) {
+		return SqlCriterionNormalizer.normalize(processCriterion(entityType, criterion));
+	}
+
+	/**
+	 * Check whether the query of a normalized criterion can be skipped since it
+	 * matches no rows.
+	 */
+	private boolean skipQuery(SqlCriterion criterion) {
+		if (SqlCriterionNormalizer.isFalse(criterion)) {
+			registry.recordSkippedQuery();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Ungrouped aggregate projections yield a row even when no rows match, so
+	 * their query is never skipped.
+	 */
+	private boolean skipQuery(SqlProjections projections, SqlCriterion criterion) {
+		return (!projections.hasAggregates() || projections.isGrouped()) && skipQuery(criterion);
+	}
+
+	/**
+	 * Split a normalized criterion whose {@code IN} list is longer than the
+	 * largest IN list bucket of the dialect into one criterion per chunk.
+	 */
+	private List<SqlCriterion> splitCriterion(SqlCriterion criterion) {
+		int maxSize = registry.getDialect().getMaxInListSize();
+		if (maxSize == Integer.MAX_VALUE) {
+			return Collections.singletonList(criterion);
+		}
+		return SqlCriterionNormalizer.splitInList(criterion, maxSize);
+	}
+
+	/**
+	 * Check whether the results of chunked queries can simply be concatenated,
+	 * which is not the case for ordered or paged results.
+	 */
+	private static boolean isUnordered(SqlOrderBy orderBy, RowBounds rowBounds) {
+		if (orderBy != null && !orderBy.asList().isEmpty()) {
+			return false;
+		}
+		return rowBounds == null
+				|| (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT);
+	}
+
+	private List<SqlPropertyMetadata> getIdProperties(Class<?> entityType) {
+		List<SqlPropertyMetadata> idProperties = registry.getContext(entityType).getEntity().getIdProperties();
+		if (idProperties.isEmpty()) {
+			throw new UnsupportedOperationException("No identifier property found: " + entityType.getName());
+		}
+		return idProperties;
+	}
+
+	/**
+	 * Get the identifier property values of an identifier, which is an entity
+	 * object, a map of values by property name, or the value of the only
+	 * identifier property.
+	 */
+	private List<Object> getIdValues(Class<?> entityType, List<SqlPropertyMetadata> idProperties, Object id) {
+		if (entityType.isInstance(id)) {
+			return idProperties.stream().map(pm -> pm.getAccessor().get(id)).collect(Collectors.toList());
+		}
+		if (idProperties.size() == 1) {
+			return Collections.singletonList(convertId(idProperties.get(0), id));
+		}
+		if (id instanceof Map) {
+			Map<?, ?> idMap = (Map<?, ?>) id;
+			return idProperties.stream().map(pm -> convertId(pm, idMap.get(pm.getName())))
+					.collect(Collectors.toList());
+		}
+		throw new IllegalArgumentException("Composite identifier must be an entity or a map: " + id);
+	}
+
+	/**
+	 * Convert a numeric identifier to the type of its property, for identifiers
+	 * to equal the values read from the rows.
+	 */
+	private static Object convertId(SqlPropertyMetadata idProperty, Object id) {
+		Class<?> type = Primitives.wrap(idProperty.getType());
+		if (!(id instanceof Number) || type.isInstance(id)) {
+			return id;
+		}
+		Number number = (Number) id;
+		if (type == Long.class) {
+			return number.longValue();
+		} else if (type == Integer.class) {
+			return number.intValue();
+		} else if (type == Short.class) {
+			return number.shortValue();
+		} else if (type == Byte.class) {
+			return number.byteValue();
+		} else if (type == Double.class) {
+			return number.doubleValue();
+		} else if (type == Float.class) {
+			return number.floatValue();
+		} else if (type == BigDecimal.class) {
+			return new BigDecimal(number.toString());
+		} else if (type == BigInteger.class) {
+			return new BigDecimal(number.toString()).toBigInteger();
+		}
+		return id;
+	}
+
+	private static Object getIdParameter(List<SqlPropertyMetadata> idProperties, List<Object> idValues) {
+		if (idProperties.size() == 1) {
+			return idValues.get(0);
+		}
+		Map<String, Object> parameter = Maps.newHashMapWithExpectedSize(idProperties.size());
+		for (int i = 0; i < idProperties.size(); ++i) {
+			parameter.put(idProperties.get(i).getName(), idValues.get(i));
+		}
+		return parameter;
+	}
+
+	private SqlOrderBy processOrderBy(Selector<?> selector) {
+		return processOrderBy(selector.getEntityType(), selector.getOrderBy());
+	}
+
+	private class SelectorImpl<T> implements Selector<T> {
+		private final Class<T> entityType;
+		private SqlCriterion criterion;
+		private SqlOrderBy orderBy;
+		private SqlCriterion having;
+		private boolean forUpdate;
+
+		SelectorImpl(Class<T> entityType) {
+			this.entityType = entityType;
+		}
+
+		@Override
+		public Class<T> getEntityType() {
+			return entityType;
+		}
+
+		@Override
+		public SqlRegistry getRegistry() {
+			return DefaultSqlDao.this.getRegistry();
+		}
+
+		@Override
+		public SqlSession getSession() {
+			return DefaultSqlDao.this.getSession();
+		}
+
+		@Override
+		public SqlCriterion getCriterion() {
+			return criterion;
+		}
+
+		@Override
+		public SqlOrderBy getOrderBy() {
+			return orderBy;
+		}
+
+		@Override
+		public SqlCriterion getHaving() {
+			return having;
+		}
+
+		@Override
+		public boolean isForUpdate() {
+			return forUpdate;
+		}
+
+		@Override
+		public Selector<T> where(SqlCriterion criterion) {
+			this.criterion = criterion;
+			return this;
+		}
+
+		@Override
+		public Selector<T> having(SqlCriterion having) {
+			this.having = having;
+			return this;
+		}
+
+		@Override
+		public Selector<T> orderBy(SqlOrderBy orderBy) {
+			this.orderBy = orderBy;
+			return this;
+		}
+
+		@Override
+		public Selector<T> forUpdate(boolean forUpdate) {
+			this.forUpdate = forUpdate;
+			return this;
+		}
+
+		@Override
+		public Optional<T> asOne() {
+			return Optional.ofNullable(selectOne(this));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <R> Optional<R> asOne(SqlProjections projections) {
+			return Optional.ofNullable(selectOne(this, projections)).map(value -> (R) value);
+		}
+
+		@Override
+		public List<T> asList() {
+			return selectList(this, null);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <R> List<R> asList(SqlProjections projections) {
+			return (List<R>) selectList(this, null, projections);
+		}
+
+		@Override
+		public <R> List<R> asList(SqlProjections projections, Class<R> resultType) {
+			return selectList(this, null, projections, resultType);
+		}
+
+		@Override
+		public List<T> asList(RowBounds rowBounds) {
+			return selectList(this, rowBounds);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <R> List<R> asList(RowBounds rowBounds, SqlProjections projections) {
+			return (List<R>) selectList(this, rowBounds, projections);
+		}
+
+		@Override
+		public BoundList<T> asBoundList(RowBounds rowBounds) {
+			return selectBoundList(this, rowBounds);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <R> BoundList<R> asBoundList(RowBounds rowBounds, SqlProjections projections) {
+			return (BoundList<R>) selectBoundList(this, rowBounds, projections);
+		}
+
+		@Override
+		public Slice<T> asSlice(String after, int limit) {
+			return selectSlice(this, after, limit);
+		}
+
+		@Override
+		public <K> Map<K, T> asMap(String mapKey) {
+			return selectMap(this, mapKey);
+		}
+
+		@Override
+		public SqlColumnResult asColumns(SqlProjections projections) {
+			return selectColumns(this, projections);
+		}
+
+		@Override
+		public Cursor<T> asCursor() {
+			return selectCursor(this);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <R> Cursor<R> asCursor(SqlProjections projections) {
+			return (Cursor<R>) selectCursor(this, projections);
+		}
+
+		@Override
+		public <R> Cursor<R> asCursor(SqlProjections projections, Class<R> resultType) {
+			return selectCursor(this, projections, resultType);
+		}
+	}
+}
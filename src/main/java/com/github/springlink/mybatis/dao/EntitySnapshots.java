@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+
+/**
+ * Column values of entity objects as they were loaded, used to find the
+ * properties changed since. Entity objects are held weakly and compared by
+ * identity.
+ */
+class EntitySnapshots {
+	private final Map<Object, Snapshot> snapshots = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * Take a snapshot of an entity object unless it already has one, a cached
+	 * object selected again keeps the values it was first loaded with.
+	 */
+	void capture(SqlEntityMetadata em, Object entity) {
+		if (entity != null && !snapshots.containsKey(entity)) {
+			List<SqlPropertyMetadata> properties = em.getProperties();
+			Object[] values = new Object[properties.size()];
+			for (int i = 0; i < values.length; ++i) {
+				SqlPropertyMetadata pm = properties.get(i);
+				if (pm.getReference() == null) {
+					values[i] = copy(pm.getAccessor().get(entity));
+				}
+			}
+			snapshots.putIfAbsent(entity, new Snapshot(em, values));
+		}
+	}
+
+	/**
+	 * Get the current values of the properties changed since the snapshot of an
+	 * entity object was taken.
+	 *
+	 * @return values by property name, or {@code null} if the object has no
+	 *         snapshot
+	 */
+	Map<String, Object> getChanges(SqlEntityMetadata em, Object entity) {
+		Snapshot snapshot = snapshots.get(entity);
+		if (snapshot == null || snapshot.entity != em) {
+			return null;
+		}
+		List<SqlPropertyMetadata> properties = em.getProperties();
+		Map<String, Object> changes = Maps.newLinkedHashMap();
+		synchronized (snapshot) {
+			for (int i = 0; i < properties.size(); ++i) {
+				SqlPropertyMetadata pm = properties.get(i);
+				if (pm.getReference() == null) {
+					Object value = pm.getAccessor().get(entity);
+					if (!Objects.deepEquals(value, snapshot.values[i])) {
+						changes.put(pm.getName(), value);
+					}
+				}
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Record property values written to the database in the snapshot of an
+	 * entity object.
+	 */
+	void update(SqlEntityMetadata em, Object entity, Map<String, Object> values) {
+		Snapshot snapshot = snapshots.get(entity);
+		if (snapshot == null || snapshot.entity != em) {
+			return;
+		}
+		List<SqlPropertyMetadata> properties = em.getProperties();
+		synchronized (snapshot) {
+			for (int i = 0; i < properties.size(); ++i) {
+				String name = properties.get(i).getName();
+				if (values.containsKey(name)) {
+					snapshot.values[i] = copy(values.get(name));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copy the mutable values commonly mapped to columns, others are assumed to
+	 * be immutable.
+	 */
+	private static Object copy(Object value) {
+		if (value instanceof Date) {
+			return ((Date) value).clone();
+		} else if (value instanceof byte[]) {
+			return Arrays.copyOf((byte[]) value, ((byte[]) value).length);
+		}
+		return value;
+	}
+
+	private static class Snapshot {
+		final SqlEntityMetadata entity;
+		final Object[] values;
+
+		Snapshot(SqlEntityMetadata entity, Object[] values) {
+			this.entity = entity;
+			this.values = values;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.executor.BatchResult;
+
+import com.google.common.collect.ImmutableList;
+
+import com.github.springlink.mybatis.util.Asserts;
+
+/**
+ * Result of a {@link SqlDao#batch(java.util.function.Consumer)} scope.
+ */
+public class SqlBatchResult {
+	private final List<BatchResult> batchResults;
+
+	public SqlBatchResult(List<BatchResult> batchResults) {
+		Asserts.notNull(batchResults, "batchResults");
+		this.batchResults = ImmutableList.copyOf(batchResults);
+	}
+
+	/**
+	 * Get the JDBC batches sent, consecutive statements with identical SQL share
+	 * one batch.
+	 *
+	 * @return batch results in execution order
+	 */
+	public List<BatchResult> getBatchResults() {
+		return batchResults;
+	}
+
+	public int getBatchCount() {
+		return batchResults.size();
+	}
+
+	/**
+	 * Get the update count of every statement executed in the scope.
+	 *
+	 * @return update counts in execution order, may contain
+	 *         {@link Statement#SUCCESS_NO_INFO}
+	 */
+	public int[] getUpdateCounts() {
+		int length = 0;
+		for (BatchResult batchResult : batchResults) {
+			length += batchResult.getUpdateCounts().length;
+		}
+		int[] updateCounts = new int[length];
+		int offset = 0;
+		for (BatchResult batchResult : batchResults) {
+			int[] counts = batchResult.getUpdateCounts();
+			System.arraycopy(counts, 0, updateCounts, offset, counts.length);
+			offset += counts.length;
+		}
+		return updateCounts;
+	}
+
+	/**
+	 * Get the sum of known update counts.
+	 *
+	 * @return affacted rows
+	 */
+	public int getUpdatedRows() {
+		int rows = 0;
+		for (int count : getUpdateCounts()) {
+			if (count > 0) {
+				rows += count;
+			}
+		}
+		return rows;
+	}
+}
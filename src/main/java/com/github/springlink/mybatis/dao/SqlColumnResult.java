@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.lang.reflect.Array;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.util.Asserts;
+
+/**
+ * Columnar result of a {@link SqlDao.Selector#asColumns(com.github.springlink.mybatis.sql.SqlProjections)}
+ * select, holding one array per projection name. Integral and floating point
+ * columns are held in {@code long[]}, {@code int[]} or {@code double[]} arrays
+ * with {@code 0} in place of {@code null}, other columns in {@code Object[]}
+ * arrays. The arrays are returned without copying.
+ */
+public class SqlColumnResult {
+	private final List<String> names;
+	private final int size;
+	private final Map<String, Object> arrays = Maps.newHashMap();
+	private final Map<String, BitSet> nulls = Maps.newHashMap();
+
+	SqlColumnResult(List<String> names, int size, Object[] arrays, BitSet[] nulls) {
+		this.names = ImmutableList.copyOf(names);
+		this.size = size;
+		for (int i = 0; i < names.size(); ++i) {
+			this.arrays.put(names.get(i), arrays != null ? arrays[i] : null);
+			this.nulls.put(names.get(i), nulls != null ? nulls[i] : null);
+		}
+	}
+
+	public List<String> getNames() {
+		return names;
+	}
+
+	/**
+	 * Get the number of rows.
+	 *
+	 * @return row count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the array of a column as is.
+	 *
+	 * @param name projection name
+	 * @return {@code long[]}, {@code int[]}, {@code double[]} or {@code Object[]}
+	 *         array, {@code null} if there are no rows
+	 */
+	public Object getArray(String name) {
+		checkName(name);
+		return arrays.get(name);
+	}
+
+	/**
+	 * Get the values of an integral column.
+	 *
+	 * @param name projection name
+	 * @return values, widened when the column is held in an {@code int[]} array
+	 */
+	public long[] getLongs(String name) {
+		Object array = getArray(name);
+		if (array == null) {
+			return new long[0];
+		} else if (array instanceof long[]) {
+			return (long[]) array;
+		} else if (array instanceof int[]) {
+			int[] ints = (int[]) array;
+			long[] longs = new long[ints.length];
+			for (int i = 0; i < ints.length; ++i) {
+				longs[i] = ints[i];
+			}
+			return longs;
+		}
+		throw new IllegalArgumentException("Not an integral column: " + name);
+	}
+
+	public int[] getInts(String name) {
+		Object array = getArray(name);
+		if (array == null) {
+			return new int[0];
+		} else if (array instanceof int[]) {
+			return (int[]) array;
+		}
+		throw new IllegalArgumentException("Not an int column: " + name);
+	}
+
+	/**
+	 * Get the values of a numeric column.
+	 *
+	 * @param name projection name
+	 * @return values, widened when the column is held in a {@code long[]} or
+	 *         {@code int[]} array
+	 */
+	public double[] getDoubles(String name) {
+		Object array = getArray(name);
+		if (array == null) {
+			return new double[0];
+		} else if (array instanceof double[]) {
+			return (double[]) array;
+		} else if (array instanceof long[] || array instanceof int[]) {
+			double[] doubles = new double[size];
+			for (int i = 0; i < size; ++i) {
+				doubles[i] = array instanceof long[] ? ((long[]) array)[i] : ((int[]) array)[i];
+			}
+			return doubles;
+		}
+		throw new IllegalArgumentException("Not a numeric column: " + name);
+	}
+
+	/**
+	 * Get the values of a column as objects.
+	 *
+	 * @param name projection name
+	 * @return values, boxed when the column is held in a primitive array
+	 */
+	public Object[] getObjects(String name) {
+		Object array = getArray(name);
+		if (array == null) {
+			return new Object[0];
+		} else if (array instanceof Object[]) {
+			return (Object[]) array;
+		}
+		Object[] objects = new Object[size];
+		for (int i = 0; i < size; ++i) {
+			if (!isNull(name, i)) {
+				objects[i] = Array.get(array, i);
+			}
+		}
+		return objects;
+	}
+
+	public boolean isNull(String name, int row) {
+		Object array = getArray(name);
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Invalid row: " + row);
+		}
+		if (array instanceof Object[]) {
+			return ((Object[]) array)[row] == null;
+		}
+		BitSet bits = nulls.get(name);
+		return bits != null && bits.get(row);
+	}
+
+	private void checkName(String name) {
+		Asserts.notNull(name, "name");
+		if (!arrays.containsKey(name)) {
+			throw new IllegalArgumentException("No such column: " + name);
+		}
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+/**
+ * How a {@link SqlDao.Selector#asBoundList(org.apache.ibatis.session.RowBounds)}
+ * obtains the total row count along with the page.
+ */
+public enum SqlCountStrategy {
+	/**
+	 * Select the count, then the page, in the same session.
+	 */
+	SEQUENTIAL,
+	/**
+	 * Select the page with a {@code COUNT(*) OVER()} column in one query, falls
+	 * back to {@link #SEQUENTIAL} when the dialect does not support window
+	 * functions.
+	 */
+	WINDOW,
+	/**
+	 * Select the count in a separate session concurrently with the page. The count
+	 * does not see uncommitted changes of the current transaction.
+	 */
+	PARALLEL
+}
@@ -1,408 +1,661 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.dao;
-
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
-
-import javax.annotation.Nullable;
-
-import org.apache.ibatis.reflection.MetaObject;
-import org.apache.ibatis.session.RowBounds;
-import org.apache.ibatis.session.SqlSession;
-
-import com.github.springlink.mybatis.metadata.SqlMetadata;
-import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
-import com.github.springlink.mybatis.registry.SqlRegistry;
-import com.github.springlink.mybatis.sql.SqlCriterion;
-import com.github.springlink.mybatis.sql.SqlOrderBy;
-import com.github.springlink.mybatis.sql.SqlProjections;
-import com.github.springlink.mybatis.sql.SqlUpdate;
-import com.github.springlink.mybatis.util.BoundList;
-
-public interface SqlDao {
-	/**
-	 * Retrieves the current registry.
-	 * 
-	 * @return the SqlRegistry instance
-	 */
-	SqlRegistry getRegistry();
-
-	/**
-	 * Retrieves the current session.
-	 * 
-	 * @return the SqlSession instance
-	 */
-	SqlSession getSession();
-
-	/**
-	 * Execute a insert operation for the entity type.
-	 * 
-	 * @param <T>        the entity type
-	 * @param entityType the entity class
-	 * @param value      an object contains entity values
-	 * @return affacted rows
-	 */
-	<T> int insert(Class<T> entityType, @Nullable T value);
-
-	/**
-	 * Execute a delete operation for the entity type.
-	 * 
-	 * @param entityType entity type
-	 * @param criterion  conditions
-	 * @return affacted rows
-	 */
-	int delete(Class<?> entityType, @Nullable SqlCriterion criterion);
-
-	/**
-	 * Execute a delete operation for the entity type.
-	 * 
-	 * @param <T>        entity type
-	 * @param entityType entity class
-	 * @param supplier   conditions supplier
-	 * @return affacted rows
-	 */
-	default <T> int delete(Class<T> entityType,
-			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
-		return delete(entityType, SqlCriterion.lambda(entityType, supplier));
-	}
-
-	/**
-	 * Execute a count operation for the entity type.
-	 * 
-	 * @param entityType entity class
-	 * @param criterion  conditions
-	 * @return count of the matching rows
-	 */
-	long count(Class<?> entityType, @Nullable SqlCriterion criterion);
-
-	/**
-	 * Execute a count operation for the entity type.
-	 * 
-	 * @param <T>        entity type
-	 * @param entityType entity class
-	 * @param supplier   conditions supplier
-	 * @return count of the matching rows
-	 */
-	default <T> long count(Class<T> entityType,
-			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
-		return count(entityType, SqlCriterion.lambda(entityType, supplier));
-	}
-
-	/**
-	 * Execute a exists operation for the entity type.
-	 * 
-	 * @param entityType entity class
-	 * @param criterion  conditions
-	 * @return whether a matching rows was found
-	 */
-	boolean exists(Class<?> entityType, @Nullable SqlCriterion criterion);
-
-	/**
-	 * Execute a exists operation for the entity type.
-	 * 
-	 * @param <T>        entity type
-	 * @param entityType entity class
-	 * @param supplier   conditions supplier
-	 * @return whether a matching rows was found
-	 */
-	default <T> boolean exists(Class<T> entityType,
-			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
-		return exists(entityType, SqlCriterion.lambda(entityType, supplier));
-	}
-
-	/**
-	 * Execute a update operation for the entity type.
-	 * 
-	 * @param <T>        entity type
-	 * @param entityType entity class
-	 * @param update     update descriptor
-	 * @param criterion  conditions
-	 * @return affacted rows
-	 */
-	<T> int update(Class<T> entityType, @Nullable SqlUpdate update, @Nullable SqlCriterion criterion);
-
-	/**
-	 * Execute a update operation for the entity type.
-	 * 
-	 * @param <T>               entity type
-	 * @param entityType        entity class
-	 * @param updateSupplier    update descriptor supplier
-	 * @param criterionSupplier conditions supplier
-	 * @return affacted rows
-	 */
-	default <T> int update(Class<T> entityType,
-			Function<SqlUpdate.Lambda<T>, ? extends SqlUpdate> updateSupplier,
-			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> criterionSupplier) {
-		return update(entityType, updateSupplier.apply(SqlUpdate.create(entityType)),
-				SqlCriterion.lambda(entityType, criterionSupplier));
-	}
-
-	/**
-	 * Execute a update operation for the entity type.
-	 * 
-	 * @param <T>         entity type
-	 * @param entityType  entity class
-	 * @param entity      an object contains entity values
-	 * @param ignoreNulls decide how to handle null values, set true if you want to
-	 *                    ignore null properties, or an nullify operation will be
-	 *                    applied
-	 * @param criterion   conditions
-	 * @return affacted rows
-	 */
-	default <T> int updateEntity(Class<T> entityType, @Nullable T entity, boolean ignoreNulls,
-			@Nullable SqlCriterion criterion) {
-		if (entity == null) {
-			return 0;
-		}
-		SqlUpdate update = SqlUpdate.create();
-		MetaObject metaEntity = getSession().getConfiguration().newMetaObject(entity);
-		for (SqlPropertyMetadata pm : SqlMetadata.forEntityType(entityType).getProperties()) {
-			if (pm.getReference() == null) {
-				String propName = pm.getName();
-				Object propValue = metaEntity.getValue(propName);
-				if (propValue != null) {
-					update.set(propName, propValue);
-				} else if (!ignoreNulls) {
-					update.nullify(propName);
-				}
-			}
-		}
-		return update(entityType, update, criterion);
-	}
-
-	/**
-	 * Execute a update operation for the entity type.
-	 * 
-	 * @param <T>               entity type
-	 * @param entityType        entity class
-	 * @param entity            an object contains entity values
-	 * @param ignoreNulls       decide how to handle null values, set true if you
-	 *                          want to ignore null properties, or an nullify
-	 *                          operation will be applied
-	 * @param criterionSupplier conditions supplier
-	 * @return affacted rows
-	 */
-	default <T> int updateEntity(Class<T> entityType, @Nullable T entity, boolean ignoreNulls,
-			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> criterionSupplier) {
-		return updateEntity(entityType, entity, ignoreNulls,
-				SqlCriterion.lambda(entityType, criterionSupplier));
-	}
-
-	/**
-	 * Execute a update operation for the entity type, ignoring null properties.
-	 * 
-	 * @param <T>        entity type
-	 * @param entityType entity class
-	 * @param entity     an object contains entity values
-	 * @param criterion  conditions
-	 * @return affacted rows
-	 */
-	default <T> int updateEntity(Class<T> entityType, T entity, @Nullable SqlCriterion criterion) {
-		return updateEntity(entityType, entity, true, criterion);
-	}
-
-	/**
-	 * Execute a update operation for the entity type, ignoring null properties.
-	 * 
-	 * @param <T>               entity type
-	 * @param entityType        entity class
-	 * @param entity            an object contains entity values
-	 * @param criterionSupplier conditions supplier
-	 * @return affacted rows
-	 */
-	default <T> int updateEntity(Class<T> entityType, @Nullable T entity,
-			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> criterionSupplier) {
-		return updateEntity(entityType, entity, SqlCriterion.lambda(entityType, criterionSupplier));
-	}
-
-	/**
-	 * Create a selector for the entity type.
-	 * 
-	 * @param <T>        entity type
-	 * @param entityType entity class
-	 * @return selector
-	 */
-	<T> Selector<T> select(Class<T> entityType);
-
-	interface Selector<T> {
-		/**
-		 * Retrieve the current entity class.
-		 * 
-		 * @return entity class
-		 */
-		Class<T> getEntityType();
-
-		/**
-		 * Retrieve the current registry.
-		 * 
-		 * @return SqlRegistry instance
-		 */
-		SqlRegistry getRegistry();
-
-		/**
-		 * Retrieve the current session.
-		 * 
-		 * @return SqlSession instance
-		 */
-		SqlSession getSession();
-
-		/**
-		 * Retrieve the current conditions.
-		 * 
-		 * @return conditions
-		 */
-		SqlCriterion getCriterion();
-
-		/**
-		 * Retrieve the current orders.
-		 * 
-		 * @return orders
-		 */
-		SqlOrderBy getOrderBy();
-
-		/**
-		 * Retrieve whether forUpdate mode is activated.
-		 * 
-		 * @return whether forUpdate mode is activated
-		 */
-		boolean isForUpdate();
-
-		/**
-		 * Change the current conditions.
-		 * 
-		 * @param criterion conditions
-		 * @return the selector itself
-		 */
-		Selector<T> where(@Nullable SqlCriterion criterion);
-
-		/**
-		 * Change the current conditions.
-		 * 
-		 * @param supplier conditions supplier
-		 * @return the selector itself
-		 */
-		default Selector<T> where(Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
-			return where(SqlCriterion.lambda(getEntityType(), supplier));
-		}
-
-		/**
-		 * Change the current orders.
-		 * 
-		 * @param order orders
-		 * @return the selector itself
-		 */
-		Selector<T> orderBy(@Nullable SqlOrderBy order);
-
-		/**
-		 * Change the current orders.
-		 * 
-		 * @param supplier orders supplier
-		 * @return the selector itself
-		 */
-		default Selector<T> orderBy(Function<SqlOrderBy.Lambda<T>, ? extends SqlOrderBy> supplier) {
-			return orderBy(supplier.apply(SqlOrderBy.create(getEntityType())));
-		}
-
-		/**
-		 * Change the current forUpdate mode
-		 * 
-		 * @param forUpdate whether to activate forUpdate mode
-		 * @return the selector itself
-		 */
-		Selector<T> forUpdate(boolean forUpdate);
-
-		/**
-		 * Activate forUpdate mode.
-		 * 
-		 * @return the selector itself
-		 */
-		default Selector<T> forUpdate() {
-			return forUpdate(true);
-		}
-
-		/**
-		 * Execute a select operation with one row expected.
-		 * @return optional entity object
-		 */
-		Optional<T> asOne();
-
-		/**
-		 * Execute a select operation with one row expected.
-		 * @param <R> return type
-		 * @param projections projections
-		 * @return a map, or a single value for single projection
-		 */
-		<R> Optional<R> asOne(SqlProjections projections);
-
-		/**
-		 * Execute a select operation with one row expected.
-		 * @param <R> return type
-		 * @param supplier projections supplier
-		 * @return a map, or a single value for a single projection
-		 */
-		default <R> Optional<R> asOne(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
-			return asOne(supplier.apply(SqlProjections.create(getEntityType())));
-		}
-
-		/**
-		 * Execute a select operation.
-		 * @return entity list
-		 */
-		List<T> asList();
-
-		/**
-		 * Execute a select operation.
-		 * @param <R> return type
-		 * @param projections projections
-		 * @return a map list, or a value list for single projection
-		 */
-		<R> List<R> asList(SqlProjections projections);
-
-		/**
-		 * Execute a select operation.
-		 * @param <R> return type
-		 * @param supplier projections supplier
-		 * @return a map list, or a value list for single projection
-		 */
-		default <R> List<R> asList(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
-			return asList(supplier.apply(SqlProjections.create(getEntityType())));
-		}
-
-		List<T> asList(RowBounds rowBounds);
-
-		<R> List<R> asList(RowBounds rowBounds, SqlProjections projections);
-
-		default <R> List<R> asList(RowBounds rowBounds,
-				Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
-			return asList(rowBounds, supplier.apply(SqlProjections.create(getEntityType())));
-		}
-
-		BoundList<T> asBoundList(RowBounds rowBounds);
-
-		<R> BoundList<R> asBoundList(RowBounds rowBounds, SqlProjections projections);
-
-		default <R> BoundList<R> asBoundList(RowBounds rowBounds,
-				Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
-			return asBoundList(rowBounds, supplier.apply(SqlProjections.create(getEntityType())));
-		}
-
-		<K> Map<K, T> asMap(String mapKey);
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+
+import com.github.springlink.mybatis.metadata.SqlMetadata;
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+import com.github.springlink.mybatis.registry.SqlRegistry;
+import com.github.springlink.mybatis.registry.SqlRowMapper;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlUpdate;
+import com.github.springlink.mybatis.util.BoundList;
+import com.github.springlink.mybatis.util.Cursors;
+import com.github.springlink.mybatis.util.LongObjectMap;
+import com.github.springlink.mybatis.util.Slice;
+
+public interface SqlDao {
+	/**
+	 * Retrieves the current registry.
+	 * 
+	 * @return the SqlRegistry instance
+	 */
+	SqlRegistry getRegistry();
+
+	/**
+	 * Retrieves the current session.
+	 * 
+	 * @return the SqlSession instance
+	 */
+	SqlSession getSession();
+
+	/**
+	 * Execute a insert operation for the entity type.
+	 * 
+	 * @param <T>        the entity type
+	 * @param entityType the entity class
+	 * @param value      an object contains entity values
+	 * @return affacted rows
+	 */
+	<T> int insert(Class<T> entityType, @Nullable T value);
+
+	/**
+	 * Execute multi-row insert operations for the entity type, the values are sent
+	 * in as few statements as the parameter and packet size limits of the dialect
+	 * allow. Generated keys are set back to the values when the driver returns
+	 * them.
+	 * 
+	 * @param <T>        the entity type
+	 * @param entityType the entity class
+	 * @param values     objects contain entity values, null elements are ignored
+	 * @return affacted rows
+	 */
+	<T> int insertAll(Class<T> entityType, @Nullable Iterable<? extends T> values);
+
+	/**
+	 * Execute an {@code INSERT ... SELECT} operation copying the rows of a
+	 * selector into the table of the target entity within the database. The
+	 * projection names are the target properties the projected values are
+	 * inserted into, criterion, grouping and having of the selector apply while
+	 * its order and row bounds are ignored.
+	 * 
+	 * @param <T>     the target entity type
+	 * @param <S>     the source entity type
+	 * @param target  the target entity class
+	 * @param source  selector of the source rows
+	 * @param mapping projections of the source named by target properties
+	 * @return affacted rows
+	 */
+	<T, S> int insertFrom(Class<T> target, Selector<S> source, SqlProjections mapping);
+
+	default <T, S> int insertFrom(Class<T> target, Selector<S> source,
+			Function<SqlProjections.Lambda<S>, ? extends SqlProjections> supplier) {
+		return insertFrom(target, source, supplier.apply(SqlProjections.create(source.getEntityType())));
+	}
+
+	/**
+	 * Execute a delete operation for the entity type.
+	 * 
+	 * @param entityType entity type
+	 * @param criterion  conditions
+	 * @return affacted rows
+	 */
+	int delete(Class<?> entityType, @Nullable SqlCriterion criterion);
+
+	/**
+	 * Execute a delete operation for the entity type.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param supplier   conditions supplier
+	 * @return affacted rows
+	 */
+	default <T> int delete(Class<T> entityType,
+			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
+		return delete(entityType, SqlCriterion.lambda(entityType, supplier));
+	}
+
+	/**
+	 * Execute a count operation for the entity type.
+	 * 
+	 * @param entityType entity class
+	 * @param criterion  conditions
+	 * @return count of the matching rows
+	 */
+	long count(Class<?> entityType, @Nullable SqlCriterion criterion);
+
+	/**
+	 * Execute a count operation for the entity type.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param supplier   conditions supplier
+	 * @return count of the matching rows
+	 */
+	default <T> long count(Class<T> entityType,
+			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
+		return count(entityType, SqlCriterion.lambda(entityType, supplier));
+	}
+
+	/**
+	 * Execute a exists operation for the entity type.
+	 * 
+	 * @param entityType entity class
+	 * @param criterion  conditions
+	 * @return whether a matching rows was found
+	 */
+	boolean exists(Class<?> entityType, @Nullable SqlCriterion criterion);
+
+	/**
+	 * Execute a exists operation for the entity type.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param supplier   conditions supplier
+	 * @return whether a matching rows was found
+	 */
+	default <T> boolean exists(Class<T> entityType,
+			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
+		return exists(entityType, SqlCriterion.lambda(entityType, supplier));
+	}
+
+	/**
+	 * Execute a update operation for the entity type.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param update     update descriptor
+	 * @param criterion  conditions
+	 * @return affacted rows
+	 */
+	<T> int update(Class<T> entityType, @Nullable SqlUpdate update, @Nullable SqlCriterion criterion);
+
+	/**
+	 * Execute a update operation for the entity type.
+	 * 
+	 * @param <T>               entity type
+	 * @param entityType        entity class
+	 * @param updateSupplier    update descriptor supplier
+	 * @param criterionSupplier conditions supplier
+	 * @return affacted rows
+	 */
+	default <T> int update(Class<T> entityType,
+			Function<SqlUpdate.Lambda<T>, ? extends SqlUpdate> updateSupplier,
+			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> criterionSupplier) {
+		return update(entityType, updateSupplier.apply(SqlUpdate.create(entityType)),
+				SqlCriterion.lambda(entityType, criterionSupplier));
+	}
+
+	/**
+	 * Execute a update operation for the entity type.
+	 * 
+	 * @param <T>         entity type
+	 * @param entityType  entity class
+	 * @param entity      an object contains entity values
+	 * @param ignoreNulls decide how to handle null values, set true if you want to
+	 *                    ignore null properties, or an nullify operation will be
+	 *                    applied
+	 * @param criterion   conditions
+	 * @return affacted rows
+	 */
+	default <T> int updateEntity(Class<T> entityType, @Nullable T entity, boolean ignoreNulls,
+			@Nullable SqlCriterion criterion) {
+		if (entity == null) {
+			return 0;
+		}
+		SqlUpdate update = SqlUpdate.create();
+		for (SqlPropertyMetadata pm : SqlMetadata.forEntityType(entityType).getProperties()) {
+			if (pm.getReference() == null) {
+				String propName = pm.getName();
+				Object propValue = pm.getAccessor().get(entity);
+				if (propValue != null) {
+					update.set(propName, propValue);
+				} else if (!ignoreNulls) {
+					update.nullify(propName);
+				}
+			}
+		}
+		return update(entityType, update, criterion);
+	}
+
+	/**
+	 * Execute a update operation for the entity type.
+	 * 
+	 * @param <T>               entity type
+	 * @param entityType        entity class
+	 * @param entity            an object contains entity values
+	 * @param ignoreNulls       decide how to handle null values, set true if you
+	 *                          want to ignore null properties, or an nullify
+	 *                          operation will be applied
+	 * @param criterionSupplier conditions supplier
+	 * @return affacted rows
+	 */
+	default <T> int updateEntity(Class<T> entityType, @Nullable T entity, boolean ignoreNulls,
+			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> criterionSupplier) {
+		return updateEntity(entityType, entity, ignoreNulls,
+				SqlCriterion.lambda(entityType, criterionSupplier));
+	}
+
+	/**
+	 * Execute a update operation for the entity type, ignoring null properties.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param entity     an object contains entity values
+	 * @param criterion  conditions
+	 * @return affacted rows
+	 */
+	default <T> int updateEntity(Class<T> entityType, T entity, @Nullable SqlCriterion criterion) {
+		return updateEntity(entityType, entity, true, criterion);
+	}
+
+	/**
+	 * Execute a update operation for the entity type, ignoring null properties.
+	 * 
+	 * @param <T>               entity type
+	 * @param entityType        entity class
+	 * @param entity            an object contains entity values
+	 * @param criterionSupplier conditions supplier
+	 * @return affacted rows
+	 */
+	default <T> int updateEntity(Class<T> entityType, @Nullable T entity,
+			Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> criterionSupplier) {
+		return updateEntity(entityType, entity, SqlCriterion.lambda(entityType, criterionSupplier));
+	}
+
+	/**
+	 * Select the entity with the given identifier, using a statement rendered
+	 * once for the identifier properties. Results are kept in the second-level
+	 * cache of the entity, if any, per identifier.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param id         identifier value, or an entity object or a map of values
+	 *                   by property name for a composite identifier
+	 * @return optional entity object
+	 */
+	<T> Optional<T> findById(Class<T> entityType, Object id);
+
+	/**
+	 * Select the entities with the given identifiers. Identifiers present in the
+	 * second-level cache of the entity are read through it, the others are looked
+	 * up in chunks.
+	 * 
+	 * @param <K>        identifier type
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param ids        identifiers as accepted by
+	 *                   {@link #findById(Class, Object)}, null elements are
+	 *                   ignored
+	 * @return entity objects by the given identifiers in their iteration order,
+	 *         identifiers without a row are left out
+	 */
+	<K, T> Map<K, T> findAllByIds(Class<T> entityType, @Nullable Collection<? extends K> ids);
+
+	/**
+	 * Select the entities with the given identifiers of an entity with a single
+	 * numeric identifier property, binding the identifiers without boxing them.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param ids        identifiers
+	 * @return entity objects by identifier, identifiers without a row are left
+	 *         out
+	 */
+	<T> LongObjectMap<T> findAllByIds(Class<T> entityType, long[] ids);
+
+	/**
+	 * Select the entities with the given identifiers of an entity with a single
+	 * numeric identifier property, binding the identifiers without boxing them.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @param ids        identifiers
+	 * @return entity objects by identifier, identifiers without a row are left
+	 *         out
+	 */
+	<T> LongObjectMap<T> findAllByIds(Class<T> entityType, int[] ids);
+
+	/**
+	 * Execute the operations of the callback with a batch executor sharing the
+	 * connection and transaction of this DAO, which must be in an active
+	 * transaction. Consecutive statements with identical SQL are sent as one JDBC
+	 * batch, statements are never reordered, and pending statements are flushed
+	 * before any select. Second level caches are bypassed inside the callback,
+	 * the caches of the modified entities are flushed when this DAO's session
+	 * commits. The affacted rows returned inside the callback are
+	 * {@link org.apache.ibatis.executor.BatchExecutor#BATCH_UPDATE_RETURN_VALUE},
+	 * the per-statement update counts are those of the result.
+	 * 
+	 * @param callback operations to execute
+	 * @return update counts and JDBC batches sent
+	 */
+	SqlBatchResult batch(Consumer<SqlDao> callback);
+
+	/**
+	 * Create a selector for the entity type.
+	 * 
+	 * @param <T>        entity type
+	 * @param entityType entity class
+	 * @return selector
+	 */
+	<T> Selector<T> select(Class<T> entityType);
+
+	interface Selector<T> {
+		/**
+		 * Retrieve the current entity class.
+		 * 
+		 * @return entity class
+		 */
+		Class<T> getEntityType();
+
+		/**
+		 * Retrieve the current registry.
+		 * 
+		 * @return SqlRegistry instance
+		 */
+		SqlRegistry getRegistry();
+
+		/**
+		 * Retrieve the current session.
+		 * 
+		 * @return SqlSession instance
+		 */
+		SqlSession getSession();
+
+		/**
+		 * Retrieve the current conditions.
+		 * 
+		 * @return conditions
+		 */
+		SqlCriterion getCriterion();
+
+		/**
+		 * Retrieve the current orders.
+		 * 
+		 * @return orders
+		 */
+		SqlOrderBy getOrderBy();
+
+		/**
+		 * Retrieve the current conditions of projection groups.
+		 * 
+		 * @return conditions
+		 */
+		SqlCriterion getHaving();
+
+		/**
+		 * Retrieve whether forUpdate mode is activated.
+		 * 
+		 * @return whether forUpdate mode is activated
+		 */
+		boolean isForUpdate();
+
+		/**
+		 * Change the current conditions.
+		 * 
+		 * @param criterion conditions
+		 * @return the selector itself
+		 */
+		Selector<T> where(@Nullable SqlCriterion criterion);
+
+		/**
+		 * Change the current conditions.
+		 * 
+		 * @param supplier conditions supplier
+		 * @return the selector itself
+		 */
+		default Selector<T> where(Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
+			return where(SqlCriterion.lambda(getEntityType(), supplier));
+		}
+
+		/**
+		 * Change the current conditions of projection groups, rendered as
+		 * {@code HAVING} clause of projection selects. Properties are looked up
+		 * among the projection names first, so aggregates can be filtered by name.
+		 * 
+		 * @param criterion conditions
+		 * @return the selector itself
+		 */
+		Selector<T> having(@Nullable SqlCriterion criterion);
+
+		/**
+		 * Change the current conditions of projection groups.
+		 * 
+		 * @param supplier conditions supplier
+		 * @return the selector itself
+		 */
+		default Selector<T> having(Function<SqlCriterion.Lambda<T>, ? extends SqlCriterion> supplier) {
+			return having(SqlCriterion.lambda(getEntityType(), supplier));
+		}
+
+		/**
+		 * Change the current orders.
+		 * 
+		 * @param order orders
+		 * @return the selector itself
+		 */
+		Selector<T> orderBy(@Nullable SqlOrderBy order);
+
+		/**
+		 * Change the current orders.
+		 * 
+		 * @param supplier orders supplier
+		 * @return the selector itself
+		 */
+		default Selector<T> orderBy(Function<SqlOrderBy.Lambda<T>, ? extends SqlOrderBy> supplier) {
+			return orderBy(supplier.apply(SqlOrderBy.create(getEntityType())));
+		}
+
+		/**
+		 * Change the current forUpdate mode
+		 * 
+		 * @param forUpdate whether to activate forUpdate mode
+		 * @return the selector itself
+		 */
+		Selector<T> forUpdate(boolean forUpdate);
+
+		/**
+		 * Activate forUpdate mode.
+		 * 
+		 * @return the selector itself
+		 */
+		default Selector<T> forUpdate() {
+			return forUpdate(true);
+		}
+
+		/**
+		 * Execute a select operation with one row expected.
+		 * @return optional entity object
+		 */
+		Optional<T> asOne();
+
+		/**
+		 * Execute a select operation with one row expected.
+		 * @param <R> return type
+		 * @param projections projections
+		 * @return a map, or a single value for single projection
+		 */
+		<R> Optional<R> asOne(SqlProjections projections);
+
+		/**
+		 * Execute a select operation with one row expected.
+		 * @param <R> return type
+		 * @param supplier projections supplier
+		 * @return a map, or a single value for a single projection
+		 */
+		default <R> Optional<R> asOne(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asOne(supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		/**
+		 * Execute a select operation.
+		 * @return entity list
+		 */
+		List<T> asList();
+
+		/**
+		 * Execute a select operation.
+		 * @param <R> return type
+		 * @param projections projections
+		 * @return a map list, or a value list for single projection
+		 */
+		<R> List<R> asList(SqlProjections projections);
+
+		/**
+		 * Execute a select operation.
+		 * @param <R> return type
+		 * @param supplier projections supplier
+		 * @return a map list, or a value list for single projection
+		 */
+		default <R> List<R> asList(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asList(supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		/**
+		 * Execute a select operation, mapping every row of projections straight
+		 * into a result object, see {@link SqlRowMapper}.
+		 * @param <R> result type
+		 * @param projections projections
+		 * @param resultType scalar, bean or constructor mapped result type
+		 * @return result list
+		 */
+		<R> List<R> asList(SqlProjections projections, Class<R> resultType);
+
+		default <R> List<R> asList(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier,
+				Class<R> resultType) {
+			return asList(supplier.apply(SqlProjections.create(getEntityType())), resultType);
+		}
+
+		List<T> asList(RowBounds rowBounds);
+
+		<R> List<R> asList(RowBounds rowBounds, SqlProjections projections);
+
+		default <R> List<R> asList(RowBounds rowBounds,
+				Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asList(rowBounds, supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		BoundList<T> asBoundList(RowBounds rowBounds);
+
+		<R> BoundList<R> asBoundList(RowBounds rowBounds, SqlProjections projections);
+
+		default <R> BoundList<R> asBoundList(RowBounds rowBounds,
+				Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asBoundList(rowBounds, supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		/**
+		 * Execute a select operation with keyset pagination. The rows are ordered
+		 * by the order by properties followed by the identifier properties, and the
+		 * slice starts right after the row a continuation token was taken from, so
+		 * the cost of a slice does not depend on its depth. The entity must declare
+		 * a unique identifier with
+		 * {@link com.github.springlink.mybatis.annotation.SqlEntity#uniqueId()}.
+		 * @param after continuation token of the previous slice, {@code null} for the
+		 *              first slice
+		 * @param limit maximum number of rows
+		 * @return entity slice
+		 */
+		Slice<T> asSlice(@Nullable String after, int limit);
+
+		<K> Map<K, T> asMap(String mapKey);
+
+		/**
+		 * Execute a select operation, reading the rows of projections into one
+		 * array per projection name without creating an object per row.
+		 * @param projections projections
+		 * @return columnar result
+		 */
+		SqlColumnResult asColumns(SqlProjections projections);
+
+		default SqlColumnResult asColumns(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asColumns(supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor. The
+		 * cursor must be consumed and closed while the session is still open, i.e.
+		 * within a transaction when using a managed session.
+		 * @return entity cursor
+		 */
+		Cursor<T> asCursor();
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor.
+		 * @param <R> return type
+		 * @param projections projections
+		 * @return a map cursor, or a value cursor for single projection
+		 */
+		<R> Cursor<R> asCursor(SqlProjections projections);
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor.
+		 * @param <R> return type
+		 * @param supplier projections supplier
+		 * @return a map cursor, or a value cursor for single projection
+		 */
+		default <R> Cursor<R> asCursor(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asCursor(supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor and
+		 * mapping every row of projections straight into a result object.
+		 * @param <R> result type
+		 * @param projections projections
+		 * @param resultType scalar, bean or constructor mapped result type
+		 * @return result cursor
+		 */
+		<R> Cursor<R> asCursor(SqlProjections projections, Class<R> resultType);
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor. The
+		 * stream must be closed after use.
+		 * @return entity stream
+		 */
+		default Stream<T> asStream() {
+			return Cursors.stream(asCursor());
+		}
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor. The
+		 * stream must be closed after use.
+		 * @param <R> return type
+		 * @param projections projections
+		 * @return a map stream, or a value stream for single projection
+		 */
+		default <R> Stream<R> asStream(SqlProjections projections) {
+			return Cursors.stream(asCursor(projections));
+		}
+
+		/**
+		 * Execute a select operation, fetching rows lazily through a cursor. The
+		 * stream must be closed after use.
+		 * @param <R> return type
+		 * @param supplier projections supplier
+		 * @return a map stream, or a value stream for single projection
+		 */
+		default <R> Stream<R> asStream(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier) {
+			return asStream(supplier.apply(SqlProjections.create(getEntityType())));
+		}
+
+		default <R> Stream<R> asStream(SqlProjections projections, Class<R> resultType) {
+			return Cursors.stream(asCursor(projections, resultType));
+		}
+
+		default <R> Stream<R> asStream(Function<SqlProjections.Lambda<T>, ? extends SqlProjections> supplier,
+				Class<R> resultType) {
+			return asStream(supplier.apply(SqlProjections.create(getEntityType())), resultType);
+		}
+	}
+}
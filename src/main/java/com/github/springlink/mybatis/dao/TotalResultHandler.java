@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.registry.ResultSetRow;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.registry.SqlEntityRowMapper;
+
+/**
+ * Maps every row of a page with the entity result map and reads the total row
+ * count selected by a window function from its own column, each row carrying
+ * the same total.
+ */
+class TotalResultHandler implements ResultHandler<ResultSetRow> {
+	private final Configuration configuration;
+	private final ResultMap resultMap;
+	private final List<Object> rows = Lists.newArrayList();
+	private SqlEntityRowMapper mapper;
+	private int totalColumn;
+	private long total;
+
+	TotalResultHandler(Configuration configuration, ResultMap resultMap) {
+		this.configuration = configuration;
+		this.resultMap = resultMap;
+	}
+
+	@Override
+	public void handleResult(ResultContext<? extends ResultSetRow> context) {
+		ResultSet rs = context.getResultObject().getResultSet();
+		try {
+			if (mapper == null) {
+				List<String> labels = SqlEntityRowMapper.getLabels(configuration, rs.getMetaData());
+				mapper = SqlEntityRowMapper.create(configuration, resultMap, labels);
+				totalColumn = labels.indexOf(SqlDialect.TOTAL_COLUMN.toUpperCase(Locale.ENGLISH)) + 1;
+				if (totalColumn == 0) {
+					throw new IllegalStateException("No total column found: " + SqlDialect.TOTAL_COLUMN);
+				}
+				total = rs.getLong(totalColumn);
+			}
+			rows.add(mapper.map(rs));
+		} catch (SQLException e) {
+			throw new ExecutorException("Error mapping rows of " + resultMap.getId() + ". Cause: " + e, e);
+		}
+	}
+
+	List<Object> getRows() {
+		return rows;
+	}
+
+	long getTotal() {
+		return total;
+	}
+}
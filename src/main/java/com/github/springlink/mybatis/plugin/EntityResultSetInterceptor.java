@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.plugin;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.registry.SqlEntityRowMapper;
+
+/**
+ * Maps the rows of statements using the entity result map of a
+ * {@link com.github.springlink.mybatis.registry.SqlRegistry} without going
+ * through {@link DefaultResultSetHandler}. Column positions, type handlers and
+ * property accessors are resolved once per result map and column list, rows
+ * are then mapped by column index. Statements with row bounds, a result
+ * handler or multiple result sets are left to the default handler.
+ */
+@Intercepts({
+		@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = { Statement.class })
+})
+public class EntityResultSetInterceptor implements Interceptor {
+	private static final Field pluginTarget;
+	private static final Field handlerConfiguration;
+	private static final Field handlerMappedStatement;
+	private static final Field handlerRowBounds;
+	private static final Field handlerResultHandler;
+
+	static {
+		try {
+			pluginTarget = getField(Plugin.class, "target");
+			handlerConfiguration = getField(DefaultResultSetHandler.class, "configuration");
+			handlerMappedStatement = getField(DefaultResultSetHandler.class, "mappedStatement");
+			handlerRowBounds = getField(DefaultResultSetHandler.class, "rowBounds");
+			handlerResultHandler = getField(DefaultResultSetHandler.class, "resultHandler");
+		} catch (NoSuchFieldException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private final ConcurrentMap<Map.Entry<ResultMap, List<String>>, SqlEntityRowMapper> rowMappers = Maps
+			.newConcurrentMap();
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object target = unwrapHandler(invocation.getTarget());
+		if (!(target instanceof DefaultResultSetHandler)) {
+			return invocation.proceed();
+		}
+		MappedStatement statement = (MappedStatement) handlerMappedStatement.get(target);
+		RowBounds rowBounds = (RowBounds) handlerRowBounds.get(target);
+		if (statement.getResultSets() != null || statement.getResultMaps().size() != 1
+				|| handlerResultHandler.get(target) != null
+				|| rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT
+				|| !SqlEntityRowMapper.isEntityResultMap(statement.getResultMaps().get(0))) {
+			return invocation.proceed();
+		}
+		Configuration configuration = (Configuration) handlerConfiguration.get(target);
+		ResultSet rs = getFirstResultSet((Statement) invocation.getArgs()[0]);
+		if (rs == null) {
+			return Lists.newArrayList();
+		}
+		try {
+			SqlEntityRowMapper rowMapper = getRowMapper(configuration, statement.getResultMaps().get(0), rs);
+			List<Object> result = Lists.newArrayList();
+			while (rs.next()) {
+				result.add(rowMapper.map(rs));
+			}
+			return result;
+		} finally {
+			rs.close();
+		}
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		if (target instanceof ResultSetHandler) {
+			return Plugin.wrap(target, this);
+		}
+		return target;
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+	}
+
+	private SqlEntityRowMapper getRowMapper(Configuration configuration, ResultMap resultMap, ResultSet rs)
+			throws SQLException {
+		List<String> labels = SqlEntityRowMapper.getLabels(configuration, rs.getMetaData());
+		return rowMappers.computeIfAbsent(Maps.immutableEntry(resultMap, labels),
+				key -> SqlEntityRowMapper.create(configuration, resultMap, labels));
+	}
+
+	private static ResultSet getFirstResultSet(Statement stmt) throws SQLException {
+		ResultSet rs = stmt.getResultSet();
+		while (rs == null) {
+			if (stmt.getMoreResults()) {
+				rs = stmt.getResultSet();
+			} else if (stmt.getUpdateCount() == -1) {
+				break;
+			}
+		}
+		return rs;
+	}
+
+	private static Object unwrapHandler(Object handler) throws IllegalAccessException {
+		Object target = handler;
+		while (Proxy.isProxyClass(target.getClass())) {
+			InvocationHandler invocationHandler = Proxy.getInvocationHandler(target);
+			if (!(invocationHandler instanceof Plugin)) {
+				break;
+			}
+			target = pluginTarget.get(invocationHandler);
+		}
+		return target;
+	}
+
+	private static Field getField(Class<?> type, String name) throws NoSuchFieldException {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		return field;
+	}
+}
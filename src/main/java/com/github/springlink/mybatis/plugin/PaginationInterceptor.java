@@ -1,169 +1,292 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.plugin;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
-import java.util.List;
-import java.util.Properties;
-
-import org.apache.ibatis.executor.Executor;
-import org.apache.ibatis.mapping.MappedStatement;
-import org.apache.ibatis.mapping.ResultMap;
-import org.apache.ibatis.plugin.Interceptor;
-import org.apache.ibatis.plugin.Intercepts;
-import org.apache.ibatis.plugin.Invocation;
-import org.apache.ibatis.plugin.Plugin;
-import org.apache.ibatis.plugin.Signature;
-import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.session.ResultHandler;
-import org.apache.ibatis.session.RowBounds;
-
-import com.google.common.collect.Lists;
-
-import com.github.springlink.mybatis.registry.SqlDialect;
-import com.github.springlink.mybatis.util.ArrayBoundList;
-import com.github.springlink.mybatis.util.Asserts;
-import com.github.springlink.mybatis.util.BoundSqlBuilder;
-import com.github.springlink.mybatis.util.MappedStatementBuilder;
-import com.github.springlink.mybatis.util.PhysicalRowBounds;
-
-@Intercepts({
-		@Signature(type = Executor.class, method = "query", args = {
-				MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
-		})
-})
-public class PaginationInterceptor implements Interceptor {
-	private static final String DIALECT_NAME_KEY = "dialectName";
-
-	private static final Field pluginTarget;
-
-	static {
-		try {
-			pluginTarget = Plugin.class.getDeclaredField("target");
-			pluginTarget.setAccessible(true);
-		} catch (NoSuchFieldException e) {
-			throw new IllegalStateException(e);
-		}
-	}
-
-	private SqlDialect dialect;
-
-	public PaginationInterceptor() {
-		this(SqlDialect.getCurrent());
-	}
-
-	public PaginationInterceptor(String dialectName) {
-		this(SqlDialect.get(dialectName));
-	}
-
-	public PaginationInterceptor(SqlDialect dialect) {
-		Asserts.notNull(dialect, "dialect");
-		this.dialect = dialect;
-	}
-
-	@Override
-	public Object intercept(Invocation invocation) throws Throwable {
-		Object[] args = invocation.getArgs();
-		RowBounds rowBounds = (RowBounds) args[2];
-		if (!(rowBounds instanceof PhysicalRowBounds)) {
-			return invocation.proceed();
-		}
-
-		Executor executor = getTargetExecutor((Executor) invocation.getTarget());
-		MappedStatement statement = (MappedStatement) args[0];
-		Object parameter = args[1];
-
-		MappedStatement countStatement = getCountStatement(statement, rowBounds);
-		List<Object> countResult = executor.query(countStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
-
-		MappedStatement limitStatement = getLimitStatement(statement, rowBounds);
-		List<Object> limitResult = executor.query(limitStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
-
-		return new ArrayBoundList<Object>(rowBounds, extractCountResult(countResult), limitResult);
-	}
-
-	@Override
-	public Object plugin(Object target) {
-		if (target instanceof Executor) {
-			return Plugin.wrap(target, this);
-		}
-		return target;
-	}
-
-	@Override
-	public void setProperties(Properties properties) {
-		if (properties.contains(DIALECT_NAME_KEY)) {
-			this.dialect = SqlDialect.get(properties.getProperty(DIALECT_NAME_KEY));
-		}
-	}
-
-	protected int extractCountResult(List<?> result) {
-		if (result.isEmpty()) {
-			throw new IllegalStateException("No count result");
-		}
-		if (result.size() > 1) {
-			throw new IllegalStateException("Multiple count results");
-		}
-		return ((Number) (result.get(0))).intValue();
-	}
-
-	protected Executor getTargetExecutor(Executor proxy) {
-		Executor target = proxy;
-		while (true) {
-			try {
-				InvocationHandler handler = Proxy.getInvocationHandler(target);
-				if (!(handler instanceof Plugin)) {
-					break;
-				}
-				target = (Executor) pluginTarget.get(handler);
-			} catch (IllegalArgumentException e) {
-				break;
-			} catch (IllegalAccessException e) {
-				throw new IllegalStateException(e);
-			}
-		}
-		return target;
-	}
-
-	protected MappedStatement getLimitStatement(MappedStatement statement, RowBounds rowBounds) {
-		Configuration config = statement.getConfiguration();
-		return new MappedStatementBuilder(statement)
-				.setId(statement.getId() + "!selectLimit")
-				.setSqlSource(param -> {
-					BoundSqlBuilder builder = new BoundSqlBuilder(config, statement.getBoundSql(param));
-					dialect.buildLimitBoundSql(builder, rowBounds);
-					return builder.build();
-				})
-				.build();
-	}
-
-	protected MappedStatement getCountStatement(MappedStatement statement, RowBounds rowBounds) {
-		Configuration config = statement.getConfiguration();
-		return new MappedStatementBuilder(statement)
-				.setId(statement.getId() + "!selectCount")
-				.setSqlSource(param -> {
-					BoundSqlBuilder builder = new BoundSqlBuilder(config, statement.getBoundSql(param));
-					dialect.buildCountBoundSql(builder, rowBounds);
-					return builder.build();
-				})
-				.setResultMaps(Lists.newArrayList(
-						new ResultMap.Builder(config, statement.getId() + "-Inline", Long.class, Lists.newArrayList()).build()))
-				.build();
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.plugin;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.registry.SqlContext;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.util.ArrayBoundList;
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.BoundSqlBuilder;
+import com.github.springlink.mybatis.util.CountStats;
+import com.github.springlink.mybatis.util.MappedStatementBuilder;
+import com.github.springlink.mybatis.util.PhysicalRowBounds;
+
+@Intercepts({
+		@Signature(type = Executor.class, method = "query", args = {
+				MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
+		})
+})
+public class PaginationInterceptor implements Interceptor {
+	private static final String DIALECT_NAME_KEY = "dialectName";
+
+	private static final Field pluginTarget;
+
+	static {
+		try {
+			pluginTarget = Plugin.class.getDeclaredField("target");
+			pluginTarget.setAccessible(true);
+		} catch (NoSuchFieldException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private final CountStats countStats = new CountStats();
+	private final ConcurrentMap<StatementKey, MappedStatement> limitStatements = Maps.newConcurrentMap();
+	private final ConcurrentMap<StatementKey, MappedStatement> countStatements = Maps.newConcurrentMap();
+	private final LoadingCache<Executor, Executor> targetExecutors = CacheBuilder.newBuilder()
+			.weakKeys()
+			.build(CacheLoader.from(PaginationInterceptor::unwrapExecutor));
+	private SqlDialect dialect;
+
+	public PaginationInterceptor() {
+		this(SqlDialect.getCurrent());
+	}
+
+	public PaginationInterceptor(String dialectName) {
+		this(SqlDialect.get(dialectName));
+	}
+
+	public PaginationInterceptor(SqlDialect dialect) {
+		Asserts.notNull(dialect, "dialect");
+		this.dialect = dialect;
+	}
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object[] args = invocation.getArgs();
+		RowBounds rowBounds = (RowBounds) args[2];
+		if (!(rowBounds instanceof PhysicalRowBounds)) {
+			return invocation.proceed();
+		}
+
+		Executor executor = getTargetExecutor((Executor) invocation.getTarget());
+		MappedStatement statement = (MappedStatement) args[0];
+		Object parameter = args[1];
+
+		List<Object> limitResult = query(executor, getLimitStatement(statement), parameter,
+				getLimitBoundSql(statement, parameter, rowBounds));
+
+		long total = CountStats.inferTotal(rowBounds, limitResult.size());
+		if (total == CountStats.UNKNOWN_TOTAL) {
+			MappedStatement countStatement = getContextCountStatement(statement, parameter);
+			List<Object> countResult;
+			if (countStatement != null) {
+				countResult = executor.query(countStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+			} else {
+				countResult = query(executor, getCountStatement(statement), parameter,
+						getCountBoundSql(statement, parameter, rowBounds));
+			}
+			total = extractCountResult(countResult);
+			countStats.recordExecuted();
+		} else {
+			countStats.recordAvoided();
+		}
+
+		return new ArrayBoundList<Object>(rowBounds, total, limitResult);
+	}
+
+	public CountStats getCountStats() {
+		return countStats;
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		if (target instanceof Executor) {
+			return Plugin.wrap(target, this);
+		}
+		return target;
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+		if (properties.contains(DIALECT_NAME_KEY)) {
+			this.dialect = SqlDialect.get(properties.getProperty(DIALECT_NAME_KEY));
+		}
+	}
+
+	protected long extractCountResult(List<?> result) {
+		if (result.isEmpty()) {
+			throw new IllegalStateException("No count result");
+		}
+		if (result.size() > 1) {
+			throw new IllegalStateException("Multiple count results");
+		}
+		return ((Number) (result.get(0))).longValue();
+	}
+
+	/**
+	 * Get the executor behind the plugin proxies, so that the derived queries are
+	 * not intercepted again. Unwrapped executors are cached per proxy.
+	 */
+	protected Executor getTargetExecutor(Executor proxy) {
+		return targetExecutors.getUnchecked(proxy);
+	}
+
+	private static Executor unwrapExecutor(Executor proxy) {
+		Executor target = proxy;
+		while (Proxy.isProxyClass(target.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(target);
+			if (!(handler instanceof Plugin)) {
+				break;
+			}
+			try {
+				target = (Executor) pluginTarget.get(handler);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return target;
+	}
+
+	private static List<Object> query(Executor executor, MappedStatement statement, Object parameter,
+			BoundSql boundSql) throws SQLException {
+		CacheKey key = executor.createCacheKey(statement, parameter, RowBounds.DEFAULT, boundSql);
+		return executor.query(statement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, key, boundSql);
+	}
+
+	/**
+	 * Get the statement running the limit query of a statement, derived
+	 * statements are cached per statement id and dialect. Their SQL depends on the
+	 * row bounds and is built by {@link #getLimitBoundSql}.
+	 *
+	 * @param statement select statement
+	 * @return limit statement
+	 */
+	protected MappedStatement getLimitStatement(MappedStatement statement) {
+		return limitStatements.computeIfAbsent(new StatementKey(statement.getId(), dialect),
+				key -> new MappedStatementBuilder(statement)
+						.setId(statement.getId() + "!selectLimit")
+						.setSqlSource(param -> getLimitBoundSql(statement, param, RowBounds.DEFAULT))
+						.build());
+	}
+
+	protected BoundSql getLimitBoundSql(MappedStatement statement, Object parameter, RowBounds rowBounds) {
+		BoundSqlBuilder builder = new BoundSqlBuilder(statement.getConfiguration(), statement.getBoundSql(parameter));
+		dialect.buildLimitBoundSql(builder, rowBounds);
+		return builder.build();
+	}
+
+	/**
+	 * Get the registry count statement of a registry select statement, it renders
+	 * the count from the {@link SqlContext} of the parameter without ordering or
+	 * select list. Other statements are counted by wrapping their SQL.
+	 *
+	 * @param statement select statement
+	 * @param parameter parameter object
+	 * @return count statement, or {@code null} if the statement is not a registry
+	 *         select statement
+	 */
+	protected MappedStatement getContextCountStatement(MappedStatement statement, Object parameter) {
+		if (!(parameter instanceof Map)
+				|| !Iterables.any(((Map<?, ?>) parameter).values(), SqlContext.class::isInstance)) {
+			return null;
+		}
+		String id = statement.getId();
+		int index = id.lastIndexOf('.');
+		String countId;
+		switch (id.substring(index + 1)) {
+		case SqlDialect.SELECT_ENTITY_ID:
+			countId = SqlDialect.SELECT_COUNT_ID;
+			break;
+		case SqlDialect.SELECT_PROJECTIONS_ID:
+			countId = SqlDialect.SELECT_PROJECTIONS_COUNT_ID;
+			break;
+		default:
+			return null;
+		}
+		countId = id.substring(0, index + 1) + countId;
+		Configuration config = statement.getConfiguration();
+		return config.hasStatement(countId, false) ? config.getMappedStatement(countId, false) : null;
+	}
+
+	protected MappedStatement getCountStatement(MappedStatement statement) {
+		return countStatements.computeIfAbsent(new StatementKey(statement.getId(), dialect), key -> {
+			Configuration config = statement.getConfiguration();
+			return new MappedStatementBuilder(statement)
+					.setId(statement.getId() + "!selectCount")
+					.setSqlSource(param -> getCountBoundSql(statement, param, RowBounds.DEFAULT))
+					.setResultMaps(Lists.newArrayList(
+							new ResultMap.Builder(config, statement.getId() + "-Inline", Long.class, Lists.newArrayList())
+									.build()))
+					.build();
+		});
+	}
+
+	protected BoundSql getCountBoundSql(MappedStatement statement, Object parameter, RowBounds rowBounds) {
+		BoundSqlBuilder builder = new BoundSqlBuilder(statement.getConfiguration(), statement.getBoundSql(parameter));
+		dialect.buildCountBoundSql(builder, rowBounds);
+		return builder.build();
+	}
+
+	private static class StatementKey {
+		private final String id;
+		private final SqlDialect dialect;
+
+		StatementKey(String id, SqlDialect dialect) {
+			this.id = id;
+			this.dialect = dialect;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id, dialect);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			StatementKey other = (StatementKey) obj;
+			return id.equals(other.id) && dialect == other.dialect;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+
+/**
+ * A {@link SqlSource} that renders its SQL directly from the {@link SqlContext}
+ * found in the parameter object, without going through XML scripts or OGNL.
+ */
+public class CompiledSqlSource implements SqlSource {
+	private final Configuration configuration;
+	private final String rootPath;
+	private final Function<SqlContext, SqlFragment> renderer;
+
+	public CompiledSqlSource(Configuration configuration, String rootPath,
+			Function<SqlContext, SqlFragment> renderer) {
+		Asserts.notNull(configuration, "configuration");
+		Asserts.notEmpty(rootPath, "rootPath");
+		Asserts.notNull(renderer, "renderer");
+		this.configuration = configuration;
+		this.rootPath = rootPath;
+		this.renderer = renderer;
+	}
+
+	@Override
+	public BoundSql getBoundSql(Object parameterObject) {
+		SqlContext ctx = getContext(parameterObject);
+		SqlFragment fragment = renderer.apply(ctx);
+		ctx.getDialect().getSqlTextStats().record(ctx.getEntity().getType(), fragment.getSql());
+		List<SqlFragment.Parameter> parameters = fragment.getParameters();
+		List<ParameterMapping> parameterMappings = Lists.newArrayListWithCapacity(parameters.size());
+		for (SqlFragment.Parameter parameter : parameters) {
+			parameterMappings.add(buildParameterMapping(parameter));
+		}
+		return new BoundSql(configuration, fragment.getSql(), parameterMappings, parameterObject);
+	}
+
+	protected SqlContext getContext(Object parameterObject) {
+		Object ctx = parameterObject instanceof Map ? ((Map<?, ?>) parameterObject).get(rootPath) : null;
+		if (!(ctx instanceof SqlContext)) {
+			throw new IllegalArgumentException("No SqlContext found in parameter: [" + rootPath + "]");
+		}
+		return (SqlContext) ctx;
+	}
+
+	protected ParameterMapping buildParameterMapping(SqlFragment.Parameter parameter) {
+		ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, parameter.getPath(),
+				Object.class);
+		if (parameter.getJdbcType() != null) {
+			builder.jdbcType(parameter.getJdbcType());
+		}
+		if (parameter.getElementIndex() >= 0) {
+			builder.typeHandler(PrimitiveArrayList.getElementTypeHandler(parameter.getElementIndex()));
+		} else if (parameter.getTypeHandler() != null) {
+			builder.typeHandler(resolveTypeHandler(parameter.getTypeHandler()));
+		}
+		return builder.build();
+	}
+
+	private TypeHandler<?> resolveTypeHandler(Class<? extends TypeHandler<?>> typeHandlerType) {
+		TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+		TypeHandler<?> handler = registry.getMappingTypeHandler(typeHandlerType);
+		return handler != null ? handler : registry.getInstance(Object.class, typeHandlerType);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.Set;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+
+import com.google.common.collect.Sets;
+
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.BeanMetadata;
+import com.github.springlink.mybatis.util.PropertyAccessor;
+
+/**
+ * Wraps objects of registered entity types so that meta objects, and thus
+ * result mapping, read and write their simple properties through the
+ * precompiled accessors of {@link BeanMetadata} instead of reflection.
+ */
+public class EntityObjectWrapperFactory implements ObjectWrapperFactory {
+	private final Set<Class<?>> types = Sets.newConcurrentHashSet();
+
+	public void addType(Class<?> type) {
+		Asserts.notNull(type, "type");
+		BeanMetadata.forBeanType(type);
+		types.add(type);
+	}
+
+	@Override
+	public boolean hasWrapperFor(Object object) {
+		return types.contains(object.getClass());
+	}
+
+	@Override
+	public ObjectWrapper getWrapperFor(MetaObject metaObject, Object object) {
+		return new AccessorBeanWrapper(metaObject, object);
+	}
+
+	private static class AccessorBeanWrapper extends BeanWrapper {
+		private final Object object;
+		private final BeanMetadata metadata;
+
+		AccessorBeanWrapper(MetaObject metaObject, Object object) {
+			super(metaObject, object);
+			this.object = object;
+			this.metadata = BeanMetadata.forBeanType(object.getClass());
+		}
+
+		@Override
+		public Object get(PropertyTokenizer prop) {
+			if (prop.getIndex() == null) {
+				PropertyAccessor accessor = metadata.getPropertyAccessor(prop.getName());
+				if (accessor != null && accessor.isReadable()) {
+					return accessor.get(object);
+				}
+			}
+			return super.get(prop);
+		}
+
+		@Override
+		public void set(PropertyTokenizer prop, Object value) {
+			if (prop.getIndex() == null) {
+				PropertyAccessor accessor = metadata.getPropertyAccessor(prop.getName());
+				if (accessor != null && accessor.isWritable()) {
+					accessor.set(object, value);
+					return;
+				}
+			}
+			super.set(prop, value);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import com.github.springlink.mybatis.util.Asserts;
+
+/**
+ * Assigns the generated keys of a multi-row insert to the inserted objects, the
+ * n-th row of generated keys goes to the n-th object of the value list.
+ */
+public class MultiRowKeyGenerator extends Jdbc3KeyGenerator {
+	private final String rootPath;
+	private final String valuesKey;
+	private final Map<Executor, BatchKeys> batchKeys = new WeakHashMap<>();
+
+	public MultiRowKeyGenerator(String rootPath, String valuesKey) {
+		Asserts.notEmpty(rootPath, "rootPath");
+		Asserts.notEmpty(valuesKey, "valuesKey");
+		this.rootPath = rootPath;
+		this.valuesKey = valuesKey;
+	}
+
+	@Override
+	public void processBefore(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+	}
+
+	@Override
+	public void processAfter(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+		String[] keyProperties = ms.getKeyProperties();
+		List<?> values = getValues(parameter);
+		if (keyProperties == null || keyProperties.length == 0 || values == null || values.isEmpty()) {
+			return;
+		}
+		try {
+			if (executor instanceof BatchExecutor) {
+				// a batched statement is processed once per parameter object, the generated
+				// keys of all of them come in one result set closed with the statement. The
+				// parameter objects of a statement are processed before the next statement of
+				// the executor, so only the keys of the current statement are kept
+				ResultSet rs;
+				synchronized (batchKeys) {
+					BatchKeys keys = batchKeys.get(executor);
+					if (keys == null || keys.statement != stmt) {
+						keys = new BatchKeys(stmt, stmt.getGeneratedKeys());
+						batchKeys.put(executor, keys);
+					}
+					rs = keys.resultSet;
+				}
+				assignKeys(ms.getConfiguration(), rs, keyProperties, values);
+			} else {
+				try (ResultSet rs = stmt.getGeneratedKeys()) {
+					assignKeys(ms.getConfiguration(), rs, keyProperties, values);
+				}
+			}
+		} catch (SQLException e) {
+			throw new ExecutorException("Error getting generated keys or setting result to parameter object. Cause: "
+					+ e, e);
+		}
+	}
+
+	private void assignKeys(Configuration configuration, ResultSet rs, String[] keyProperties, List<?> values)
+			throws SQLException {
+		if (rs.getMetaData().getColumnCount() < keyProperties.length) {
+			return;
+		}
+		TypeHandler<?>[] typeHandlers = null;
+		for (int row = 0; row < values.size() && rs.next(); ++row) {
+			MetaObject metaValue = configuration.newMetaObject(values.get(row));
+			if (typeHandlers == null) {
+				typeHandlers = getTypeHandlers(configuration, metaValue, keyProperties);
+			}
+			for (int i = 0; i < keyProperties.length; ++i) {
+				metaValue.setValue(keyProperties[i], typeHandlers[i].getResult(rs, i + 1));
+			}
+		}
+	}
+
+	private List<?> getValues(Object parameter) {
+		Object ctx = parameter instanceof Map ? ((Map<?, ?>) parameter).get(rootPath) : null;
+		if (!(ctx instanceof SqlContext)) {
+			return null;
+		}
+		Object values = ((SqlContext) ctx).getObject(valuesKey);
+		return values instanceof List ? (List<?>) values : null;
+	}
+
+	private TypeHandler<?>[] getTypeHandlers(Configuration configuration, MetaObject metaValue,
+			String[] keyProperties) {
+		TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+		TypeHandler<?>[] typeHandlers = new TypeHandler<?>[keyProperties.length];
+		for (int i = 0; i < keyProperties.length; ++i) {
+			typeHandlers[i] = registry.getTypeHandler(metaValue.getSetterType(keyProperties[i]));
+			if (typeHandlers[i] == null) {
+				typeHandlers[i] = registry.getUnknownTypeHandler();
+			}
+		}
+		return typeHandlers;
+	}
+
+	private static class BatchKeys {
+		final Statement statement;
+		final ResultSet resultSet;
+
+		BatchKeys(Statement statement, ResultSet resultSet) {
+			this.statement = statement;
+			this.resultSet = resultSet;
+		}
+	}
+}
@@ -1,601 +1,1460 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.registry;
-
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.function.IntFunction;
-import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-
-import org.apache.ibatis.builder.MapperBuilderAssistant;
-import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
-import org.apache.ibatis.executor.keygen.NoKeyGenerator;
-import org.apache.ibatis.mapping.ParameterMapping;
-import org.apache.ibatis.mapping.SqlCommandType;
-import org.apache.ibatis.mapping.StatementType;
-import org.apache.ibatis.scripting.LanguageDriver;
-import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.session.RowBounds;
-
-import com.google.common.collect.Lists;
-
-import com.github.springlink.mybatis.metadata.SqlCacheMetadata;
-import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
-import com.github.springlink.mybatis.metadata.SqlJoinMetadata;
-import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
-import com.github.springlink.mybatis.sql.SqlCriterion;
-import com.github.springlink.mybatis.sql.SqlOrderBy;
-import com.github.springlink.mybatis.sql.SqlProjections;
-import com.github.springlink.mybatis.sql.SqlReference;
-import com.github.springlink.mybatis.sql.SqlUpdate;
-import com.github.springlink.mybatis.util.BoundSqlBuilder;
-
-public class MySQLDialect extends SqlDialect {
-	@Override
-	public String getCriterionSql(SqlContext ctx, String path, SqlCriterion criterion) {
-		if (criterion instanceof SqlCriterion.Condition) {
-			return getConditionSql(ctx, path, (SqlCriterion.Condition) criterion);
-		}
-		if (criterion instanceof SqlCriterion.Constant) {
-			return getConstantSql(ctx, path, (SqlCriterion.Constant) criterion);
-		}
-		if (criterion instanceof SqlCriterion.Junction) {
-			return getJunctionSql(ctx, path, (SqlCriterion.Junction) criterion);
-		}
-		throw new UnsupportedOperationException("Unknown criterion class: " + criterion.getClass().getName());
-	}
-
-	@Override
-	public String getOrderBySql(SqlContext ctx, String path, SqlOrderBy orderBy) {
-		return orderBy.asList().stream()
-				.map(order -> getColumnSql(ctx, order.getProperty()) + (order.isDescending() ? " DESC" : " ASC"))
-				.collect(Collectors.joining(","));
-	}
-
-	@Override
-	public String getUpdateSql(SqlContext ctx, String path, SqlUpdate update) {
-		List<String> items = Lists.newArrayList();
-		List<SqlUpdate.Set> sets = update.asList();
-		for (int i = 0; i < sets.size(); ++i) {
-			SqlUpdate.Set set = sets.get(i);
-			String property = set.getProperty();
-			List<Object> args = set.getArgs();
-			String column = getColumnSql(ctx, property);
-			String setPath = path + ".sets[" + i + "]";
-			IntFunction<String> argument = index -> {
-				return getArgumentSql(ctx, property, setPath + ".args[" + index + "]", args.get(index));
-			};
-
-			StringBuilder sql = new StringBuilder();
-			switch (set.getType()) {
-			case SET:
-				sql.append(column).append(" = ").append(argument.apply(0));
-				break;
-			case NULLIFY:
-				sql.append(column).append(" = NULL");
-				break;
-			case ADD:
-				sql.append(column).append(" = ").append(column).append(" + ").append(argument.apply(0));
-				break;
-			case SUBTRACT:
-				sql.append(column).append(" = ").append(column).append(" - ").append(argument.apply(0));
-				break;
-			}
-			items.add(sql.toString());
-		}
-		return String.join(",", items);
-	}
-
-	@Override
-	public String getProjectionsSql(SqlContext ctx, String path, SqlProjections projections) {
-		List<String> items = Lists.newArrayList();
-		for (Map.Entry<String, SqlProjections.Projection> entry : projections.asMap().entrySet()) {
-			String name = entry.getKey();
-			SqlProjections.Projection projection = entry.getValue();
-			String column = getColumnSql(ctx, projection.getProperty());
-
-			StringBuilder sql = new StringBuilder();
-			switch (projection.getType()) {
-			case PROPERTY:
-				sql.append(column);
-				break;
-			case DISTINCT:
-				sql.append("DISTINCT(").append(column).append(")");
-				break;
-			case COUNT:
-				sql.append("COUNT(").append(column).append(")");
-				break;
-			case COUNT_DISTINCT:
-				sql.append("COUNT(DISTINCT ").append(column).append(")");
-				break;
-			case AVG:
-				sql.append("AVG(").append(column).append(")");
-				break;
-			case MAX:
-				sql.append("MAX(").append(column).append(")");
-				break;
-			case MIN:
-				sql.append("MIN(").append(column).append(")");
-				break;
-			case SUM:
-				sql.append("SUM(").append(column).append(")");
-				break;
-			}
-			sql.append(" AS ").append(qoute(name));
-			items.add(sql.toString());
-		}
-		return String.join(",", items);
-	}
-
-	@Override
-	public void buildMapper(SqlContext ctx, MapperBuilderAssistant assistant) {
-		SqlEntityMetadata em = ctx.getEntity();
-		buildResultMap(assistant, em);
-		buildCache(assistant, em);
-		buildSelectEntityStatement(ctx, assistant);
-		buildSelectProjectionsStatement(ctx, assistant);
-		buildSelectCountStatement(ctx, assistant);
-		buildSelectExistsStatement(ctx, assistant);
-		buildUpdateStatement(ctx, assistant);
-		buildDeleteStatement(ctx, assistant);
-		buildInsertStatement(ctx, assistant);
-	}
-
-	@Override
-	public void buildLimitBoundSql(BoundSqlBuilder builder, RowBounds rowBounds) {
-		Configuration cfg = builder.getConfiguration();
-		builder.setSql("SELECT * FROM (" + builder.getSql() + ") __subquery LIMIT ?, ?");
-		builder.addParameterMapping(new ParameterMapping.Builder(cfg, "_rowBounds.offset", int.class).build());
-		builder.addParameterMapping(new ParameterMapping.Builder(cfg, "_rowBounds.limit", int.class).build());
-		builder.putAdditionalParameter("_rowBounds", rowBounds);
-	}
-
-	@Override
-	public void buildCountBoundSql(BoundSqlBuilder builder, RowBounds rowBounds) {
-		builder.setSql("SELECT COUNT(*) FROM (" + builder.getSql() + ") __subquery");
-		builder.putAdditionalParameter("_rowBounds", rowBounds);
-	}
-
-	protected String qoute(String content) {
-		return "`" + content + "`";
-	}
-
-	protected String join(String separator, String... parts) {
-		return Stream.of(parts).filter(Objects::nonNull).collect(Collectors.joining(separator));
-	}
-
-	protected void buildResultMap(MapperBuilderAssistant assistant, SqlEntityMetadata em) {
-		assistant.addResultMap(
-				RESULT_MAP_ID /* id */,
-				em.getType() /* type */,
-				null /* extend */,
-				null /* discriminator */,
-				em.getProperties().stream()
-						.map(pm -> assistant.buildResultMapping(
-								pm.getType() /* resultType */,
-								pm.getName() /* property */,
-								pm.getColumn() /* column */,
-								pm.getType() /* javaType */,
-								pm.getJdbcType() /* jdbcType */,
-								null /* nestedSelect */,
-								null /* nestedResultMap */,
-								null /* notNullColumn */,
-								null /* columnPrefix */,
-								pm.getTypeHandler() /* typeHandler */,
-								pm.getResultFlags() /* flags */))
-						.collect(Collectors.toList()) /* resultMappings */,
-				false /* autoMapping */);
-	}
-
-	protected void buildCache(MapperBuilderAssistant assistant, SqlEntityMetadata em) {
-		if (em.getCacheRef() != null) {
-			assistant.useCacheRef(em.getCacheRef());
-		} else {
-			SqlCacheMetadata cm = em.getCache();
-			if (cm != null) {
-				assistant.useNewCache(cm.getImplementation(), cm.getEviction(), cm.getFlushInterval(), cm.getSize(),
-						cm.isReadWrite(), cm.isBlocking(), cm.getProperties());
-			}
-		}
-	}
-
-	protected void buildSelectEntityStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>SELECT %s FROM %s %s %s %s %s</script>",
-				getColumnsSql(ctx), getJoinedTableSql(ctx), getWhereSql(ctx), getOrderBySql(ctx),
-				getLimitSql(ctx), getForUpdateSql(ctx));
-		assistant.addMappedStatement(
-				SELECT_ENTITY_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.SELECT /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				RESULT_MAP_ID /* resultMap */,
-				null /* resultType */,
-				null /* resultSetType */,
-				false /* flushCache */,
-				true /* useCache */,
-				false /* resultOrdered */,
-				NoKeyGenerator.INSTANCE /* keyGenerator */,
-				null /* keyProperty */,
-				null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected void buildSelectProjectionsStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>SELECT %s FROM %s %s %s %s %s</script>",
-				getProjectionsSql(ctx), getJoinedTableSql(ctx), getWhereSql(ctx), getOrderBySql(ctx),
-				getLimitSql(ctx), getForUpdateSql(ctx));
-		assistant.addMappedStatement(
-				SELECT_PROJECTIONS_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.SELECT /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				null /* resultMap */,
-				Map.class /* resultType */,
-				null /* resultSetType */,
-				false /* flushCache */,
-				true /* useCache */,
-				false /* resultOrdered */,
-				NoKeyGenerator.INSTANCE /* keyGenerator */,
-				null /* keyProperty */,
-				null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected void buildSelectCountStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>SELECT COUNT(*) FROM %s %s</script>",
-				getJoinedTableSql(ctx), getWhereSql(ctx));
-		assistant.addMappedStatement(
-				SELECT_COUNT_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.SELECT /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				null /* resultMap */,
-				Long.class /* resultType */,
-				null /* resultSetType */,
-				false /* flushCache */,
-				true /* useCache */,
-				false /* resultOrdered */,
-				NoKeyGenerator.INSTANCE /* keyGenerator */,
-				null /* keyProperty */,
-				null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected void buildSelectExistsStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>SELECT EXISTS(SELECT 1 FROM %s %s)</script>",
-				getJoinedTableSql(ctx), getWhereSql(ctx));
-		assistant.addMappedStatement(
-				SELECT_EXISTS_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.SELECT /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				null /* resultMap */,
-				Boolean.class /* resultType */,
-				null /* resultSetType */,
-				false /* flushCache */,
-				true /* useCache */,
-				false /* resultOrdered */,
-				NoKeyGenerator.INSTANCE /* keyGenerator */,
-				null /* keyProperty */,
-				null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected void buildDeleteStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>DELETE %s FROM %s %s</script>",
-				ctx.getTableAlias(), getJoinedTableSql(ctx), getWhereSql(ctx));
-		assistant.addMappedStatement(
-				DELETE_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.DELETE /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				null /* resultMap */,
-				null /* resultType */,
-				null /* resultSetType */,
-				true /* flushCache */,
-				false /* useCache */,
-				false /* resultOrdered */,
-				NoKeyGenerator.INSTANCE /* keyGenerator */,
-				null /* keyProperty */,
-				null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected void buildUpdateStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>UPDATE %s %s %s</script>",
-				getJoinedTableSql(ctx), getSetSql(ctx), getWhereSql(ctx));
-		assistant.addMappedStatement(
-				UPDATE_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.UPDATE /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				null /* resultMap */,
-				null /* resultType */,
-				null /* resultSetType */,
-				true /* flushCache */,
-				false /* useCache */,
-				false /* resultOrdered */,
-				NoKeyGenerator.INSTANCE /* keyGenerator */,
-				null /* keyProperty */,
-				null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected void buildInsertStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
-		boolean useGeneratedKeys = false;
-		List<String> keyColumns = Lists.newArrayList();
-		List<String> keyProperties = Lists.newArrayList();
-
-		String valuePath = ctx.getRootPath() + ".objects." + VALUE_KEY;
-		List<String> columns = Lists.newArrayList();
-		List<String> values = Lists.newArrayList();
-		for (SqlPropertyMetadata pm : ctx.getEntity().getProperties()) {
-			if (pm.getReference() == null) {
-				columns.add(qoute(pm.getColumn()));
-				if (pm.isGenerated()) {
-					keyColumns.add(pm.getColumn());
-					keyProperties.add(valuePath + "." + pm.getName());
-					useGeneratedKeys = true;
-
-					values.add("default");
-				} else {
-					values.add(pm.getParameterSql(valuePath + "." + pm.getName()));
-				}
-			}
-		}
-
-		Configuration config = assistant.getConfiguration();
-		LanguageDriver langDrv = config.getLanguageDriver(null);
-		String script = String.format("<script>INSERT INTO %s(%s) VALUES(%s)</script>",
-				getTableSql(ctx, null), String.join(",", columns), String.join(",", values));
-		assistant.addMappedStatement(
-				INSERT_ID /* id */,
-				langDrv.createSqlSource(config, script, Map.class) /* sqlSource */,
-				StatementType.PREPARED /* statementType */,
-				SqlCommandType.INSERT /* sqlCommandType */,
-				null /* fetchSize */,
-				null /* timeout */,
-				null /* parameterMap */,
-				Map.class /* parameterType */,
-				null /* resultMap */,
-				null /* resultType */,
-				null /* resultSetType */,
-				true /* flushCache */,
-				false /* useCache */,
-				false /* resultOrdered */,
-				useGeneratedKeys ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE /* keyGenerator */,
-				useGeneratedKeys ? String.join(",", keyProperties) : null /* keyProperty */,
-				useGeneratedKeys ? String.join(",", keyColumns) : null /* keyColumn */,
-				null /* databaseId */,
-				langDrv /* lang */);
-	}
-
-	protected String getTableSql(SqlContext ctx, String name) {
-		return qoute(ctx.getEntity(name).getTable());
-	}
-
-	protected String getColumnSql(SqlContext ctx, String property) {
-		return join(".", ctx.getColumnAlias(property), qoute(ctx.getProperty(property).getColumn()));
-	}
-
-	protected String getArgumentSql(SqlContext ctx, String property, String path, Object arg) {
-		if (arg instanceof SqlReference) {
-			return getColumnSql(ctx, ((SqlReference) arg).toString());
-		} else {
-			return ctx.getProperty(property).getParameterSql(path);
-		}
-	}
-
-	protected String getConditionSql(SqlContext ctx, String path, SqlCriterion.Condition condition) {
-		String property = condition.getProperty();
-		List<Object> args = condition.getArgs();
-		String column = getColumnSql(ctx, property);
-		IntFunction<String> argument = index -> {
-			return getArgumentSql(ctx, property, path + ".args[" + index + "]", args.get(index));
-		};
-		StringBuilder sql = new StringBuilder();
-		switch (condition.getType()) {
-		case EQ:
-			sql.append(column).append(" = ").append(argument.apply(0));
-			break;
-		case NE:
-			sql.append(column).append(" != ").append(argument.apply(0));
-			break;
-		case GT:
-			sql.append(column).append(" > ").append(argument.apply(0));
-			break;
-		case GE:
-			sql.append(column).append(" >= ").append(argument.apply(0));
-			break;
-		case LT:
-			sql.append(column).append(" < ").append(argument.apply(0));
-			break;
-		case LE:
-			sql.append(column).append(" <= ").append(argument.apply(0));
-			break;
-		case IS_NOT_NULL:
-			sql.append(column).append(" IS NOT NULL");
-			break;
-		case IS_NULL:
-			sql.append(column).append(" IS NULL");
-			break;
-		case LIKE:
-			sql.append(column).append(" LIKE ").append(argument.apply(0));
-			break;
-		case LIKE_ESC:
-			sql.append(column).append(" LIKE ").append(argument.apply(0)).append(" ESCAPE ").append(argument.apply(1));
-			break;
-		case IN:
-			sql.append(column).append(" IN(")
-					.append(IntStream.range(0, args.size()).mapToObj(argument::apply).collect(Collectors.joining(",")))
-					.append(")");
-			break;
-		case BETWEEN:
-			sql.append(column).append(" BETWEEN ").append(argument.apply(0)).append(" AND ").append(argument.apply(1));
-			break;
-		default:
-			throw new UnsupportedOperationException("Unknown condition type: " + condition.getType().name());
-		}
-		return sql.toString();
-	}
-
-	protected String getConstantSql(SqlContext ctx, String path, SqlCriterion.Constant constant) {
-		switch (constant.getType()) {
-		case FALSE:
-			return " (1=0) ";
-		case TRUE:
-			return " (1=1) ";
-		default:
-			throw new UnsupportedOperationException("Unknown constant type: " + constant.getType().name());
-		}
-	}
-
-	protected String getJunctionSql(SqlContext ctx, String path, SqlCriterion.Junction junction) {
-		UnaryOperator<String> encloser = s -> s.isEmpty() ? "" : "(" + s + ")";
-		List<SqlCriterion> criteria = junction.getCriteria();
-		switch (junction.getType()) {
-		case AND:
-			return IntStream.range(0, criteria.size())
-					.mapToObj(i -> getCriterionSql(ctx, path + ".criteria[" + i + "]", criteria.get(i)))
-                    .filter(sql -> !sql.isEmpty())
-					.collect(Collectors.collectingAndThen(Collectors.joining(" AND "), encloser));
-		case OR:
-			return IntStream.range(0, criteria.size())
-					.mapToObj(i -> getCriterionSql(ctx, path + ".criteria[" + i + "]", criteria.get(i)))
-                    .filter(sql -> !sql.isEmpty())
-					.collect(Collectors.collectingAndThen(Collectors.joining(" OR "), encloser));
-		case NOT:
-            return Optional.of(getCriterionSql(ctx, path + ".criteria[0]", criteria.get(0)))
-                    .filter(sql -> !sql.isEmpty())
-                    .map(sql -> "NOT(" + sql + ")")
-                    .orElse("");
-		default:
-			throw new UnsupportedOperationException("Unknown junction type: " + junction.getType().name());
-		}
-	}
-
-	protected String getJoinedTableSql(SqlContext ctx) {
-		StringBuilder sqlBuilder = new StringBuilder(join(" ", getTableSql(ctx, null), ctx.getTableAlias()));
-		int joinIndex = 0;
-		for (SqlJoinMetadata join : ctx.getEntity().getJoins()) {
-			switch (join.getJoinType()) {
-			case FULL_OUTER:
-				sqlBuilder.append(" FULL JOIN ");
-				break;
-			case INNER:
-				sqlBuilder.append(" INNER JOIN ");
-				break;
-			case LEFT_OUTER:
-				sqlBuilder.append(" LEFT JOIN ");
-				break;
-			case RIGHT_OUTER:
-				sqlBuilder.append(" RIGHT JOIN ");
-				break;
-			}
-			String criterionName = "joinCriterion_" + join.getName();
-			sqlBuilder.append(String.format("%s %s ON ${%s.putObject('%s', %s.entity.joins.get(%d).criterion).sql('%s')}",
-					getTableSql(ctx, join.getName()),
-					ctx.getTableAlias(join.getName()),
-					ctx.getRootPath(),
-					criterionName,
-					ctx.getRootPath(),
-					joinIndex,
-					criterionName,
-					ctx.sql(criterionName)));
-			joinIndex++;
-		}
-		return sqlBuilder.toString();
-	}
-
-	protected String getWhereSql(SqlContext ctx) {
-		return String.format("<trim prefix=\" WHERE\">${%s.sql('%s')}</trim>", ctx.getRootPath(), CRITERION_KEY);
-	}
-
-	protected String getOrderBySql(SqlContext ctx) {
-		return String.format("<trim prefix=\" ORDER BY\">${%s.sql('%s')}</trim>", ctx.getRootPath(), ORDER_BY_KEY);
-	}
-
-	protected String getLimitSql(SqlContext ctx) {
-		return String.format("<if test=\"%1$s != null\"> LIMIT #{%1$s.offset}, #{%1$s.limit}</if>",
-				ctx.getObjectPath(ROW_BOUNDS_KEY));
-	}
-
-	protected String getForUpdateSql(SqlContext ctx) {
-		return String.format("<if test=\"%s\"> FOR UPDATE</if>", ctx.getObjectPath(FOR_UPDATE_KEY));
-	}
-
-	protected String getProjectionsSql(SqlContext ctx) {
-		return String.format("${%s.sql('%s')}", ctx.getRootPath(), PROJECTIONS_KEY);
-	}
-
-	protected String getColumnsSql(SqlContext ctx) {
-		return ctx.getEntity().getProperties().stream()
-				.map(pm -> String.format("%s AS %s", getColumnSql(ctx, pm.getName()), qoute(pm.getColumn())))
-				.collect(Collectors.joining(","));
-	}
-
-	protected String getSetSql(SqlContext ctx) {
-		return String.format("<trim prefix=\" SET\">${%s.sql('%s')}</trim>", ctx.getRootPath(), UPDATE_KEY);
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.JdbcType;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.metadata.SqlCacheMetadata;
+import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
+import com.github.springlink.mybatis.metadata.SqlJoinMetadata;
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlReference;
+import com.github.springlink.mybatis.sql.SqlUpdate;
+import com.github.springlink.mybatis.util.BoundSqlBuilder;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+
+public class MySQLDialect extends SqlDialect {
+	/**
+	 * Fetch size that makes MySQL Connector/J stream result sets row by row.
+	 */
+	public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+	private static final String DEFERRED_JOIN_ALIAS = "__page";
+
+	public MySQLDialect() {
+		this(DEFAULT_FRAGMENT_CACHE_SIZE);
+	}
+
+	public MySQLDialect(long fragmentCacheSize) {
+		super(fragmentCacheSize);
+		setCursorFetchSize(STREAMING_FETCH_SIZE);
+	}
+
+	@Override
+	public void appendCriterion(SqlContext ctx, SqlFragment.Builder sql, String path, SqlCriterion criterion) {
+		if (criterion instanceof SqlCriterion.Condition) {
+			appendCondition(ctx, sql, path, (SqlCriterion.Condition) criterion);
+			return;
+		}
+		if (criterion instanceof SqlCriterion.Constant) {
+			appendConstant(ctx, sql, path, (SqlCriterion.Constant) criterion);
+			return;
+		}
+		if (criterion instanceof SqlCriterion.Junction) {
+			appendJunction(ctx, sql, path, (SqlCriterion.Junction) criterion);
+			return;
+		}
+		if (criterion instanceof SqlCriterion.Subquery) {
+			appendSubquery(ctx, sql, path, (SqlCriterion.Subquery) criterion);
+			return;
+		}
+		throw new UnsupportedOperationException("Unknown criterion class: " + criterion.getClass().getName());
+	}
+
+	@Override
+	public void appendOrderBy(SqlContext ctx, SqlFragment.Builder sql, String path, SqlOrderBy orderBy) {
+		List<SqlOrderBy.Order> orders = orderBy.asList();
+		for (int i = 0; i < orders.size(); ++i) {
+			SqlOrderBy.Order order = orders.get(i);
+			if (i > 0) {
+				sql.append(',');
+			}
+			sql.append(getColumnSql(ctx, order.getProperty())).append(order.isDescending() ? " DESC" : " ASC");
+		}
+	}
+
+	@Override
+	public void appendUpdate(SqlContext ctx, SqlFragment.Builder sql, String path, SqlUpdate update) {
+		List<SqlUpdate.Set> sets = update.asList();
+		for (int i = 0; i < sets.size(); ++i) {
+			SqlUpdate.Set set = sets.get(i);
+			String property = set.getProperty();
+			List<Object> args = set.getArgs();
+			String column = getColumnSql(ctx, property);
+			String setPath = path + ".sets[" + i + "]";
+			if (i > 0) {
+				sql.append(',');
+			}
+			switch (set.getType()) {
+			case SET:
+				sql.append(column).append(" = ");
+				appendArgument(ctx, sql, property, setPath + ".args[0]", args.get(0));
+				break;
+			case NULLIFY:
+				sql.append(column).append(" = NULL");
+				break;
+			case ADD:
+				sql.append(column).append(" = ").append(column).append(" + ");
+				appendArgument(ctx, sql, property, setPath + ".args[0]", args.get(0));
+				break;
+			case SUBTRACT:
+				sql.append(column).append(" = ").append(column).append(" - ");
+				appendArgument(ctx, sql, property, setPath + ".args[0]", args.get(0));
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void appendProjections(SqlContext ctx, SqlFragment.Builder sql, String path,
+			SqlProjections projections) {
+		boolean first = true;
+		for (Map.Entry<String, SqlProjections.Projection> entry : projections.asMap().entrySet()) {
+			if (!first) {
+				sql.append(',');
+			}
+			first = false;
+			sql.append(getProjectionSql(ctx, entry.getValue())).append(" AS ").append(qoute(entry.getKey()));
+		}
+	}
+
+	@Override
+	public void buildMapper(SqlContext ctx, MapperBuilderAssistant assistant) {
+		SqlEntityMetadata em = ctx.getEntity();
+		buildResultMap(assistant, em);
+		buildResultSetRowMap(assistant);
+		buildCache(assistant, em);
+		buildSelectEntityStatement(ctx, assistant);
+		buildSelectByIdStatements(ctx, assistant);
+		buildSelectProjectionsStatement(ctx, assistant);
+		buildSelectTotalStatements(ctx, assistant);
+		buildSelectCountStatement(ctx, assistant);
+		buildSelectExistsStatement(ctx, assistant);
+		buildUpdateStatement(ctx, assistant);
+		buildDeleteStatement(ctx, assistant);
+		buildInsertStatement(ctx, assistant);
+		buildInsertAllStatement(ctx, assistant);
+		buildInsertFromStatement(ctx, assistant);
+		buildFlushCacheStatement(ctx, assistant);
+	}
+
+	@Override
+	public void buildLimitBoundSql(BoundSqlBuilder builder, RowBounds rowBounds) {
+		Configuration cfg = builder.getConfiguration();
+		builder.setSql("SELECT * FROM (" + builder.getSql() + ") __subquery LIMIT ?, ?");
+		builder.addParameterMapping(new ParameterMapping.Builder(cfg, "_rowBounds.offset", int.class).build());
+		builder.addParameterMapping(new ParameterMapping.Builder(cfg, "_rowBounds.limit", int.class).build());
+		builder.putAdditionalParameter("_rowBounds", rowBounds);
+	}
+
+	@Override
+	public void buildCountBoundSql(BoundSqlBuilder builder, RowBounds rowBounds) {
+		builder.setSql("SELECT COUNT(*) FROM (" + builder.getSql() + ") __subquery");
+		builder.putAdditionalParameter("_rowBounds", rowBounds);
+	}
+
+	protected String qoute(String content) {
+		return "`" + content + "`";
+	}
+
+	protected String join(String separator, String... parts) {
+		return Stream.of(parts).filter(Objects::nonNull).collect(Collectors.joining(separator));
+	}
+
+	protected void buildResultMap(MapperBuilderAssistant assistant, SqlEntityMetadata em) {
+		assistant.addResultMap(
+				RESULT_MAP_ID /* id */,
+				em.getType() /* type */,
+				null /* extend */,
+				null /* discriminator */,
+				em.getProperties().stream()
+						.map(pm -> assistant.buildResultMapping(
+								pm.getType() /* resultType */,
+								pm.getName() /* property */,
+								pm.getColumn() /* column */,
+								pm.getType() /* javaType */,
+								pm.getJdbcType() /* jdbcType */,
+								null /* nestedSelect */,
+								null /* nestedResultMap */,
+								null /* notNullColumn */,
+								null /* columnPrefix */,
+								pm.getTypeHandler() /* typeHandler */,
+								pm.getResultFlags() /* flags */))
+						.collect(Collectors.toList()) /* resultMappings */,
+				false /* autoMapping */);
+	}
+
+	/**
+	 * Build the result map handing rows over unmapped as {@link ResultSetRow}.
+	 * The column of its constructor argument is never read, the type handler
+	 * returns the result set itself.
+	 */
+	protected void buildResultSetRowMap(MapperBuilderAssistant assistant) {
+		assistant.addResultMap(
+				RESULT_SET_ROW_MAP_ID /* id */,
+				ResultSetRow.class /* type */,
+				null /* extend */,
+				null /* discriminator */,
+				Collections.singletonList(assistant.buildResultMapping(
+						ResultSetRow.class /* resultType */,
+						null /* property */,
+						"*" /* column */,
+						ResultSet.class /* javaType */,
+						null /* jdbcType */,
+						null /* nestedSelect */,
+						null /* nestedResultMap */,
+						null /* notNullColumn */,
+						null /* columnPrefix */,
+						ResultSetTypeHandler.class /* typeHandler */,
+						Collections.singletonList(ResultFlag.CONSTRUCTOR) /* flags */)) /* resultMappings */,
+				false /* autoMapping */);
+	}
+
+	protected void buildCache(MapperBuilderAssistant assistant, SqlEntityMetadata em) {
+		if (em.getCacheRef() != null) {
+			assistant.useCacheRef(em.getCacheRef());
+		} else {
+			SqlCacheMetadata cm = em.getCache();
+			if (cm != null) {
+				assistant.useNewCache(cm.getImplementation(), cm.getEviction(), cm.getFlushInterval(), cm.getSize(),
+						cm.isReadWrite(), cm.isBlocking(), cm.getProperties());
+			}
+		}
+	}
+
+	protected void buildSelectEntityStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		String columns = getColumnsSql(ctx);
+		Function<SqlContext, SqlFragment> table = getJoinedTableRenderer(ctx, ctx.getEntity().getPropertyNames(),
+				CRITERION_KEY, ORDER_BY_KEY);
+		Function<SqlContext, SqlFragment> pageTable = getJoinedTableRenderer(ctx, Collections.emptySet(),
+				CRITERION_KEY, ORDER_BY_KEY);
+		List<SqlPropertyMetadata> idProperties = ctx.getEntity().getIdProperties();
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("SELECT ").append(columns).append(" FROM ").append(table.apply(c));
+			if (isDeferredJoin(c)) {
+				appendDeferredJoin(c, sql, pageTable.apply(c), idProperties);
+				appendOrderBy(c, sql);
+			} else {
+				appendWhere(c, sql);
+				appendOrderBy(c, sql);
+				appendLimit(c, sql);
+			}
+			appendForUpdate(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_ENTITY_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_MAP_ID /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+		assistant.addMappedStatement(
+				SELECT_ENTITY_CURSOR_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				getCursorFetchSize() /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_MAP_ID /* resultMap */,
+				null /* resultType */,
+				ResultSetType.FORWARD_ONLY /* resultSetType */,
+				false /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	/**
+	 * Build the identifier lookups, whose SQL is rendered once up front except for
+	 * the number of identifiers looked up at once.
+	 */
+	protected void buildSelectByIdStatements(SqlContext ctx, MapperBuilderAssistant assistant) {
+		List<SqlPropertyMetadata> idProperties = ctx.getEntity().getIdProperties();
+		if (idProperties.isEmpty()) {
+			return;
+		}
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		SqlFragment select = SqlFragment.builder()
+				.append("SELECT ").append(getColumnsSql(ctx))
+				.append(" FROM ").append(getJoinedTableRenderer(ctx, ctx.getEntity().getPropertyNames()).apply(ctx))
+				.append(" WHERE ")
+				.build();
+		SqlFragment.Builder byId = SqlFragment.builder().append(select);
+		appendIdCondition(ctx, byId, ctx.getObjectPath(ID_KEY), idProperties);
+		SqlFragment byIdFragment = byId.build();
+		assistant.addMappedStatement(
+				SELECT_BY_ID_ID /* id */,
+				new CompiledSqlSource(config, ctx.getRootPath(), c -> byIdFragment) /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_MAP_ID /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+		SqlSource byIdsSqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			List<?> ids = (List<?>) c.getObject(IDS_KEY);
+			String path = c.getObjectPath(IDS_KEY);
+			int size = getPaddedInListSize(ids.size());
+			SqlFragment.Builder sql = SqlFragment.builder().append(select);
+			if (idProperties.size() == 1) {
+				SqlPropertyMetadata pm = idProperties.get(0);
+				sql.append(getColumnSql(c, pm.getName())).append(" IN(");
+				for (int i = 0; i < size; ++i) {
+					if (i > 0) {
+						sql.append(',');
+					}
+					int index = Math.min(i, ids.size() - 1);
+					if (ids instanceof PrimitiveArrayList) {
+						appendElementParameter(c, sql, pm.getName(), path, index);
+					} else {
+						sql.appendParameter(path + "[" + index + "]", pm);
+					}
+				}
+				sql.append(")");
+			} else {
+				for (int i = 0; i < size; ++i) {
+					if (i > 0) {
+						sql.append(" OR ");
+					}
+					appendIdCondition(c, sql, path + "[" + Math.min(i, ids.size() - 1) + "]", idProperties);
+				}
+			}
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_BY_IDS_ID /* id */,
+				byIdsSqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_MAP_ID /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	/**
+	 * Append the condition matching one identifier, the parameter at the path is
+	 * the identifier value itself, or a map of the values by property name for a
+	 * composite identifier.
+	 */
+	protected void appendIdCondition(SqlContext ctx, SqlFragment.Builder sql, String path,
+			List<SqlPropertyMetadata> idProperties) {
+		if (idProperties.size() == 1) {
+			SqlPropertyMetadata pm = idProperties.get(0);
+			sql.append(getColumnSql(ctx, pm.getName())).append(" = ").appendParameter(path, pm);
+			return;
+		}
+		sql.append('(');
+		for (int i = 0; i < idProperties.size(); ++i) {
+			SqlPropertyMetadata pm = idProperties.get(i);
+			if (i > 0) {
+				sql.append(" AND ");
+			}
+			sql.append(getColumnSql(ctx, pm.getName())).append(" = ").appendParameter(path + "." + pm.getName(), pm);
+		}
+		sql.append(')');
+	}
+
+	protected void buildSelectProjectionsStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		Function<SqlContext, SqlFragment> table = getJoinedTableRenderer(ctx, Collections.emptySet(),
+				PROJECTIONS_KEY, CRITERION_KEY, HAVING_KEY, ORDER_BY_KEY);
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("SELECT ");
+			appendProjections(c, sql);
+			sql.append(" FROM ").append(table.apply(c));
+			appendWhere(c, sql);
+			appendGroupBy(c, sql);
+			appendOrderBy(c, sql);
+			appendLimit(c, sql);
+			appendForUpdate(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_PROJECTIONS_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				Map.class /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+		assistant.addMappedStatement(
+				SELECT_PROJECTIONS_CURSOR_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				getCursorFetchSize() /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				Map.class /* resultType */,
+				ResultSetType.FORWARD_ONLY /* resultSetType */,
+				false /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+		// rows handed over unmapped, see ResultSetRow
+		assistant.addMappedStatement(
+				SELECT_PROJECTION_ROWS_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_SET_ROW_MAP_ID /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+		assistant.addMappedStatement(
+				SELECT_PROJECTION_ROWS_CURSOR_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				getCursorFetchSize() /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_SET_ROW_MAP_ID /* resultMap */,
+				null /* resultType */,
+				ResultSetType.FORWARD_ONLY /* resultSetType */,
+				false /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected void buildSelectTotalStatements(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		String columns = getColumnsSql(ctx);
+		Function<SqlContext, SqlFragment> entityTable = getJoinedTableRenderer(ctx,
+				ctx.getEntity().getPropertyNames(), CRITERION_KEY, ORDER_BY_KEY);
+		SqlSource entitySqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("SELECT ").append(columns);
+			appendTotalColumn(c, sql);
+			sql.append(" FROM ").append(entityTable.apply(c));
+			appendWhere(c, sql);
+			appendOrderBy(c, sql);
+			appendLimit(c, sql);
+			appendForUpdate(c, sql);
+			return sql.build();
+		});
+		// rows handed over unmapped, see ResultSetRow
+		assistant.addMappedStatement(
+				SELECT_ENTITY_TOTAL_ID /* id */,
+				entitySqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				RESULT_SET_ROW_MAP_ID /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+
+		Function<SqlContext, SqlFragment> projectionsTable = getJoinedTableRenderer(ctx, Collections.emptySet(),
+				PROJECTIONS_KEY, CRITERION_KEY, HAVING_KEY, ORDER_BY_KEY);
+		SqlSource projectionsSqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("SELECT ");
+			appendProjections(c, sql);
+			appendTotalColumn(c, sql);
+			sql.append(" FROM ").append(projectionsTable.apply(c));
+			appendWhere(c, sql);
+			appendGroupBy(c, sql);
+			appendOrderBy(c, sql);
+			appendLimit(c, sql);
+			appendForUpdate(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_PROJECTIONS_TOTAL_ID /* id */,
+				projectionsSqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				Map.class /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected String getProjectionSql(SqlContext ctx, SqlProjections.Projection projection) {
+		String column = getColumnSql(ctx, projection.getProperty());
+		switch (projection.getType()) {
+		case PROPERTY:
+			return column;
+		case DISTINCT:
+			return "DISTINCT(" + column + ")";
+		case COUNT:
+			return "COUNT(" + column + ")";
+		case COUNT_DISTINCT:
+			return "COUNT(DISTINCT " + column + ")";
+		case AVG:
+			return "AVG(" + column + ")";
+		case MAX:
+			return "MAX(" + column + ")";
+		case MIN:
+			return "MIN(" + column + ")";
+		case SUM:
+			return "SUM(" + column + ")";
+		default:
+			throw new UnsupportedOperationException("Unknown projection type: " + projection.getType().name());
+		}
+	}
+
+	protected void appendTotalColumn(SqlContext ctx, SqlFragment.Builder sql) {
+		sql.append(", COUNT(*) OVER() AS ").append(qoute(TOTAL_COLUMN));
+	}
+
+	protected void buildSelectCountStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		Function<SqlContext, SqlFragment> table = getJoinedTableRenderer(ctx, Collections.emptySet(), CRITERION_KEY);
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("SELECT COUNT(*) FROM ").append(table.apply(c));
+			appendWhere(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_COUNT_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				Long.class /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+		Function<SqlContext, SqlFragment> projectionsTable = getJoinedTableRenderer(ctx, Collections.emptySet(),
+				PROJECTIONS_KEY, CRITERION_KEY, HAVING_KEY);
+		SqlSource projectionsSqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			if (isRowPreserving((SqlProjections) c.getObject(PROJECTIONS_KEY))) {
+				sql.append("SELECT COUNT(*) FROM ").append(projectionsTable.apply(c));
+				appendWhere(c, sql);
+			} else {
+				// distinct, aggregate and grouped projections change the number of rows, so the
+				// projections are kept in a subquery and only the ordering is dropped
+				sql.append("SELECT COUNT(*) FROM (SELECT ");
+				appendProjections(c, sql);
+				sql.append(" FROM ").append(projectionsTable.apply(c));
+				appendWhere(c, sql);
+				appendGroupBy(c, sql);
+				sql.append(") __subquery");
+			}
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_PROJECTIONS_COUNT_ID /* id */,
+				projectionsSqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				Long.class /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	/**
+	 * Check whether projections select exactly one row per matched row, so that
+	 * counting them needs no select list at all.
+	 */
+	protected boolean isRowPreserving(SqlProjections projections) {
+		if (projections == null) {
+			return true;
+		}
+		if (projections.isGrouped()) {
+			return false;
+		}
+		for (SqlProjections.Projection projection : projections.asMap().values()) {
+			if (projection.getType() != SqlProjections.ProjectionType.PROPERTY) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	protected void buildSelectExistsStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		Function<SqlContext, SqlFragment> table = getJoinedTableRenderer(ctx, Collections.emptySet(), CRITERION_KEY);
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("SELECT EXISTS(SELECT 1 FROM ").append(table.apply(c));
+			appendWhere(c, sql);
+			sql.append(")");
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				SELECT_EXISTS_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.SELECT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				Boolean.class /* resultType */,
+				null /* resultSetType */,
+				false /* flushCache */,
+				true /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected void buildDeleteStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		SqlFragment table = getJoinedTableFragment(ctx);
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("DELETE ").append(ctx.getTableAlias()).append(" FROM ").append(table);
+			appendWhere(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				DELETE_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.DELETE /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				true /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected void buildUpdateStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		SqlFragment table = getJoinedTableFragment(ctx);
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			sql.append("UPDATE ").append(table);
+			appendSet(c, sql);
+			appendWhere(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				UPDATE_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.UPDATE /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				true /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected void buildInsertStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		boolean useGeneratedKeys = false;
+		List<String> keyColumns = Lists.newArrayList();
+		List<String> keyProperties = Lists.newArrayList();
+
+		String valuePath = ctx.getObjectPath(VALUE_KEY);
+		List<String> columns = Lists.newArrayList();
+		SqlFragment.Builder values = SqlFragment.builder();
+		for (SqlPropertyMetadata pm : ctx.getEntity().getProperties()) {
+			if (pm.getReference() == null) {
+				if (!columns.isEmpty()) {
+					values.append(',');
+				}
+				columns.add(qoute(pm.getColumn()));
+				if (pm.isGenerated()) {
+					keyColumns.add(pm.getColumn());
+					keyProperties.add(valuePath + "." + pm.getName());
+					useGeneratedKeys = true;
+
+					values.append("default");
+				} else {
+					values.appendParameter(valuePath + "." + pm.getName(), pm);
+				}
+			}
+		}
+
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		SqlFragment insert = SqlFragment.builder()
+				.append("INSERT INTO ").append(getTableSql(ctx, null))
+				.append("(").append(String.join(",", columns)).append(") VALUES(")
+				.append(values.build()).append(")")
+				.build();
+		assistant.addMappedStatement(
+				INSERT_ID /* id */,
+				new CompiledSqlSource(config, ctx.getRootPath(), c -> insert) /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.INSERT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				true /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				useGeneratedKeys ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE /* keyGenerator */,
+				useGeneratedKeys ? String.join(",", keyProperties) : null /* keyProperty */,
+				useGeneratedKeys ? String.join(",", keyColumns) : null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected void buildInsertAllStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		List<String> keyColumns = Lists.newArrayList();
+		List<String> keyProperties = Lists.newArrayList();
+		List<String> columns = Lists.newArrayList();
+		List<SqlPropertyMetadata> properties = Lists.newArrayList();
+		for (SqlPropertyMetadata pm : ctx.getEntity().getProperties()) {
+			if (pm.getReference() == null) {
+				columns.add(qoute(pm.getColumn()));
+				properties.add(pm);
+				if (pm.isGenerated()) {
+					keyColumns.add(pm.getColumn());
+					keyProperties.add(pm.getName());
+				}
+			}
+		}
+
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		String valuesPath = ctx.getObjectPath(VALUES_KEY);
+		String insert = "INSERT INTO " + getTableSql(ctx, null) + "(" + String.join(",", columns) + ") VALUES";
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			List<?> values = (List<?>) c.getObject(VALUES_KEY);
+			SqlFragment.Builder sql = SqlFragment.builder().append(insert);
+			for (int i = 0; i < values.size(); ++i) {
+				String valuePath = valuesPath + "[" + i + "].";
+				sql.append(i == 0 ? "(" : ",(");
+				for (int j = 0; j < properties.size(); ++j) {
+					SqlPropertyMetadata pm = properties.get(j);
+					if (j > 0) {
+						sql.append(',');
+					}
+					if (pm.isGenerated()) {
+						sql.append("default");
+					} else {
+						sql.appendParameter(valuePath + pm.getName(), pm);
+					}
+				}
+				sql.append(')');
+			}
+			return sql.build();
+		});
+		boolean useGeneratedKeys = !keyProperties.isEmpty();
+		assistant.addMappedStatement(
+				INSERT_ALL_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.INSERT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				true /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				useGeneratedKeys ? new MultiRowKeyGenerator(ctx.getRootPath(), VALUES_KEY)
+						: NoKeyGenerator.INSTANCE /* keyGenerator */,
+				useGeneratedKeys ? String.join(",", keyProperties) : null /* keyProperty */,
+				useGeneratedKeys ? String.join(",", keyColumns) : null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	/**
+	 * Build the {@code INSERT ... SELECT} statement copying the projections of a
+	 * source entity into the table of this entity. The statement is executed with
+	 * the context of the source entity, the projection names are the properties
+	 * of this entity the values are inserted into.
+	 */
+	protected void buildInsertFromStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		SqlEntityMetadata target = ctx.getEntity();
+		String insert = "INSERT INTO " + getTableSql(ctx, null) + "(";
+		// the source entity is only known per call, renderers are built once per
+		// source template from a context carrying none of the call's objects
+		Map<SqlContextTemplate, Function<SqlContext, SqlFragment>> tableMap = Maps.newConcurrentMap();
+		SqlSource sqlSource = new CompiledSqlSource(config, ctx.getRootPath(), c -> {
+			SqlProjections projections = (SqlProjections) c.getObject(PROJECTIONS_KEY);
+			SqlFragment.Builder sql = SqlFragment.builder().append(insert);
+			int i = 0;
+			for (String name : projections.asMap().keySet()) {
+				SqlPropertyMetadata pm = target.getProperty(name);
+				if (pm == null || pm.getReference() != null) {
+					throw new IllegalArgumentException("No column of property '" + name + "' in entity "
+							+ target.getType().getName());
+				}
+				if (i++ > 0) {
+					sql.append(',');
+				}
+				sql.append(qoute(pm.getColumn()));
+			}
+			sql.append(") SELECT ");
+			appendProjections(c, sql);
+			sql.append(" FROM ").append(tableMap.computeIfAbsent(c.getTemplate(),
+					t -> getJoinedTableRenderer(
+							new SqlContext(this, config.getTypeAliasRegistry(), ctx.getRootPath(), t),
+							Collections.emptySet(), PROJECTIONS_KEY, CRITERION_KEY, HAVING_KEY))
+					.apply(c));
+			appendWhere(c, sql);
+			appendGroupBy(c, sql);
+			return sql.build();
+		});
+		assistant.addMappedStatement(
+				INSERT_FROM_ID /* id */,
+				sqlSource /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.INSERT /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				Map.class /* parameterType */,
+				null /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				true /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	/**
+	 * Build a statement deleting no rows which flushes the cache of the entity and
+	 * marks the session executing it as modified, used to tie the statements
+	 * another session executed on the same connection to the commit of that
+	 * session.
+	 */
+	protected void buildFlushCacheStatement(SqlContext ctx, MapperBuilderAssistant assistant) {
+		Configuration config = assistant.getConfiguration();
+		LanguageDriver langDrv = config.getLanguageDriver(null);
+		assistant.addMappedStatement(
+				FLUSH_CACHE_ID /* id */,
+				new StaticSqlSource(config, "DELETE FROM " + getTableSql(ctx, null) + " WHERE 1=0") /* sqlSource */,
+				StatementType.PREPARED /* statementType */,
+				SqlCommandType.DELETE /* sqlCommandType */,
+				null /* fetchSize */,
+				null /* timeout */,
+				null /* parameterMap */,
+				null /* parameterType */,
+				null /* resultMap */,
+				null /* resultType */,
+				null /* resultSetType */,
+				true /* flushCache */,
+				false /* useCache */,
+				false /* resultOrdered */,
+				NoKeyGenerator.INSTANCE /* keyGenerator */,
+				null /* keyProperty */,
+				null /* keyColumn */,
+				null /* databaseId */,
+				langDrv /* lang */);
+	}
+
+	protected String getTableSql(SqlContext ctx, String name) {
+		return qoute(ctx.getEntity(name).getTable());
+	}
+
+	protected String getColumnSql(SqlContext ctx, String property) {
+		return join(".", ctx.getColumnAlias(property), qoute(ctx.getProperty(property).getColumn()));
+	}
+
+	protected void appendArgument(SqlContext ctx, SqlFragment.Builder sql, String property, String path, Object arg) {
+		if (arg instanceof SqlReference) {
+			sql.append(getColumnSql(ctx, ((SqlReference) arg).toString()));
+			return;
+		}
+		SqlProjections.Projection projection = getHavingProjection(ctx, path, property);
+		if (projection == null) {
+			sql.appendParameter(path, ctx.getProperty(property));
+		} else if (isTypePreserving(projection)) {
+			sql.appendParameter(path, ctx.getProperty(projection.getProperty()));
+		} else {
+			sql.appendParameter(path);
+		}
+	}
+
+	/**
+	 * Append a parameter bound from an element of the {@link PrimitiveArrayList}
+	 * at the path without boxing it.
+	 */
+	protected void appendElementParameter(SqlContext ctx, SqlFragment.Builder sql, String property, String path,
+			int index) {
+		SqlProjections.Projection projection = getHavingProjection(ctx, path, property);
+		JdbcType jdbcType;
+		if (projection == null) {
+			jdbcType = ctx.getProperty(property).getJdbcType();
+		} else {
+			jdbcType = isTypePreserving(projection) ? ctx.getProperty(projection.getProperty()).getJdbcType() : null;
+		}
+		sql.appendParameter(new SqlFragment.Parameter(path, jdbcType, null, index));
+	}
+
+	/**
+	 * Get the projection a property of a {@code HAVING} criterion refers to,
+	 * property names of such criteria are looked up among the projection names
+	 * first.
+	 *
+	 * @return the projection, or {@code null} if the path is not within the
+	 *         {@code HAVING} criterion or there is no such projection
+	 */
+	protected SqlProjections.Projection getHavingProjection(SqlContext ctx, String path, String property) {
+		Object projections = ctx.getObject(PROJECTIONS_KEY);
+		if (!(projections instanceof SqlProjections) || !path.startsWith(ctx.getObjectPath(HAVING_KEY))) {
+			return null;
+		}
+		return ((SqlProjections) projections).asMap().get(property);
+	}
+
+	/**
+	 * Check whether the values of a projection have the type of its property.
+	 */
+	protected boolean isTypePreserving(SqlProjections.Projection projection) {
+		switch (projection.getType()) {
+		case PROPERTY:
+		case DISTINCT:
+		case MAX:
+		case MIN:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	protected void appendCondition(SqlContext ctx, SqlFragment.Builder sql, String path,
+			SqlCriterion.Condition condition) {
+		String property = condition.getProperty();
+		List<Object> args = condition.getArgs();
+		SqlProjections.Projection projection = getHavingProjection(ctx, path, property);
+		String column = projection != null ? getProjectionSql(ctx, projection) : getColumnSql(ctx, property);
+		IntConsumer argument = index -> {
+			appendArgument(ctx, sql, property, path + ".args[" + index + "]", args.get(index));
+		};
+		switch (condition.getType()) {
+		case EQ:
+			sql.append(column).append(" = ");
+			argument.accept(0);
+			break;
+		case NE:
+			sql.append(column).append(" != ");
+			argument.accept(0);
+			break;
+		case GT:
+			sql.append(column).append(" > ");
+			argument.accept(0);
+			break;
+		case GE:
+			sql.append(column).append(" >= ");
+			argument.accept(0);
+			break;
+		case LT:
+			sql.append(column).append(" < ");
+			argument.accept(0);
+			break;
+		case LE:
+			sql.append(column).append(" <= ");
+			argument.accept(0);
+			break;
+		case IS_NOT_NULL:
+			sql.append(column).append(" IS NOT NULL");
+			break;
+		case IS_NULL:
+			sql.append(column).append(" IS NULL");
+			break;
+		case LIKE:
+			sql.append(column).append(" LIKE ");
+			argument.accept(0);
+			break;
+		case LIKE_ESC:
+			sql.append(column).append(" LIKE ");
+			argument.accept(0);
+			sql.append(" ESCAPE ");
+			argument.accept(1);
+			break;
+		case IN:
+			if (args.isEmpty()) {
+				sql.append(" (1=0) ");
+				break;
+			}
+			sql.append(column).append(" IN(");
+			int size = ctx.getDialect().getPaddedInListSize(args.size());
+			for (int i = 0; i < size; ++i) {
+				if (i > 0) {
+					sql.append(',');
+				}
+				if (args instanceof PrimitiveArrayList) {
+					appendElementParameter(ctx, sql, property, path + ".args", Math.min(i, args.size() - 1));
+				} else {
+					argument.accept(Math.min(i, args.size() - 1));
+				}
+			}
+			sql.append(")");
+			break;
+		case BETWEEN:
+			sql.append(column).append(" BETWEEN ");
+			argument.accept(0);
+			sql.append(" AND ");
+			argument.accept(1);
+			break;
+		default:
+			throw new UnsupportedOperationException("Unknown condition type: " + condition.getType().name());
+		}
+	}
+
+	protected void appendConstant(SqlContext ctx, SqlFragment.Builder sql, String path,
+			SqlCriterion.Constant constant) {
+		switch (constant.getType()) {
+		case FALSE:
+			sql.append(" (1=0) ");
+			break;
+		case TRUE:
+			sql.append(" (1=1) ");
+			break;
+		default:
+			throw new UnsupportedOperationException("Unknown constant type: " + constant.getType().name());
+		}
+	}
+
+	protected void appendSubquery(SqlContext ctx, SqlFragment.Builder sql, String path,
+			SqlCriterion.Subquery subquery) {
+		SqlContext subCtx = ctx.forSubquery(subquery.getEntityType());
+		switch (subquery.getType()) {
+		case EXISTS:
+			sql.append("EXISTS(SELECT 1");
+			break;
+		case IN:
+			sql.append(getColumnSql(ctx, subquery.getProperty())).append(" IN(SELECT ")
+					.append(getColumnSql(subCtx, subquery.getProjection()));
+			break;
+		default:
+			throw new UnsupportedOperationException("Unknown subquery type: " + subquery.getType().name());
+		}
+		sql.append(" FROM ").append(join(" ", getTableSql(subCtx, null), subCtx.getTableAlias()));
+		if (subquery.getCriterion() != null) {
+			int mark = sql.length();
+			sql.append(" WHERE ");
+			int start = sql.length();
+			appendCriterion(subCtx, sql, path + ".criterion", subquery.getCriterion());
+			if (sql.length() == start) {
+				sql.setLength(mark);
+			}
+		}
+		sql.append(")");
+	}
+
+	protected void appendJunction(SqlContext ctx, SqlFragment.Builder sql, String path,
+			SqlCriterion.Junction junction) {
+		List<SqlCriterion> criteria = junction.getCriteria();
+		int start = sql.length();
+		switch (junction.getType()) {
+		case AND:
+		case OR:
+			String separator = junction.getType() == SqlCriterion.JunctionType.AND ? " AND " : " OR ";
+			boolean empty = true;
+			sql.append("(");
+			for (int i = 0; i < criteria.size(); ++i) {
+				int mark = sql.length();
+				if (!empty) {
+					sql.append(separator);
+				}
+				int childStart = sql.length();
+				appendCriterion(ctx, sql, path + ".criteria[" + i + "]", criteria.get(i));
+				if (sql.length() == childStart) {
+					sql.setLength(mark);
+				} else {
+					empty = false;
+				}
+			}
+			if (empty) {
+				sql.setLength(start);
+			} else {
+				sql.append(")");
+			}
+			break;
+		case NOT:
+			sql.append("NOT(");
+			int operandStart = sql.length();
+			appendCriterion(ctx, sql, path + ".criteria[0]", criteria.get(0));
+			if (sql.length() == operandStart) {
+				sql.setLength(start);
+			} else {
+				sql.append(")");
+			}
+			break;
+		default:
+			throw new UnsupportedOperationException("Unknown junction type: " + junction.getType().name());
+		}
+	}
+
+	/**
+	 * Get a renderer of the joined table which leaves out the joins that are
+	 * neither selected nor referenced by any of the given objects.
+	 *
+	 * @param ctx                SQL context of the entity
+	 * @param selectedProperties properties selected by the statement
+	 * @param keys               keys of the objects referencing properties
+	 * @return joined table renderer
+	 */
+	protected Function<SqlContext, SqlFragment> getJoinedTableRenderer(SqlContext ctx,
+			Collection<String> selectedProperties, String... keys) {
+		SqlJoinGraph graph = new SqlJoinGraph(ctx);
+		long selectedJoins = graph.getRequiredJoins();
+		for (String property : selectedProperties) {
+			selectedJoins |= graph.getReferencedJoins(ctx, property);
+		}
+		long baseJoins = selectedJoins;
+		Map<Long, SqlFragment> fragmentMap = Maps.newConcurrentMap();
+		return c -> {
+			long joins = baseJoins;
+			for (String key : keys) {
+				joins |= HAVING_KEY.equals(key)
+						? graph.getHavingJoins(c, (SqlCriterion) c.getObject(key),
+								(SqlProjections) c.getObject(PROJECTIONS_KEY))
+						: graph.getReferencedJoins(c, c.getObject(key));
+			}
+			return fragmentMap.computeIfAbsent(joins, j -> getJoinedTableFragment(ctx, j));
+		};
+	}
+
+	protected SqlFragment getJoinedTableFragment(SqlContext ctx) {
+		return getJoinedTableFragment(ctx, SqlJoinGraph.ALL_JOINS);
+	}
+
+	protected SqlFragment getJoinedTableFragment(SqlContext ctx, long joinMask) {
+		SqlFragment.Builder sql = SqlFragment.builder();
+		sql.append(join(" ", getTableSql(ctx, null), ctx.getTableAlias()));
+		List<SqlJoinMetadata> joins = ctx.getEntity().getJoins();
+		for (int i = 0; i < joins.size(); ++i) {
+			if (!SqlJoinGraph.contains(joinMask, i)) {
+				continue;
+			}
+			SqlJoinMetadata join = joins.get(i);
+			switch (join.getJoinType()) {
+			case FULL_OUTER:
+				sql.append(" FULL JOIN ");
+				break;
+			case INNER:
+				sql.append(" INNER JOIN ");
+				break;
+			case LEFT_OUTER:
+				sql.append(" LEFT JOIN ");
+				break;
+			case RIGHT_OUTER:
+				sql.append(" RIGHT JOIN ");
+				break;
+			}
+			sql.append(getTableSql(ctx, join.getName())).append(" ").append(ctx.getTableAlias(join.getName()))
+					.append(" ON ");
+			appendCriterion(ctx, sql, ctx.getRootPath() + ".entity.joins[" + i + "].criterion", join.getCriterion());
+		}
+		return sql.build();
+	}
+
+	protected void appendClause(SqlContext ctx, SqlFragment.Builder sql, String prefix, String key) {
+		Object obj = ctx.getObject(key);
+		if (obj == null) {
+			return;
+		}
+		int start = sql.length();
+		sql.append(prefix);
+		int contentStart = sql.length();
+		appendObject(ctx, sql, ctx.getObjectPath(key), obj);
+		if (sql.length() == contentStart) {
+			sql.setLength(start);
+		}
+	}
+
+	protected void appendWhere(SqlContext ctx, SqlFragment.Builder sql) {
+		appendClause(ctx, sql, " WHERE ", CRITERION_KEY);
+	}
+
+	protected void appendOrderBy(SqlContext ctx, SqlFragment.Builder sql) {
+		appendClause(ctx, sql, " ORDER BY ", ORDER_BY_KEY);
+	}
+
+	protected void appendSet(SqlContext ctx, SqlFragment.Builder sql) {
+		appendClause(ctx, sql, " SET ", UPDATE_KEY);
+	}
+
+	protected void appendProjections(SqlContext ctx, SqlFragment.Builder sql) {
+		SqlProjections projections = (SqlProjections) ctx.getObject(PROJECTIONS_KEY);
+		if (projections != null) {
+			appendObject(ctx, sql, ctx.getObjectPath(PROJECTIONS_KEY), projections);
+		}
+	}
+
+	/**
+	 * Append the {@code GROUP BY} clause of the projections and the
+	 * {@code HAVING} clause. Having criteria are rendered on every execution,
+	 * as they resolve property names against the projections.
+	 */
+	protected void appendGroupBy(SqlContext ctx, SqlFragment.Builder sql) {
+		SqlProjections projections = (SqlProjections) ctx.getObject(PROJECTIONS_KEY);
+		if (projections != null && projections.isGrouped()) {
+			sql.append(" GROUP BY ");
+			List<String> groupBy = projections.getGroupBy();
+			for (int i = 0; i < groupBy.size(); ++i) {
+				if (i > 0) {
+					sql.append(',');
+				}
+				sql.append(getColumnSql(ctx, groupBy.get(i)));
+			}
+		}
+		SqlCriterion having = (SqlCriterion) ctx.getObject(HAVING_KEY);
+		if (having != null) {
+			int start = sql.length();
+			sql.append(" HAVING ");
+			int contentStart = sql.length();
+			appendCriterion(ctx, sql, ctx.getObjectPath(HAVING_KEY), having);
+			if (sql.length() == contentStart) {
+				sql.setLength(start);
+			}
+		}
+	}
+
+	protected void appendLimit(SqlContext ctx, SqlFragment.Builder sql) {
+		if (ctx.getObject(ROW_BOUNDS_KEY) != null) {
+			String path = ctx.getObjectPath(ROW_BOUNDS_KEY);
+			sql.append(" LIMIT ").appendParameter(path + ".offset").append(", ").appendParameter(path + ".limit");
+		}
+	}
+
+	/**
+	 * A page can be joined back by identifiers only when each matches one row,
+	 * i.e. the entity declares a unique identifier.
+	 */
+	protected boolean isDeferredJoin(SqlContext ctx) {
+		RowBounds rowBounds = (RowBounds) ctx.getObject(ROW_BOUNDS_KEY);
+		return rowBounds != null && ctx.getEntity().isUniqueId() && rowBounds.getOffset() >= getDeferredJoinOffset();
+	}
+
+	/**
+	 * Append a join with the identifiers of the selected page, which are found
+	 * with filtering, ordering and limit applied to the identifier columns only.
+	 */
+	protected void appendDeferredJoin(SqlContext ctx, SqlFragment.Builder sql, SqlFragment pageTable,
+			List<SqlPropertyMetadata> idProperties) {
+		sql.append(" INNER JOIN (SELECT ");
+		for (int i = 0; i < idProperties.size(); ++i) {
+			SqlPropertyMetadata pm = idProperties.get(i);
+			if (i > 0) {
+				sql.append(',');
+			}
+			sql.append(getColumnSql(ctx, pm.getName())).append(" AS ").append(qoute(pm.getColumn()));
+		}
+		sql.append(" FROM ").append(pageTable);
+		appendWhere(ctx, sql);
+		appendOrderBy(ctx, sql);
+		appendLimit(ctx, sql);
+		sql.append(") ").append(DEFERRED_JOIN_ALIAS).append(" ON ");
+		for (int i = 0; i < idProperties.size(); ++i) {
+			SqlPropertyMetadata pm = idProperties.get(i);
+			if (i > 0) {
+				sql.append(" AND ");
+			}
+			sql.append(getColumnSql(ctx, pm.getName())).append(" = ")
+					.append(DEFERRED_JOIN_ALIAS).append('.').append(qoute(pm.getColumn()));
+		}
+	}
+
+	protected void appendForUpdate(SqlContext ctx, SqlFragment.Builder sql) {
+		if (Boolean.TRUE.equals(ctx.getObject(FOR_UPDATE_KEY))) {
+			sql.append(" FOR UPDATE");
+		}
+	}
+
+	protected String getColumnsSql(SqlContext ctx) {
+		return ctx.getEntity().getProperties().stream()
+				.map(pm -> String.format("%s AS %s", getColumnSql(ctx, pm.getName()), qoute(pm.getColumn())))
+				.collect(Collectors.joining(","));
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.sql.ResultSet;
+
+/**
+ * A row of a result set handed over unmapped, i.e. the result set positioned
+ * at that row. Statements using the {@link SqlDialect#RESULT_SET_ROW_MAP_ID}
+ * result map yield such rows to their result handler or cursor, leaving it to
+ * a {@link SqlRowMapper} to read them.
+ */
+public final class ResultSetRow {
+	private final ResultSet resultSet;
+
+	public ResultSetRow(ResultSet resultSet) {
+		this.resultSet = resultSet;
+	}
+
+	public ResultSet getResultSet() {
+		return resultSet;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Resolves a row of a result set to the result set itself, positioned at that
+ * row. It is only bound to the constructor argument of {@link ResultSetRow} in
+ * the {@link SqlDialect#RESULT_SET_ROW_MAP_ID} result map, never registered for
+ * the {@link ResultSet} type.
+ */
+public class ResultSetTypeHandler implements TypeHandler<ResultSet> {
+	@Override
+	public void setParameter(PreparedStatement ps, int i, ResultSet parameter, JdbcType jdbcType) {
+		throw new UnsupportedOperationException("Result sets cannot be bound as parameters");
+	}
+
+	@Override
+	public ResultSet getResult(ResultSet rs, String columnName) {
+		return rs;
+	}
+
+	@Override
+	public ResultSet getResult(ResultSet rs, int columnIndex) {
+		return rs;
+	}
+
+	@Override
+	public ResultSet getResult(CallableStatement cs, int columnIndex) throws SQLException {
+		return (ResultSet) cs.getObject(columnIndex);
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlReference;
+
+/**
+ * Immutable entity and property resolution table shared by every
+ * {@link SqlContext} created for the same set of bound entities.
+ */
+final class SqlContextTemplate {
+	static final SqlContextTemplate EMPTY = new SqlContextTemplate(ImmutableMap.of(), 0);
+
+	private static final String SUBQUERY_TABLE_ALIAS_PREFIX = "s";
+
+	private final Map<String, EntityInfo> entityInfoMap;
+	private final ConcurrentMap<String, PropertyInfo> propertyInfoMap = Maps.newConcurrentMap();
+	private final ConcurrentMap<SqlEntityMetadata, SqlContextTemplate> subqueryMap = Maps.newConcurrentMap();
+	private final int depth;
+	private final int hashCode;
+
+	private SqlContextTemplate(Map<String, EntityInfo> entityInfoMap, int depth) {
+		this.entityInfoMap = entityInfoMap;
+		this.depth = depth;
+		this.hashCode = entityInfoMap.hashCode();
+	}
+
+	static Builder builder() {
+		return new Builder(ImmutableMap.of(), 0);
+	}
+
+	SqlContextTemplate withEntity(String name, SqlEntityMetadata entity, String alias) {
+		return new Builder(entityInfoMap, depth).entity(name, entity, alias).build();
+	}
+
+	/**
+	 * Get the template of a subquery over an entity: the entity becomes the
+	 * default one with an alias of the nesting depth, the default entity of this
+	 * template is bound as {@link SqlCriterion.Subquery#OUTER} and the other
+	 * entities keep their names and aliases.
+	 */
+	SqlContextTemplate forSubquery(SqlEntityMetadata entity) {
+		return subqueryMap.computeIfAbsent(entity, em -> {
+			Builder builder = new Builder(ImmutableMap.of(), depth + 1);
+			for (Map.Entry<String, EntityInfo> entry : entityInfoMap.entrySet()) {
+				String name = entry.getKey().isEmpty() ? SqlCriterion.Subquery.OUTER : entry.getKey();
+				builder.entity(name, entry.getValue().entity, entry.getValue().alias);
+			}
+			return builder.entity("", em, SUBQUERY_TABLE_ALIAS_PREFIX + (depth + 1)).build();
+		});
+	}
+
+	EntityInfo getEntityInfo(String name) {
+		EntityInfo info = entityInfoMap.get(name);
+		if (info == null) {
+			if (name.isEmpty()) {
+				throw new IllegalArgumentException("No default entity specified");
+			} else {
+				throw new IllegalArgumentException("No such entity specified: " + name);
+			}
+		}
+		return info;
+	}
+
+	PropertyInfo getPropertyInfo(String property) {
+		PropertyInfo info = propertyInfoMap.get(property);
+		if (info == null) {
+			info = resolve(property);
+			if (info == null) {
+				throw new IllegalArgumentException("Unresolvable property: " + property);
+			}
+		}
+		return info;
+	}
+
+	private PropertyInfo resolve(String property) {
+		SqlReference ref = SqlReference.of(property);
+		SqlPropertyMetadata pm = null;
+		EntityInfo er = entityInfoMap.get("");
+		if (er == null && ref.getName() == null) {
+			return null;
+		}
+		while (ref != null && ref.getName() == null) {
+			pm = er.entity.getProperty(ref.getProperty());
+			if (pm == null) {
+				return null;
+			}
+			ref = pm.getReference() != null ? SqlReference.of(pm.getReference()) : null;
+		}
+		if (ref != null) {
+			String name = ref.getName();
+			er = entityInfoMap.get(name);
+			if (er == null) {
+				return null;
+			}
+			// a reference without a name stays within the named entity
+			while (ref != null && (ref.getName() == null || ref.getName().equals(name))) {
+				pm = er.entity.getProperty(ref.getProperty());
+				if (pm == null) {
+					return null;
+				}
+				ref = pm.getReference() != null ? SqlReference.of(pm.getReference()) : null;
+			}
+		}
+		if (ref != null) {
+			return null;
+		}
+		PropertyInfo info = new PropertyInfo(er.entity, er.alias, pm);
+		PropertyInfo existing = propertyInfoMap.putIfAbsent(property, info);
+		return existing != null ? existing : info;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		SqlContextTemplate other = (SqlContextTemplate) obj;
+		return hashCode == other.hashCode && entityInfoMap.equals(other.entityInfoMap);
+	}
+
+	/**
+	 * Collects the bound entities, then resolves every property and property
+	 * alias of them up front.
+	 */
+	static class Builder {
+		private final Map<String, EntityInfo> entityInfoMap;
+		private final int depth;
+
+		private Builder(Map<String, EntityInfo> entityInfoMap, int depth) {
+			this.entityInfoMap = Maps.newLinkedHashMap(entityInfoMap);
+			this.depth = depth;
+		}
+
+		Builder entity(String name, SqlEntityMetadata entity, String alias) {
+			entityInfoMap.put(name, new EntityInfo(entity, alias));
+			return this;
+		}
+
+		SqlContextTemplate build() {
+			SqlContextTemplate template = new SqlContextTemplate(ImmutableMap.copyOf(entityInfoMap), depth);
+			for (Map.Entry<String, EntityInfo> entry : entityInfoMap.entrySet()) {
+				String prefix = entry.getKey().isEmpty() ? "" : entry.getKey() + ".";
+				SqlEntityMetadata em = entry.getValue().entity;
+				for (String property : em.getPropertyNames()) {
+					template.resolve(prefix + property);
+				}
+				for (String propertyAlias : em.getPropertyAliases()) {
+					template.resolve(prefix + "#" + propertyAlias);
+				}
+			}
+			return template;
+		}
+	}
+
+	static class EntityInfo {
+		final SqlEntityMetadata entity;
+		final String alias;
+
+		private EntityInfo(SqlEntityMetadata entity, String alias) {
+			this.entity = entity;
+			this.alias = alias;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(entity, alias);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			EntityInfo other = (EntityInfo) obj;
+			return entity == other.entity && Objects.equals(alias, other.alias);
+		}
+	}
+
+	static class PropertyInfo extends EntityInfo {
+		final SqlPropertyMetadata property;
+
+		private PropertyInfo(SqlEntityMetadata entity, String alias, SqlPropertyMetadata property) {
+			super(entity, alias);
+			this.property = property;
+		}
+	}
+}
@@ -1,103 +1,430 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.registry;
-
-import java.util.Optional;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicReference;
-
-import org.apache.ibatis.builder.MapperBuilderAssistant;
-import org.apache.ibatis.session.RowBounds;
-
-import com.google.common.base.Strings;
-import com.google.common.collect.Maps;
-
-import com.github.springlink.mybatis.sql.SqlCriterion;
-import com.github.springlink.mybatis.sql.SqlOrderBy;
-import com.github.springlink.mybatis.sql.SqlProjections;
-import com.github.springlink.mybatis.sql.SqlUpdate;
-import com.github.springlink.mybatis.util.Asserts;
-import com.github.springlink.mybatis.util.BoundSqlBuilder;
-
-public abstract class SqlDialect {
-	public static final String RESULT_MAP_ID = "resultMap";
-	public static final String SELECT_ENTITY_ID = "selectEntity";
-	public static final String SELECT_PROJECTIONS_ID = "selectProjections";
-	public static final String SELECT_COUNT_ID = "selectCount";
-	public static final String SELECT_EXISTS_ID = "selectExists";
-	public static final String UPDATE_ID = "update";
-	public static final String DELETE_ID = "delete";
-	public static final String INSERT_ID = "insert";
-
-	public static final String CRITERION_KEY = "criterion";
-	public static final String ORDER_BY_KEY = "orderBy";
-	public static final String ROW_BOUNDS_KEY = "rowBounds";
-	public static final String FOR_UPDATE_KEY = "forUpdate";
-	public static final String PROJECTIONS_KEY = "projections";
-	public static final String UPDATE_KEY = "update";
-	public static final String VALUE_KEY = "value";
-
-	private static final ConcurrentMap<String, SqlDialect> dialectMap = Maps.newConcurrentMap();
-	private static final ThreadLocal<SqlDialect> currentDialect = new ThreadLocal<>();
-	private static final AtomicReference<SqlDialect> defaultDialect = new AtomicReference<>();
-
-	static {
-		add("mysql", new MySQLDialect());
-		add("h2", new H2Dialect());
-		setDefault("mysql");
-	}
-
-	public static SqlDialect get(String name) {
-		return Strings.isNullOrEmpty(name) ? defaultDialect.get() : dialectMap.get(name);
-	}
-
-	public static void add(String name, SqlDialect dialect) {
-		Asserts.notEmpty(name, "name");
-		Asserts.notNull(dialect, "dialect");
-		dialectMap.put(name, dialect);
-	}
-
-	public static SqlDialect getDefault() {
-		return defaultDialect.get();
-	}
-
-	public static void setDefault(String name) {
-		defaultDialect.set(get(name));
-	}
-
-	public static SqlDialect getCurrent() {
-		return Optional.ofNullable(currentDialect.get()).orElseGet(defaultDialect::get);
-	}
-
-	public static void setCurrent(String name) {
-		currentDialect.set(get(name));
-	}
-
-	public abstract String getCriterionSql(SqlContext ctx, String path, SqlCriterion criterion);
-
-	public abstract String getOrderBySql(SqlContext ctx, String path, SqlOrderBy orderBy);
-
-	public abstract String getUpdateSql(SqlContext ctx, String path, SqlUpdate update);
-
-	public abstract String getProjectionsSql(SqlContext ctx, String path, SqlProjections projections);
-
-	public abstract void buildMapper(SqlContext ctx, MapperBuilderAssistant assistant);
-
-	public abstract void buildLimitBoundSql(BoundSqlBuilder builder, RowBounds rowBounds);
-
-	public abstract void buildCountBoundSql(BoundSqlBuilder builder, RowBounds rowBounds);
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.session.RowBounds;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlUpdate;
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.BeanMetadata;
+import com.github.springlink.mybatis.util.BoundSqlBuilder;
+import com.github.springlink.mybatis.util.PropertyAccessor;
+import com.github.springlink.mybatis.util.SqlTextStats;
+
+public abstract class SqlDialect {
+	public static final String RESULT_MAP_ID = "resultMap";
+	public static final String RESULT_SET_ROW_MAP_ID = "resultSetRow";
+	public static final String SELECT_ENTITY_ID = "selectEntity";
+	public static final String SELECT_BY_ID_ID = "selectById";
+	public static final String SELECT_BY_IDS_ID = "selectByIds";
+	public static final String SELECT_PROJECTIONS_ID = "selectProjections";
+	public static final String SELECT_ENTITY_CURSOR_ID = "selectEntityCursor";
+	public static final String SELECT_PROJECTIONS_CURSOR_ID = "selectProjectionsCursor";
+	public static final String SELECT_PROJECTION_ROWS_ID = "selectProjectionRows";
+	public static final String SELECT_PROJECTION_ROWS_CURSOR_ID = "selectProjectionRowsCursor";
+	public static final String SELECT_ENTITY_TOTAL_ID = "selectEntityTotal";
+	public static final String SELECT_PROJECTIONS_TOTAL_ID = "selectProjectionsTotal";
+	public static final String SELECT_COUNT_ID = "selectCount";
+	public static final String SELECT_PROJECTIONS_COUNT_ID = "selectProjectionsCount";
+	public static final String SELECT_EXISTS_ID = "selectExists";
+	public static final String UPDATE_ID = "update";
+	public static final String DELETE_ID = "delete";
+	public static final String INSERT_ID = "insert";
+	public static final String INSERT_ALL_ID = "insertAll";
+	public static final String INSERT_FROM_ID = "insertFrom";
+	public static final String FLUSH_CACHE_ID = "flushCache";
+
+	public static final String CRITERION_KEY = "criterion";
+	public static final String ORDER_BY_KEY = "orderBy";
+	public static final String ROW_BOUNDS_KEY = "rowBounds";
+	public static final String FOR_UPDATE_KEY = "forUpdate";
+	public static final String PROJECTIONS_KEY = "projections";
+	public static final String HAVING_KEY = "having";
+	public static final String UPDATE_KEY = "update";
+	public static final String VALUE_KEY = "value";
+	public static final String VALUES_KEY = "values";
+	public static final String ID_KEY = "id";
+	public static final String IDS_KEY = "ids";
+
+	public static final String TOTAL_COLUMN = "__total";
+
+	public static final long DEFAULT_FRAGMENT_CACHE_SIZE = 1024;
+	public static final int DEFAULT_MAX_INSERT_PARAMETERS = 65535;
+	public static final long DEFAULT_MAX_INSERT_PACKET_SIZE = 4L * 1024 * 1024;
+	public static final int DEFAULT_DEFERRED_JOIN_OFFSET = Integer.MAX_VALUE;
+
+	private static final ConcurrentMap<String, SqlDialect> dialectMap = Maps.newConcurrentMap();
+	private static final ThreadLocal<SqlDialect> currentDialect = new ThreadLocal<>();
+	private static final AtomicReference<SqlDialect> defaultDialect = new AtomicReference<>();
+
+	private final SqlFragmentCache fragmentCache;
+	private volatile Integer cursorFetchSize;
+	private volatile int maxInsertParameters = DEFAULT_MAX_INSERT_PARAMETERS;
+	private volatile long maxInsertPacketSize = DEFAULT_MAX_INSERT_PACKET_SIZE;
+	private volatile boolean windowFunctionsSupported;
+	private volatile int deferredJoinOffset = DEFAULT_DEFERRED_JOIN_OFFSET;
+	private volatile int[] inListBuckets;
+	private final SqlTextStats sqlTextStats = new SqlTextStats();
+
+	static {
+		add("mysql", new MySQLDialect());
+		add("h2", new H2Dialect());
+		setDefault("mysql");
+	}
+
+	public static SqlDialect get(String name) {
+		return Strings.isNullOrEmpty(name) ? defaultDialect.get() : dialectMap.get(name);
+	}
+
+	public static void add(String name, SqlDialect dialect) {
+		Asserts.notEmpty(name, "name");
+		Asserts.notNull(dialect, "dialect");
+		dialectMap.put(name, dialect);
+	}
+
+	public static SqlDialect getDefault() {
+		return defaultDialect.get();
+	}
+
+	public static void setDefault(String name) {
+		defaultDialect.set(get(name));
+	}
+
+	public static SqlDialect getCurrent() {
+		return Optional.ofNullable(currentDialect.get()).orElseGet(defaultDialect::get);
+	}
+
+	public static void setCurrent(String name) {
+		currentDialect.set(get(name));
+	}
+
+	protected SqlDialect() {
+		this(DEFAULT_FRAGMENT_CACHE_SIZE);
+	}
+
+	protected SqlDialect(long fragmentCacheSize) {
+		this.fragmentCache = new SqlFragmentCache(fragmentCacheSize);
+	}
+
+	public SqlFragmentCache getFragmentCache() {
+		return fragmentCache;
+	}
+
+	public Integer getCursorFetchSize() {
+		return cursorFetchSize;
+	}
+
+	/**
+	 * Set the fetch size of the cursor statements, only affects the entities
+	 * registered afterwards.
+	 *
+	 * @param cursorFetchSize fetch size, or {@code null} for the driver default
+	 */
+	public void setCursorFetchSize(Integer cursorFetchSize) {
+		this.cursorFetchSize = cursorFetchSize;
+	}
+
+	public boolean isWindowFunctionsSupported() {
+		return windowFunctionsSupported;
+	}
+
+	/**
+	 * Set whether the database supports window functions, which allows selecting
+	 * the total row count along with a page in one query. Disabled by default,
+	 * e.g. MySQL supports them from 8.0 on.
+	 *
+	 * @param windowFunctionsSupported whether window functions are supported
+	 */
+	public void setWindowFunctionsSupported(boolean windowFunctionsSupported) {
+		this.windowFunctionsSupported = windowFunctionsSupported;
+	}
+
+	public int getMaxInsertParameters() {
+		return maxInsertParameters;
+	}
+
+	/**
+	 * Set the maximum number of bind parameters of a multi-row insert statement.
+	 *
+	 * @param maxInsertParameters parameter limit of the driver
+	 */
+	public void setMaxInsertParameters(int maxInsertParameters) {
+		if (maxInsertParameters <= 0) {
+			throw new IllegalArgumentException("Invalid maxInsertParameters: " + maxInsertParameters);
+		}
+		this.maxInsertParameters = maxInsertParameters;
+	}
+
+	public long getMaxInsertPacketSize() {
+		return maxInsertPacketSize;
+	}
+
+	/**
+	 * Set the maximum estimated size in bytes of a multi-row insert statement,
+	 * usually the {@code max_allowed_packet} of the server.
+	 *
+	 * @param maxInsertPacketSize packet size limit
+	 */
+	public void setMaxInsertPacketSize(long maxInsertPacketSize) {
+		if (maxInsertPacketSize <= 0) {
+			throw new IllegalArgumentException("Invalid maxInsertPacketSize: " + maxInsertPacketSize);
+		}
+		this.maxInsertPacketSize = maxInsertPacketSize;
+	}
+
+	public int getDeferredJoinOffset() {
+		return deferredJoinOffset;
+	}
+
+	/**
+	 * Set the offset from which entity selects page through the identifier
+	 * columns first and join the full rows of the page back, instead of reading
+	 * and discarding {@code offset} full rows. Only entities declaring a unique
+	 * identifier with {@link com.github.springlink.mybatis.annotation.SqlEntity#uniqueId()}
+	 * are paged this way.
+	 *
+	 * @param deferredJoinOffset offset threshold, {@link Integer#MAX_VALUE} to
+	 *                           disable deferred joins
+	 */
+	public void setDeferredJoinOffset(int deferredJoinOffset) {
+		if (deferredJoinOffset < 0) {
+			throw new IllegalArgumentException("Invalid deferredJoinOffset: " + deferredJoinOffset);
+		}
+		this.deferredJoinOffset = deferredJoinOffset;
+	}
+
+	public int[] getInListBuckets() {
+		int[] buckets = inListBuckets;
+		return buckets == null ? null : buckets.clone();
+	}
+
+	/**
+	 * Set the sizes IN lists are padded up to by repeating their last value, so
+	 * that lists of different lengths share the same SQL text and prepared
+	 * statement. Lists longer than the largest size are not padded, the entity
+	 * DAOs split them into chunks of the largest size instead.
+	 *
+	 * @param inListBuckets ascending positive sizes, empty to disable padding
+	 */
+	public void setInListBuckets(int... inListBuckets) {
+		Asserts.notNull(inListBuckets, "inListBuckets");
+		for (int i = 0; i < inListBuckets.length; ++i) {
+			if (inListBuckets[i] <= 0 || (i > 0 && inListBuckets[i] <= inListBuckets[i - 1])) {
+				throw new IllegalArgumentException("Invalid inListBuckets: " + Arrays.toString(inListBuckets));
+			}
+		}
+		this.inListBuckets = inListBuckets.length == 0 ? null : inListBuckets.clone();
+		// fragments are cached by argument count, which no longer determines the SQL
+		fragmentCache.clear();
+	}
+
+	/**
+	 * Get the power of two sizes up to a maximum, i.e. {@code 1, 2, 4, ...}
+	 * followed by the maximum itself if it is not a power of two.
+	 *
+	 * @param maxSize the largest size
+	 * @return IN list buckets
+	 */
+	public static int[] getPowerOfTwoBuckets(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid maxSize: " + maxSize);
+		}
+		List<Integer> buckets = Lists.newArrayList();
+		for (int size = 1; size > 0 && size < maxSize; size <<= 1) {
+			buckets.add(size);
+		}
+		buckets.add(maxSize);
+		return Ints.toArray(buckets);
+	}
+
+	/**
+	 * Get the number of values an IN list of the given size is rendered with.
+	 *
+	 * @param size number of values
+	 * @return the smallest bucket holding the list, or the size itself if padding
+	 *         is disabled or no bucket is large enough
+	 */
+	public int getPaddedInListSize(int size) {
+		int[] buckets = inListBuckets;
+		if (buckets == null || size == 0) {
+			return size;
+		}
+		for (int bucket : buckets) {
+			if (bucket >= size) {
+				return bucket;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Get the largest number of values an IN list is queried with at once.
+	 *
+	 * @return the largest bucket, or {@link Integer#MAX_VALUE} if padding is
+	 *         disabled
+	 */
+	public int getMaxInListSize() {
+		int[] buckets = inListBuckets;
+		return buckets == null ? Integer.MAX_VALUE : buckets[buckets.length - 1];
+	}
+
+	public SqlTextStats getSqlTextStats() {
+		return sqlTextStats;
+	}
+
+	public String getCriterionSql(SqlContext ctx, String path, SqlCriterion criterion) {
+		return getFragment(ctx, path, criterion).toScript();
+	}
+
+	public String getOrderBySql(SqlContext ctx, String path, SqlOrderBy orderBy) {
+		return getFragment(ctx, path, orderBy).toScript();
+	}
+
+	public String getUpdateSql(SqlContext ctx, String path, SqlUpdate update) {
+		return getFragment(ctx, path, update).toScript();
+	}
+
+	public String getProjectionsSql(SqlContext ctx, String path, SqlProjections projections) {
+		return getFragment(ctx, path, projections).toScript();
+	}
+
+	/**
+	 * Render a criterion, order by, update or projections object. The rendered
+	 * fragment only depends on the shape of the object, so it is served from the
+	 * fragment cache whenever an object of the same shape was rendered before;
+	 * argument values are resolved by path when the statement executes.
+	 */
+	public SqlFragment getFragment(SqlContext ctx, String path, Object obj) {
+		Asserts.notNull(obj, "obj");
+		return fragmentCache.get(ctx, path, obj, () -> {
+			SqlFragment.Builder sql = SqlFragment.builder();
+			renderObject(ctx, sql, path, obj);
+			return sql.build();
+		});
+	}
+
+	public void appendObject(SqlContext ctx, SqlFragment.Builder sql, String path, Object obj) {
+		sql.append(getFragment(ctx, path, obj));
+	}
+
+	protected void renderObject(SqlContext ctx, SqlFragment.Builder sql, String path, Object obj) {
+		if (obj instanceof SqlCriterion) {
+			appendCriterion(ctx, sql, path, (SqlCriterion) obj);
+		} else if (obj instanceof SqlOrderBy) {
+			appendOrderBy(ctx, sql, path, (SqlOrderBy) obj);
+		} else if (obj instanceof SqlUpdate) {
+			appendUpdate(ctx, sql, path, (SqlUpdate) obj);
+		} else if (obj instanceof SqlProjections) {
+			appendProjections(ctx, sql, path, (SqlProjections) obj);
+		} else {
+			throw new IllegalArgumentException("Illegal object type " + obj.getClass().getName() + ": [" + path + "]");
+		}
+	}
+
+	/**
+	 * Split the values of a multi-row insert into chunks, so that each chunk stays
+	 * within the bind parameter limit and the estimated packet size limit. A chunk
+	 * contains at least one value. Null values are skipped.
+	 *
+	 * @param <T>    value type
+	 * @param ctx    SQL context of the entity
+	 * @param values values to insert
+	 * @return chunks of values
+	 */
+	public <T> List<List<T>> partitionInsertValues(SqlContext ctx, Iterable<? extends T> values) {
+		Asserts.notNull(values, "values");
+		BeanMetadata metadata = BeanMetadata.forBeanType(ctx.getEntity().getType());
+		List<PropertyAccessor> accessors = Lists.newArrayList();
+		long headerSize = ctx.getEntity().getTable().length() + 32;
+		for (SqlPropertyMetadata pm : ctx.getEntity().getProperties()) {
+			if (pm.getReference() == null) {
+				headerSize += pm.getColumn().length() + 3;
+				if (!pm.isGenerated()) {
+					accessors.add(metadata.getPropertyAccessor(pm.getName()));
+				}
+			}
+		}
+		int maxRows = Math.max(1, maxInsertParameters / Math.max(1, accessors.size()));
+		List<List<T>> chunks = Lists.newArrayList();
+		List<T> chunk = Lists.newArrayList();
+		long size = headerSize;
+		for (T value : values) {
+			if (value == null) {
+				continue;
+			}
+			long rowSize = estimateRowSize(value, accessors);
+			if (!chunk.isEmpty() && (chunk.size() >= maxRows || size + rowSize > maxInsertPacketSize)) {
+				chunks.add(chunk);
+				chunk = Lists.newArrayList();
+				size = headerSize;
+			}
+			chunk.add(value);
+			size += rowSize;
+		}
+		if (!chunk.isEmpty()) {
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	protected long estimateRowSize(Object row, List<PropertyAccessor> accessors) {
+		long size = 3;
+		for (PropertyAccessor accessor : accessors) {
+			Object value = accessor != null && accessor.isReadable() ? accessor.get(row) : null;
+			if (value instanceof CharSequence) {
+				size += ((CharSequence) value).length() * 4L + 3;
+			} else if (value instanceof byte[]) {
+				size += ((byte[]) value).length * 2L + 3;
+			} else {
+				size += 24;
+			}
+		}
+		return size;
+	}
+
+	public abstract void appendCriterion(SqlContext ctx, SqlFragment.Builder sql, String path, SqlCriterion criterion);
+
+	public abstract void appendOrderBy(SqlContext ctx, SqlFragment.Builder sql, String path, SqlOrderBy orderBy);
+
+	public abstract void appendUpdate(SqlContext ctx, SqlFragment.Builder sql, String path, SqlUpdate update);
+
+	public abstract void appendProjections(SqlContext ctx, SqlFragment.Builder sql, String path,
+			SqlProjections projections);
+
+	public abstract void buildMapper(SqlContext ctx, MapperBuilderAssistant assistant);
+
+	public abstract void buildLimitBoundSql(BoundSqlBuilder builder, RowBounds rowBounds);
+
+	public abstract void buildCountBoundSql(BoundSqlBuilder builder, RowBounds rowBounds);
+}
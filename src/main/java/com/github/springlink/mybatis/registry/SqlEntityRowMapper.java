@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.util.BeanMetadata;
+import com.github.springlink.mybatis.util.PropertyAccessor;
+
+/**
+ * Maps rows with the entity result map built by a dialect the way
+ * {@link DefaultResultSetHandler} maps them with the result map: columns
+ * missing from the result set are skipped, null values are only set with
+ * {@code callSettersOnNulls}, and a row without any non-null value is mapped
+ * to {@code null} unless {@code returnInstanceForEmptyRow} is set. Column
+ * positions, type handlers and property accessors are resolved once for the
+ * column labels of a result set.
+ */
+public final class SqlEntityRowMapper {
+	private final Class<?> type;
+	private final ObjectFactory objectFactory;
+	private final boolean callSettersOnNulls;
+	private final boolean returnInstanceForEmptyRow;
+	private final int[] columnIndexes;
+	private final TypeHandler<?>[] typeHandlers;
+	private final PropertyAccessor[] accessors;
+	private final boolean[] primitives;
+
+	private SqlEntityRowMapper(Configuration configuration, ResultMap resultMap, List<String> labels) {
+		this.type = resultMap.getType();
+		this.objectFactory = configuration.getObjectFactory();
+		this.callSettersOnNulls = configuration.isCallSettersOnNulls();
+		this.returnInstanceForEmptyRow = configuration.isReturnInstanceForEmptyRow();
+		BeanMetadata metadata = BeanMetadata.forBeanType(type);
+		List<ResultMapping> mappings = Lists.newArrayList();
+		List<Integer> indexes = Lists.newArrayList();
+		for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+			int index = labels.indexOf(mapping.getColumn().toUpperCase(Locale.ENGLISH));
+			if (index >= 0) {
+				mappings.add(mapping);
+				indexes.add(index + 1);
+			}
+		}
+		this.columnIndexes = new int[mappings.size()];
+		this.typeHandlers = new TypeHandler<?>[mappings.size()];
+		this.accessors = new PropertyAccessor[mappings.size()];
+		this.primitives = new boolean[mappings.size()];
+		for (int i = 0; i < columnIndexes.length; ++i) {
+			ResultMapping mapping = mappings.get(i);
+			columnIndexes[i] = indexes.get(i);
+			typeHandlers[i] = mapping.getTypeHandler();
+			accessors[i] = metadata.getPropertyAccessor(mapping.getProperty());
+			primitives[i] = metadata.getPropertyType(mapping.getProperty()).isPrimitive();
+		}
+	}
+
+	/**
+	 * Create a mapper of the rows of result sets with the given column labels.
+	 *
+	 * @param configuration MyBatis configuration
+	 * @param resultMap     entity result map, see {@link #isEntityResultMap}
+	 * @param labels        upper case column labels, see {@link #getLabels}
+	 * @return row mapper
+	 */
+	public static SqlEntityRowMapper create(Configuration configuration, ResultMap resultMap, List<String> labels) {
+		if (!isEntityResultMap(resultMap)) {
+			throw new IllegalArgumentException("Not an entity result map: " + resultMap.getId());
+		}
+		return new SqlEntityRowMapper(configuration, resultMap, labels);
+	}
+
+	/**
+	 * Check whether a result map is the entity result map built by a dialect,
+	 * i.e. it only maps columns to properties with accessors.
+	 *
+	 * @param resultMap result map
+	 * @return true if the rows can be mapped by this mapper
+	 */
+	public static boolean isEntityResultMap(ResultMap resultMap) {
+		if (!resultMap.getId().equals(resultMap.getType().getName() + "." + SqlDialect.RESULT_MAP_ID)
+				|| resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+				|| !resultMap.getConstructorResultMappings().isEmpty() || resultMap.getDiscriminator() != null
+				|| !Boolean.FALSE.equals(resultMap.getAutoMapping())) {
+			return false;
+		}
+		BeanMetadata metadata = BeanMetadata.forBeanType(resultMap.getType());
+		for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+			PropertyAccessor accessor = metadata.getPropertyAccessor(mapping.getProperty());
+			if (mapping.getColumn() == null || mapping.isCompositeResult() || mapping.getResultSet() != null
+					|| accessor == null || !accessor.isWritable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the column labels of a result set as {@link DefaultResultSetHandler}
+	 * matches them against the columns of result mappings.
+	 *
+	 * @param configuration MyBatis configuration
+	 * @param metaData      result set metadata
+	 * @return upper case column labels
+	 * @throws SQLException if the metadata cannot be read
+	 */
+	public static List<String> getLabels(Configuration configuration, ResultSetMetaData metaData)
+			throws SQLException {
+		String[] labels = new String[metaData.getColumnCount()];
+		for (int i = 0; i < labels.length; ++i) {
+			String label = configuration.isUseColumnLabel() ? metaData.getColumnLabel(i + 1)
+					: metaData.getColumnName(i + 1);
+			labels[i] = label.toUpperCase(Locale.ENGLISH);
+		}
+		return Arrays.asList(labels);
+	}
+
+	/**
+	 * Map the current row of a result set.
+	 *
+	 * @param rs result set positioned at the row
+	 * @return entity object, or {@code null} for a row without values
+	 * @throws SQLException if a column cannot be read
+	 */
+	public Object map(ResultSet rs) throws SQLException {
+		Object row = objectFactory.create(type);
+		boolean found = false;
+		for (int i = 0; i < columnIndexes.length; ++i) {
+			Object value = typeHandlers[i].getResult(rs, columnIndexes[i]);
+			if (value != null) {
+				found = true;
+				accessors[i].set(row, value);
+			} else if (callSettersOnNulls && !primitives[i]) {
+				accessors[i].set(row, null);
+			}
+		}
+		return found || returnInstanceForEmptyRow ? row : null;
+	}
+}
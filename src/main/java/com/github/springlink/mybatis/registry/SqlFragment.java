@@ -0,0 +1,240 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+
+/**
+ * A piece of rendered SQL text using {@code ?} placeholders, together with the
+ * parameters bound to each placeholder in order of appearance.
+ */
+public final class SqlFragment {
+	private static final SqlFragment EMPTY = new SqlFragment("", new int[0], Collections.emptyList());
+
+	private final String sql;
+	private final int[] offsets;
+	private final List<Parameter> parameters;
+
+	private SqlFragment(String sql, int[] offsets, List<Parameter> parameters) {
+		this.sql = sql;
+		this.offsets = offsets;
+		this.parameters = parameters;
+	}
+
+	public static SqlFragment empty() {
+		return EMPTY;
+	}
+
+	public static SqlFragment of(String sql) {
+		Asserts.notNull(sql, "sql");
+		return sql.isEmpty() ? EMPTY : new SqlFragment(sql, new int[0], Collections.emptyList());
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public List<Parameter> getParameters() {
+		return parameters;
+	}
+
+	public boolean isEmpty() {
+		return sql.isEmpty();
+	}
+
+	/**
+	 * Render this fragment as a MyBatis script, replacing every placeholder with
+	 * its {@code #{...}} parameter expression.
+	 *
+	 * @return script text
+	 */
+	public String toScript() {
+		if (parameters.isEmpty()) {
+			return sql;
+		}
+		StringBuilder sb = new StringBuilder(sql.length() + parameters.size() * 32);
+		int last = 0;
+		for (int i = 0; i < offsets.length; ++i) {
+			sb.append(sql, last, offsets[i]).append(parameters.get(i).toScript());
+			last = offsets[i] + 1;
+		}
+		return sb.append(sql, last, sql.length()).toString();
+	}
+
+	@Override
+	public String toString() {
+		return toScript();
+	}
+
+	public static class Parameter {
+		private final String path;
+		private final JdbcType jdbcType;
+		private final Class<? extends TypeHandler<?>> typeHandler;
+		private final int elementIndex;
+
+		public Parameter(String path, JdbcType jdbcType, Class<? extends TypeHandler<?>> typeHandler) {
+			this(path, jdbcType, typeHandler, -1);
+		}
+
+		/**
+		 * @param elementIndex index of the element bound from the list at the path,
+		 *                     which is a {@link PrimitiveArrayList} unless the
+		 *                     fragment is used as script, or {@code -1} to bind the
+		 *                     value at the path itself
+		 */
+		public Parameter(String path, JdbcType jdbcType, Class<? extends TypeHandler<?>> typeHandler,
+				int elementIndex) {
+			Asserts.notEmpty(path, "path");
+			this.path = path;
+			this.jdbcType = jdbcType;
+			this.typeHandler = typeHandler;
+			this.elementIndex = elementIndex;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public JdbcType getJdbcType() {
+			return jdbcType;
+		}
+
+		public Class<? extends TypeHandler<?>> getTypeHandler() {
+			return typeHandler;
+		}
+
+		public int getElementIndex() {
+			return elementIndex;
+		}
+
+		public String toScript() {
+			StringBuilder sb = new StringBuilder();
+			sb.append("#{").append(path);
+			if (elementIndex >= 0) {
+				sb.append('[').append(elementIndex).append(']');
+			}
+			if (jdbcType != null) {
+				sb.append(",jdbcType=").append(jdbcType.name());
+			}
+			if (typeHandler != null) {
+				sb.append(",typeHandler=").append(typeHandler.getName());
+			}
+			return sb.append("}").toString();
+		}
+
+		@Override
+		public String toString() {
+			return toScript();
+		}
+	}
+
+	public static class Builder {
+		private final StringBuilder sql = new StringBuilder();
+		private int[] offsets = new int[8];
+		private final List<Parameter> parameters = Lists.newArrayList();
+
+		private Builder() {
+		}
+
+		public Builder append(String text) {
+			sql.append(text);
+			return this;
+		}
+
+		public Builder append(char ch) {
+			sql.append(ch);
+			return this;
+		}
+
+		public Builder append(SqlFragment fragment) {
+			int base = sql.length();
+			sql.append(fragment.sql);
+			for (int i = 0; i < fragment.offsets.length; ++i) {
+				addOffset(base + fragment.offsets[i]);
+				parameters.add(fragment.parameters.get(i));
+			}
+			return this;
+		}
+
+		public Builder appendParameter(String path) {
+			return appendParameter(new Parameter(path, null, null));
+		}
+
+		public Builder appendParameter(String path, SqlPropertyMetadata pm) {
+			return appendParameter(new Parameter(path, pm.getJdbcType(), pm.getTypeHandler()));
+		}
+
+		public Builder appendParameter(Parameter parameter) {
+			addOffset(sql.length());
+			parameters.add(parameter);
+			sql.append('?');
+			return this;
+		}
+
+		public int length() {
+			return sql.length();
+		}
+
+		/**
+		 * Truncate the builder to a length previously obtained by {@link #length()},
+		 * discarding every parameter appended after that point.
+		 *
+		 * @param length the new length
+		 * @return the builder itself
+		 */
+		public Builder setLength(int length) {
+			sql.setLength(length);
+			int count = parameters.size();
+			while (count > 0 && offsets[count - 1] >= length) {
+				--count;
+			}
+			parameters.subList(count, parameters.size()).clear();
+			return this;
+		}
+
+		public SqlFragment build() {
+			if (sql.length() == 0) {
+				return EMPTY;
+			}
+			return new SqlFragment(sql.toString(), Arrays.copyOf(offsets, parameters.size()),
+					Collections.unmodifiableList(Lists.newArrayList(parameters)));
+		}
+
+		private void addOffset(int offset) {
+			int index = parameters.size();
+			if (index == offsets.length) {
+				offsets = Arrays.copyOf(offsets, index * 2);
+			}
+			offsets[index] = offset;
+		}
+	}
+}
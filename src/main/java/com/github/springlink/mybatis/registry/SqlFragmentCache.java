@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlReference;
+import com.github.springlink.mybatis.sql.SqlUpdate;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+
+/**
+ * A bounded cache of rendered fragments keyed by the shape of the rendered
+ * object, i.e. everything that affects the SQL text except argument values.
+ */
+public class SqlFragmentCache {
+	private static final Object PARAMETER = new Object() {
+		@Override
+		public String toString() {
+			return "?";
+		}
+	};
+
+	private final Cache<List<Object>, SqlFragment> cache;
+
+	public SqlFragmentCache(long maximumSize) {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats()
+				.build();
+	}
+
+	public SqlFragment get(SqlContext ctx, String path, Object obj, Supplier<SqlFragment> renderer) {
+		List<Object> key = getKey(ctx, path, obj);
+		if (key == null) {
+			return renderer.get();
+		}
+		SqlFragment fragment = cache.getIfPresent(key);
+		if (fragment == null) {
+			fragment = renderer.get();
+			cache.put(key, fragment);
+		}
+		return fragment;
+	}
+
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+
+	public long size() {
+		return cache.size();
+	}
+
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	protected List<Object> getKey(SqlContext ctx, String path, Object obj) {
+		List<Object> key = Lists.newArrayList();
+		key.add(ctx.getTemplate());
+		key.add(path);
+		if (obj instanceof SqlCriterion) {
+			return appendCriterionShape(key, (SqlCriterion) obj) ? key : null;
+		} else if (obj instanceof SqlOrderBy) {
+			appendOrderByShape(key, (SqlOrderBy) obj);
+		} else if (obj instanceof SqlUpdate) {
+			appendUpdateShape(key, (SqlUpdate) obj);
+		} else if (obj instanceof SqlProjections) {
+			appendProjectionsShape(key, (SqlProjections) obj);
+		} else {
+			return null;
+		}
+		return key;
+	}
+
+	private boolean appendCriterionShape(List<Object> key, SqlCriterion criterion) {
+		if (criterion instanceof SqlCriterion.Condition) {
+			SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+			key.add(condition.getType());
+			key.add(condition.getProperty());
+			key.add(condition.getArgs().size());
+			if (condition.getArgs() instanceof PrimitiveArrayList) {
+				key.add(PrimitiveArrayList.class);
+				return true;
+			}
+			for (Object arg : condition.getArgs()) {
+				key.add(getArgumentShape(arg));
+			}
+			return true;
+		}
+		if (criterion instanceof SqlCriterion.Constant) {
+			key.add(((SqlCriterion.Constant) criterion).getType());
+			return true;
+		}
+		if (criterion instanceof SqlCriterion.Junction) {
+			SqlCriterion.Junction junction = (SqlCriterion.Junction) criterion;
+			key.add(junction.getType());
+			key.add(junction.getCriteria().size());
+			for (SqlCriterion child : junction.getCriteria()) {
+				if (!appendCriterionShape(key, child)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (criterion instanceof SqlCriterion.Subquery) {
+			SqlCriterion.Subquery subquery = (SqlCriterion.Subquery) criterion;
+			key.add(subquery.getType());
+			key.add(subquery.getProperty());
+			key.add(subquery.getEntityType());
+			key.add(subquery.getProjection());
+			if (subquery.getCriterion() == null) {
+				key.add(null);
+				return true;
+			}
+			return appendCriterionShape(key, subquery.getCriterion());
+		}
+		return false;
+	}
+
+	private void appendOrderByShape(List<Object> key, SqlOrderBy orderBy) {
+		for (SqlOrderBy.Order order : orderBy.asList()) {
+			key.add(order.getProperty());
+			key.add(order.isDescending());
+		}
+	}
+
+	private void appendUpdateShape(List<Object> key, SqlUpdate update) {
+		for (SqlUpdate.Set set : update.asList()) {
+			key.add(set.getType());
+			key.add(set.getProperty());
+			for (Object arg : set.getArgs()) {
+				key.add(getArgumentShape(arg));
+			}
+		}
+	}
+
+	private void appendProjectionsShape(List<Object> key, SqlProjections projections) {
+		for (Map.Entry<String, SqlProjections.Projection> entry : projections.asMap().entrySet()) {
+			key.add(entry.getKey());
+			key.add(entry.getValue().getType());
+			key.add(entry.getValue().getProperty());
+		}
+	}
+
+	private Object getArgumentShape(Object arg) {
+		return arg instanceof SqlReference ? arg : PARAMETER;
+	}
+}
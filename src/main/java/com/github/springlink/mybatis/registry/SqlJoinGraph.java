@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+
+import com.github.springlink.mybatis.annotation.SqlJoinType;
+import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
+import com.github.springlink.mybatis.metadata.SqlJoinMetadata;
+import com.github.springlink.mybatis.metadata.SqlPropertyMetadata;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlReference;
+
+/**
+ * Dependencies between the joins of an entity, used to find the joins a query
+ * actually needs. Sets of joins are represented as bit masks of join indexes,
+ * joins beyond the 64th are always considered referenced.
+ */
+public class SqlJoinGraph {
+	public static final long ALL_JOINS = -1L;
+
+	private final Map<String, Integer> aliasIndexMap = Maps.newHashMap();
+	private final long[] closures;
+	private final long requiredJoins;
+
+	public SqlJoinGraph(SqlContext ctx) {
+		List<SqlJoinMetadata> joins = ctx.getEntity().getJoins();
+		for (int i = 0; i < joins.size(); ++i) {
+			aliasIndexMap.put(ctx.getTableAlias(joins.get(i).getName()), i);
+		}
+		this.closures = new long[joins.size()];
+		long required = 0;
+		for (int i = 0; i < joins.size(); ++i) {
+			SqlJoinMetadata join = joins.get(i);
+			closures[i] = (i < Long.SIZE ? 1L << i : 0) | getDirectJoins(ctx, join.getCriterion());
+			if (i >= Long.SIZE || !isEliminable(ctx, join)) {
+				required |= closures[i];
+			}
+		}
+		// joins are sorted so that dependencies come first
+		for (int i = 0; i < closures.length; ++i) {
+			for (int j = 0; j < i && j < Long.SIZE; ++j) {
+				if ((closures[i] & (1L << j)) != 0) {
+					closures[i] |= closures[j];
+				}
+			}
+		}
+		for (int i = 0; i < closures.length; ++i) {
+			if (contains(required, i)) {
+				required |= closures[i];
+			}
+		}
+		this.requiredJoins = required;
+	}
+
+	public static boolean contains(long joins, int index) {
+		return index >= Long.SIZE || (joins & (1L << index)) != 0;
+	}
+
+	/**
+	 * Get the joins which must be present regardless of what a query references.
+	 *
+	 * @return join mask
+	 */
+	public long getRequiredJoins() {
+		return requiredJoins;
+	}
+
+	/**
+	 * Get the joins referenced by a property, including the joins those depend
+	 * on.
+	 *
+	 * @param ctx      SQL context
+	 * @param property property name
+	 * @return join mask
+	 */
+	public long getReferencedJoins(SqlContext ctx, String property) {
+		Integer index = aliasIndexMap.get(ctx.getColumnAlias(property));
+		return index == null ? 0 : closures[index];
+	}
+
+	/**
+	 * Get the joins referenced by a criterion, order by or projections object,
+	 * including the joins those depend on.
+	 *
+	 * @param ctx SQL context
+	 * @param obj the object, may be {@code null}
+	 * @return join mask
+	 */
+	public long getReferencedJoins(SqlContext ctx, Object obj) {
+		if (obj == null) {
+			return 0;
+		}
+		long joins = 0;
+		if (obj instanceof SqlCriterion) {
+			return getCriterionJoins(ctx, (SqlCriterion) obj, Collections.emptySet());
+		} else if (obj instanceof SqlOrderBy) {
+			for (SqlOrderBy.Order order : ((SqlOrderBy) obj).asList()) {
+				joins |= getReferencedJoins(ctx, order.getProperty());
+			}
+		} else if (obj instanceof SqlProjections) {
+			for (SqlProjections.Projection projection : ((SqlProjections) obj).asMap().values()) {
+				joins |= getReferencedJoins(ctx, projection.getProperty());
+			}
+			for (String property : ((SqlProjections) obj).getGroupBy()) {
+				joins |= getReferencedJoins(ctx, property);
+			}
+		} else {
+			return ALL_JOINS;
+		}
+		return joins;
+	}
+
+	/**
+	 * Get the joins referenced by a {@code HAVING} criterion, including the joins
+	 * those depend on. Property names of projections refer to the projected
+	 * values and reference no join.
+	 *
+	 * @param ctx         SQL context
+	 * @param having      the criterion, may be {@code null}
+	 * @param projections projections of the query, may be {@code null}
+	 * @return join mask
+	 */
+	public long getHavingJoins(SqlContext ctx, SqlCriterion having, SqlProjections projections) {
+		if (having == null) {
+			return 0;
+		}
+		return getCriterionJoins(ctx, having,
+				projections != null ? projections.asMap().keySet() : Collections.emptySet());
+	}
+
+	private long getCriterionJoins(SqlContext ctx, SqlCriterion criterion, Set<String> projectionNames) {
+		long joins = 0;
+		if (criterion instanceof SqlCriterion.Condition) {
+			SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+			joins |= getPropertyJoins(ctx, condition.getProperty(), projectionNames);
+			if (condition.hasReferenceArgs()) {
+				for (Object arg : condition.getArgs()) {
+					if (arg instanceof SqlReference) {
+						joins |= getPropertyJoins(ctx, arg.toString(), projectionNames);
+					}
+				}
+			}
+		} else if (criterion instanceof SqlCriterion.Junction) {
+			for (SqlCriterion child : ((SqlCriterion.Junction) criterion).getCriteria()) {
+				joins |= getCriterionJoins(ctx, child, projectionNames);
+			}
+		} else if (criterion instanceof SqlCriterion.Subquery) {
+			for (String ref : criterion.getReferenceNames()) {
+				joins |= getPropertyJoins(ctx, ref, projectionNames);
+			}
+		} else if (!(criterion instanceof SqlCriterion.Constant)) {
+			return ALL_JOINS;
+		}
+		return joins;
+	}
+
+	private long getPropertyJoins(SqlContext ctx, String property, Set<String> projectionNames) {
+		return projectionNames.contains(property) ? 0 : getReferencedJoins(ctx, property);
+	}
+
+	private long getDirectJoins(SqlContext ctx, SqlCriterion criterion) {
+		long joins = 0;
+		for (String ref : criterion.getReferenceNames()) {
+			Integer index = aliasIndexMap.get(ctx.getColumnAlias(ref));
+			if (index != null && index < Long.SIZE) {
+				joins |= 1L << index;
+			}
+		}
+		return joins;
+	}
+
+	/**
+	 * A join can be left out when it is a left outer join matching at most one row,
+	 * i.e. its criterion binds every identifier property of the joined entity with
+	 * an equality and that entity declares its identifier unique.
+	 */
+	private static boolean isEliminable(SqlContext ctx, SqlJoinMetadata join) {
+		if (!join.isEliminable() || join.getJoinType() != SqlJoinType.LEFT_OUTER) {
+			return false;
+		}
+		SqlEntityMetadata em = ctx.getEntity(join.getName());
+		if (!em.isUniqueId()) {
+			return false;
+		}
+		for (SqlPropertyMetadata pm : em.getIdProperties()) {
+			if (!isBound(join.getCriterion(), join.getName(), em, pm)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isBound(SqlCriterion criterion, String name, SqlEntityMetadata em, SqlPropertyMetadata pm) {
+		if (criterion instanceof SqlCriterion.Junction) {
+			SqlCriterion.Junction junction = (SqlCriterion.Junction) criterion;
+			if (junction.getType() != SqlCriterion.JunctionType.AND) {
+				return false;
+			}
+			for (SqlCriterion child : junction.getCriteria()) {
+				if (isBound(child, name, em, pm)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		if (criterion instanceof SqlCriterion.Condition) {
+			SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+			if (condition.getType() != SqlCriterion.ConditionType.EQ) {
+				return false;
+			}
+			Object arg = condition.getArgs().get(0);
+			SqlReference argRef = arg instanceof SqlReference ? (SqlReference) arg : null;
+			SqlReference propRef = SqlReference.of(condition.getProperty());
+			return (isProperty(propRef, name, em, pm) && !isJoined(argRef, name))
+					|| (isProperty(argRef, name, em, pm) && !isJoined(propRef, name));
+		}
+		return false;
+	}
+
+	private static boolean isProperty(SqlReference ref, String name, SqlEntityMetadata em, SqlPropertyMetadata pm) {
+		return isJoined(ref, name) && em.getProperty(ref.getProperty()) == pm;
+	}
+
+	private static boolean isJoined(SqlReference ref, String name) {
+		return ref != null && name.equals(ref.getName());
+	}
+}
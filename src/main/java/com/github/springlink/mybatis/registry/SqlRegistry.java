@@ -1,92 +1,192 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.registry;
-
-import java.io.IOException;
-
-import org.apache.ibatis.builder.MapperBuilderAssistant;
-import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.type.TypeAliasRegistry;
-
-import com.google.common.reflect.ClassPath;
-
-import com.github.springlink.mybatis.annotation.SqlEntity;
-import com.github.springlink.mybatis.metadata.SqlJoinMetadata;
-import com.github.springlink.mybatis.metadata.SqlMetadata;
-import com.github.springlink.mybatis.util.Asserts;
-
-public class SqlRegistry {
-	private static final String TABLE_ALIAS = "t";
-	private static final String JOIN_TABLE_ALIAS_PREFIX = "j";
-
-	private final Configuration configuration;
-	private final SqlDialect dialect;
-
-	public SqlRegistry(Configuration configuration, SqlDialect dialect) {
-		Asserts.notNull(configuration, "configuration");
-		Asserts.notNull(dialect, "dialect");
-		this.configuration = configuration;
-		this.dialect = dialect;
-	}
-
-	public void addPackage(String packageName, ClassLoader classLoader) throws IOException, ClassNotFoundException {
-		Asserts.notEmpty(packageName, "packageName");
-		Asserts.notNull(classLoader, "classLoader");
-		ClassPath classPath = ClassPath.from(classLoader);
-		for (ClassPath.ClassInfo classInfo : classPath.getTopLevelClassesRecursive(packageName)) {
-			Class<?> cls = classLoader.loadClass(classInfo.getName());
-			if (cls.isAnnotationPresent(SqlEntity.class)) {
-				addType(cls);
-			}
-		}
-	}
-
-	public void addType(Class<?> entityType) {
-		Asserts.notNull(entityType, "entityType");
-		String namespace = entityType.getName();
-		String resource = "SqlRegistry[" + namespace + "]";
-		MapperBuilderAssistant assistant = new MapperBuilderAssistant(configuration, resource);
-		assistant.setCurrentNamespace(namespace);
-		dialect.buildMapper(getContext(entityType), assistant);
-		TypeAliasRegistry typeAliasRegistry = configuration.getTypeAliasRegistry();
-		typeAliasRegistry.registerAlias(entityType);
-	}
-
-	public SqlContext getContext(Class<?> entityType) {
-		Asserts.notNull(entityType, "entityType");
-		return getContext(entityType, SqlContext.DEFAULT_PATH);
-	}
-
-	public SqlContext getContext(Class<?> entityType, String rootPath) {
-		Asserts.notNull(entityType, "entityType");
-		SqlContext ctx = getContext(rootPath);
-		ctx.putEntity(entityType, TABLE_ALIAS);
-		int joinIndex = 0;
-		for (SqlJoinMetadata jm : SqlMetadata.forEntityType(entityType).getJoins()) {
-			ctx.putEntity(jm.getName(), jm.getType(), JOIN_TABLE_ALIAS_PREFIX + (++joinIndex));
-		}
-		return ctx;
-	}
-
-	public SqlContext getContext() {
-		return getContext(SqlContext.DEFAULT_PATH);
-	}
-
-	public SqlContext getContext(String rootPath) {
-		return new SqlContext(dialect, configuration.getTypeAliasRegistry(), rootPath);
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeAliasRegistry;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.reflect.ClassPath;
+
+import com.github.springlink.mybatis.annotation.SqlEntity;
+import com.github.springlink.mybatis.metadata.SqlEntityMetadata;
+import com.github.springlink.mybatis.metadata.SqlJoinMetadata;
+import com.github.springlink.mybatis.metadata.SqlMetadata;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.CountStats;
+
+public class SqlRegistry {
+	private static final String TABLE_ALIAS = "t";
+	private static final String JOIN_TABLE_ALIAS_PREFIX = "j";
+
+	private final Configuration configuration;
+	private final SqlDialect dialect;
+	private final ConcurrentMap<Class<?>, SqlContextTemplate> templateMap = Maps.newConcurrentMap();
+	private final ConcurrentMap<Map.Entry<Class<?>, List<String>>, SqlRowMapper<?>> rowMapperMap = Maps
+			.newConcurrentMap();
+	private final CountStats countStats = new CountStats();
+	private final LongAdder skippedQueryCount = new LongAdder();
+	private final Set<Class<?>> entityTypes = Sets.newConcurrentHashSet();
+	private volatile EntityObjectWrapperFactory objectWrapperFactory;
+
+	public SqlRegistry(Configuration configuration, SqlDialect dialect) {
+		Asserts.notNull(configuration, "configuration");
+		Asserts.notNull(dialect, "dialect");
+		this.configuration = configuration;
+		this.dialect = dialect;
+	}
+
+	public SqlDialect getDialect() {
+		return dialect;
+	}
+
+	/**
+	 * Get the statistics of count queries run and avoided by bound list selects
+	 * of this registry.
+	 *
+	 * @return count statistics
+	 */
+	public CountStats getCountStats() {
+		return countStats;
+	}
+
+	/**
+	 * Get the number of queries skipped by DAOs of this registry because their
+	 * criterion was normalized to {@code FALSE}.
+	 *
+	 * @return skipped query count
+	 */
+	public long getSkippedQueryCount() {
+		return skippedQueryCount.sum();
+	}
+
+	public void recordSkippedQuery() {
+		skippedQueryCount.increment();
+	}
+
+	/**
+	 * Install an {@link EntityObjectWrapperFactory} on the configuration, so that
+	 * the entities of this registry are mapped through precompiled accessors.
+	 * Entity types added before and after are registered with it. A factory
+	 * installed by another registry of the same configuration is shared.
+	 *
+	 * @throws IllegalStateException if the configuration has another custom
+	 *                               object wrapper factory
+	 */
+	public synchronized void installObjectWrapperFactory() {
+		ObjectWrapperFactory factory = configuration.getObjectWrapperFactory();
+		if (factory instanceof DefaultObjectWrapperFactory) {
+			factory = new EntityObjectWrapperFactory();
+			configuration.setObjectWrapperFactory(factory);
+		} else if (!(factory instanceof EntityObjectWrapperFactory)) {
+			throw new IllegalStateException("Custom object wrapper factory already set: " + factory);
+		}
+		objectWrapperFactory = (EntityObjectWrapperFactory) factory;
+		for (Class<?> entityType : entityTypes) {
+			objectWrapperFactory.addType(entityType);
+		}
+	}
+
+	public void addPackage(String packageName, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+		Asserts.notEmpty(packageName, "packageName");
+		Asserts.notNull(classLoader, "classLoader");
+		ClassPath classPath = ClassPath.from(classLoader);
+		for (ClassPath.ClassInfo classInfo : classPath.getTopLevelClassesRecursive(packageName)) {
+			Class<?> cls = classLoader.loadClass(classInfo.getName());
+			if (cls.isAnnotationPresent(SqlEntity.class)) {
+				addType(cls);
+			}
+		}
+	}
+
+	public void addType(Class<?> entityType) {
+		Asserts.notNull(entityType, "entityType");
+		String namespace = entityType.getName();
+		String resource = "SqlRegistry[" + namespace + "]";
+		MapperBuilderAssistant assistant = new MapperBuilderAssistant(configuration, resource);
+		assistant.setCurrentNamespace(namespace);
+		dialect.buildMapper(getContext(entityType), assistant);
+		entityTypes.add(entityType);
+		EntityObjectWrapperFactory factory = objectWrapperFactory;
+		if (factory != null) {
+			factory.addType(entityType);
+		}
+		TypeAliasRegistry typeAliasRegistry = configuration.getTypeAliasRegistry();
+		typeAliasRegistry.registerAlias(entityType);
+	}
+
+	public SqlContext getContext(Class<?> entityType) {
+		Asserts.notNull(entityType, "entityType");
+		return getContext(entityType, SqlContext.DEFAULT_PATH);
+	}
+
+	public SqlContext getContext(Class<?> entityType, String rootPath) {
+		Asserts.notNull(entityType, "entityType");
+		return new SqlContext(dialect, configuration.getTypeAliasRegistry(), rootPath,
+				templateMap.computeIfAbsent(entityType, this::buildTemplate));
+	}
+
+	/**
+	 * Get the plan mapping rows of projections to a result type, cached per
+	 * projection names and result type.
+	 *
+	 * @param <R>         result type
+	 * @param projections projections
+	 * @param resultType  result type
+	 * @return row mapper
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> SqlRowMapper<R> getRowMapper(SqlProjections projections, Class<R> resultType) {
+		Asserts.notNull(projections, "projections");
+		Asserts.notNull(resultType, "resultType");
+		List<String> names = ImmutableList.copyOf(projections.asMap().keySet());
+		return (SqlRowMapper<R>) rowMapperMap.computeIfAbsent(Maps.immutableEntry(resultType, names),
+				key -> SqlRowMapper.create(configuration.getTypeHandlerRegistry(), names, resultType));
+	}
+
+	public SqlContext getContext() {
+		return getContext(SqlContext.DEFAULT_PATH);
+	}
+
+	public SqlContext getContext(String rootPath) {
+		return new SqlContext(dialect, configuration.getTypeAliasRegistry(), rootPath);
+	}
+
+	private SqlContextTemplate buildTemplate(Class<?> entityType) {
+		SqlEntityMetadata em = SqlMetadata.forEntityType(entityType);
+		SqlContextTemplate.Builder builder = SqlContextTemplate.builder().entity("", em, TABLE_ALIAS);
+		int joinIndex = 0;
+		for (SqlJoinMetadata jm : em.getJoins()) {
+			builder.entity(jm.getName(), SqlMetadata.forEntityType(jm.getType()),
+					JOIN_TABLE_ALIAS_PREFIX + (++joinIndex));
+		}
+		return builder.build();
+	}
+}
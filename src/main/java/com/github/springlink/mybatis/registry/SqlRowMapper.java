@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.util.BeanMetadata;
+import com.github.springlink.mybatis.util.PropertyAccessor;
+
+/**
+ * Precompiled plan mapping the projected columns of a result set row straight
+ * into a result object, the n-th projection being read from the n-th column.
+ * A result type with a type handler is a scalar read from the only column. A
+ * type with a no-argument constructor and a writable property for every
+ * projection name is populated through those properties, otherwise a type
+ * with a single constructor taking as many parameters as there are projections
+ * is constructed from the columns in projection order.
+ *
+ * @param <R> result type
+ */
+public final class SqlRowMapper<R> {
+	private final Class<R> resultType;
+	private final Constructor<R> constructor;
+	private final PropertyAccessor[] accessors;
+	private final TypeHandler<?>[] typeHandlers;
+
+	private SqlRowMapper(Class<R> resultType, Constructor<R> constructor, PropertyAccessor[] accessors,
+			TypeHandler<?>[] typeHandlers) {
+		this.resultType = resultType;
+		this.constructor = constructor;
+		this.accessors = accessors;
+		this.typeHandlers = typeHandlers;
+	}
+
+	static <R> SqlRowMapper<R> create(TypeHandlerRegistry registry, List<String> names, Class<R> resultType) {
+		if (registry.hasTypeHandler(resultType)) {
+			if (names.size() != 1) {
+				throw new IllegalArgumentException("Scalar result type requires a single projection: "
+						+ resultType.getName());
+			}
+			return new SqlRowMapper<>(resultType, null, null,
+					new TypeHandler<?>[] { registry.getTypeHandler(resultType) });
+		}
+		Constructor<R> defaultConstructor = getConstructor(resultType, 0);
+		BeanMetadata metadata = BeanMetadata.forBeanType(resultType);
+		if (defaultConstructor != null && names.stream().allMatch(name -> isWritable(metadata, name))) {
+			PropertyAccessor[] accessors = new PropertyAccessor[names.size()];
+			TypeHandler<?>[] typeHandlers = new TypeHandler<?>[names.size()];
+			for (int i = 0; i < names.size(); ++i) {
+				accessors[i] = metadata.getPropertyAccessor(names.get(i));
+				typeHandlers[i] = getTypeHandler(registry, metadata.getPropertyType(names.get(i)));
+			}
+			return new SqlRowMapper<>(resultType, defaultConstructor, accessors, typeHandlers);
+		}
+		Constructor<R> constructor = getConstructor(resultType, names.size());
+		if (constructor == null) {
+			throw new IllegalArgumentException("Cannot map projections " + names + " to " + resultType.getName()
+					+ ": neither writable properties nor a single constructor of " + names.size() + " parameters");
+		}
+		TypeHandler<?>[] typeHandlers = new TypeHandler<?>[names.size()];
+		for (int i = 0; i < names.size(); ++i) {
+			typeHandlers[i] = getTypeHandler(registry, constructor.getParameterTypes()[i]);
+		}
+		return new SqlRowMapper<>(resultType, constructor, null, typeHandlers);
+	}
+
+	public Class<R> getResultType() {
+		return resultType;
+	}
+
+	/**
+	 * Map the current row of a result set.
+	 *
+	 * @param rs result set positioned at the row
+	 * @return result object
+	 */
+	@SuppressWarnings("unchecked")
+	public R map(ResultSet rs) {
+		try {
+			if (constructor == null) {
+				return (R) typeHandlers[0].getResult(rs, 1);
+			}
+			if (accessors == null) {
+				Object[] args = new Object[typeHandlers.length];
+				for (int i = 0; i < typeHandlers.length; ++i) {
+					args[i] = typeHandlers[i].getResult(rs, i + 1);
+				}
+				return constructor.newInstance(args);
+			}
+			R result = constructor.newInstance();
+			for (int i = 0; i < accessors.length; ++i) {
+				Object value = typeHandlers[i].getResult(rs, i + 1);
+				if (value != null) {
+					accessors[i].set(result, value);
+				}
+			}
+			return result;
+		} catch (SQLException e) {
+			throw new ExecutorException("Error mapping projections to " + resultType.getName() + ". Cause: " + e, e);
+		} catch (InvocationTargetException e) {
+			throw new ExecutorException("Error creating " + resultType.getName() + ". Cause: " + e.getCause(),
+					e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new ExecutorException("Error creating " + resultType.getName() + ". Cause: " + e, e);
+		}
+	}
+
+	private static boolean isWritable(BeanMetadata metadata, String name) {
+		PropertyAccessor accessor = metadata.getPropertyAccessor(name);
+		return accessor != null && accessor.isWritable();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <R> Constructor<R> getConstructor(Class<R> type, int parameterCount) {
+		List<Constructor<?>> candidates = Lists.newArrayList();
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			if (constructor.getParameterCount() == parameterCount) {
+				candidates.add(constructor);
+			}
+		}
+		if (candidates.size() != 1 || Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+		Constructor<R> constructor = (Constructor<R>) candidates.get(0);
+		constructor.setAccessible(true);
+		return constructor;
+	}
+
+	private static TypeHandler<?> getTypeHandler(TypeHandlerRegistry registry, Class<?> type) {
+		TypeHandler<?> typeHandler = registry.getTypeHandler(type);
+		return typeHandler != null ? typeHandler : registry.getUnknownTypeHandler();
+	}
+}
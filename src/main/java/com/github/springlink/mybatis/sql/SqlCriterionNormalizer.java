@@ -0,0 +1,315 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.sql;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import com.github.springlink.mybatis.util.Asserts;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+
+/**
+ * Simplifies criteria before they are rendered: constants are folded through
+ * junctions, nested junctions of the same type are flattened, an empty
+ * {@code IN} becomes {@code FALSE} and equalities of one property joined by
+ * {@code OR} become a single {@code IN}. Empty junctions render nothing, so
+ * they are dropped rather than treated as {@code TRUE}.
+ * <p>
+ * A criterion normalized to {@link SqlCriterion#falseValue()} matches no rows,
+ * one normalized to {@link SqlCriterion#none()} matches every row. The
+ * criterion of a subquery is simplified as well, a subquery matching no rows
+ * becomes {@code FALSE}.
+ */
+public final class SqlCriterionNormalizer {
+	private SqlCriterionNormalizer() {
+	}
+
+	/**
+	 * Normalize a criterion. Criteria which cannot be simplified are returned as
+	 * is.
+	 *
+	 * @param criterion the criterion, may be {@code null}
+	 * @return normalized criterion, never {@code null}
+	 */
+	public static SqlCriterion normalize(@Nullable SqlCriterion criterion) {
+		SqlCriterion normalized = criterion != null ? simplify(criterion) : null;
+		if (normalized == null || isConstant(normalized, SqlCriterion.ConstantType.TRUE)) {
+			return SqlCriterion.none();
+		}
+		return normalized;
+	}
+
+	/**
+	 * Check whether a normalized criterion matches no rows.
+	 *
+	 * @param criterion normalized criterion
+	 * @return {@code true} if the criterion is {@code FALSE}
+	 */
+	public static boolean isFalse(@Nullable SqlCriterion criterion) {
+		return isConstant(criterion, SqlCriterion.ConstantType.FALSE);
+	}
+
+	/**
+	 * Split a normalized criterion whose {@code IN} list holds more than the given
+	 * number of distinct values into criteria of one chunk of the values each.
+	 * Only a top level {@code IN}, alone or as a child of a top level {@code AND},
+	 * is split; the rows matched by the chunked criteria are disjoint and make up
+	 * the rows matched by the criterion.
+	 *
+	 * @param criterion normalized criterion
+	 * @param maxSize   maximum number of values of an {@code IN} list
+	 * @return chunked criteria, or a list of the criterion itself
+	 */
+	public static List<SqlCriterion> splitInList(SqlCriterion criterion, int maxSize) {
+		Asserts.notNull(criterion, "criterion");
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Invalid maxSize: " + maxSize);
+		}
+		if (isSplittable(criterion, maxSize)) {
+			return splitInList((SqlCriterion.Condition) criterion, maxSize, chunk -> chunk);
+		}
+		if (criterion instanceof SqlCriterion.Junction
+				&& ((SqlCriterion.Junction) criterion).getType() == SqlCriterion.JunctionType.AND) {
+			List<SqlCriterion> children = ((SqlCriterion.Junction) criterion).getCriteria();
+			for (int i = 0; i < children.size(); ++i) {
+				if (isSplittable(children.get(i), maxSize)) {
+					int index = i;
+					return splitInList((SqlCriterion.Condition) children.get(i), maxSize, chunk -> {
+						List<SqlCriterion> criteria = Lists.newArrayList(children);
+						criteria.set(index, chunk);
+						return SqlCriterion.and(criteria);
+					});
+				}
+			}
+		}
+		return Collections.singletonList(criterion);
+	}
+
+	private static List<SqlCriterion> splitInList(SqlCriterion.Condition condition, int maxSize,
+			Function<SqlCriterion, SqlCriterion> wrapper) {
+		List<?> values;
+		if (condition.getArgs() instanceof PrimitiveArrayList) {
+			values = ((PrimitiveArrayList<?>) condition.getArgs()).distinct();
+		} else {
+			values = Lists.newArrayList(Sets.newLinkedHashSet(condition.getArgs()));
+		}
+		List<SqlCriterion> chunks = Lists.newArrayList();
+		for (int i = 0; i < values.size(); i += maxSize) {
+			List<?> chunk = values.subList(i, Math.min(i + maxSize, values.size()));
+			chunks.add(wrapper.apply(SqlCriterion.in(condition.getProperty(), chunk)));
+		}
+		return chunks;
+	}
+
+	private static boolean isSplittable(SqlCriterion criterion, int maxSize) {
+		if (!(criterion instanceof SqlCriterion.Condition)) {
+			return false;
+		}
+		SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+		return condition.getType() == SqlCriterion.ConditionType.IN && condition.getArgs().size() > maxSize
+				&& !condition.hasReferenceArgs();
+	}
+
+	private static boolean isConstant(SqlCriterion criterion, SqlCriterion.ConstantType type) {
+		return criterion instanceof SqlCriterion.Constant && ((SqlCriterion.Constant) criterion).getType() == type;
+	}
+
+	/**
+	 * @return simplified criterion, or {@code null} if it renders nothing
+	 */
+	private static SqlCriterion simplify(SqlCriterion criterion) {
+		if (criterion instanceof SqlCriterion.Condition) {
+			SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+			if (condition.getType() == SqlCriterion.ConditionType.IN && condition.getArgs().isEmpty()) {
+				return SqlCriterion.falseValue();
+			}
+			return condition;
+		}
+		if (criterion instanceof SqlCriterion.Subquery) {
+			return simplifySubquery((SqlCriterion.Subquery) criterion);
+		}
+		if (!(criterion instanceof SqlCriterion.Junction)) {
+			return criterion;
+		}
+		SqlCriterion.Junction junction = (SqlCriterion.Junction) criterion;
+		switch (junction.getType()) {
+		case NOT:
+			return simplifyNot(junction);
+		case AND:
+			return simplifyAnd(junction);
+		case OR:
+			return simplifyOr(junction);
+		default:
+			throw new IllegalArgumentException("Unknown junction type: " + junction.getType().name());
+		}
+	}
+
+	private static SqlCriterion simplifySubquery(SqlCriterion.Subquery subquery) {
+		if (subquery.getCriterion() == null) {
+			return subquery;
+		}
+		SqlCriterion criterion = simplify(subquery.getCriterion());
+		if (isConstant(criterion, SqlCriterion.ConstantType.FALSE)) {
+			return criterion;
+		} else if (isConstant(criterion, SqlCriterion.ConstantType.TRUE)) {
+			criterion = null;
+		} else if (criterion == subquery.getCriterion()) {
+			return subquery;
+		}
+		if (subquery.getType() == SqlCriterion.SubqueryType.EXISTS) {
+			return SqlCriterion.exists(subquery.getEntityType(), criterion);
+		}
+		return SqlCriterion.inSubquery(subquery.getProperty(), subquery.getEntityType(), subquery.getProjection(),
+				criterion);
+	}
+
+	private static SqlCriterion simplifyNot(SqlCriterion.Junction junction) {
+		SqlCriterion operand = simplify(junction.getCriteria().get(0));
+		if (operand == null) {
+			return null;
+		} else if (isConstant(operand, SqlCriterion.ConstantType.TRUE)) {
+			return SqlCriterion.falseValue();
+		} else if (isConstant(operand, SqlCriterion.ConstantType.FALSE)) {
+			return SqlCriterion.trueValue();
+		} else if (operand instanceof SqlCriterion.Junction
+				&& ((SqlCriterion.Junction) operand).getType() == SqlCriterion.JunctionType.NOT) {
+			return ((SqlCriterion.Junction) operand).getCriteria().get(0);
+		}
+		return operand == junction.getCriteria().get(0) ? junction : SqlCriterion.not(operand);
+	}
+
+	private static SqlCriterion simplifyAnd(SqlCriterion.Junction junction) {
+		List<SqlCriterion> criteria = Lists.newArrayListWithCapacity(junction.getCriteria().size());
+		boolean changed = false;
+		boolean hasTrue = false;
+		for (SqlCriterion child : junction.getCriteria()) {
+			SqlCriterion simplified = simplify(child);
+			if (isConstant(simplified, SqlCriterion.ConstantType.FALSE)) {
+				return simplified;
+			}
+			changed |= simplified != child;
+			if (simplified == null) {
+				continue;
+			} else if (isConstant(simplified, SqlCriterion.ConstantType.TRUE)) {
+				hasTrue = true;
+				changed = true;
+			} else if (simplified instanceof SqlCriterion.Junction
+					&& ((SqlCriterion.Junction) simplified).getType() == SqlCriterion.JunctionType.AND) {
+				criteria.addAll(((SqlCriterion.Junction) simplified).getCriteria());
+				changed = true;
+			} else {
+				criteria.add(simplified);
+			}
+		}
+		if (criteria.isEmpty()) {
+			return hasTrue ? SqlCriterion.trueValue() : null;
+		} else if (criteria.size() == 1) {
+			return criteria.get(0);
+		}
+		return changed ? SqlCriterion.and(criteria) : junction;
+	}
+
+	private static SqlCriterion simplifyOr(SqlCriterion.Junction junction) {
+		List<SqlCriterion> criteria = Lists.newArrayListWithCapacity(junction.getCriteria().size());
+		boolean changed = false;
+		boolean hasFalse = false;
+		for (SqlCriterion child : junction.getCriteria()) {
+			SqlCriterion simplified = simplify(child);
+			if (isConstant(simplified, SqlCriterion.ConstantType.TRUE)) {
+				return simplified;
+			}
+			changed |= simplified != child;
+			if (simplified == null) {
+				continue;
+			} else if (isConstant(simplified, SqlCriterion.ConstantType.FALSE)) {
+				hasFalse = true;
+				changed = true;
+			} else if (simplified instanceof SqlCriterion.Junction
+					&& ((SqlCriterion.Junction) simplified).getType() == SqlCriterion.JunctionType.OR) {
+				criteria.addAll(((SqlCriterion.Junction) simplified).getCriteria());
+				changed = true;
+			} else {
+				criteria.add(simplified);
+			}
+		}
+		changed |= mergeEqualities(criteria);
+		if (criteria.isEmpty()) {
+			return hasFalse ? SqlCriterion.falseValue() : null;
+		} else if (criteria.size() == 1) {
+			return criteria.get(0);
+		}
+		return changed ? SqlCriterion.or(criteria) : junction;
+	}
+
+	/**
+	 * Merge the {@code EQ} and {@code IN} conditions on the same property into one
+	 * {@code IN} at the position of the first of them.
+	 *
+	 * @return {@code true} if any conditions were merged
+	 */
+	private static boolean mergeEqualities(List<SqlCriterion> criteria) {
+		Map<String, List<Object>> argsMap = Maps.newLinkedHashMap();
+		Map<String, Integer> countMap = Maps.newHashMap();
+		for (SqlCriterion criterion : criteria) {
+			if (isMergeable(criterion)) {
+				SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+				argsMap.computeIfAbsent(condition.getProperty(), p -> Lists.newArrayList())
+						.addAll(condition.getArgs());
+				countMap.merge(condition.getProperty(), 1, Integer::sum);
+			}
+		}
+		if (countMap.values().stream().noneMatch(count -> count > 1)) {
+			return false;
+		}
+		List<SqlCriterion> merged = Lists.newArrayListWithCapacity(criteria.size());
+		for (SqlCriterion criterion : criteria) {
+			if (!isMergeable(criterion)) {
+				merged.add(criterion);
+				continue;
+			}
+			String property = ((SqlCriterion.Condition) criterion).getProperty();
+			if (countMap.get(property) == 1) {
+				merged.add(criterion);
+			} else if (argsMap.containsKey(property)) {
+				merged.add(SqlCriterion.in(property, argsMap.remove(property)));
+			}
+		}
+		criteria.clear();
+		criteria.addAll(merged);
+		return true;
+	}
+
+	private static boolean isMergeable(SqlCriterion criterion) {
+		if (!(criterion instanceof SqlCriterion.Condition)) {
+			return false;
+		}
+		SqlCriterion.Condition condition = (SqlCriterion.Condition) criterion;
+		if (condition.getType() != SqlCriterion.ConditionType.EQ
+				&& condition.getType() != SqlCriterion.ConditionType.IN) {
+			return false;
+		}
+		return !condition.hasReferenceArgs();
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.springlink.mybatis.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+public class ArraySlice<E> extends AbstractList<E> implements Slice<E>, RandomAccess {
+	private final int limit;
+	private final String nextToken;
+	private final Object[] elements;
+
+	public ArraySlice(int limit, String nextToken, List<E> elements) {
+		Asserts.notNull(elements, "elements");
+		this.elements = elements.toArray(new Object[elements.size()]);
+		this.limit = Math.max(limit, 0);
+		this.nextToken = nextToken;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		return (E) elements[index];
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+
+	@Override
+	public int limit() {
+		return limit;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return nextToken != null;
+	}
+
+	@Override
+	public String nextToken() {
+		return nextToken;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(Arrays.asList(elements), limit, nextToken);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (!(obj instanceof ArraySlice)) {
+			return false;
+		}
+		ArraySlice<?> other = (ArraySlice<?>) obj;
+		return Objects.equals(limit, other.limit)
+				&& Objects.equals(nextToken, other.nextToken)
+				&& Objects.equals(Arrays.asList(elements), Arrays.asList(other.elements));
+	}
+}
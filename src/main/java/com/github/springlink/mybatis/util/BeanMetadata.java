@@ -1,146 +1,327 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.util;
-
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentMap;
-
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
-
-public final class BeanMetadata {
-	private static final ConcurrentMap<Class<?>, BeanMetadata> instanceCache = Maps.newConcurrentMap();
-
-	private final Class<?> beanType;
-	private final Map<String, PropertyInfo> properties;
-
-	private BeanMetadata(Class<?> beanType, Map<String, PropertyInfo> properties) {
-		this.beanType = beanType;
-		this.properties = ImmutableMap.copyOf(properties);
-	}
-
-	public static BeanMetadata forBeanType(Class<?> beanType) {
-		Asserts.notNull(beanType, "beanType");
-		return instanceCache.computeIfAbsent(beanType, type -> {
-			BeanInfo info;
-			try {
-				info = Introspector.getBeanInfo(type, Object.class);
-			} catch (IntrospectionException e) {
-				throw new IllegalStateException("Introspection failed: " + type.getName(), e);
-			}
-			Map<String, PropertyInfo> props = Maps.newHashMap();
-			for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
-				String propName = descriptor.getName();
-				Class<?> propType = descriptor.getPropertyType();
-				Field propField = findPropertyField(type, propName);
-				Method propGetter = descriptor.getReadMethod();
-				Method propSetter = descriptor.getWriteMethod();
-				props.put(propName, new PropertyInfo(propType, propField, propGetter, propSetter));
-			}
-			return new BeanMetadata(type, props);
-		});
-	}
-
-	public Class<?> getBeanType() {
-		return beanType;
-	}
-
-	public String[] getPropertyNames() {
-		return properties.keySet().toArray(new String[0]);
-	}
-
-	public Class<?> getPropertyType(String name) {
-		return getPropertyInfo(name).map(prop -> prop.type).orElse(null);
-	}
-
-	public Field getPropertyField(String name) {
-		return getPropertyInfo(name).map(prop -> prop.field).orElse(null);
-	}
-
-	public Method getPropertyGetter(String name) {
-		return getPropertyInfo(name).map(prop -> prop.getter).orElse(null);
-	}
-
-	public Method getPropertySetter(String name) {
-		return getPropertyInfo(name).map(prop -> prop.setter).orElse(null);
-	}
-
-	public <T extends Annotation> T getPropertyAnnotation(String name, Class<T> annotationType) {
-		return getPropertyInfo(name).map(attr -> {
-			for (AnnotatedElement elem : new AnnotatedElement[] { attr.field, attr.getter, attr.setter }) {
-				if (elem != null) {
-					T annotation = elem.getDeclaredAnnotation(annotationType);
-					if (annotation != null) {
-						return annotation;
-					}
-				}
-			}
-			return null;
-		}).orElse(null);
-	}
-
-	public boolean isPropertyAnnotationPresent(String name, Class<? extends Annotation> annotationType) {
-		return getPropertyAnnotation(name, annotationType) != null;
-	}
-
-	public boolean hasProperty(String name) {
-		return getPropertyInfo(name).isPresent();
-	}
-
-	private Optional<PropertyInfo> getPropertyInfo(String name) {
-		return Optional.ofNullable(properties.get(name));
-	}
-
-	private static Field findPropertyField(Class<?> beanType, String name) {
-		for (Class<?> t = beanType; t != Object.class; t = t.getSuperclass()) {
-			try {
-				Field field = t.getDeclaredField(name);
-				if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
-					continue;
-				}
-				return field;
-			} catch (NoSuchFieldException e) {
-				// noop
-			}
-		}
-		return null;
-	}
-
-	private static class PropertyInfo {
-		final Class<?> type;
-		final Field field;
-		final Method getter;
-		final Method setter;
-
-		PropertyInfo(Class<?> type, Field field, Method getter, Method setter) {
-			this.type = type;
-			this.field = field;
-			this.getter = getter;
-			this.setter = setter;
-		}
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+public final class BeanMetadata {
+	private static final ConcurrentMap<Class<?>, BeanMetadata> instanceCache = Maps.newConcurrentMap();
+
+	private final Class<?> beanType;
+	private final Map<String, PropertyInfo> properties;
+
+	private BeanMetadata(Class<?> beanType, Map<String, PropertyInfo> properties) {
+		this.beanType = beanType;
+		this.properties = ImmutableMap.copyOf(properties);
+	}
+
+	public static BeanMetadata forBeanType(Class<?> beanType) {
+		Asserts.notNull(beanType, "beanType");
+		return instanceCache.computeIfAbsent(beanType, type -> {
+			BeanInfo info;
+			try {
+				info = Introspector.getBeanInfo(type, Object.class);
+			} catch (IntrospectionException e) {
+				throw new IllegalStateException("Introspection failed: " + type.getName(), e);
+			}
+			Map<String, PropertyInfo> props = Maps.newHashMap();
+			for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
+				String propName = descriptor.getName();
+				Class<?> propType = descriptor.getPropertyType();
+				Field propField = findPropertyField(type, propName);
+				Method propGetter = descriptor.getReadMethod();
+				Method propSetter = descriptor.getWriteMethod();
+				props.put(propName, new PropertyInfo(propType, propField, propGetter, propSetter,
+						new Accessor(type, propName, propField, propGetter, propSetter)));
+			}
+			return new BeanMetadata(type, props);
+		});
+	}
+
+	public Class<?> getBeanType() {
+		return beanType;
+	}
+
+	public String[] getPropertyNames() {
+		return properties.keySet().toArray(new String[0]);
+	}
+
+	public Class<?> getPropertyType(String name) {
+		return getPropertyInfo(name).map(prop -> prop.type).orElse(null);
+	}
+
+	public Field getPropertyField(String name) {
+		return getPropertyInfo(name).map(prop -> prop.field).orElse(null);
+	}
+
+	public Method getPropertyGetter(String name) {
+		return getPropertyInfo(name).map(prop -> prop.getter).orElse(null);
+	}
+
+	public Method getPropertySetter(String name) {
+		return getPropertyInfo(name).map(prop -> prop.setter).orElse(null);
+	}
+
+	/**
+	 * Get the accessor of a property, compiled when the metadata of the bean type
+	 * was resolved.
+	 *
+	 * @param name property name
+	 * @return property accessor, or {@code null} if there is no such property
+	 */
+	public PropertyAccessor getPropertyAccessor(String name) {
+		return getPropertyInfo(name).map(prop -> prop.accessor).orElse(null);
+	}
+
+	public <T extends Annotation> T getPropertyAnnotation(String name, Class<T> annotationType) {
+		return getPropertyInfo(name).map(attr -> {
+			for (AnnotatedElement elem : new AnnotatedElement[] { attr.field, attr.getter, attr.setter }) {
+				if (elem != null) {
+					T annotation = elem.getDeclaredAnnotation(annotationType);
+					if (annotation != null) {
+						return annotation;
+					}
+				}
+			}
+			return null;
+		}).orElse(null);
+	}
+
+	public boolean isPropertyAnnotationPresent(String name, Class<? extends Annotation> annotationType) {
+		return getPropertyAnnotation(name, annotationType) != null;
+	}
+
+	public boolean hasProperty(String name) {
+		return getPropertyInfo(name).isPresent();
+	}
+
+	private Optional<PropertyInfo> getPropertyInfo(String name) {
+		return Optional.ofNullable(properties.get(name));
+	}
+
+	private static Field findPropertyField(Class<?> beanType, String name) {
+		for (Class<?> t = beanType; t != Object.class; t = t.getSuperclass()) {
+			try {
+				Field field = t.getDeclaredField(name);
+				if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				return field;
+			} catch (NoSuchFieldException e) {
+				// noop
+			}
+		}
+		return null;
+	}
+
+	private static class PropertyInfo {
+		final Class<?> type;
+		final Field field;
+		final Method getter;
+		final Method setter;
+		final PropertyAccessor accessor;
+
+		PropertyInfo(Class<?> type, Field field, Method getter, Method setter, PropertyAccessor accessor) {
+			this.type = type;
+			this.field = field;
+			this.getter = getter;
+			this.setter = setter;
+			this.accessor = accessor;
+		}
+	}
+
+	/**
+	 * Accessor invoking public methods through lambdas spun by
+	 * {@link LambdaMetafactory}, which the JIT inlines like direct calls, and
+	 * other methods or fields through method handles.
+	 */
+	private static class Accessor implements PropertyAccessor {
+		private final String name;
+		private final Function<Object, Object> getter;
+		private final BiConsumer<Object, Object> setter;
+
+		Accessor(Class<?> beanType, String name, Field field, Method getter, Method setter) {
+			this.name = beanType.getName() + "." + name;
+			try {
+				this.getter = getter != null ? createGetter(getter) : field != null ? createGetter(field) : null;
+				this.setter = setter != null ? createSetter(setter)
+						: field != null && !Modifier.isFinal(field.getModifiers()) ? createSetter(field) : null;
+			} catch (Throwable e) {
+				throw new IllegalStateException("Property accessor creation failed: " + this.name, e);
+			}
+		}
+
+		@Override
+		public boolean isReadable() {
+			return getter != null;
+		}
+
+		@Override
+		public boolean isWritable() {
+			return setter != null;
+		}
+
+		@Override
+		public Object get(Object bean) {
+			if (getter == null) {
+				throw new UnsupportedOperationException("Property is not readable: " + name);
+			}
+			return getter.apply(bean);
+		}
+
+		@Override
+		public void set(Object bean, Object value) {
+			if (setter == null) {
+				throw new UnsupportedOperationException("Property is not writable: " + name);
+			}
+			setter.accept(bean, value);
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Function<Object, Object> createGetter(Method method) throws Throwable {
+			if (isLambdaAccessible(method)) {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				try {
+					CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+							MethodType.methodType(Function.class),
+							MethodType.methodType(Object.class, Object.class),
+							lookup.unreflect(method),
+							MethodType.methodType(method.getReturnType(), method.getDeclaringClass()).wrap());
+					return (Function<Object, Object>) site.getTarget().invokeExact();
+				} catch (LambdaConversionException e) {
+					// fall back to a method handle
+				}
+			}
+			method.setAccessible(true);
+			return createGetter(MethodHandles.lookup().unreflect(method));
+		}
+
+		private static Function<Object, Object> createGetter(Field field) throws Throwable {
+			field.setAccessible(true);
+			return createGetter(MethodHandles.lookup().unreflectGetter(field));
+		}
+
+		private static Function<Object, Object> createGetter(MethodHandle handle) {
+			MethodHandle getter = handle.asType(MethodType.methodType(Object.class, Object.class));
+			return bean -> {
+				try {
+					return (Object) getter.invokeExact(bean);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static BiConsumer<Object, Object> createSetter(Method method) throws Throwable {
+			if (isLambdaAccessible(method)) {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				Class<?> valueType = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+				try {
+					CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+							MethodType.methodType(BiConsumer.class),
+							MethodType.methodType(void.class, Object.class, Object.class),
+							lookup.unreflect(method),
+							MethodType.methodType(void.class, method.getDeclaringClass(), valueType));
+					return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+				} catch (LambdaConversionException e) {
+					// fall back to a method handle
+				}
+			}
+			method.setAccessible(true);
+			return createSetter(MethodHandles.lookup().unreflect(method));
+		}
+
+		private static BiConsumer<Object, Object> createSetter(Field field) throws Throwable {
+			field.setAccessible(true);
+			return createSetter(MethodHandles.lookup().unreflectSetter(field));
+		}
+
+		private static BiConsumer<Object, Object> createSetter(MethodHandle handle) {
+			MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			return (bean, value) -> {
+				try {
+					setter.invokeExact(bean, value);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+
+		/**
+		 * A lambda class is defined by the class loader of this class, so it may only
+		 * link to public methods of public types visible from there.
+		 */
+		private static boolean isLambdaAccessible(Method method) {
+			if (!Modifier.isPublic(method.getModifiers()) || !isVisible(method.getDeclaringClass())
+					|| !isVisible(method.getReturnType())) {
+				return false;
+			}
+			for (Class<?> parameterType : method.getParameterTypes()) {
+				if (!isVisible(parameterType)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean isVisible(Class<?> type) {
+			while (type.isArray()) {
+				type = type.getComponentType();
+			}
+			if (type.isPrimitive()) {
+				return true;
+			}
+			for (Class<?> t = type; t != null; t = t.getEnclosingClass()) {
+				if (!Modifier.isPublic(t.getModifiers())) {
+					return false;
+				}
+			}
+			try {
+				return Class.forName(type.getName(), false, BeanMetadata.class.getClassLoader()) == type;
+			} catch (ClassNotFoundException | LinkageError e) {
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Statistics of the total count queries run and avoided by pagination.
+ */
+public class CountStats {
+	public static final long UNKNOWN_TOTAL = -1;
+
+	private final LongAdder executedCount = new LongAdder();
+	private final LongAdder avoidedCount = new LongAdder();
+
+	/**
+	 * Infer the total row count from the size of a page. A page with fewer rows
+	 * than the limit is the last one, unless it is empty, in which case the
+	 * offset may be past the end.
+	 *
+	 * @param rowBounds row bounds of the page
+	 * @param size      number of rows in the page
+	 * @return total row count, or {@link #UNKNOWN_TOTAL}
+	 */
+	public static long inferTotal(RowBounds rowBounds, int size) {
+		Asserts.notNull(rowBounds, "rowBounds");
+		if (size < rowBounds.getLimit() && (size > 0 || rowBounds.getOffset() <= 0)) {
+			return (long) Math.max(rowBounds.getOffset(), 0) + size;
+		}
+		return UNKNOWN_TOTAL;
+	}
+
+	public void recordExecuted() {
+		executedCount.increment();
+	}
+
+	public void recordAvoided() {
+		avoidedCount.increment();
+	}
+
+	public long getExecutedCount() {
+		return executedCount.sum();
+	}
+
+	public long getAvoidedCount() {
+		return avoidedCount.sum();
+	}
+
+	public void reset() {
+		executedCount.reset();
+		avoidedCount.reset();
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.ibatis.cursor.Cursor;
+
+public final class Cursors {
+	private Cursors() {
+	}
+
+	/**
+	 * Create a cursor applying a function to every element of another cursor,
+	 * closing the new cursor closes the underlying one.
+	 *
+	 * @param <S>      source element type
+	 * @param <T>      target element type
+	 * @param cursor   source cursor
+	 * @param function element function
+	 * @return transformed cursor
+	 */
+	public static <S, T> Cursor<T> transform(Cursor<S> cursor, Function<? super S, ? extends T> function) {
+		Asserts.notNull(cursor, "cursor");
+		Asserts.notNull(function, "function");
+		return new TransformedCursor<>(cursor, function);
+	}
+
+	/**
+	 * Create a consumed cursor without elements.
+	 *
+	 * @param <T> element type
+	 * @return empty cursor
+	 */
+	public static <T> Cursor<T> empty() {
+		return new EmptyCursor<>();
+	}
+
+	/**
+	 * Create a sequential stream over a cursor, closing the stream closes the
+	 * cursor.
+	 *
+	 * @param <T>    element type
+	 * @param cursor cursor
+	 * @return stream
+	 */
+	public static <T> Stream<T> stream(Cursor<T> cursor) {
+		Asserts.notNull(cursor, "cursor");
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor.iterator(), Spliterator.ORDERED), false)
+				.onClose(() -> close(cursor));
+	}
+
+	private static void close(Cursor<?> cursor) {
+		try {
+			cursor.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static class EmptyCursor<T> implements Cursor<T> {
+		@Override
+		public boolean isOpen() {
+			return false;
+		}
+
+		@Override
+		public boolean isConsumed() {
+			return true;
+		}
+
+		@Override
+		public int getCurrentIndex() {
+			return -1;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return Collections.emptyIterator();
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static class TransformedCursor<S, T> implements Cursor<T> {
+		private final Cursor<S> cursor;
+		private final Function<? super S, ? extends T> function;
+
+		TransformedCursor(Cursor<S> cursor, Function<? super S, ? extends T> function) {
+			this.cursor = cursor;
+			this.function = function;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return cursor.isOpen();
+		}
+
+		@Override
+		public boolean isConsumed() {
+			return cursor.isConsumed();
+		}
+
+		@Override
+		public int getCurrentIndex() {
+			return cursor.getCurrentIndex();
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			Iterator<S> iterator = cursor.iterator();
+			return new Iterator<T>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public T next() {
+					return function.apply(iterator.next());
+				}
+			};
+		}
+
+		@Override
+		public void close() throws IOException {
+			cursor.close();
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.springlink.mybatis.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+
+/**
+ * Encodes the sort key values of a row as an opaque URL safe token, and
+ * decodes them back to the property types. Only values are encoded, so
+ * decoding never instantiates classes named by the token.
+ */
+public final class KeysetTokens {
+	private static final int VERSION = 1;
+	private static final Set<Class<?>> SUPPORTED_TYPES = ImmutableSet.of(String.class, Integer.class, Long.class,
+			Short.class, Byte.class, Double.class, Float.class, Boolean.class, Character.class, BigDecimal.class,
+			BigInteger.class, java.sql.Timestamp.class, java.sql.Date.class, java.sql.Time.class, Date.class,
+			Instant.class, LocalDate.class, LocalDateTime.class, LocalTime.class, OffsetDateTime.class);
+
+	private KeysetTokens() {
+	}
+
+	public static String encode(List<?> values) {
+		Asserts.notNull(values, "values");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			out.writeShort(values.size());
+			for (Object value : values) {
+				out.writeBoolean(value != null);
+				if (value != null) {
+					out.writeUTF(format(value));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+	}
+
+	public static Object[] decode(String token, List<Class<?>> types) {
+		Asserts.notEmpty(token, "token");
+		Asserts.notNull(types, "types");
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+			if (in.readByte() != VERSION || in.readShort() != types.size()) {
+				throw new IllegalArgumentException("Invalid continuation token: " + token);
+			}
+			Object[] values = new Object[types.size()];
+			for (int i = 0; i < values.length; ++i) {
+				values[i] = in.readBoolean() ? parse(in.readUTF(), types.get(i)) : null;
+			}
+			if (in.read() != -1) {
+				throw new IllegalArgumentException("Invalid continuation token: " + token);
+			}
+			return values;
+		} catch (IOException | RuntimeException e) {
+			if (e instanceof UnsupportedOperationException) {
+				throw (UnsupportedOperationException) e;
+			}
+			throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+		}
+	}
+
+	private static String format(Object value) {
+		if (value instanceof Enum) {
+			return ((Enum<?>) value).name();
+		} else if (!SUPPORTED_TYPES.contains(value.getClass())) {
+			throw new UnsupportedOperationException("Unsupported key type: " + value.getClass().getName());
+		} else if (value instanceof java.sql.Timestamp) {
+			return ((java.sql.Timestamp) value).toInstant().toString();
+		} else if (value instanceof java.sql.Date || value instanceof java.sql.Time) {
+			return value.toString();
+		} else if (value instanceof Date) {
+			return Long.toString(((Date) value).getTime());
+		}
+		return value.toString();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object parse(String text, Class<?> type) {
+		Class<?> cls = Primitives.wrap(type);
+		if (cls.isEnum()) {
+			return Enum.valueOf((Class<? extends Enum>) cls, text);
+		} else if (cls == String.class) {
+			return text;
+		} else if (cls == Integer.class) {
+			return Integer.valueOf(text);
+		} else if (cls == Long.class) {
+			return Long.valueOf(text);
+		} else if (cls == Short.class) {
+			return Short.valueOf(text);
+		} else if (cls == Byte.class) {
+			return Byte.valueOf(text);
+		} else if (cls == Double.class) {
+			return Double.valueOf(text);
+		} else if (cls == Float.class) {
+			return Float.valueOf(text);
+		} else if (cls == Boolean.class) {
+			return Boolean.valueOf(text);
+		} else if (cls == Character.class) {
+			return text.charAt(0);
+		} else if (cls == BigDecimal.class) {
+			return new BigDecimal(text);
+		} else if (cls == BigInteger.class) {
+			return new BigInteger(text);
+		} else if (cls == java.sql.Timestamp.class) {
+			return java.sql.Timestamp.from(Instant.parse(text));
+		} else if (cls == java.sql.Date.class) {
+			return java.sql.Date.valueOf(text);
+		} else if (cls == java.sql.Time.class) {
+			return java.sql.Time.valueOf(text);
+		} else if (cls == Date.class) {
+			return new Date(Long.parseLong(text));
+		} else if (cls == Instant.class) {
+			return Instant.parse(text);
+		} else if (cls == LocalDate.class) {
+			return LocalDate.parse(text);
+		} else if (cls == LocalDateTime.class) {
+			return LocalDateTime.parse(text);
+		} else if (cls == LocalTime.class) {
+			return LocalTime.parse(text);
+		} else if (cls == OffsetDateTime.class) {
+			return OffsetDateTime.parse(text);
+		}
+		throw new UnsupportedOperationException("Unsupported key type: " + type.getName());
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from {@code long} keys to objects with open addressing and linear
+ * probing, keys are neither boxed nor wrapped in entries. Entries can not be
+ * removed and {@code null} values are not allowed.
+ *
+ * @param <V> value type
+ */
+public class LongObjectMap<V> {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+	private int threshold;
+
+	public LongObjectMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a map holding the given number of entries without rehashing.
+	 *
+	 * @param expectedSize expected number of entries
+	 */
+	public LongObjectMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Invalid expectedSize: " + expectedSize);
+		}
+		int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 2) - 1) << 1;
+		allocate(capacity);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return values[indexOf(key)] != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		return (V) values[indexOf(key)];
+	}
+
+	/**
+	 * Associate a value with a key.
+	 *
+	 * @param key   the key
+	 * @param value the value, not {@code null}
+	 * @return the previous value, or {@code null}
+	 */
+	public V put(long key, V value) {
+		return put(key, value, true);
+	}
+
+	/**
+	 * Associate a value with a key unless the key is already present.
+	 *
+	 * @param key   the key
+	 * @param value the value, not {@code null}
+	 * @return the present value, or {@code null} if the value was put
+	 */
+	public V putIfAbsent(long key, V value) {
+		return put(key, value, false);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V put(long key, V value, boolean replace) {
+		Asserts.notNull(value, "value");
+		int index = indexOf(key);
+		Object previous = values[index];
+		if (previous == null) {
+			keys[index] = key;
+			values[index] = value;
+			if (++size > threshold) {
+				rehash(keys.length << 1);
+			}
+		} else if (replace) {
+			values[index] = value;
+		}
+		return (V) previous;
+	}
+
+	/**
+	 * Get the keys in no particular order.
+	 *
+	 * @return new array of the keys
+	 */
+	public long[] keys() {
+		long[] result = new long[size];
+		int count = 0;
+		for (int i = 0; i < values.length; ++i) {
+			if (values[i] != null) {
+				result[count++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super V> consumer) {
+		Asserts.notNull(consumer, "consumer");
+		for (int i = 0; i < values.length; ++i) {
+			if (values[i] != null) {
+				consumer.accept(keys[i], (V) values[i]);
+			}
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	private int indexOf(long key) {
+		int index = hash(key) & mask;
+		while (values[index] != null && keys[index] != key) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; ++i) {
+			if (oldValues[i] != null) {
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("{");
+		forEach((key, value) -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(value);
+		});
+		return sb.append('}').toString();
+	}
+
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+		void accept(long key, V value);
+	}
+}
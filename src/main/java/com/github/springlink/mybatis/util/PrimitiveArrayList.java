@@ -0,0 +1,295 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Immutable list over a range of a {@code long} or {@code int} array. Elements
+ * are boxed only when read through the {@link List} interface, statements bind
+ * them with {@link PreparedStatement#setLong} or {@link PreparedStatement#setInt}
+ * through the {@link #getElementTypeHandler(int) element type handlers}.
+ *
+ * @param <E> boxed element type
+ */
+public abstract class PrimitiveArrayList<E extends Number> extends AbstractList<E> implements RandomAccess {
+	private static volatile ElementTypeHandler[] elementTypeHandlers = new ElementTypeHandler[0];
+
+	protected final int offset;
+	protected final int size;
+	private int hashCode;
+
+	PrimitiveArrayList(int offset, int size) {
+		this.offset = offset;
+		this.size = size;
+	}
+
+	public static PrimitiveArrayList<Long> of(long[] values) {
+		Asserts.notNull(values, "values");
+		return new LongArrayList(values.clone(), 0, values.length);
+	}
+
+	public static PrimitiveArrayList<Integer> of(int[] values) {
+		Asserts.notNull(values, "values");
+		return new IntArrayList(values.clone(), 0, values.length);
+	}
+
+	/**
+	 * Get the type handler binding the element at an index of the primitive list
+	 * it is given as parameter value.
+	 *
+	 * @param index element index
+	 * @return type handler
+	 */
+	public static TypeHandler<Object> getElementTypeHandler(int index) {
+		if (index < 0) {
+			throw new IndexOutOfBoundsException("Invalid index: " + index);
+		}
+		ElementTypeHandler[] handlers = elementTypeHandlers;
+		if (index >= handlers.length) {
+			synchronized (PrimitiveArrayList.class) {
+				handlers = elementTypeHandlers;
+				if (index >= handlers.length) {
+					int length = handlers.length;
+					handlers = Arrays.copyOf(handlers, Math.max(index + 1, length * 2));
+					for (int i = length; i < handlers.length; ++i) {
+						handlers[i] = new ElementTypeHandler(i);
+					}
+					elementTypeHandlers = handlers;
+				}
+			}
+		}
+		return handlers[index];
+	}
+
+	public abstract long getLong(int index);
+
+	/**
+	 * Get the list without repeated elements, keeping the first occurrences.
+	 *
+	 * @return list of distinct elements
+	 */
+	public abstract PrimitiveArrayList<E> distinct();
+
+	@Override
+	public abstract PrimitiveArrayList<E> subList(int fromIndex, int toIndex);
+
+	protected abstract void setParameter(PreparedStatement ps, int parameterIndex, int index) throws SQLException;
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hashCode;
+		if (h == 0 && size > 0) {
+			h = 1;
+			for (int i = 0; i < size; ++i) {
+				h = 31 * h + elementHashCode(i);
+			}
+			hashCode = h;
+		}
+		return size == 0 ? 1 : h;
+	}
+
+	protected abstract int elementHashCode(int index);
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != getClass()) {
+			return super.equals(obj);
+		}
+		PrimitiveArrayList<?> other = (PrimitiveArrayList<?>) obj;
+		if (size != other.size || hashCode() != other.hashCode()) {
+			return false;
+		}
+		for (int i = 0; i < size; ++i) {
+			if (getLong(i) != other.getLong(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	protected void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	protected void checkRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+					+ ", Size: " + size);
+		}
+	}
+
+	private static class LongArrayList extends PrimitiveArrayList<Long> {
+		private final long[] values;
+
+		LongArrayList(long[] values, int offset, int size) {
+			super(offset, size);
+			this.values = values;
+		}
+
+		@Override
+		public Long get(int index) {
+			return getLong(index);
+		}
+
+		@Override
+		public long getLong(int index) {
+			checkIndex(index);
+			return values[offset + index];
+		}
+
+		@Override
+		public PrimitiveArrayList<Long> distinct() {
+			LongObjectMap<Boolean> seen = new LongObjectMap<>(size);
+			long[] distinct = new long[size];
+			int count = 0;
+			for (int i = offset; i < offset + size; ++i) {
+				if (seen.putIfAbsent(values[i], Boolean.TRUE) == null) {
+					distinct[count++] = values[i];
+				}
+			}
+			return count == size ? this : new LongArrayList(distinct, 0, count);
+		}
+
+		@Override
+		public PrimitiveArrayList<Long> subList(int fromIndex, int toIndex) {
+			checkRange(fromIndex, toIndex);
+			return new LongArrayList(values, offset + fromIndex, toIndex - fromIndex);
+		}
+
+		@Override
+		protected void setParameter(PreparedStatement ps, int parameterIndex, int index) throws SQLException {
+			ps.setLong(parameterIndex, getLong(index));
+		}
+
+		@Override
+		protected int elementHashCode(int index) {
+			return Long.hashCode(values[offset + index]);
+		}
+	}
+
+	private static class IntArrayList extends PrimitiveArrayList<Integer> {
+		private final int[] values;
+
+		IntArrayList(int[] values, int offset, int size) {
+			super(offset, size);
+			this.values = values;
+		}
+
+		@Override
+		public Integer get(int index) {
+			checkIndex(index);
+			return values[offset + index];
+		}
+
+		@Override
+		public long getLong(int index) {
+			checkIndex(index);
+			return values[offset + index];
+		}
+
+		@Override
+		public PrimitiveArrayList<Integer> distinct() {
+			LongObjectMap<Boolean> seen = new LongObjectMap<>(size);
+			int[] distinct = new int[size];
+			int count = 0;
+			for (int i = offset; i < offset + size; ++i) {
+				if (seen.putIfAbsent(values[i], Boolean.TRUE) == null) {
+					distinct[count++] = values[i];
+				}
+			}
+			return count == size ? this : new IntArrayList(distinct, 0, count);
+		}
+
+		@Override
+		public PrimitiveArrayList<Integer> subList(int fromIndex, int toIndex) {
+			checkRange(fromIndex, toIndex);
+			return new IntArrayList(values, offset + fromIndex, toIndex - fromIndex);
+		}
+
+		@Override
+		protected void setParameter(PreparedStatement ps, int parameterIndex, int index) throws SQLException {
+			checkIndex(index);
+			ps.setInt(parameterIndex, values[offset + index]);
+		}
+
+		@Override
+		protected int elementHashCode(int index) {
+			return values[offset + index];
+		}
+	}
+
+	/**
+	 * Binds one element of a primitive list, or of any other list given as
+	 * parameter value. It is a parameter-only handler, results are never mapped
+	 * through it.
+	 */
+	private static class ElementTypeHandler implements TypeHandler<Object> {
+		private final int index;
+
+		ElementTypeHandler(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void setParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType)
+				throws SQLException {
+			if (parameter instanceof PrimitiveArrayList) {
+				((PrimitiveArrayList<?>) parameter).setParameter(ps, i, index);
+			} else if (parameter instanceof List) {
+				ps.setObject(i, ((List<?>) parameter).get(index));
+			} else {
+				throw new IllegalArgumentException("Not a list parameter: " + parameter);
+			}
+		}
+
+		@Override
+		public Object getResult(ResultSet rs, String columnName) {
+			throw new UnsupportedOperationException("List element handler binds parameters only");
+		}
+
+		@Override
+		public Object getResult(ResultSet rs, int columnIndex) {
+			throw new UnsupportedOperationException("List element handler binds parameters only");
+		}
+
+		@Override
+		public Object getResult(CallableStatement cs, int columnIndex) {
+			throw new UnsupportedOperationException("List element handler binds parameters only");
+		}
+	}
+}
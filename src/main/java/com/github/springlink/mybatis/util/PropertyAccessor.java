@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+/**
+ * Precompiled read and write access to a property of a bean type, bound to the
+ * getter and setter of the property, or to its field if it has none.
+ */
+public interface PropertyAccessor {
+	boolean isReadable();
+
+	boolean isWritable();
+
+	/**
+	 * Get the property value of a bean.
+	 *
+	 * @param bean the bean
+	 * @return property value
+	 * @throws UnsupportedOperationException if the property is not readable
+	 */
+	Object get(Object bean);
+
+	/**
+	 * Set the property value of a bean.
+	 *
+	 * @param bean  the bean
+	 * @param value property value
+	 * @throws UnsupportedOperationException if the property is not writable
+	 */
+	void set(Object bean, Object value);
+}
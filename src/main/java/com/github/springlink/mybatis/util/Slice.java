@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.springlink.mybatis.util;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+public interface Slice<E> extends List<E> {
+	int limit();
+
+	boolean hasNext();
+
+	/**
+	 * Get the opaque token to pass for the next slice.
+	 *
+	 * @return continuation token, {@code null} when this is the last slice
+	 */
+	@Nullable
+	String nextToken();
+}
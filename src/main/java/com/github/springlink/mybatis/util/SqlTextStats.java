@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Statistics of the distinct SQL texts produced per entity. Every distinct
+ * text costs a prepared statement on the server and a slot in the statement
+ * cache of the driver, so a count growing with the data, e.g. with the sizes
+ * of IN lists, points to criteria worth padding or rewriting.
+ * <p>
+ * Recording is disabled by default. Only a fingerprint of each text is kept,
+ * and at most {@link #MAX_TEXTS} of them per entity, counts beyond that
+ * saturate.
+ */
+public class SqlTextStats {
+	public static final int MAX_TEXTS = 4096;
+
+	private final ConcurrentMap<Class<?>, Set<Long>> sqlTexts = Maps.newConcurrentMap();
+	private volatile boolean enabled;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void record(Class<?> entityType, String sql) {
+		Asserts.notNull(entityType, "entityType");
+		Asserts.notNull(sql, "sql");
+		if (!enabled) {
+			return;
+		}
+		Set<Long> texts = sqlTexts.get(entityType);
+		if (texts == null) {
+			texts = sqlTexts.computeIfAbsent(entityType, key -> Sets.newConcurrentHashSet());
+		}
+		if (texts.size() < MAX_TEXTS) {
+			// the hash code of a cached fragment's SQL is computed once per string
+			texts.add(((long) sql.length() << 32) | (sql.hashCode() & 0xFFFFFFFFL));
+		}
+	}
+
+	public int getCount(Class<?> entityType) {
+		Set<Long> texts = sqlTexts.get(entityType);
+		return texts == null ? 0 : texts.size();
+	}
+
+	/**
+	 * Get the number of distinct SQL texts of every entity seen so far.
+	 *
+	 * @return snapshot of the counts by entity type
+	 */
+	public Map<Class<?>, Integer> getCounts() {
+		ImmutableMap.Builder<Class<?>, Integer> builder = ImmutableMap.builder();
+		for (Map.Entry<Class<?>, Set<Long>> entry : sqlTexts.entrySet()) {
+			builder.put(entry.getKey(), entry.getValue().size());
+		}
+		return builder.build();
+	}
+
+	public void reset() {
+		sqlTexts.clear();
+	}
+}
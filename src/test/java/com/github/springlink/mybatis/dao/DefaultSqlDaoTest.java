@@ -1,692 +1,1573 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.dao;
-
-import static com.github.springlink.mybatis.sql.SqlCriterion.and;
-import static com.github.springlink.mybatis.sql.SqlCriterion.between;
-import static com.github.springlink.mybatis.sql.SqlCriterion.eq;
-import static com.github.springlink.mybatis.sql.SqlCriterion.falseValue;
-import static com.github.springlink.mybatis.sql.SqlCriterion.ge;
-import static com.github.springlink.mybatis.sql.SqlCriterion.gt;
-import static com.github.springlink.mybatis.sql.SqlCriterion.in;
-import static com.github.springlink.mybatis.sql.SqlCriterion.isNotNull;
-import static com.github.springlink.mybatis.sql.SqlCriterion.isNull;
-import static com.github.springlink.mybatis.sql.SqlCriterion.le;
-import static com.github.springlink.mybatis.sql.SqlCriterion.like;
-import static com.github.springlink.mybatis.sql.SqlCriterion.lt;
-import static com.github.springlink.mybatis.sql.SqlCriterion.ne;
-import static com.github.springlink.mybatis.sql.SqlCriterion.not;
-import static com.github.springlink.mybatis.sql.SqlCriterion.or;
-import static com.github.springlink.mybatis.sql.SqlCriterion.trueValue;
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
-
-import java.io.IOException;
-import java.io.Reader;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import org.apache.ibatis.io.Resources;
-import org.apache.ibatis.jdbc.ScriptRunner;
-import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.session.RowBounds;
-import org.apache.ibatis.session.SqlSession;
-import org.apache.ibatis.session.SqlSessionFactory;
-import org.apache.ibatis.session.SqlSessionFactoryBuilder;
-import org.junit.BeforeClass;
-import org.junit.Test;
-import org.mockito.Mockito;
-
-import com.github.springlink.mybatis.entity.Author;
-import com.github.springlink.mybatis.entity.Author2;
-import com.github.springlink.mybatis.entity.Author3;
-import com.github.springlink.mybatis.entity.Comment;
-import com.github.springlink.mybatis.entity.GeneratedKeysTable;
-import com.github.springlink.mybatis.entity.Post;
-import com.github.springlink.mybatis.entity.PostOfSally;
-import com.github.springlink.mybatis.entity.Tag;
-import com.github.springlink.mybatis.entity.Tag2;
-import com.github.springlink.mybatis.registry.SqlDialect;
-import com.github.springlink.mybatis.registry.SqlRegistry;
-import com.github.springlink.mybatis.sql.SqlCriterion;
-import com.github.springlink.mybatis.sql.SqlOrderBy;
-import com.github.springlink.mybatis.sql.SqlProjections;
-import com.github.springlink.mybatis.sql.SqlReference;
-import com.github.springlink.mybatis.sql.SqlUpdate;
-import com.github.springlink.mybatis.util.BoundList;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
-
-public class DefaultSqlDaoTest {
-	private static SqlSessionFactory sqlSessionFactory;
-	private static SqlRegistry sqlRegistry;
-
-	@BeforeClass
-	public static void setUpBeforeClass() throws IOException {
-		try (Reader reader = Resources.getResourceAsReader("entity/mybatis-config-h2.xml")) {
-			sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
-		}
-
-		try (Reader reader = Resources.getResourceAsReader("entity/blog-h2.sql");
-				SqlSession session = sqlSessionFactory.openSession()) {
-			ScriptRunner runner = new ScriptRunner(session.getConnection());
-			runner.setLogWriter(null);
-			runner.runScript(reader);
-			session.commit();
-		}
-
-		Configuration cfg = sqlSessionFactory.getConfiguration();
-		sqlRegistry = new SqlRegistry(cfg, SqlDialect.get("h2"));
-		sqlRegistry.addType(Comment.class);
-		sqlRegistry.addType(Author.class);
-		sqlRegistry.addType(Author2.class);
-		sqlRegistry.addType(Author3.class);
-		sqlRegistry.addType(Post.class);
-		sqlRegistry.addType(PostOfSally.class);
-		sqlRegistry.addType(Tag.class);
-		sqlRegistry.addType(Tag2.class);
-		sqlRegistry.addType(GeneratedKeysTable.class);
-	}
-
-	@Test
-	public void shouldInsert() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			Post post = new Post();
-			post.setId(6);
-			post.setAuthorId(102);
-			post.setBlogId(2);
-			post.setBody("Yes, this is a test post, you're right");
-			post.setCreatedOn(new Date());
-			post.setDraft(false);
-			post.setSection("DISCUSS");
-			post.setStar(3);
-			post.setSubject("Testing my dao");
-
-			assertThat(dao.insert(Post.class, post)).isEqualTo(1);
-		}
-	}
-
-	@Test
-	public void shouldInsertWithGeneratedKeys() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			GeneratedKeysTable gkt = new GeneratedKeysTable();
-			gkt.setId2(123);
-
-			assertThat(dao.insert(GeneratedKeysTable.class, gkt)).isEqualTo(1);
-			assertThat(gkt.getId1()).isEqualTo(1);
-			assertThat(gkt.getId2()).isEqualTo(123);
-		}
-	}
-
-	@Test
-	public void shouldDelete() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(1L);
-
-			assertThat(dao.delete(Post.class, eq("id", 1))).isEqualTo(1);
-
-			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(0L);
-
-			session.rollback();
-
-			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(1L);
-		}
-	}
-
-	@Test
-	public void shouldUpdateWithShortMethod() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().set("section", "NEW_SECTION"), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().add("star", 9), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().subtract("star", 3), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().nullify("blogId"), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().set("authorId", 11).set("body", "text body"), eq("id", 1)))
-					.isEqualTo(1);
-
-			Post post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
-			assertThat(post.getSection()).isEqualTo("NEW_SECTION");
-			assertThat(post.getStar()).isEqualTo(6);
-			assertThat(post.getBlogId()).isNull();
-			assertThat(post.getAuthorId()).isEqualTo(11);
-			assertThat(post.getBody()).isEqualTo("text body");
-
-			session.rollback();
-		}
-	}
-
-	@Test
-	public void shouldUpdate() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().set("section", "NEW_SECTION"), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().add("star", 9), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().subtract("star", 3), eq("id", 1)))
-					.isEqualTo(1);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().nullify("blogId"), eq("id", 1)))
-					.isEqualTo(1);
-
-			Post postValue = new Post();
-			postValue.setAuthorId(11);
-			postValue.setBody("text body");
-			assertThat(dao.updateEntity(Post.class, postValue, eq("id", 1)))
-					.isEqualTo(1);
-			assertThat(dao.update(Post.class, SqlUpdate.create().set("authorId", 33), eq("id", 1)))
-					.isEqualTo(1);
-
-			Post post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
-			assertThat(post.getSection()).isEqualTo("NEW_SECTION");
-			assertThat(post.getStar()).isEqualTo(6);
-			assertThat(post.getBlogId()).isNull();
-			assertThat(post.getAuthorId()).isEqualTo(33);
-			assertThat(post.getBody()).isEqualTo("text body");
-
-			Date now = new Date(System.currentTimeMillis() / 1000 * 1000);
-
-			Post emptyPostValue = new Post();
-			emptyPostValue.setId(1);
-			emptyPostValue.setAuthorId(11);
-			emptyPostValue.setCreatedOn(now);
-			emptyPostValue.setSection("SECTION");
-			emptyPostValue.setSubject("SUBJECT");
-			emptyPostValue.setBody("BODY");
-			emptyPostValue.setDraft(false);
-			emptyPostValue.setStar(123);
-			assertThat(dao.updateEntity(Post.class, emptyPostValue, false, eq("id", 1)))
-					.isEqualTo(1);
-
-			post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
-			assertThat(post.getId()).isEqualTo(1);
-			assertThat(post.getAuthorId()).isEqualTo(11);
-			assertThat(post.getBlogId()).isNull();
-			assertThat(post.getBody()).isEqualTo("BODY");
-			assertThat(post.getCreatedOn()).isEqualTo(now);
-			assertThat(post.getDraft()).isFalse();
-			assertThat(post.getSection()).isEqualTo("SECTION");
-			assertThat(post.getStar()).isEqualTo(123);
-			assertThat(post.getSubject()).isEqualTo("SUBJECT");
-
-			session.rollback();
-		}
-	}
-
-	@Test
-	public void shouldUpdateByPropertyAlias() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			Date date = new Date(System.currentTimeMillis() / 1000 * 1000);
-
-			assertThat(dao.update(Post.class, SqlUpdate.create().set("#CreateDate", date), eq("id", 1)))
-					.isEqualTo(1);
-
-			Post post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
-			assertThat(post.getCreateTime()).isEqualTo(date);
-
-			session.rollback();
-		}
-	}
-
-	@Test
-	public void shouldUpdateNothing() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.update(Post.class, (SqlUpdate) null, eq("id", 1))).isEqualTo(0);
-		}
-	}
-
-	@Test
-	public void shouldAllowNullArguments() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			dao.select(Post.class).where((SqlCriterion) null).orderBy((SqlOrderBy) null);
-
-			dao.update(Post.class, (SqlUpdate) null, null);
-
-			dao.delete(Post.class, (SqlCriterion) null);
-
-			dao.insert(Post.class, null);
-		}
-	}
-
-	@Test
-	public void shouldCount() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(1);
-
-			assertThat(dao.count(Post.class, (SqlCriterion) null)).isEqualTo(5);
-		}
-	}
-
-	@Test
-	public void shouldExists() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.exists(Post.class, eq("id", 1))).isTrue();
-
-			assertThat(dao.exists(Post.class, (SqlCriterion) null)).isTrue();
-
-			assertThat(dao.exists(Post.class, and(eq("id", 999), like("blogAuthorName", "%j%")))).isFalse();
-		}
-	}
-
-	@Test
-	public void shouldSelectEntity() throws ParseException {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-			Post post = dao.select(Post.class).where(eq("#id", 2)).asOne().orElse(null);
-			assertThat(post.getAuthorId()).isEqualTo(101);
-			assertThat(post.getAuthorName()).isEqualTo("jim");
-			assertThat(post.getBlogAuthorName()).isEqualTo("jim");
-			assertThat(post.getBlogId()).isEqualTo(1);
-			assertThat(post.getBlogTitle()).isEqualTo("Jim Business");
-			assertThat(post.getBody()).isEqualTo("That's not a dog.  THAT's a dog!");
-			assertThat(post.getCreatedOn()).isEqualTo(dateFormat.parse("2008-01-12 00:00:00"));
-			assertThat(post.getCreateTime()).isEqualTo(dateFormat.parse("2008-01-12 00:00:00"));
-			assertThat(post.getDraft()).isEqualTo(false);
-			assertThat(post.getId()).isEqualTo(2);
-			assertThat(post.getSection()).isEqualTo("VIDEOS");
-			assertThat(post.getStar()).isEqualTo(100);
-			assertThat(post.getSubject()).isEqualTo("Paul Hogan on Toy Dogs");
-		}
-	}
-
-	@Test
-	public void shouldSelectEntityWithOrders() throws ParseException {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("section").desc("star")).asList())
-					.extracting(Post::getId)
-					.containsExactly(4, 5, 1, 3, 2);
-		}
-	}
-
-	@Test
-	public void shouldSelectProjectionWithOrders() throws ParseException {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("section").desc("star"))
-					.asList(SqlProjections.create().property("id", "#id")))
-							.containsExactly(4, 5, 1, 3, 2);
-		}
-	}
-
-	@Test
-	public void shouldSelectEntityForUpdate() throws ParseException {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("section").desc("star")).forUpdate().asList())
-					.extracting(Post::getId)
-					.containsExactly(4, 5, 1, 3, 2);
-		}
-	}
-
-	@Test
-	public void shouldSelectProjection() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(
-					dao.select(Post.class).where(eq("id", 2)).<Integer>asOne(SqlProjections.create().property("aid", "authorId"))
-							.orElse(null))
-									.isEqualTo(101);
-
-			assertThat(dao.select(Post.class).<String>asList(SqlProjections.create().distinct("s", "section")))
-					.containsExactlyInAnyOrder("NEWS", "VIDEOS", "PODCASTS", "IMAGES");
-
-			assertThat(dao.select(Post.class).<Long>asOne(SqlProjections.create().count("aid", "authorId")).orElse(null))
-					.isEqualTo(5);
-
-			assertThat(
-					dao.select(Post.class).<Long>asOne(SqlProjections.create().countDistinct("aid", "authorId")).orElse(null))
-							.isEqualTo(2);
-
-			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().max("s", "star")).orElse(null).intValue())
-					.isEqualTo(100);
-
-			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().min("s", "star")).orElse(null).intValue())
-					.isEqualTo(0);
-
-			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().sum("s", "star")).orElse(null).intValue())
-					.isEqualTo(183);
-
-			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().avg("s", "star")).orElse(null).intValue())
-					.isEqualTo(183 / 5);
-
-			// Join column
-			assertThat(dao.select(Post.class).where(eq("#id", 2))
-					.<String>asOne(SqlProjections.create().property("an", "authorName")).orElse(null))
-							.isEqualTo("jim");
-			
-			assertThat(dao.select(Post.class).where(eq("#id", 2))
-					.<String>asOne(SqlProjections.create().property("authorOfBlog.username")).orElse(null))
-							.isEqualTo("jim");
-
-			assertThat(
-					dao.select(Post.class).<Long>asOne(SqlProjections.create().count("ban", "blogAuthorName")).orElse(null))
-							.isEqualTo(4);
-
-			assertThat(dao.select(Post.class).<String>asList(SqlProjections.create().distinct("an", "authorName")))
-					.containsExactlyInAnyOrder("jim", "sally");
-		}
-	}
-
-	@Test
-	public void shouldSelectProjections() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Post.class).where(eq("id", 2)).<Map<String, Integer>>asOne(SqlProjections.create()
-					.property("bid", "blogId")
-					.property("aid", "authorId")).orElse(null)
-					.entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue())))
-							.isEqualTo(ImmutableMap.of("bid", 1, "aid", 101));
-
-			BoundList<Integer> bl1 = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
-					.asBoundList(new RowBounds(1, 2), SqlProjections.create().property("id", "id"));
-			assertThat(bl1.total()).isEqualTo(5);
-			assertThat(bl1.offset()).isEqualTo(1);
-			assertThat(bl1.limit()).isEqualTo(2);
-			assertThat(bl1).containsExactlyInAnyOrder(2, 3);
-
-			BoundList<Map<String, Object>> bl2 = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
-					.asBoundList(new RowBounds(1, 2), SqlProjections.create().property("id", "id").property("aid", "authorId"));
-			assertThat(bl1.total()).isEqualTo(5);
-			assertThat(bl1.offset()).isEqualTo(1);
-			assertThat(bl1.limit()).isEqualTo(2);
-			assertThat(
-					bl2.get(0).entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue())))
-							.containsEntry("id", 2)
-							.containsEntry("aid", 101);
-			assertThat(
-					bl2.get(1).entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue())))
-							.containsEntry("id", 3)
-							.containsEntry("aid", 102);
-
-			assertThat(dao.select(Post.class).asList(SqlProjections.create().property("id", "id")))
-					.containsExactlyInAnyOrder(1, 2, 3, 4, 5);
-
-			assertThat(dao.select(Post.class)
-					.<Map<String, Integer>>asList(SqlProjections.create().property("id", "id").property("aid", "authorId"))
-					.stream()
-					.map(item -> item.entrySet().stream()
-							.collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue()))))
-									.containsExactlyInAnyOrder(
-											ImmutableMap.of("id", 1, "aid", 101),
-											ImmutableMap.of("id", 2, "aid", 101),
-											ImmutableMap.of("id", 3, "aid", 102),
-											ImmutableMap.of("id", 4, "aid", 102),
-											ImmutableMap.of("id", 5, "aid", 101));
-
-			assertThat(dao.select(Post.class).asList(new RowBounds(1, 2),
-					SqlProjections.create().property("id", "id")))
-							.containsExactlyInAnyOrder(2, 3);
-
-			assertThat(dao.select(Post.class).<Map<String, Object>>asList(new RowBounds(1, 2),
-					SqlProjections.create().property("id", "id").property("aid", "authorId"))
-					.stream()
-					.map(item -> item.entrySet().stream()
-							.collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue()))))
-									.containsExactlyInAnyOrder(
-											ImmutableMap.of("id", 2, "aid", 101),
-											ImmutableMap.of("id", 3, "aid", 102));
-		}
-	}
-
-	@Test
-	public void shouldCountWithConditions() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.count(Post.class, eq("section", "NEWS"))).isEqualTo(1);
-
-			// mysql is case insensitive
-			// assertThat(dao.count(Post.class, eq("section", "news"))).isEqualTo(0);
-
-			assertThat(dao.count(Post.class, ne("section", "NEWS"))).isEqualTo(4);
-
-			// mysql is case insensitive
-			// assertThat(dao.count(Post.class, ne("section", "news"))).isEqualTo(5);
-
-			assertThat(dao.count(Post.class, gt("star", 66))).isEqualTo(1);
-
-			assertThat(dao.count(Post.class, ge("star", 66))).isEqualTo(2);
-
-			assertThat(dao.count(Post.class, lt("star", 66))).isEqualTo(3);
-
-			assertThat(dao.count(Post.class, le("star", 66))).isEqualTo(4);
-
-			assertThat(dao.count(Post.class, isNull("blogId"))).isEqualTo(1);
-
-			assertThat(dao.count(Post.class, isNotNull("blogId"))).isEqualTo(4);
-
-			assertThat(dao.count(Post.class, like("body", "%'%"))).isEqualTo(1);
-
-			assertThat(dao.count(Post.class, like("subject", "%~%", "~"))).isEqualTo(1);
-
-			assertThat(dao.count(Post.class, between("star", 7, 66))).isEqualTo(3);
-
-			assertThat(dao.count(Post.class, in("star", 7, 66, 99))).isEqualTo(2);
-
-			assertThat(dao.count(Post.class, not(eq("section", "NEWS")))).isEqualTo(4);
-		}
-	}
-
-	@Test
-	public void shouldSelectWithRowBounds() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			BoundList<Post> partialList = dao.select(Post.class)
-					.where(isNotNull("blogId"))
-					.orderBy(SqlOrderBy.create().asc("id"))
-					.asBoundList(new RowBounds(1, 5));
-
-			assertThat(partialList.offset()).isEqualTo(1);
-			assertThat(partialList.limit()).isEqualTo(5);
-			assertThat(partialList.total()).isEqualTo(4);
-			assertThat(partialList).hasSize(3);
-			assertThat(partialList.get(0).getId()).isEqualTo(2);
-			assertThat(partialList.get(1).getId()).isEqualTo(3);
-			assertThat(partialList.get(2).getId()).isEqualTo(4);
-
-			List<Post> list = dao.select(Post.class)
-					.where(isNotNull("blogId"))
-					.orderBy(SqlOrderBy.create().desc("id"))
-					.asList(new RowBounds(1, 5));
-
-			assertThat(list).hasSize(3);
-			assertThat(list.get(0).getId()).isEqualTo(3);
-			assertThat(list.get(1).getId()).isEqualTo(2);
-			assertThat(list.get(2).getId()).isEqualTo(1);
-		}
-	}
-
-	@Test
-	public void shouldWorkWithoutSqlEntityAnnotation() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Tag.class).where(eq("id", 1)).asOne().orElse(null).getName()).isEqualTo("funny");
-		}
-	}
-
-	@Test
-	public void shouldWorkWithSqlCacheRefAnnotation() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Author2.class).where(eq("id", 101)).asOne().orElse(null).getUsername()).isEqualTo("jim");
-			assertThat(dao.select(Author3.class).where(eq("id", 101)).asOne().orElse(null).getUsername()).isEqualTo("jim");
-		}
-	}
-
-	@Test
-	public void shouldWorkWithConstantValue() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Post.class).where(or(eq("id", 101), trueValue())).asList()).hasSize(5);
-			assertThat(dao.select(Author3.class).where(and(eq("id", 101), falseValue())).asList()).hasSize(0);
-		}
-	}
-
-	@Test
-	public void shouldWorkWithSqlNameStrategyAnnotation() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Comment.class).where(eq("id", 1)).asOne().orElse(null).getPostId()).isEqualTo(1);
-			assertThat(dao.select(Tag2.class).where(eq("id", 1)).asOne().orElse(null).getNaMe()).isEqualTo("funny");
-		}
-	}
-
-	@Test
-	public void shouldLambdaWorks() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(Post.class)
-					.orderBy(SqlOrderBy.create(Post.class).asc(Post::getSection).desc(Post::getStar))
-					.asList(SqlProjections.create(Post.class).property("id", Post::getId)))
-							.containsExactly(4, 5, 1, 3, 2);
-
-			assertThat(dao.select(Comment.class)
-					.where(SqlCriterion.lambda(Comment.class, t -> t.eq(Comment::getId, 1)))
-					.asOne().orElse(null).getPostId()).isEqualTo(1);
-
-			assertThat(dao.count(Post.class,
-					SqlCriterion.lambda(Post.class, t -> t.eq(Post::getSection, "NEWS")))).isEqualTo(1);
-
-			assertThat(dao.exists(Post.class, SqlCriterion.lambda(Post.class, t -> t.eq(Post::getId, 1)))).isTrue();
-
-			assertThat(dao.count(Post.class, SqlCriterion.lambda(Post.class, t -> t.eq(Post::getId, 1)))).isEqualTo(1L);
-
-			session.rollback();
-
-			assertThat(dao.update(Post.class, (u) -> u.set(Post::getSection, "NEW_SECTION"), c -> c.eq(Post::getId, 1)))
-					.isEqualTo(1);
-
-			session.rollback();
-
-			assertThat(dao.update(Post.class,
-					u -> u.set(Post::getSection, "NEW_SECTION").set(Post::getStar, 9),
-					t -> t.eq(Post::getId, 1)))
-							.isEqualTo(1);
-
-			session.rollback();
-		}
-	}
-
-	@Test
-	public void testSelectPerformance() {
-		SqlSession session = Mockito.mock(SqlSession.class);
-		when(session.selectOne(null, null)).thenReturn(Lists.newArrayList());
-		SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-		int times = 200;
-		long ts1 = 0, ts2 = 0, ts3 = 0;
-		long s = 0;
-		System.gc();
-		for (int i = 0; i < times; ++i) {
-			long ss = System.currentTimeMillis();
-			dao.select(Post.class).where(eq("#id", i)).where(like("subject", "I%")).asOne();
-			long st = System.currentTimeMillis() - ss;
-			if (st > ts1) {
-				ts1 = st;
-			} else if (st > ts2) {
-				ts2 = st;
-			} else if (st > ts3) {
-				ts3 = st;
-			}
-			s += st;
-		}
-		System.out.println(String.format("avg: %.2f, top1: %d, top2: %d, top3: %d, ", ((double) s / times), ts1, ts2, ts3));
-	}
-
-	@Test
-	public void testUpdateWithReferenceValue() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.update(Post.class,
-				SqlUpdate.create().set("subject", SqlReference.of("section")), eq("id", 1))).isEqualTo(1);
-
-			assertThat(dao.select(Post.class).where(eq("section", SqlReference.of("subject"))).asList()).hasSize(1);
-
-			// Cross table reference in update is currently not supported
-			// assertThat(dao.update(Post.class,
-			// 	SqlUpdate.create().set("subject", SqlReference.of("blogAuthorName")), eq("id", 1))).isEqualTo(1);
-
-			// assertThat(dao.select(Post.class).where(eq("blogAuthorName", SqlReference.of("subject"))).asList()).hasSize(1);
-		}
-	}
-	
-	@Test
-	public void shouldSelectWithJoinConditions() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
-
-			assertThat(dao.select(PostOfSally.class).where(eq("id", 2)).asOne())
-				.satisfies(it -> {
-					assertThat(it.get().getAuthorNamedSally()).isNull();
-				});
-
-			assertThat(dao.select(PostOfSally.class).where(eq("id", 3)).asOne())
-				.satisfies(it -> {
-					assertThat(it.get().getAuthorNamedSally()).isNotNull();
-				});
-		}
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.dao;
+
+import static com.github.springlink.mybatis.sql.SqlCriterion.and;
+import static com.github.springlink.mybatis.sql.SqlCriterion.between;
+import static com.github.springlink.mybatis.sql.SqlCriterion.eq;
+import static com.github.springlink.mybatis.sql.SqlCriterion.exists;
+import static com.github.springlink.mybatis.sql.SqlCriterion.falseValue;
+import static com.github.springlink.mybatis.sql.SqlCriterion.ge;
+import static com.github.springlink.mybatis.sql.SqlCriterion.gt;
+import static com.github.springlink.mybatis.sql.SqlCriterion.in;
+import static com.github.springlink.mybatis.sql.SqlCriterion.inSubquery;
+import static com.github.springlink.mybatis.sql.SqlCriterion.isNotNull;
+import static com.github.springlink.mybatis.sql.SqlCriterion.isNull;
+import static com.github.springlink.mybatis.sql.SqlCriterion.le;
+import static com.github.springlink.mybatis.sql.SqlCriterion.like;
+import static com.github.springlink.mybatis.sql.SqlCriterion.lt;
+import static com.github.springlink.mybatis.sql.SqlCriterion.ne;
+import static com.github.springlink.mybatis.sql.SqlCriterion.not;
+import static com.github.springlink.mybatis.sql.SqlCriterion.notExists;
+import static com.github.springlink.mybatis.sql.SqlCriterion.or;
+import static com.github.springlink.mybatis.sql.SqlCriterion.trueValue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.github.springlink.mybatis.annotation.SqlEntity;
+import com.github.springlink.mybatis.entity.Author;
+import com.github.springlink.mybatis.entity.Author2;
+import com.github.springlink.mybatis.entity.Author3;
+import com.github.springlink.mybatis.entity.Blog;
+import com.github.springlink.mybatis.entity.Comment;
+import com.github.springlink.mybatis.entity.GeneratedKeysTable;
+import com.github.springlink.mybatis.entity.GeneratedRowsTable;
+import com.github.springlink.mybatis.entity.Post;
+import com.github.springlink.mybatis.entity.PostArchive;
+import com.github.springlink.mybatis.entity.PostOfSally;
+import com.github.springlink.mybatis.entity.PostTag;
+import com.github.springlink.mybatis.entity.Tag;
+import com.github.springlink.mybatis.entity.Tag2;
+import com.github.springlink.mybatis.registry.H2Dialect;
+import com.github.springlink.mybatis.registry.SqlContext;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.registry.SqlFragment;
+import com.github.springlink.mybatis.registry.SqlRegistry;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.sql.SqlReference;
+import com.github.springlink.mybatis.sql.SqlUpdate;
+import com.github.springlink.mybatis.util.BoundList;
+import com.github.springlink.mybatis.util.CountStats;
+import com.github.springlink.mybatis.util.LongObjectMap;
+import com.github.springlink.mybatis.util.Slice;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class DefaultSqlDaoTest {
+	private static SqlSessionFactory sqlSessionFactory;
+	private static SqlRegistry sqlRegistry;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws IOException {
+		try (Reader reader = Resources.getResourceAsReader("entity/mybatis-config-h2.xml")) {
+			sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+		}
+
+		try (Reader reader = Resources.getResourceAsReader("entity/blog-h2.sql");
+				SqlSession session = sqlSessionFactory.openSession()) {
+			ScriptRunner runner = new ScriptRunner(session.getConnection());
+			runner.setLogWriter(null);
+			runner.runScript(reader);
+			session.commit();
+		}
+
+		Configuration cfg = sqlSessionFactory.getConfiguration();
+		sqlRegistry = new SqlRegistry(cfg, SqlDialect.get("h2"));
+		sqlRegistry.addType(Comment.class);
+		sqlRegistry.addType(Author.class);
+		sqlRegistry.addType(Author2.class);
+		sqlRegistry.addType(Author3.class);
+		sqlRegistry.installObjectWrapperFactory();
+		sqlRegistry.addType(Post.class);
+		sqlRegistry.addType(PostArchive.class);
+		sqlRegistry.addType(PostOfSally.class);
+		sqlRegistry.addType(PostTag.class);
+		sqlRegistry.addType(Tag.class);
+		sqlRegistry.addType(Tag2.class);
+		sqlRegistry.addType(GeneratedKeysTable.class);
+		sqlRegistry.addType(GeneratedRowsTable.class);
+	}
+
+	@Test
+	public void shouldInsert() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			Post post = new Post();
+			post.setId(6);
+			post.setAuthorId(102);
+			post.setBlogId(2);
+			post.setBody("Yes, this is a test post, you're right");
+			post.setCreatedOn(new Date());
+			post.setDraft(false);
+			post.setSection("DISCUSS");
+			post.setStar(3);
+			post.setSubject("Testing my dao");
+
+			assertThat(dao.insert(Post.class, post)).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void shouldInsertWithGeneratedKeys() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			GeneratedKeysTable gkt = new GeneratedKeysTable();
+			gkt.setId2(123);
+
+			assertThat(dao.insert(GeneratedKeysTable.class, gkt)).isEqualTo(1);
+			assertThat(gkt.getId1()).isEqualTo(1);
+			assertThat(gkt.getId2()).isEqualTo(123);
+		}
+	}
+
+	@Test
+	public void shouldInsertAll() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			List<Post> posts = Lists.newArrayList();
+			for (int i = 0; i < 3; ++i) {
+				Post post = new Post();
+				post.setId(10 + i);
+				post.setAuthorId(101);
+				post.setBlogId(1);
+				post.setBody("Multi-row insert " + i);
+				post.setCreatedOn(new Date());
+				post.setDraft(false);
+				post.setSection("NEWS");
+				post.setStar(i);
+				post.setSubject("Insert all " + i);
+				posts.add(post);
+			}
+			posts.add(1, null);
+
+			assertThat(dao.insertAll(Post.class, posts)).isEqualTo(3);
+			assertThat(dao.count(Post.class, SqlCriterion.in("id", 10, 11, 12))).isEqualTo(3);
+			assertThat(dao.insertAll(Post.class, Collections.emptyList())).isZero();
+			assertThat(dao.insertAll(Post.class, null)).isZero();
+		}
+	}
+
+	@Test
+	public void shouldInsertAllWithGeneratedKeys() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			List<GeneratedRowsTable> rows = Lists.newArrayList(new GeneratedRowsTable("a"),
+					new GeneratedRowsTable("b"), new GeneratedRowsTable("c"));
+
+			assertThat(dao.insertAll(GeneratedRowsTable.class, rows)).isEqualTo(3);
+			assertThat(rows).extracting(GeneratedRowsTable::getId).doesNotContainNull();
+			assertThat(rows.get(1).getId()).isEqualTo(rows.get(0).getId() + 1);
+			assertThat(rows.get(2).getId()).isEqualTo(rows.get(1).getId() + 1);
+			assertThat(dao.select(GeneratedRowsTable.class)
+					.where(SqlCriterion.eq("id", rows.get(2).getId()))
+					.asOne().map(GeneratedRowsTable::getName)).hasValue("c");
+		}
+	}
+
+	@Test
+	public void shouldInsertFromSelect() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.insertFrom(PostArchive.class, dao.select(Post.class).where(in("id", 1, 2, 3)),
+					SqlProjections.create().property("id", "id").property("subject", "subject")
+							.property("star", "star").property("blogTitle", "blogTitle")))
+					.isEqualTo(3);
+			assertThat(dao.insertFrom(PostArchive.class, dao.select(Post.class).where(eq("id", 4)),
+					p -> p.property("id", Post::getId).property("subject", "body"))).isEqualTo(1);
+			assertThat(dao.insertFrom(PostArchive.class, dao.select(Post.class).where(in("id")),
+					SqlProjections.create().property("id", "id").property("subject", "subject"))).isZero();
+			assertThatThrownBy(() -> dao.insertFrom(PostArchive.class, dao.select(Post.class),
+					SqlProjections.create().property("section", "section")))
+					.hasRootCauseInstanceOf(IllegalArgumentException.class);
+
+			assertThat(dao.select(PostArchive.class).orderBy(SqlOrderBy.create().asc("id")).asList())
+					.extracting(PostArchive::getId, PostArchive::getSubject, PostArchive::getStar,
+							PostArchive::getBlogTitle)
+					.containsExactly(tuple(1, "Title contains character %", 0, "Jim Business"),
+							tuple(2, "Paul Hogan on Toy Dogs", 100, "Jim Business"),
+							tuple(3, "Monster Trucks", 66, "Bally Slog"),
+							tuple(4, "A tea party is no place to hold a business meeting...", null, null));
+		}
+	}
+
+	@Test
+	public void shouldBatchConsecutiveStatements() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			SqlBatchResult result = dao.batch(batch -> {
+				batch.update(Post.class, SqlUpdate.create().set("star", 77), eq("id", 1));
+				batch.update(Post.class, SqlUpdate.create().set("star", 77), eq("id", 2));
+				batch.update(Post.class, SqlUpdate.create().set("star", 77), eq("id", 3));
+				batch.delete(Comment.class, eq("postId", 999));
+				batch.update(Post.class, SqlUpdate.create().set("star", 77), eq("id", 4));
+				assertThat(batch.count(Post.class, eq("star", 77))).isEqualTo(4);
+				batch.update(Post.class, SqlUpdate.create().set("star", 77), eq("id", 5));
+			});
+
+			assertThat(result.getBatchCount()).isEqualTo(4);
+			assertThat(result.getUpdateCounts()).containsExactly(1, 1, 1, 0, 1, 1);
+			assertThat(result.getUpdatedRows()).isEqualTo(5);
+			assertThat(dao.count(Post.class, eq("star", 77))).isEqualTo(5);
+		}
+	}
+
+	@Test
+	public void shouldBatchInsertAllWithGeneratedKeys() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			List<GeneratedRowsTable> rows = Lists.newArrayList(new GeneratedRowsTable("x"),
+					new GeneratedRowsTable("y"));
+			SqlBatchResult result = dao.batch(batch -> {
+				batch.insertAll(GeneratedRowsTable.class, rows.subList(0, 1));
+				batch.insertAll(GeneratedRowsTable.class, rows.subList(1, 2));
+			});
+
+			assertThat(result.getBatchCount()).isEqualTo(1);
+			assertThat(result.getUpdatedRows()).isEqualTo(2);
+			assertThat(rows).extracting(GeneratedRowsTable::getId).doesNotContainNull();
+		}
+	}
+
+	@Test
+	public void shouldRejectBatchOutsideTransaction() {
+		try (SqlSession session = sqlSessionFactory.openSession(true)) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThatThrownBy(() -> dao.batch(batch -> batch.delete(Comment.class, eq("postId", 999))))
+					.isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	@Test
+	public void shouldReturnBatchUpdateValueInBatch() {
+		SqlDialect dialect = sqlRegistry.getDialect();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dao.setDirtyTracking(true);
+			dialect.setInListBuckets(1, 2);
+			Post post = dao.select(Post.class).where(eq("id", 4)).asOne().get();
+
+			SqlBatchResult result = dao.batch(batch -> {
+				assertThat(batch.update(Post.class, SqlUpdate.create().set("star", 7), in("id", 1, 2, 3, 4, 5)))
+						.isEqualTo(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+				assertThat(batch.delete(Comment.class, in("postId", 997, 998, 999)))
+						.isEqualTo(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+				post.setSubject("batched");
+				assertThat(batch.updateEntity(Post.class, post, true, eq("id", 4)))
+						.isEqualTo(BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+				assertThat(batch.updateEntity(Post.class, post, true, eq("id", 4))).isZero();
+			});
+
+			assertThat(result.getUpdatedRows()).isEqualTo(6);
+			assertThat(dao.count(Post.class, eq("star", 7))).isEqualTo(5);
+		} finally {
+			dialect.setInListBuckets();
+		}
+	}
+
+	@Test
+	public void shouldFlushCacheOnBatchCommit() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dao.batch(batch -> {
+				batch.update(Author.class, SqlUpdate.create().set("bio", "batched"), eq("id", 101));
+				assertThat(batch.findById(Author.class, 101)).hasValueSatisfying(author -> {
+					assertThat(author.getBio()).isEqualTo("batched");
+				});
+			});
+			session.rollback();
+		}
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			assertThat(dao.findById(Author.class, 101).map(Author::getBio)).hasValue("");
+			session.commit();
+		}
+
+		try {
+			try (SqlSession session = sqlSessionFactory.openSession()) {
+				SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+				dao.batch(batch -> batch.update(Author.class, SqlUpdate.create().set("bio", "batched"),
+						eq("id", 101)));
+				session.commit();
+			}
+			try (SqlSession session = sqlSessionFactory.openSession()) {
+				SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+				assertThat(dao.findById(Author.class, 101).map(Author::getBio)).hasValue("batched");
+			}
+		} finally {
+			try (SqlSession session = sqlSessionFactory.openSession()) {
+				SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+				dao.update(Author.class, SqlUpdate.create().set("bio", ""), eq("id", 101));
+				session.commit();
+			}
+		}
+	}
+
+	@Test
+	public void shouldDelete() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(1L);
+
+			assertThat(dao.delete(Post.class, eq("id", 1))).isEqualTo(1);
+
+			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(0L);
+
+			session.rollback(true);
+
+			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(1L);
+		}
+	}
+
+	@Test
+	public void shouldUpdateWithShortMethod() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().set("section", "NEW_SECTION"), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().add("star", 9), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().subtract("star", 3), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().nullify("blogId"), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().set("authorId", 11).set("body", "text body"), eq("id", 1)))
+					.isEqualTo(1);
+
+			Post post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
+			assertThat(post.getSection()).isEqualTo("NEW_SECTION");
+			assertThat(post.getStar()).isEqualTo(6);
+			assertThat(post.getBlogId()).isNull();
+			assertThat(post.getAuthorId()).isEqualTo(11);
+			assertThat(post.getBody()).isEqualTo("text body");
+
+			session.rollback(true);
+		}
+	}
+
+	@Test
+	public void shouldUpdate() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().set("section", "NEW_SECTION"), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().add("star", 9), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().subtract("star", 3), eq("id", 1)))
+					.isEqualTo(1);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().nullify("blogId"), eq("id", 1)))
+					.isEqualTo(1);
+
+			Post postValue = new Post();
+			postValue.setAuthorId(11);
+			postValue.setBody("text body");
+			assertThat(dao.updateEntity(Post.class, postValue, eq("id", 1)))
+					.isEqualTo(1);
+			assertThat(dao.update(Post.class, SqlUpdate.create().set("authorId", 33), eq("id", 1)))
+					.isEqualTo(1);
+
+			Post post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
+			assertThat(post.getSection()).isEqualTo("NEW_SECTION");
+			assertThat(post.getStar()).isEqualTo(6);
+			assertThat(post.getBlogId()).isNull();
+			assertThat(post.getAuthorId()).isEqualTo(33);
+			assertThat(post.getBody()).isEqualTo("text body");
+
+			Date now = new Date(System.currentTimeMillis() / 1000 * 1000);
+
+			Post emptyPostValue = new Post();
+			emptyPostValue.setId(1);
+			emptyPostValue.setAuthorId(11);
+			emptyPostValue.setCreatedOn(now);
+			emptyPostValue.setSection("SECTION");
+			emptyPostValue.setSubject("SUBJECT");
+			emptyPostValue.setBody("BODY");
+			emptyPostValue.setDraft(false);
+			emptyPostValue.setStar(123);
+			assertThat(dao.updateEntity(Post.class, emptyPostValue, false, eq("id", 1)))
+					.isEqualTo(1);
+
+			post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
+			assertThat(post.getId()).isEqualTo(1);
+			assertThat(post.getAuthorId()).isEqualTo(11);
+			assertThat(post.getBlogId()).isNull();
+			assertThat(post.getBody()).isEqualTo("BODY");
+			assertThat(post.getCreatedOn()).isEqualTo(now);
+			assertThat(post.getDraft()).isFalse();
+			assertThat(post.getSection()).isEqualTo("SECTION");
+			assertThat(post.getStar()).isEqualTo(123);
+			assertThat(post.getSubject()).isEqualTo("SUBJECT");
+
+			session.rollback(true);
+		}
+	}
+
+	@Test
+	public void shouldUpdateByPropertyAlias() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			Date date = new Date(System.currentTimeMillis() / 1000 * 1000);
+
+			assertThat(dao.update(Post.class, SqlUpdate.create().set("#CreateDate", date), eq("id", 1)))
+					.isEqualTo(1);
+
+			Post post = dao.select(Post.class).where(eq("id", 1)).asOne().orElse(null);
+			assertThat(post.getCreateTime()).isEqualTo(date);
+
+			session.rollback(true);
+		}
+	}
+
+	@Test
+	public void shouldUpdateNothing() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.update(Post.class, (SqlUpdate) null, eq("id", 1))).isEqualTo(0);
+		}
+	}
+
+	@Test
+	public void shouldAllowNullArguments() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			dao.select(Post.class).where((SqlCriterion) null).orderBy((SqlOrderBy) null);
+
+			dao.update(Post.class, (SqlUpdate) null, null);
+
+			dao.delete(Post.class, (SqlCriterion) null);
+
+			dao.insert(Post.class, null);
+		}
+	}
+
+	@Test
+	public void shouldCount() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.count(Post.class, eq("id", 1))).isEqualTo(1);
+
+			assertThat(dao.count(Post.class, (SqlCriterion) null)).isEqualTo(5);
+		}
+	}
+
+	@Test
+	public void shouldExists() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.exists(Post.class, eq("id", 1))).isTrue();
+
+			assertThat(dao.exists(Post.class, (SqlCriterion) null)).isTrue();
+
+			assertThat(dao.exists(Post.class, and(eq("id", 999), like("blogAuthorName", "%j%")))).isFalse();
+		}
+	}
+
+	@Test
+	public void shouldSelectEntity() throws ParseException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+			Post post = dao.select(Post.class).where(eq("#id", 2)).asOne().orElse(null);
+			assertThat(post.getAuthorId()).isEqualTo(101);
+			assertThat(post.getAuthorName()).isEqualTo("jim");
+			assertThat(post.getBlogAuthorName()).isEqualTo("jim");
+			assertThat(post.getBlogId()).isEqualTo(1);
+			assertThat(post.getBlogTitle()).isEqualTo("Jim Business");
+			assertThat(post.getBody()).isEqualTo("That's not a dog.  THAT's a dog!");
+			assertThat(post.getCreatedOn()).isEqualTo(dateFormat.parse("2008-01-12 00:00:00"));
+			assertThat(post.getCreateTime()).isEqualTo(dateFormat.parse("2008-01-12 00:00:00"));
+			assertThat(post.getDraft()).isEqualTo(false);
+			assertThat(post.getId()).isEqualTo(2);
+			assertThat(post.getSection()).isEqualTo("VIDEOS");
+			assertThat(post.getStar()).isEqualTo(100);
+			assertThat(post.getSubject()).isEqualTo("Paul Hogan on Toy Dogs");
+		}
+	}
+
+	@Test
+	public void shouldSelectEntityWithOrders() throws ParseException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("section").desc("star")).asList())
+					.extracting(Post::getId)
+					.containsExactly(4, 5, 1, 3, 2);
+		}
+	}
+
+	@Test
+	public void shouldSelectProjectionWithOrders() throws ParseException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("section").desc("star"))
+					.asList(SqlProjections.create().property("id", "#id")))
+							.containsExactly(4, 5, 1, 3, 2);
+		}
+	}
+
+	@Test
+	public void shouldSelectSlices() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(selectAllSlices(dao, SqlOrderBy.create().asc("blogId"))).extracting(Post::getId)
+					.containsExactly(5, 1, 2, 3, 4);
+			assertThat(selectAllSlices(dao, SqlOrderBy.create().desc("blogId").desc("star")))
+					.extracting(Post::getId)
+					.containsExactly(3, 4, 2, 1, 5);
+			assertThat(selectAllSlices(dao, null)).extracting(Post::getId).containsExactly(1, 2, 3, 4, 5);
+
+			Slice<Post> slice = dao.select(Post.class).where(eq("authorId", 101)).asSlice(null, 5);
+			assertThat(slice).extracting(Post::getId).containsExactly(1, 2, 5);
+			assertThat(slice.hasNext()).isFalse();
+			assertThat(slice.nextToken()).isNull();
+			assertThatThrownBy(() -> dao.select(Post.class).asSlice("invalid", 2))
+					.isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> dao.select(PostOfSally.class).asSlice(null, 2))
+					.isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	private static List<Post> selectAllSlices(SqlDao dao, SqlOrderBy orderBy) {
+		List<Post> posts = Lists.newArrayList();
+		String token = null;
+		do {
+			Slice<Post> slice = dao.select(Post.class).orderBy(orderBy).asSlice(token, 2);
+			assertThat(slice.size()).isLessThanOrEqualTo(2);
+			posts.addAll(slice);
+			token = slice.nextToken();
+		} while (token != null);
+		return posts;
+	}
+
+	@Test
+	public void shouldSelectCursor() throws IOException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			try (Cursor<Post> cursor = dao.select(Post.class)
+					.orderBy(SqlOrderBy.create().asc("section").desc("star")).asCursor()) {
+				assertThat(Lists.newArrayList(cursor)).extracting(Post::getId).containsExactly(4, 5, 1, 3, 2);
+				assertThat(cursor.isConsumed()).isTrue();
+			}
+			try (Cursor<Integer> cursor = dao.select(Post.class)
+					.orderBy(SqlOrderBy.create().asc("section").desc("star"))
+					.asCursor(SqlProjections.create().property("id", "#id"))) {
+				assertThat(Lists.newArrayList(cursor)).containsExactly(4, 5, 1, 3, 2);
+			}
+		}
+	}
+
+	@Test
+	public void shouldSelectStream() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			try (Stream<Post> stream = dao.select(Post.class).where(eq("blogId", 1)).asStream()) {
+				assertThat(stream.map(Post::getId)).containsExactlyInAnyOrder(1, 2);
+			}
+			try (Stream<Map<String, Object>> stream = dao.select(Post.class)
+					.orderBy(SqlOrderBy.create().asc("id"))
+					.asStream(SqlProjections.create().property("id", "id").property("star", "star"))) {
+				assertThat(stream.map(row -> row.get("ID"))).containsExactly(1, 2, 3, 4, 5);
+			}
+		}
+	}
+
+	@Test
+	public void shouldSelectProjectionsAsResultType() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			SqlProjections projections = SqlProjections.create()
+					.property("id", "id").property("star", "star").property("blogId", "blogId");
+
+			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id")).asList(projections, PostStars.class))
+					.extracting(PostStars::getId, PostStars::getStar, PostStars::getBlogId)
+					.containsExactly(tuple(1L, 0, 1), tuple(2L, 100, 1), tuple(3L, 66, 2), tuple(4L, 10, 2),
+							tuple(5L, 7, null));
+			assertThat(dao.select(Post.class).where(eq("id", 2)).asList(
+					SqlProjections.create().property("id", "id").property("star", "star"), PostStar.class))
+					.extracting(PostStar::getId, PostStar::getStar)
+					.containsExactly(tuple(2, 100L));
+			assertThat(dao.select(Post.class).where(eq("blogId", 2)).orderBy(SqlOrderBy.create().asc("id"))
+					.asList(SqlProjections.create().property("star"), long.class))
+					.containsExactly(66L, 10L);
+			assertThat(dao.select(Post.class).asList(SqlProjections.create().count("id"), Long.class))
+					.containsExactly(5L);
+			assertThat(dao.select(Post.class).where(falseValue()).asList(projections, PostStars.class)).isEmpty();
+			assertThat(sqlRegistry.getRowMapper(SqlProjections.create()
+					.property("id", "id").property("star", "star").property("blogId", "blogId"), PostStars.class))
+					.isSameAs(sqlRegistry.getRowMapper(projections, PostStars.class));
+
+			assertThatThrownBy(() -> dao.select(Post.class).asList(projections, PostStar.class))
+					.isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> dao.select(Post.class).asList(projections, Long.class))
+					.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Test
+	public void shouldStreamProjectionsAsResultType() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			try (Stream<Integer> stream = dao.select(Post.class).orderBy(SqlOrderBy.create().desc("id"))
+					.asStream(p -> p.property(Post::getId), Integer.class)) {
+				assertThat(stream).containsExactly(5, 4, 3, 2, 1);
+			}
+			try (Stream<PostStar> stream = dao.select(Post.class).where(in("id", 1, 3))
+					.orderBy(SqlOrderBy.create().asc("id"))
+					.asStream(SqlProjections.create().property("id", "id").property("star", "star"), PostStar.class)) {
+				assertThat(stream.map(PostStar::getStar)).containsExactly(0L, 66L);
+			}
+		}
+	}
+
+	@Test
+	public void shouldSelectColumns() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			SqlColumnResult columns = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
+					.asColumns(SqlProjections.create().property("id", "id").property("blogId", "blogId")
+							.property("subject", "subject"));
+			assertThat(columns.size()).isEqualTo(5);
+			assertThat(columns.getNames()).containsExactly("id", "blogId", "subject");
+			assertThat(columns.getInts("id")).containsExactly(1, 2, 3, 4, 5);
+			assertThat(columns.getLongs("id")).containsExactly(1L, 2L, 3L, 4L, 5L);
+			assertThat(columns.getInts("blogId")).containsExactly(1, 1, 2, 2, 0);
+			assertThat(columns.isNull("blogId", 4)).isTrue();
+			assertThat(columns.isNull("blogId", 3)).isFalse();
+			assertThat(columns.getObjects("blogId")).containsExactly(1, 1, 2, 2, null);
+			assertThat(columns.getArray("subject")).isInstanceOf(Object[].class);
+			assertThatThrownBy(() -> columns.getLongs("subject")).isInstanceOf(IllegalArgumentException.class);
+
+			SqlColumnResult totals = dao.select(Post.class)
+					.asColumns(SqlProjections.create().count("count", "id").sum("stars", "star"));
+			assertThat(totals.getLongs("count")).containsExactly(5L);
+			assertThat(totals.getDoubles("stars")).containsExactly(183.0);
+
+			SqlColumnResult empty = dao.select(Post.class).where(falseValue())
+					.asColumns(p -> p.property("id", Post::getId));
+			assertThat(empty.size()).isZero();
+			assertThat(empty.getLongs("id")).isEmpty();
+		}
+	}
+
+	@Test
+	public void shouldSelectWithSubqueries() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			SqlCriterion commented = exists(Comment.class, eq("postId", SqlReference.of("outer.id")));
+
+			assertThat(dao.select(Post.class).where(and(le("id", 5), commented)).asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(1, 3);
+			assertThat(dao.select(Post.class)
+					.where(and(le("id", 5), notExists(Comment.class, eq("postId", SqlReference.of("outer.id")))))
+					.asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(2, 4, 5);
+			assertThat(dao.count(Post.class, and(le("id", 5), inSubquery("blogId", Blog.class, "id",
+					eq("authorId", 102))))).isEqualTo(2);
+			assertThat(dao.select(Post.class).where(inSubquery("id", Comment.class, "postId",
+					and(eq("name", "rider"), eq("postId", SqlReference.of("outer.id"))))).asList())
+					.extracting(Post::getId).containsExactly(3);
+			assertThat(dao.select(Post.class).where(exists(Author.class,
+					and(eq("id", SqlReference.of("authorOfBlog.id")), eq("username", "sally")))).asList())
+					.extracting(Post::getBlogAuthorName).containsOnly("sally").isNotEmpty();
+			assertThat(dao.select(Post.class).where(exists(Comment.class, in("id"))).asList()).isEmpty();
+		}
+	}
+
+	@Test
+	public void shouldSelectGroupedProjections() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			SqlProjections projections = SqlProjections.create().property("blogId", "blogId")
+					.count("posts", "id").sum("star", "star").groupBy("blogId");
+
+			SqlColumnResult groups = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("blogId"))
+					.asColumns(projections);
+			assertThat(groups.getObjects("blogId")).containsExactly(null, 1, 2);
+			assertThat(groups.getLongs("posts")).containsExactly(1L, 2L, 2L);
+			assertThat(groups.getLongs("star")).containsExactly(7L, 100L, 76L);
+
+			assertThat(dao.select(Post.class).having(gt("star", 50)).orderBy(SqlOrderBy.create().asc("blogId"))
+					.asList(projections, BlogStars.class))
+					.extracting(BlogStars::getBlogId, BlogStars::getPosts, BlogStars::getStar)
+					.containsExactly(tuple(1, 2L, 100L), tuple(2, 2L, 76L));
+			assertThat(dao.select(Post.class).having(c -> c.ge(Post::getStar, 80))
+					.asList(projections, BlogStars.class))
+					.extracting(BlogStars::getBlogId)
+					.containsExactly(1);
+			assertThat(dao.select(Post.class).where(isNotNull("blogId"))
+					.having(and(gt("posts", 1), in("blogId", 2, 3)))
+					.asList(projections, BlogStars.class))
+					.extracting(BlogStars::getBlogId)
+					.containsExactly(2);
+
+			BoundList<Object> page = dao.select(Post.class).having(gt("star", 50))
+					.orderBy(SqlOrderBy.create().asc("blogId"))
+					.asBoundList(new RowBounds(0, 1), projections);
+			assertThat(page).hasSize(1);
+			assertThat(page.total()).isEqualTo(2);
+
+			assertThat(dao.select(Post.class)
+					.asList(SqlProjections.create(Post.class).groupBy(Post::getBlogId).count("id"), Long.class))
+					.containsExactlyInAnyOrder(1L, 2L, 2L);
+			assertThat(dao.select(Post.class).where(falseValue()).asList(projections, BlogStars.class)).isEmpty();
+		}
+	}
+
+	public static class BlogStars {
+		private Integer blogId;
+		private long posts;
+		private long star;
+
+		public Integer getBlogId() {
+			return blogId;
+		}
+
+		public void setBlogId(Integer blogId) {
+			this.blogId = blogId;
+		}
+
+		public long getPosts() {
+			return posts;
+		}
+
+		public void setPosts(long posts) {
+			this.posts = posts;
+		}
+
+		public long getStar() {
+			return star;
+		}
+
+		public void setStar(long star) {
+			this.star = star;
+		}
+	}
+
+	public static class PostStars {
+		private long id;
+		private int star;
+		private Integer blogId;
+
+		public long getId() {
+			return id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public int getStar() {
+			return star;
+		}
+
+		public void setStar(int star) {
+			this.star = star;
+		}
+
+		public Integer getBlogId() {
+			return blogId;
+		}
+
+		public void setBlogId(Integer blogId) {
+			this.blogId = blogId;
+		}
+	}
+
+	public static class PostStar {
+		private final int id;
+		private final long star;
+
+		public PostStar(int id, long star) {
+			this.id = id;
+			this.star = star;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public long getStar() {
+			return star;
+		}
+	}
+
+	@Test
+	public void shouldSelectEntityForUpdate() throws ParseException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Post.class).orderBy(SqlOrderBy.create().asc("section").desc("star")).forUpdate().asList())
+					.extracting(Post::getId)
+					.containsExactly(4, 5, 1, 3, 2);
+		}
+	}
+
+	@Test
+	public void shouldSelectProjection() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(
+					dao.select(Post.class).where(eq("id", 2)).<Integer>asOne(SqlProjections.create().property("aid", "authorId"))
+							.orElse(null))
+									.isEqualTo(101);
+
+			assertThat(dao.select(Post.class).<String>asList(SqlProjections.create().distinct("s", "section")))
+					.containsExactlyInAnyOrder("NEWS", "VIDEOS", "PODCASTS", "IMAGES");
+
+			assertThat(dao.select(Post.class).<Long>asOne(SqlProjections.create().count("aid", "authorId")).orElse(null))
+					.isEqualTo(5);
+
+			assertThat(
+					dao.select(Post.class).<Long>asOne(SqlProjections.create().countDistinct("aid", "authorId")).orElse(null))
+							.isEqualTo(2);
+
+			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().max("s", "star")).orElse(null).intValue())
+					.isEqualTo(100);
+
+			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().min("s", "star")).orElse(null).intValue())
+					.isEqualTo(0);
+
+			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().sum("s", "star")).orElse(null).intValue())
+					.isEqualTo(183);
+
+			assertThat(dao.select(Post.class).<Number>asOne(SqlProjections.create().avg("s", "star")).orElse(null).intValue())
+					.isEqualTo(183 / 5);
+
+			// Join column
+			assertThat(dao.select(Post.class).where(eq("#id", 2))
+					.<String>asOne(SqlProjections.create().property("an", "authorName")).orElse(null))
+							.isEqualTo("jim");
+			
+			assertThat(dao.select(Post.class).where(eq("#id", 2))
+					.<String>asOne(SqlProjections.create().property("authorOfBlog.username")).orElse(null))
+							.isEqualTo("jim");
+
+			assertThat(
+					dao.select(Post.class).<Long>asOne(SqlProjections.create().count("ban", "blogAuthorName")).orElse(null))
+							.isEqualTo(4);
+
+			assertThat(dao.select(Post.class).<String>asList(SqlProjections.create().distinct("an", "authorName")))
+					.containsExactlyInAnyOrder("jim", "sally");
+		}
+	}
+
+	@Test
+	public void shouldSelectProjections() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Post.class).where(eq("id", 2)).<Map<String, Integer>>asOne(SqlProjections.create()
+					.property("bid", "blogId")
+					.property("aid", "authorId")).orElse(null)
+					.entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue())))
+							.isEqualTo(ImmutableMap.of("bid", 1, "aid", 101));
+
+			BoundList<Integer> bl1 = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(1, 2), SqlProjections.create().property("id", "id"));
+			assertThat(bl1.total()).isEqualTo(5);
+			assertThat(bl1.offset()).isEqualTo(1);
+			assertThat(bl1.limit()).isEqualTo(2);
+			assertThat(bl1).containsExactlyInAnyOrder(2, 3);
+
+			BoundList<Map<String, Object>> bl2 = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(1, 2), SqlProjections.create().property("id", "id").property("aid", "authorId"));
+			assertThat(bl1.total()).isEqualTo(5);
+			assertThat(bl1.offset()).isEqualTo(1);
+			assertThat(bl1.limit()).isEqualTo(2);
+			assertThat(
+					bl2.get(0).entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue())))
+							.containsEntry("id", 2)
+							.containsEntry("aid", 101);
+			assertThat(
+					bl2.get(1).entrySet().stream().collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue())))
+							.containsEntry("id", 3)
+							.containsEntry("aid", 102);
+
+			assertThat(dao.select(Post.class).asList(SqlProjections.create().property("id", "id")))
+					.containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+
+			assertThat(dao.select(Post.class)
+					.<Map<String, Integer>>asList(SqlProjections.create().property("id", "id").property("aid", "authorId"))
+					.stream()
+					.map(item -> item.entrySet().stream()
+							.collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue()))))
+									.containsExactlyInAnyOrder(
+											ImmutableMap.of("id", 1, "aid", 101),
+											ImmutableMap.of("id", 2, "aid", 101),
+											ImmutableMap.of("id", 3, "aid", 102),
+											ImmutableMap.of("id", 4, "aid", 102),
+											ImmutableMap.of("id", 5, "aid", 101));
+
+			assertThat(dao.select(Post.class).asList(new RowBounds(1, 2),
+					SqlProjections.create().property("id", "id")))
+							.containsExactlyInAnyOrder(2, 3);
+
+			assertThat(dao.select(Post.class).<Map<String, Object>>asList(new RowBounds(1, 2),
+					SqlProjections.create().property("id", "id").property("aid", "authorId"))
+					.stream()
+					.map(item -> item.entrySet().stream()
+							.collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue()))))
+									.containsExactlyInAnyOrder(
+											ImmutableMap.of("id", 2, "aid", 101),
+											ImmutableMap.of("id", 3, "aid", 102));
+		}
+	}
+
+	@Test
+	public void shouldCountWithConditions() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.count(Post.class, eq("section", "NEWS"))).isEqualTo(1);
+
+			// mysql is case insensitive
+			// assertThat(dao.count(Post.class, eq("section", "news"))).isEqualTo(0);
+
+			assertThat(dao.count(Post.class, ne("section", "NEWS"))).isEqualTo(4);
+
+			// mysql is case insensitive
+			// assertThat(dao.count(Post.class, ne("section", "news"))).isEqualTo(5);
+
+			assertThat(dao.count(Post.class, gt("star", 66))).isEqualTo(1);
+
+			assertThat(dao.count(Post.class, ge("star", 66))).isEqualTo(2);
+
+			assertThat(dao.count(Post.class, lt("star", 66))).isEqualTo(3);
+
+			assertThat(dao.count(Post.class, le("star", 66))).isEqualTo(4);
+
+			assertThat(dao.count(Post.class, isNull("blogId"))).isEqualTo(1);
+
+			assertThat(dao.count(Post.class, isNotNull("blogId"))).isEqualTo(4);
+
+			assertThat(dao.count(Post.class, like("body", "%'%"))).isEqualTo(1);
+
+			assertThat(dao.count(Post.class, like("subject", "%~%", "~"))).isEqualTo(1);
+
+			assertThat(dao.count(Post.class, between("star", 7, 66))).isEqualTo(3);
+
+			assertThat(dao.count(Post.class, in("star", 7, 66, 99))).isEqualTo(2);
+
+			assertThat(dao.count(Post.class, not(eq("section", "NEWS")))).isEqualTo(4);
+		}
+	}
+
+	@Test
+	public void shouldSelectWithRowBounds() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			BoundList<Post> partialList = dao.select(Post.class)
+					.where(isNotNull("blogId"))
+					.orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(1, 5));
+
+			assertThat(partialList.offset()).isEqualTo(1);
+			assertThat(partialList.limit()).isEqualTo(5);
+			assertThat(partialList.total()).isEqualTo(4);
+			assertThat(partialList).hasSize(3);
+			assertThat(partialList.get(0).getId()).isEqualTo(2);
+			assertThat(partialList.get(1).getId()).isEqualTo(3);
+			assertThat(partialList.get(2).getId()).isEqualTo(4);
+
+			List<Post> list = dao.select(Post.class)
+					.where(isNotNull("blogId"))
+					.orderBy(SqlOrderBy.create().desc("id"))
+					.asList(new RowBounds(1, 5));
+
+			assertThat(list).hasSize(3);
+			assertThat(list.get(0).getId()).isEqualTo(3);
+			assertThat(list.get(1).getId()).isEqualTo(2);
+			assertThat(list.get(2).getId()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void shouldSelectBoundListWithCountStrategies() {
+		for (SqlCountStrategy strategy : SqlCountStrategy.values()) {
+			try (SqlSession session = sqlSessionFactory.openSession()) {
+				DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+				dao.setCountStrategy(strategy);
+				dao.setParallelCount(sqlSessionFactory, ForkJoinPool.commonPool());
+
+				BoundList<Post> posts = dao.select(Post.class)
+						.where(isNotNull("blogId"))
+						.orderBy(SqlOrderBy.create().asc("id"))
+						.asBoundList(new RowBounds(1, 2));
+				BoundList<Integer> ids = dao.select(Post.class)
+						.where(isNotNull("blogId"))
+						.orderBy(SqlOrderBy.create().asc("id"))
+						.asBoundList(new RowBounds(1, 2), SqlProjections.create().property("id", "id"));
+				BoundList<Post> empty = dao.select(Post.class).asBoundList(new RowBounds(10, 2));
+
+				assertThat(posts.total()).as(strategy.name()).isEqualTo(4);
+				assertThat(posts).extracting(Post::getId).containsExactly(2, 3);
+				assertThat(ids.total()).as(strategy.name()).isEqualTo(4);
+				assertThat(ids).containsExactly(2, 3);
+				assertThat(empty.total()).as(strategy.name()).isEqualTo(5);
+				assertThat(empty).isEmpty();
+			}
+		}
+	}
+
+	@Test
+	public void shouldAvoidCountOfPartialPage() {
+		CountStats stats = sqlRegistry.getCountStats();
+		stats.reset();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			BoundList<Post> first = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(0, 10));
+			BoundList<Post> last = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(3, 3));
+			BoundList<Post> full = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(0, 2));
+
+			assertThat(first.total()).isEqualTo(5);
+			assertThat(last.total()).isEqualTo(5);
+			assertThat(last).extracting(Post::getId).containsExactly(4, 5);
+			assertThat(full.total()).isEqualTo(5);
+			assertThat(stats.getAvoidedCount()).isEqualTo(2);
+			assertThat(stats.getExecutedCount()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void shouldCountDistinctProjections() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			BoundList<Object> blogIds = dao.select(Post.class)
+					.where(isNotNull("blogId"))
+					.orderBy(SqlOrderBy.create().asc("blogId"))
+					.asBoundList(new RowBounds(0, 1), SqlProjections.create().distinct("blogId"));
+
+			assertThat(blogIds.total()).isEqualTo(2);
+			assertThat(blogIds).containsExactly(1);
+		}
+	}
+
+	@Test
+	public void shouldSelectDeferredJoinPages() {
+		SqlDialect dialect = sqlRegistry.getDialect();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			SqlDao.Selector<Post> selector = dao.select(Post.class)
+					.orderBy(SqlOrderBy.create().desc("star").asc("id"));
+
+			List<Post> expected = selector.asList(new RowBounds(1, 3));
+			dialect.setDeferredJoinOffset(1);
+			List<Post> deferred = selector.asList(new RowBounds(1, 3));
+			List<Post> first = selector.asList(new RowBounds(0, 2));
+
+			assertThat(deferred).extracting(Post::getId).containsExactly(3, 4, 5);
+			assertThat(deferred).usingFieldByFieldElementComparator().containsExactlyElementsOf(expected);
+			assertThat(first).extracting(Post::getId).containsExactly(2, 3);
+		} finally {
+			dialect.setDeferredJoinOffset(SqlDialect.DEFAULT_DEFERRED_JOIN_OFFSET);
+		}
+	}
+
+	@Test
+	public void shouldSkipQueriesMatchingNoRows() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			SqlCriterion empty = and(isNotNull("blogId"), in("id", Collections.emptyList()));
+			long skipped = sqlRegistry.getSkippedQueryCount();
+
+			assertThat(dao.select(Post.class).where(empty).asList()).isEmpty();
+			assertThat(dao.select(Post.class).where(empty).asBoundList(new RowBounds(0, 2)).total()).isZero();
+			assertThat(dao.select(Post.class).where(empty).asOne()).isEmpty();
+			assertThat(dao.count(Post.class, empty)).isZero();
+			assertThat(dao.exists(Post.class, falseValue())).isFalse();
+			assertThat(dao.delete(Post.class, empty)).isZero();
+			assertThat(sqlRegistry.getSkippedQueryCount() - skipped).isEqualTo(6);
+
+			assertThat(dao.select(Post.class).where(empty).asOne(SqlProjections.create().count("id")))
+					.contains(0L);
+			assertThat(dao.select(Post.class).where(or(eq("id", 1), eq("id", 2))).asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(1, 2);
+			assertThat(sqlRegistry.getSkippedQueryCount() - skipped).isEqualTo(6);
+		}
+	}
+
+	@Test
+	public void shouldChunkLongInLists() {
+		SqlDialect dialect = sqlRegistry.getDialect();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dialect.setInListBuckets(1, 2);
+			dialect.getSqlTextStats().setEnabled(true);
+			SqlCriterion ids = in("id", 1, 2, 3, 4, 5, 1);
+			SqlCriterion linked = and(isNotNull("blogId"), ids);
+
+			assertThat(dao.select(Post.class).where(ids).asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+			assertThat(dao.select(Post.class).where(linked).orderBy(SqlOrderBy.create().desc("id")).asList())
+					.extracting(Post::getId).containsExactly(4, 3, 2, 1);
+			assertThat(dao.select(Post.class).where(linked).<Integer>asMap("id")).containsOnlyKeys(1, 2, 3, 4);
+			assertThat(dao.count(Post.class, ids)).isEqualTo(5);
+			assertThat(dao.count(Post.class, linked)).isEqualTo(4);
+			assertThat(dao.exists(Post.class, and(isNull("blogId"), ids))).isTrue();
+			assertThat(dao.update(Post.class, SqlUpdate.create().set("star", 7), and(isNull("blogId"), ids)))
+					.isEqualTo(1);
+			assertThat(dialect.getSqlTextStats().getCounts()).containsKey(Post.class);
+		} finally {
+			dialect.setInListBuckets();
+			dialect.getSqlTextStats().setEnabled(false);
+		}
+	}
+
+	@Test
+	public void shouldRepeatChunkedQueryInSession() {
+		SqlDialect dialect = sqlRegistry.getDialect();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dialect.setInListBuckets(1, 2);
+			SqlCriterion ids = in("id", 1, 2, 3, 4, 5);
+
+			assertThat(dao.select(Post.class).where(ids).asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+			assertThat(dao.select(Post.class).where(ids).asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+			assertThat(dao.select(Post.class).where(in("id", 1, 2)).asList())
+					.extracting(Post::getId).containsExactlyInAnyOrder(1, 2);
+		} finally {
+			dialect.setInListBuckets();
+		}
+	}
+
+	@Test
+	public void shouldUpdateChangedPropertiesOnly() throws SQLException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dao.setDirtyTracking(true);
+			Post post = dao.select(Post.class).where(eq("id", 4)).asOne().get();
+
+			assertThat(dao.updateEntity(Post.class, post, false, eq("id", 4))).isZero();
+
+			try (Statement stmt = session.getConnection().createStatement()) {
+				stmt.executeUpdate("UPDATE post SET star = 11 WHERE id = 4");
+			}
+			post.setSubject("changed");
+			post.getCreatedOn().setTime(0);
+			post.setBlogId(null);
+			assertThat(dao.updateEntity(Post.class, post, true, eq("id", 4))).isEqualTo(1);
+			assertThat(dao.updateEntity(Post.class, post, true, eq("id", 4))).isZero();
+			assertThat(dao.updateEntity(Post.class, post, false, eq("id", 4))).isEqualTo(1);
+			assertThat(dao.updateEntity(Post.class, post, false, eq("id", 4))).isZero();
+
+			Post updated = dao.select(Post.class).where(eq("id", 4)).asOne().get();
+			assertThat(updated.getSubject()).isEqualTo("changed");
+			assertThat(updated.getCreatedOn()).hasTime(0);
+			assertThat(updated.getBlogId()).isNull();
+			assertThat(updated.getStar()).isEqualTo(11);
+
+			dao.setDirtyTracking(false);
+			assertThat(dao.updateEntity(Post.class, post, false, eq("id", 4))).isEqualTo(1);
+			assertThat(dao.select(Post.class).where(eq("id", 4)).asOne().get().getStar()).isEqualTo(10);
+			session.rollback(true);
+		}
+	}
+
+	@Test
+	public void shouldFindById() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.findById(Post.class, 3)).hasValueSatisfying(post -> {
+				assertThat(post.getStar()).isEqualTo(66);
+				assertThat(post.getBlogAuthorName()).isEqualTo("sally");
+			});
+			assertThat(dao.findById(Post.class, 6)).isEmpty();
+			assertThat(dao.findById(PostTag.class, ImmutableMap.of("postId", 1, "tagId", 2))).isPresent();
+			assertThat(dao.findById(PostTag.class, ImmutableMap.of("postId", 2, "tagId", 2))).isEmpty();
+			assertThatThrownBy(() -> dao.findById(Tag.class, 1)).isInstanceOf(UnsupportedOperationException.class);
+		}
+	}
+
+	@Test
+	public void shouldFindAllByIds() {
+		SqlDialect dialect = sqlRegistry.getDialect();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dialect.setInListBuckets(1, 2);
+
+			Map<Integer, Post> posts = dao.findAllByIds(Post.class, Lists.newArrayList(5, 1, 9, null, 3, 1));
+			PostTag key = new PostTag();
+			key.setPostId(4);
+			key.setTagId(3);
+			Map<Object, PostTag> postTags = dao.findAllByIds(PostTag.class, Lists.newArrayList(
+					ImmutableMap.of("postId", 1, "tagId", 3), key, ImmutableMap.of("postId", 4, "tagId", 1)));
+
+			assertThat(posts.keySet()).containsExactly(5, 1, 3);
+			assertThat(posts.values()).extracting(Post::getId).containsExactly(5, 1, 3);
+			assertThat(postTags).hasSize(2).containsKey(key);
+			assertThat(postTags.values()).extracting(PostTag::getPostId).containsExactly(1, 4);
+			assertThat(dao.findAllByIds(Post.class, Collections.emptyList())).isEmpty();
+			assertThat(dao.findAllByIds(Post.class, Lists.newArrayList(2L, 4L)).keySet()).containsExactly(2L, 4L);
+		} finally {
+			dialect.setInListBuckets();
+		}
+	}
+
+	@Test
+	public void shouldFindAllCachedByIds() {
+		sqlSessionFactory.getConfiguration().getCache(Author.class.getName()).clear();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			new DefaultSqlDao(sqlRegistry, session).findById(Author.class, 101);
+			session.commit();
+		}
+		try (SqlSession session = Mockito.spy(sqlSessionFactory.openSession())) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			Map<Long, Author> authors = dao.findAllByIds(Author.class, Lists.newArrayList(101L, 102L, 103L));
+
+			assertThat(authors.keySet()).containsExactly(101L, 102L);
+			assertThat(authors.get(102L).getUsername()).isEqualTo("sally");
+			verify(session, times(1)).selectOne(endsWith(SqlDialect.SELECT_BY_ID_ID), any());
+			verify(session, times(1)).selectList(endsWith(SqlDialect.SELECT_BY_IDS_ID), any());
+
+			dao.update(Author.class, SqlUpdate.create().set("bio", "changed"), eq("id", 101));
+			assertThat(dao.findAllByIds(Author.class, new int[] { 101 }).get(101).getBio()).isEqualTo("changed");
+		}
+	}
+
+	@Test
+	public void shouldFindAllByPrimitiveIds() {
+		SqlDialect dialect = sqlRegistry.getDialect();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			dialect.setInListBuckets(1, 2);
+
+			LongObjectMap<Post> posts = dao.findAllByIds(Post.class, new long[] { 5, 1, 9, 3, 1 });
+			LongObjectMap<Author> authors = dao.findAllByIds(Author.class, new int[] { 102, 101, 103 });
+
+			assertThat(posts.keys()).containsExactlyInAnyOrder(5L, 1L, 3L);
+			assertThat(posts.get(3).getStar()).isEqualTo(66);
+			assertThat(authors.keys()).containsExactlyInAnyOrder(101L, 102L);
+			assertThat(authors.get(102).getUsername()).isEqualTo("sally");
+			assertThat(dao.findAllByIds(Post.class, new long[0]).isEmpty()).isTrue();
+			assertThat(dao.count(Post.class, in("id", new long[] { 1, 2, 3, 4, 5, 1 }))).isEqualTo(5);
+			assertThat(dao.count(Post.class, and(isNotNull("blogId"), in("id", new int[] { 2, 3, 5 }))))
+					.isEqualTo(2);
+			assertThatThrownBy(() -> dao.findAllByIds(PostTag.class, new long[] { 1 }))
+					.isInstanceOf(UnsupportedOperationException.class);
+		} finally {
+			dialect.setInListBuckets();
+		}
+	}
+
+	@Test
+	public void shouldFindByIdThroughCache() throws SQLException {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			assertThat(dao.findById(Author.class, 101)).hasValueSatisfying(author -> {
+				assertThat(author.getUsername()).isEqualTo("jim");
+			});
+			session.commit();
+		}
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			try (Statement statement = session.getConnection().createStatement()) {
+				statement.executeUpdate("UPDATE author SET username = 'james' WHERE id IN (101, 102)");
+			}
+
+			assertThat(dao.findById(Author.class, 101).map(Author::getUsername)).contains("jim");
+			Map<Integer, Author> authors = dao.findAllByIds(Author.class, Lists.newArrayList(101, 102));
+			assertThat(authors.get(101).getUsername()).isEqualTo("jim");
+			assertThat(authors.get(102).getUsername()).isEqualTo("james");
+			session.rollback(true);
+		}
+	}
+
+	@Test
+	public void shouldSelectBoundListWithWindowTotal() throws IOException {
+		SqlSessionFactory factory;
+		try (Reader reader = Resources.getResourceAsReader("entity/mybatis-config-h2.xml")) {
+			factory = new SqlSessionFactoryBuilder().build(reader);
+		}
+		assertThatThrownBy(() -> new H2Dialect().setWindowFunctionsSupported(true))
+				.isInstanceOf(UnsupportedOperationException.class);
+		SqlRegistry registry = new SqlRegistry(factory.getConfiguration(), new WindowH2Dialect());
+		registry.addType(Post.class);
+		registry.addType(PostBlog.class);
+
+		try (SqlSession session = factory.openSession()) {
+			DefaultSqlDao dao = new DefaultSqlDao(registry, session);
+			dao.setCountStrategy(SqlCountStrategy.WINDOW);
+
+			BoundList<Post> posts = dao.select(Post.class)
+					.where(ne("id", 3))
+					.orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(1, 2));
+			BoundList<PostBlog> blogs = dao.select(PostBlog.class)
+					.where(isNotNull("blogId"))
+					.orderBy(SqlOrderBy.create().asc("blogId"))
+					.asBoundList(new RowBounds(0, 10));
+			BoundList<Map<String, Object>> rows = dao.select(Post.class)
+					.where(gt("star", 0))
+					.orderBy(SqlOrderBy.create().asc("id"))
+					.asBoundList(new RowBounds(2, 3), SqlProjections.create().property("id", "id").property("star", "star"));
+
+			assertThat(posts.total()).isEqualTo(4);
+			assertThat(posts).extracting(Post::getId).containsExactly(2, 4);
+			assertThat(blogs.total()).isEqualTo(4);
+			assertThat(blogs).extracting(PostBlog::getBlogId).containsExactly(1, 1, 2, 2);
+			assertThat(rows.total()).isEqualTo(4);
+			assertThat(rows).extracting(row -> row.get("ID")).containsExactly(4, 5);
+			assertThat(rows.get(0)).hasSize(2);
+		}
+	}
+
+	/**
+	 * H2 1.4 has no window functions, selects the total with a scalar subquery
+	 * applying the criterion of the page instead to exercise the window total
+	 * mapping.
+	 */
+	private static class WindowH2Dialect extends H2Dialect {
+		@Override
+		public boolean isWindowFunctionsSupported() {
+			return true;
+		}
+
+		@Override
+		protected void appendTotalColumn(SqlContext ctx, SqlFragment.Builder sql) {
+			sql.append(", (SELECT COUNT(*) FROM ").append(getTableSql(ctx));
+			appendWhere(ctx, sql);
+			sql.append(") AS `" + SqlDialect.TOTAL_COLUMN + "`");
+		}
+	}
+
+	@SqlEntity("post")
+	public static class PostBlog {
+		private Integer blogId;
+
+		public Integer getBlogId() {
+			return blogId;
+		}
+
+		public void setBlogId(Integer blogId) {
+			this.blogId = blogId;
+		}
+	}
+
+	@Test
+	public void shouldWorkWithoutSqlEntityAnnotation() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Tag.class).where(eq("id", 1)).asOne().orElse(null).getName()).isEqualTo("funny");
+		}
+	}
+
+	@Test
+	public void shouldWorkWithSqlCacheRefAnnotation() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Author2.class).where(eq("id", 101)).asOne().orElse(null).getUsername()).isEqualTo("jim");
+			assertThat(dao.select(Author3.class).where(eq("id", 101)).asOne().orElse(null).getUsername()).isEqualTo("jim");
+		}
+	}
+
+	@Test
+	public void shouldWorkWithConstantValue() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Post.class).where(or(eq("id", 101), trueValue())).asList()).hasSize(5);
+			assertThat(dao.select(Author3.class).where(and(eq("id", 101), falseValue())).asList()).hasSize(0);
+		}
+	}
+
+	@Test
+	public void shouldWorkWithSqlNameStrategyAnnotation() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Comment.class).where(eq("id", 1)).asOne().orElse(null).getPostId()).isEqualTo(1);
+			assertThat(dao.select(Tag2.class).where(eq("id", 1)).asOne().orElse(null).getNaMe()).isEqualTo("funny");
+		}
+	}
+
+	@Test
+	public void shouldLambdaWorks() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(Post.class)
+					.orderBy(SqlOrderBy.create(Post.class).asc(Post::getSection).desc(Post::getStar))
+					.asList(SqlProjections.create(Post.class).property("id", Post::getId)))
+							.containsExactly(4, 5, 1, 3, 2);
+
+			assertThat(dao.select(Comment.class)
+					.where(SqlCriterion.lambda(Comment.class, t -> t.eq(Comment::getId, 1)))
+					.asOne().orElse(null).getPostId()).isEqualTo(1);
+
+			assertThat(dao.count(Post.class,
+					SqlCriterion.lambda(Post.class, t -> t.eq(Post::getSection, "NEWS")))).isEqualTo(1);
+
+			assertThat(dao.exists(Post.class, SqlCriterion.lambda(Post.class, t -> t.eq(Post::getId, 1)))).isTrue();
+
+			assertThat(dao.count(Post.class, SqlCriterion.lambda(Post.class, t -> t.eq(Post::getId, 1)))).isEqualTo(1L);
+
+			session.rollback(true);
+
+			assertThat(dao.update(Post.class, (u) -> u.set(Post::getSection, "NEW_SECTION"), c -> c.eq(Post::getId, 1)))
+					.isEqualTo(1);
+
+			session.rollback(true);
+
+			assertThat(dao.update(Post.class,
+					u -> u.set(Post::getSection, "NEW_SECTION").set(Post::getStar, 9),
+					t -> t.eq(Post::getId, 1)))
+							.isEqualTo(1);
+
+			session.rollback(true);
+		}
+	}
+
+	@Test
+	public void testSelectPerformance() {
+		SqlSession session = Mockito.mock(SqlSession.class);
+		when(session.selectOne(null, null)).thenReturn(Lists.newArrayList());
+		SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+		int times = 200;
+		long ts1 = 0, ts2 = 0, ts3 = 0;
+		long s = 0;
+		System.gc();
+		for (int i = 0; i < times; ++i) {
+			long ss = System.currentTimeMillis();
+			dao.select(Post.class).where(eq("#id", i)).where(like("subject", "I%")).asOne();
+			long st = System.currentTimeMillis() - ss;
+			if (st > ts1) {
+				ts1 = st;
+			} else if (st > ts2) {
+				ts2 = st;
+			} else if (st > ts3) {
+				ts3 = st;
+			}
+			s += st;
+		}
+		System.out.println(String.format("avg: %.2f, top1: %d, top2: %d, top3: %d, ", ((double) s / times), ts1, ts2, ts3));
+	}
+
+	@Test
+	public void testUpdateWithReferenceValue() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.update(Post.class,
+				SqlUpdate.create().set("subject", SqlReference.of("section")), eq("id", 1))).isEqualTo(1);
+
+			assertThat(dao.select(Post.class).where(eq("section", SqlReference.of("subject"))).asList()).hasSize(1);
+
+			// Cross table reference in update is currently not supported
+			// assertThat(dao.update(Post.class,
+			// 	SqlUpdate.create().set("subject", SqlReference.of("blogAuthorName")), eq("id", 1))).isEqualTo(1);
+
+			// assertThat(dao.select(Post.class).where(eq("blogAuthorName", SqlReference.of("subject"))).asList()).hasSize(1);
+		}
+	}
+	
+	@Test
+	public void shouldSelectWithJoinConditions() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+
+			assertThat(dao.select(PostOfSally.class).where(eq("id", 2)).asOne())
+				.satisfies(it -> {
+					assertThat(it.get().getAuthorNamedSally()).isNull();
+				});
+
+			assertThat(dao.select(PostOfSally.class).where(eq("id", 3)).asOne())
+				.satisfies(it -> {
+					assertThat(it.get().getAuthorNamedSally()).isNotNull();
+				});
+		}
+	}
+}
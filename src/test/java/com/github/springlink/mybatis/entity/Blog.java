@@ -1,58 +1,58 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.entity;
-
-import java.io.Serializable;
-
-import com.github.springlink.mybatis.annotation.SqlEntity;
-import com.github.springlink.mybatis.annotation.SqlProperty;
-
-@SqlEntity
-public class Blog implements Serializable {
-	private static final long serialVersionUID = 5371633383860009791L;
-
-	@SqlProperty(id = true, aliases = "id")
-	private Integer id;
-
-	private Integer authorId;
-
-	private String title;
-
-	public Integer getId() {
-		return id;
-	}
-
-	public void setId(Integer id) {
-		this.id = id;
-	}
-
-	public Integer getAuthorId() {
-		return authorId;
-	}
-
-	public void setAuthorId(Integer authorId) {
-		this.authorId = authorId;
-	}
-
-	public String getTitle() {
-		return title;
-	}
-
-	public void setTitle(String title) {
-		this.title = title;
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.entity;
+
+import java.io.Serializable;
+
+import com.github.springlink.mybatis.annotation.SqlEntity;
+import com.github.springlink.mybatis.annotation.SqlProperty;
+
+@SqlEntity(uniqueId = true)
+public class Blog implements Serializable {
+	private static final long serialVersionUID = 5371633383860009791L;
+
+	@SqlProperty(id = true, aliases = "id")
+	private Integer id;
+
+	private Integer authorId;
+
+	private String title;
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public Integer getAuthorId() {
+		return authorId;
+	}
+
+	public void setAuthorId(Integer authorId) {
+		this.authorId = authorId;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+}
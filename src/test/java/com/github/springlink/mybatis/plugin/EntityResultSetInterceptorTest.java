@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.plugin;
+
+import static com.github.springlink.mybatis.sql.SqlCriterion.in;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.github.springlink.mybatis.dao.DefaultSqlDao;
+import com.github.springlink.mybatis.dao.SqlDao;
+import com.github.springlink.mybatis.entity.Author;
+import com.github.springlink.mybatis.entity.Post;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.registry.SqlRegistry;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+
+public class EntityResultSetInterceptorTest {
+	private static SqlSessionFactory sqlSessionFactory;
+	private static SqlSessionFactory fastSqlSessionFactory;
+	private static SqlRegistry sqlRegistry;
+	private static SqlRegistry fastSqlRegistry;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws IOException {
+		sqlSessionFactory = buildSessionFactory();
+		fastSqlSessionFactory = buildSessionFactory();
+
+		try (Reader reader = Resources.getResourceAsReader("entity/blog-h2.sql");
+				SqlSession session = sqlSessionFactory.openSession()) {
+			ScriptRunner runner = new ScriptRunner(session.getConnection());
+			runner.setLogWriter(null);
+			runner.runScript(reader);
+			session.commit();
+		}
+
+		fastSqlSessionFactory.getConfiguration().addInterceptor(new EntityResultSetInterceptor());
+
+		sqlRegistry = new SqlRegistry(sqlSessionFactory.getConfiguration(), SqlDialect.get("h2"));
+		sqlRegistry.addType(Post.class);
+		sqlRegistry.addType(Author.class);
+		fastSqlRegistry = new SqlRegistry(fastSqlSessionFactory.getConfiguration(), SqlDialect.get("h2"));
+		fastSqlRegistry.addType(Post.class);
+		fastSqlRegistry.addType(Author.class);
+	}
+
+	private static SqlSessionFactory buildSessionFactory() throws IOException {
+		try (Reader reader = Resources.getResourceAsReader("entity/mybatis-config-h2.xml")) {
+			return new SqlSessionFactoryBuilder().build(reader);
+		}
+	}
+
+	@Test
+	public void shouldMapLikeResultMap() {
+		try (SqlSession session = sqlSessionFactory.openSession();
+				SqlSession fastSession = fastSqlSessionFactory.openSession()) {
+			SqlDao dao = new DefaultSqlDao(sqlRegistry, session);
+			SqlDao fastDao = new DefaultSqlDao(fastSqlRegistry, fastSession);
+
+			List<Post> posts = dao.select(Post.class).orderBy(SqlOrderBy.create().asc("id")).asList();
+			List<Post> fastPosts = fastDao.select(Post.class).orderBy(SqlOrderBy.create().asc("id")).asList();
+			List<Author> authors = dao.select(Author.class).where(in("id", 101, 102)).asList();
+			List<Author> fastAuthors = fastDao.select(Author.class).where(in("id", 101, 102)).asList();
+
+			assertThat(fastPosts).hasSize(5).usingFieldByFieldElementComparator().containsExactlyElementsOf(posts);
+			assertThat(fastPosts.get(4).getBlogId()).isNull();
+			assertThat(fastPosts.get(0).getBlogAuthorName()).isEqualTo("jim");
+			assertThat(fastAuthors).hasSize(2).usingFieldByFieldElementComparator()
+					.containsExactlyInAnyOrderElementsOf(authors);
+			assertThat(fastDao.findById(Post.class, 3)).hasValueSatisfying(post -> {
+				assertThat(post.getStar()).isEqualTo(66);
+			});
+			assertThat(fastDao.select(Post.class).<Integer>asMap("id")).containsOnlyKeys(1, 2, 3, 4, 5);
+		}
+	}
+
+	@Test
+	public void shouldLeaveOtherStatementsToDefaultHandler() {
+		try (SqlSession fastSession = fastSqlSessionFactory.openSession()) {
+			SqlDao fastDao = new DefaultSqlDao(fastSqlRegistry, fastSession);
+
+			assertThat(fastDao.count(Post.class, (SqlCriterion) null)).isEqualTo(5);
+			assertThat(fastDao.select(Post.class).asList(SqlProjections.create().property("id"))).hasSize(5);
+		}
+	}
+
+	@Test
+	public void shouldMapResultSetsOfDifferentColumns() {
+		Configuration config = fastSqlSessionFactory.getConfiguration();
+		ResultMap resultMap = config.getResultMap(Post.class.getName() + "." + SqlDialect.RESULT_MAP_ID);
+		String idColumn = getColumn(resultMap, "id");
+		addSelectStatement(config, "selectIdAndSubject", resultMap,
+				"SELECT id AS " + idColumn + ", subject AS " + getColumn(resultMap, "subject") + " FROM post");
+		addSelectStatement(config, "selectId", resultMap, "SELECT id AS " + idColumn + " FROM post");
+		try (SqlSession fastSession = fastSqlSessionFactory.openSession()) {
+			for (int i = 0; i < 2; ++i) {
+				List<Post> posts = fastSession.selectList("selectIdAndSubject");
+				fastSession.clearCache();
+				List<Post> ids = fastSession.selectList("selectId");
+				fastSession.clearCache();
+
+				assertThat(posts).hasSize(5).extracting(Post::getSubject).doesNotContainNull();
+				assertThat(ids).hasSize(5).extracting(Post::getSubject).containsOnlyNulls();
+				assertThat(ids).extracting(Post::getId).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+			}
+		}
+	}
+
+	private static String getColumn(ResultMap resultMap, String property) {
+		return resultMap.getPropertyResultMappings().stream()
+				.filter(mapping -> mapping.getProperty().equals(property))
+				.findFirst().get().getColumn();
+	}
+
+	private static void addSelectStatement(Configuration config, String id, ResultMap resultMap, String sql) {
+		config.addMappedStatement(new MappedStatement.Builder(config, id, new StaticSqlSource(config, sql),
+				SqlCommandType.SELECT).resultMaps(Collections.singletonList(resultMap)).build());
+	}
+}
@@ -1,128 +1,182 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.plugin;
-
-import static org.assertj.core.api.Assertions.assertThat;
-
-import java.io.IOException;
-import java.io.Reader;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-import java.util.Properties;
-
-import org.apache.ibatis.executor.Executor;
-import org.apache.ibatis.io.Resources;
-import org.apache.ibatis.jdbc.ScriptRunner;
-import org.apache.ibatis.mapping.MappedStatement;
-import org.apache.ibatis.plugin.Interceptor;
-import org.apache.ibatis.plugin.Intercepts;
-import org.apache.ibatis.plugin.Invocation;
-import org.apache.ibatis.plugin.Plugin;
-import org.apache.ibatis.plugin.Signature;
-import org.apache.ibatis.session.Configuration;
-import org.apache.ibatis.session.ResultHandler;
-import org.apache.ibatis.session.RowBounds;
-import org.apache.ibatis.session.SqlSession;
-import org.apache.ibatis.session.SqlSessionFactory;
-import org.apache.ibatis.session.SqlSessionFactoryBuilder;
-import org.junit.BeforeClass;
-import org.junit.Test;
-
-import com.github.springlink.mybatis.entity.Post;
-import com.github.springlink.mybatis.plugin.PaginationInterceptor;
-import com.github.springlink.mybatis.util.BoundList;
-import com.github.springlink.mybatis.util.PhysicalRowBounds;
-
-public class PaginationInterceptorTest {
-	private static SqlSessionFactory sqlSessionFactory;
-
-	@BeforeClass
-	public static void setUpBeforeClass() throws IOException {
-		try (Reader reader = Resources.getResourceAsReader("entity/mybatis-config-h2.xml")) {
-			sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
-		}
-
-		try (Reader reader = Resources.getResourceAsReader("entity/blog-h2.sql");
-				SqlSession session = sqlSessionFactory.openSession()) {
-			ScriptRunner runner = new ScriptRunner(session.getConnection());
-			runner.setLogWriter(null);
-			runner.runScript(reader);
-			session.commit();
-		}
-
-		Configuration cfg = sqlSessionFactory.getConfiguration();
-		cfg.addInterceptor(new TestInterceptor());
-		cfg.addInterceptor(new PaginationInterceptor());
-		cfg.addInterceptor(new TestInterceptor());
-	}
-
-	@Test
-	public void test() {
-		try (SqlSession session = sqlSessionFactory.openSession()) {
-			BoundList<Post> posts;
-
-			posts = (BoundList<Post>) session.<Post>selectList(
-					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
-					new PhysicalRowBounds(0, 3));
-			assertThat(posts.total()).isEqualTo(4);
-			assertThat(posts.offset()).isEqualTo(0);
-			assertThat(posts.limit()).isEqualTo(3);
-			assertThat(posts).hasSize(3);
-			assertThat(posts).extracting(Post::getId).containsExactly(1, 2, 3);
-
-			posts = (BoundList<Post>) session.<Post>selectList(
-					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
-					new PhysicalRowBounds(3, 3));
-			assertThat(posts.total()).isEqualTo(4);
-			assertThat(posts.offset()).isEqualTo(3);
-			assertThat(posts.limit()).isEqualTo(3);
-			assertThat(posts).hasSize(1);
-			assertThat(posts).extracting(Post::getId).containsExactly(4);
-
-			List<Post> plainPosts = session.<Post>selectList(
-					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
-					new RowBounds(3, 3));
-			assertThat(plainPosts).hasSize(1);
-			assertThat(plainPosts).extracting(Post::getId).containsExactly(4);
-		}
-	}
-
-	@Intercepts({
-			@Signature(type = Executor.class, method = "query", args = {
-					MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
-			})
-	})
-	public static class TestInterceptor implements Interceptor {
-		@Override
-		public Object intercept(Invocation invocation) throws Throwable {
-			return invocation.proceed();
-		}
-
-		@Override
-		public Object plugin(Object target) {
-			if (target instanceof Executor) {
-				return Plugin.wrap(target, this);
-			}
-			return target;
-		}
-
-		@Override
-		public void setProperties(Properties properties) {
-		}
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.github.springlink.mybatis.entity.Post;
+import com.github.springlink.mybatis.plugin.PaginationInterceptor;
+import com.github.springlink.mybatis.registry.SqlContext;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.registry.SqlRegistry;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.util.BoundList;
+import com.github.springlink.mybatis.util.PhysicalRowBounds;
+
+public class PaginationInterceptorTest {
+	private static SqlSessionFactory sqlSessionFactory;
+	private static PaginationInterceptor paginationInterceptor;
+	private static SqlRegistry sqlRegistry;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws IOException {
+		try (Reader reader = Resources.getResourceAsReader("entity/mybatis-config-h2.xml")) {
+			sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+		}
+
+		try (Reader reader = Resources.getResourceAsReader("entity/blog-h2.sql");
+				SqlSession session = sqlSessionFactory.openSession()) {
+			ScriptRunner runner = new ScriptRunner(session.getConnection());
+			runner.setLogWriter(null);
+			runner.runScript(reader);
+			session.commit();
+		}
+
+		Configuration cfg = sqlSessionFactory.getConfiguration();
+		cfg.addInterceptor(new TestInterceptor());
+		cfg.addInterceptor(paginationInterceptor = new PaginationInterceptor());
+		cfg.addInterceptor(new TestInterceptor());
+
+		sqlRegistry = new SqlRegistry(cfg, SqlDialect.get("h2"));
+		sqlRegistry.addType(Post.class);
+	}
+
+	@Test
+	public void test() {
+		paginationInterceptor.getCountStats().reset();
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			BoundList<Post> posts;
+
+			posts = (BoundList<Post>) session.<Post>selectList(
+					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
+					new PhysicalRowBounds(0, 3));
+			assertThat(posts.total()).isEqualTo(4);
+			assertThat(posts.offset()).isEqualTo(0);
+			assertThat(posts.limit()).isEqualTo(3);
+			assertThat(posts).hasSize(3);
+			assertThat(posts).extracting(Post::getId).containsExactly(1, 2, 3);
+
+			posts = (BoundList<Post>) session.<Post>selectList(
+					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
+					new PhysicalRowBounds(3, 3));
+			assertThat(posts.total()).isEqualTo(4);
+			assertThat(posts.offset()).isEqualTo(3);
+			assertThat(posts.limit()).isEqualTo(3);
+			assertThat(posts).hasSize(1);
+			assertThat(posts).extracting(Post::getId).containsExactly(4);
+
+			posts = (BoundList<Post>) session.<Post>selectList(
+					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
+					new PhysicalRowBounds(6, 3));
+			assertThat(posts.total()).isEqualTo(4);
+			assertThat(posts).isEmpty();
+
+			// only the partially filled page at offset 3 can infer its total
+			assertThat(paginationInterceptor.getCountStats().getExecutedCount()).isEqualTo(2);
+			assertThat(paginationInterceptor.getCountStats().getAvoidedCount()).isEqualTo(1);
+
+			List<Post> plainPosts = session.<Post>selectList(
+					"com.github.springlink.mybatis.selectPosts", Collections.singletonMap("blogIds", Arrays.asList(1, 2)),
+					new RowBounds(3, 3));
+			assertThat(plainPosts).hasSize(1);
+			assertThat(plainPosts).extracting(Post::getId).containsExactly(4);
+		}
+	}
+
+	@Test
+	public void shouldReuseDerivedStatements() {
+		MappedStatement statement = sqlSessionFactory.getConfiguration()
+				.getMappedStatement("com.github.springlink.mybatis.selectPosts");
+
+		assertThat(paginationInterceptor.getLimitStatement(statement))
+				.isSameAs(paginationInterceptor.getLimitStatement(statement));
+		assertThat(paginationInterceptor.getCountStatement(statement))
+				.isSameAs(paginationInterceptor.getCountStatement(statement));
+	}
+
+	@Test
+	public void shouldCountRegistryStatementFromContext() {
+		try (SqlSession session = sqlSessionFactory.openSession()) {
+			SqlContext ctx = sqlRegistry.getContext(Post.class)
+					.putObject(SqlDialect.CRITERION_KEY, SqlCriterion.isNotNull("blogId"))
+					.putObject(SqlDialect.ORDER_BY_KEY, SqlOrderBy.create().desc("id"));
+			Map<String, Object> parameter = Collections.singletonMap(ctx.getRootPath(), ctx);
+			String statementId = Post.class.getName() + "." + SqlDialect.SELECT_ENTITY_ID;
+
+			MappedStatement countStatement = paginationInterceptor.getContextCountStatement(
+					sqlSessionFactory.getConfiguration().getMappedStatement(statementId), parameter);
+			assertThat(countStatement.getId()).isEqualTo(Post.class.getName() + "." + SqlDialect.SELECT_COUNT_ID);
+			assertThat(countStatement.getBoundSql(parameter).getSql()).doesNotContain("ORDER BY");
+
+			BoundList<Post> posts = (BoundList<Post>) session.<Post>selectList(statementId, parameter,
+					new PhysicalRowBounds(0, 3));
+			assertThat(posts.total()).isEqualTo(4);
+			assertThat(posts).extracting(Post::getId).containsExactly(4, 3, 2);
+		}
+	}
+
+	@Intercepts({
+			@Signature(type = Executor.class, method = "query", args = {
+					MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class
+			})
+	})
+	public static class TestInterceptor implements Interceptor {
+		@Override
+		public Object intercept(Invocation invocation) throws Throwable {
+			return invocation.proceed();
+		}
+
+		@Override
+		public Object plugin(Object target) {
+			if (target instanceof Executor) {
+				return Plugin.wrap(target, this);
+			}
+			return target;
+		}
+
+		@Override
+		public void setProperties(Properties properties) {
+		}
+	}
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import static com.github.springlink.mybatis.sql.SqlCriterion.and;
+import static com.github.springlink.mybatis.sql.SqlCriterion.eq;
+import static com.github.springlink.mybatis.sql.SqlCriterion.in;
+import static com.github.springlink.mybatis.sql.SqlCriterion.isNotNull;
+import static com.github.springlink.mybatis.sql.SqlCriterion.none;
+import static com.github.springlink.mybatis.sql.SqlCriterion.not;
+import static com.github.springlink.mybatis.sql.SqlReference.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+import com.github.springlink.mybatis.annotation.SqlEntity;
+import com.github.springlink.mybatis.annotation.SqlJoin;
+import com.github.springlink.mybatis.entity.Author;
+import com.github.springlink.mybatis.entity.Blog;
+import com.github.springlink.mybatis.entity.Post;
+import com.github.springlink.mybatis.entity.PostLite;
+import com.github.springlink.mybatis.entity.PostOfSally;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlOrderBy;
+import com.github.springlink.mybatis.sql.SqlProjections;
+import com.github.springlink.mybatis.util.PrimitiveArrayList;
+
+public class CompiledSqlSourceTest {
+	@Test
+	public void shouldRenderSelectEntity() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(PostLite.class);
+
+		SqlContext ctx = registry.getContext(PostLite.class)
+				.putObject(SqlDialect.CRITERION_KEY, and(eq("id", 1), in("star", 2, 3), not(none())))
+				.putObject(SqlDialect.ORDER_BY_KEY, SqlOrderBy.create().desc("id"))
+				.putObject(SqlDialect.ROW_BOUNDS_KEY, new RowBounds(0, 10))
+				.putObject(SqlDialect.FOR_UPDATE_KEY, true);
+		BoundSql boundSql = getBoundSql(config, PostLite.class, SqlDialect.SELECT_ENTITY_ID, ctx);
+
+		assertThat(boundSql.getSql())
+				.startsWith("SELECT ")
+				.contains("t.`id` AS `id`")
+				.contains(" FROM `post_lite` t LEFT JOIN ")
+				.endsWith(" WHERE (t.`id` = ? AND t.`star` IN(?,?)) ORDER BY t.`id` DESC LIMIT ?, ? FOR UPDATE");
+		assertThat(boundSql.getParameterMappings()).extracting(ParameterMapping::getProperty).containsExactly(
+				"ctx.objects.criterion.criteria[0].args[0]",
+				"ctx.objects.criterion.criteria[1].args[0]",
+				"ctx.objects.criterion.criteria[1].args[1]",
+				"ctx.objects.rowBounds.offset",
+				"ctx.objects.rowBounds.limit");
+	}
+
+	@Test
+	public void shouldRenderJoinCriterionParameters() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("h2"));
+		registry.addType(PostOfSally.class);
+
+		SqlContext ctx = registry.getContext(PostOfSally.class)
+				.putObject(SqlDialect.CRITERION_KEY, isNotNull("authorNamedSally"));
+		BoundSql boundSql = getBoundSql(config, PostOfSally.class, SqlDialect.SELECT_COUNT_ID, ctx);
+
+		assertThat(boundSql.getSql())
+				.startsWith("SELECT COUNT(*) FROM `post` t LEFT JOIN ")
+				.containsPattern("ON \\(t.`author_id` = (j\\d).`id` AND \\1.`username` = \\?\\)");
+		assertThat(boundSql.getParameterMappings()).extracting(ParameterMapping::getProperty)
+				.hasOnlyOneElementSatisfying(property -> assertThat(property)
+						.matches("ctx\\.entity\\.joins\\[\\d\\]\\.criterion\\.criteria\\[1\\]\\.args\\[0\\]"));
+	}
+
+	@Test
+	public void shouldRenderInsertWithParameterOptions() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(Author.class);
+
+		BoundSql boundSql = getBoundSql(config, Author.class, SqlDialect.INSERT_ID, registry.getContext(Author.class));
+
+		assertThat(boundSql.getSql()).startsWith("INSERT INTO `author`(");
+		assertThat(boundSql.getParameterMappings())
+				.filteredOn(pm -> pm.getProperty().equals("ctx.objects.value.id"))
+				.hasOnlyOneElementSatisfying(pm -> assertThat(pm.getJdbcType().name()).isEqualTo("INTEGER"));
+	}
+
+	@Test
+	public void shouldRenderInsertAllInChunks() {
+		Configuration config = new Configuration();
+		SqlDialect dialect = new MySQLDialect();
+		SqlRegistry registry = new SqlRegistry(config, dialect);
+		registry.addType(Author.class);
+
+		int columns = registry.getContext(Author.class).getEntity().getProperties().size();
+		dialect.setMaxInsertParameters(columns * 2);
+		List<Author> authors = Lists.newArrayList(new Author(), new Author(), null, new Author());
+		List<List<Author>> chunks = dialect.partitionInsertValues(registry.getContext(Author.class), authors);
+
+		assertThat(chunks).extracting(List::size).containsExactly(2, 1);
+		BoundSql boundSql = getBoundSql(config, Author.class, SqlDialect.INSERT_ALL_ID,
+				registry.getContext(Author.class).putObject(SqlDialect.VALUES_KEY, chunks.get(0)));
+		assertThat(boundSql.getSql()).startsWith("INSERT INTO `author`(").contains("),(");
+		assertThat(boundSql.getParameterMappings()).hasSize(columns * 2)
+				.extracting(ParameterMapping::getProperty)
+				.contains("ctx.objects.values[0].id", "ctx.objects.values[1].id");
+
+		dialect.setMaxInsertPacketSize(1);
+		assertThat(dialect.partitionInsertValues(registry.getContext(Author.class), authors)).hasSize(3);
+	}
+
+	@Test
+	public void shouldEliminateUnreferencedJoins() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(Post.class);
+
+		SqlContext ctx = registry.getContext(Post.class);
+		String blogAlias = ctx.getTableAlias("joinBlog");
+		String authorOfBlogAlias = ctx.getTableAlias("authorOfBlog");
+		String authorAlias = ctx.getTableAlias("joinAuthor");
+
+		assertThat(getBoundSql(config, Post.class, SqlDialect.SELECT_COUNT_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.CRITERION_KEY, eq("star", 1))).getSql())
+						.isEqualTo("SELECT COUNT(*) FROM `post` t WHERE t.`star` = ?");
+		assertThat(getBoundSql(config, Post.class, SqlDialect.SELECT_EXISTS_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.CRITERION_KEY, eq("blogAuthorName", "jim"))).getSql())
+						.contains("LEFT JOIN `blog` " + blogAlias + " ")
+						.contains("LEFT JOIN `author` " + authorOfBlogAlias + " ")
+						.doesNotContain("`author` " + authorAlias + " ");
+		assertThat(getBoundSql(config, Post.class, SqlDialect.SELECT_PROJECTIONS_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.PROJECTIONS_KEY, SqlProjections.create().max("star"))).getSql())
+						.isEqualTo("SELECT MAX(t.`star`) AS `value` FROM `post` t");
+		assertThat(getBoundSql(config, Post.class, SqlDialect.SELECT_PROJECTIONS_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.PROJECTIONS_KEY, SqlProjections.create().property("star"))
+				.putObject(SqlDialect.ORDER_BY_KEY, SqlOrderBy.create().asc("authorName"))).getSql())
+						.contains("LEFT JOIN `author` " + authorAlias + " ")
+						.doesNotContain("`blog` " + blogAlias + " ");
+		assertThat(getBoundSql(config, Post.class, SqlDialect.SELECT_PROJECTIONS_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.PROJECTIONS_KEY, SqlProjections.create().count("posts", "id").groupBy("star"))
+				.putObject(SqlDialect.HAVING_KEY, eq("blogAuthorName", "jim"))).getSql())
+						.contains("LEFT JOIN `blog` " + blogAlias + " ")
+						.contains("LEFT JOIN `author` " + authorOfBlogAlias + " ")
+						.endsWith(" GROUP BY t.`star` HAVING " + authorOfBlogAlias + ".`username` = ?");
+	}
+
+	@Test
+	public void shouldRenderDeferredJoinBeyondOffsetThreshold() {
+		Configuration config = new Configuration();
+		SqlDialect dialect = new MySQLDialect();
+		dialect.setDeferredJoinOffset(100);
+		SqlRegistry registry = new SqlRegistry(config, dialect);
+		registry.addType(Post.class);
+
+		BoundSql shallow = getBoundSql(config, Post.class, SqlDialect.SELECT_ENTITY_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.CRITERION_KEY, eq("star", 1))
+				.putObject(SqlDialect.ORDER_BY_KEY, SqlOrderBy.create().desc("star"))
+				.putObject(SqlDialect.ROW_BOUNDS_KEY, new RowBounds(99, 10)));
+		BoundSql deep = getBoundSql(config, Post.class, SqlDialect.SELECT_ENTITY_ID, registry.getContext(Post.class)
+				.putObject(SqlDialect.CRITERION_KEY, eq("star", 1))
+				.putObject(SqlDialect.ORDER_BY_KEY, SqlOrderBy.create().desc("star"))
+				.putObject(SqlDialect.ROW_BOUNDS_KEY, new RowBounds(100, 10)));
+
+		assertThat(shallow.getSql()).doesNotContain("__page")
+				.endsWith(" WHERE t.`star` = ? ORDER BY t.`star` DESC LIMIT ?, ?");
+		assertThat(deep.getSql())
+				.endsWith(" INNER JOIN (SELECT t.`id` AS `id` FROM `post` t WHERE t.`star` = ?"
+						+ " ORDER BY t.`star` DESC LIMIT ?, ?) __page ON t.`id` = __page.`id` ORDER BY t.`star` DESC");
+		assertThat(deep.getParameterMappings()).extracting(ParameterMapping::getProperty).containsExactly(
+				"ctx.objects.criterion.args[0]",
+				"ctx.objects.rowBounds.offset",
+				"ctx.objects.rowBounds.limit");
+	}
+
+	@Test
+	public void shouldRenderWindowTotal() {
+		Configuration config = new Configuration();
+		SqlDialect dialect = new MySQLDialect();
+		assertThat(dialect.isWindowFunctionsSupported()).isFalse();
+		dialect.setWindowFunctionsSupported(true);
+		SqlRegistry registry = new SqlRegistry(config, dialect);
+		registry.addType(PostLite.class);
+
+		BoundSql boundSql = getBoundSql(config, PostLite.class, SqlDialect.SELECT_ENTITY_TOTAL_ID,
+				registry.getContext(PostLite.class)
+						.putObject(SqlDialect.CRITERION_KEY, eq("star", 1))
+						.putObject(SqlDialect.ROW_BOUNDS_KEY, new RowBounds(20, 10)));
+
+		assertThat(boundSql.getSql()).contains(", COUNT(*) OVER() AS `__total` FROM `post_lite` t ")
+				.endsWith(" WHERE t.`star` = ? LIMIT ?, ?");
+	}
+
+	@Test
+	public void shouldNotDeferJoinWithoutUniqueId() {
+		Configuration config = new Configuration();
+		SqlDialect dialect = new MySQLDialect();
+		dialect.setDeferredJoinOffset(100);
+		SqlRegistry registry = new SqlRegistry(config, dialect);
+		registry.addType(PostLite.class);
+
+		BoundSql deep = getBoundSql(config, PostLite.class, SqlDialect.SELECT_ENTITY_ID,
+				registry.getContext(PostLite.class)
+						.putObject(SqlDialect.CRITERION_KEY, eq("star", 1))
+						.putObject(SqlDialect.ROW_BOUNDS_KEY, new RowBounds(100, 10)));
+
+		assertThat(deep.getSql()).doesNotContain("__page").endsWith(" WHERE t.`star` = ? LIMIT ?, ?");
+	}
+
+	@Test
+	public void shouldPadInListsToBuckets() {
+		Configuration config = new Configuration();
+		SqlDialect dialect = new MySQLDialect();
+		dialect.setInListBuckets(SqlDialect.getPowerOfTwoBuckets(6));
+		SqlRegistry registry = new SqlRegistry(config, dialect);
+		registry.addType(PostLite.class);
+
+		getBoundSql(config, PostLite.class, SqlDialect.SELECT_COUNT_ID,
+				registry.getContext(PostLite.class).putObject(SqlDialect.CRITERION_KEY, in("star", 1)));
+		assertThat(dialect.getSqlTextStats().getCounts()).isEmpty();
+		dialect.getSqlTextStats().setEnabled(true);
+		BoundSql three = getBoundSql(config, PostLite.class, SqlDialect.SELECT_COUNT_ID,
+				registry.getContext(PostLite.class).putObject(SqlDialect.CRITERION_KEY, in("star", 1, 2, 3)));
+		BoundSql four = getBoundSql(config, PostLite.class, SqlDialect.SELECT_COUNT_ID,
+				registry.getContext(PostLite.class).putObject(SqlDialect.CRITERION_KEY, in("star", 1, 2, 3, 4)));
+		BoundSql five = getBoundSql(config, PostLite.class, SqlDialect.SELECT_COUNT_ID,
+				registry.getContext(PostLite.class).putObject(SqlDialect.CRITERION_KEY, in("star", 1, 2, 3, 4, 5)));
+		BoundSql seven = getBoundSql(config, PostLite.class, SqlDialect.SELECT_COUNT_ID,
+				registry.getContext(PostLite.class).putObject(SqlDialect.CRITERION_KEY,
+						in("star", 1, 2, 3, 4, 5, 6, 7)));
+
+		assertThat(SqlDialect.getPowerOfTwoBuckets(6)).containsExactly(1, 2, 4, 6);
+		assertThat(three.getSql()).endsWith(" WHERE t.`star` IN(?,?,?,?)").isEqualTo(four.getSql());
+		assertThat(three.getParameterMappings()).extracting(ParameterMapping::getProperty).containsExactly(
+				"ctx.objects.criterion.args[0]",
+				"ctx.objects.criterion.args[1]",
+				"ctx.objects.criterion.args[2]",
+				"ctx.objects.criterion.args[2]");
+		assertThat(five.getSql()).endsWith(" WHERE t.`star` IN(?,?,?,?,?,?)");
+		assertThat(seven.getSql()).endsWith(" WHERE t.`star` IN(?,?,?,?,?,?,?)");
+		assertThat(dialect.getSqlTextStats().getCount(PostLite.class)).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldBindPrimitiveInListElements() {
+		Configuration config = new Configuration();
+		SqlDialect dialect = new MySQLDialect();
+		dialect.setInListBuckets(2, 4);
+		SqlRegistry registry = new SqlRegistry(config, dialect);
+		registry.addType(PostLite.class);
+
+		BoundSql boundSql = getBoundSql(config, PostLite.class, SqlDialect.SELECT_COUNT_ID,
+				registry.getContext(PostLite.class).putObject(SqlDialect.CRITERION_KEY,
+						in("id", new long[] { 1, 2, 3 })));
+
+		assertThat(boundSql.getSql()).endsWith(" WHERE t.`id` IN(?,?,?,?)");
+		assertThat(boundSql.getParameterMappings()).extracting(ParameterMapping::getProperty)
+				.containsOnly("ctx.objects.criterion.args");
+		assertThat(boundSql.getParameterMappings()).extracting(ParameterMapping::getTypeHandler).containsExactly(
+				PrimitiveArrayList.getElementTypeHandler(0),
+				PrimitiveArrayList.getElementTypeHandler(1),
+				PrimitiveArrayList.getElementTypeHandler(2),
+				PrimitiveArrayList.getElementTypeHandler(2));
+	}
+
+	@Test
+	public void shouldKeepRequiredJoins() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(PostWithRequiredBlog.class);
+
+		SqlContext ctx = registry.getContext(PostWithRequiredBlog.class);
+		String alias = ctx.getTableAlias("requiredBlog");
+		assertThat(getBoundSql(config, PostWithRequiredBlog.class, SqlDialect.SELECT_COUNT_ID, ctx).getSql())
+				.startsWith("SELECT COUNT(*) FROM `post` t LEFT JOIN `blog` " + alias + " ON t.`blog_id` = " + alias)
+				.doesNotContain("`author`");
+	}
+
+	@Test
+	public void shouldKeepJoinsOfNonUniqueIds() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(PostWithNonUniqueAuthor.class);
+
+		SqlContext ctx = registry.getContext(PostWithNonUniqueAuthor.class);
+		String alias = ctx.getTableAlias("nonUniqueAuthor");
+		assertThat(getBoundSql(config, PostWithNonUniqueAuthor.class, SqlDialect.SELECT_COUNT_ID, ctx).getSql())
+				.startsWith("SELECT COUNT(*) FROM `post` t LEFT JOIN `author` " + alias)
+				.doesNotContain("`blog`");
+	}
+
+	private BoundSql getBoundSql(Configuration config, Class<?> entityType, String id, SqlContext ctx) {
+		Map<String, Object> parameter = Collections.singletonMap(ctx.getRootPath(), ctx);
+		return config.getMappedStatement(entityType.getName() + "." + id).getBoundSql(parameter);
+	}
+
+	@SqlEntity("post")
+	public static class PostWithRequiredBlog extends PostLite {
+		private static final long serialVersionUID = 1L;
+
+		@SqlJoin(value = Blog.class, eliminable = false)
+		private static final SqlCriterion requiredBlog = eq("blogId", of("requiredBlog.#id"));
+	}
+
+	@SqlEntity("author")
+	public static class NonUniqueAuthor extends Author {
+		private static final long serialVersionUID = 1L;
+	}
+
+	@SqlEntity("post")
+	public static class PostWithNonUniqueAuthor extends PostLite {
+		private static final long serialVersionUID = 1L;
+
+		@SqlJoin(NonUniqueAuthor.class)
+		private static final SqlCriterion nonUniqueAuthor = eq("authorId", of("nonUniqueAuthor.#id"));
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import static com.github.springlink.mybatis.sql.SqlCriterion.and;
+import static com.github.springlink.mybatis.sql.SqlCriterion.eq;
+import static com.github.springlink.mybatis.sql.SqlCriterion.in;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.springlink.mybatis.entity.Author;
+import com.github.springlink.mybatis.entity.PostLite;
+import com.github.springlink.mybatis.sql.SqlCriterion;
+import com.github.springlink.mybatis.sql.SqlReference;
+
+public class SqlFragmentCacheTest {
+	private SqlDialect dialect;
+	private SqlRegistry registry;
+
+	@Before
+	public void setUp() {
+		dialect = new MySQLDialect(2);
+		registry = new SqlRegistry(new Configuration(), dialect);
+		registry.addType(PostLite.class);
+		registry.addType(Author.class);
+		dialect.getFragmentCache().clear();
+	}
+
+	@Test
+	public void shouldReuseFragmentOfSameShape() {
+		SqlFragment first = render(PostLite.class, and(eq("id", 1), in("star", 1, 2)));
+		SqlFragment second = render(PostLite.class, and(eq("id", 2), in("star", 3, 4)));
+
+		assertThat(second).isSameAs(first);
+		assertThat(dialect.getFragmentCache().getStats().hitCount()).isEqualTo(1);
+		assertThat(dialect.getFragmentCache().getStats().missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldDistinguishShapes() {
+		SqlFragment pair = render(PostLite.class, in("star", 1, 2));
+		SqlFragment triple = render(PostLite.class, in("star", 1, 2, 3));
+		SqlFragment reference = render(PostLite.class, eq("id", SqlReference.of("blogId")));
+		SqlFragment value = render(PostLite.class, eq("id", "blogId"));
+
+		assertThat(pair.getParameters()).hasSize(2);
+		assertThat(triple.getParameters()).hasSize(3);
+		assertThat(reference.getParameters()).isEmpty();
+		assertThat(value.getParameters()).hasSize(1);
+		assertThat(dialect.getFragmentCache().getStats().hitCount()).isZero();
+	}
+
+	@Test
+	public void shouldReuseFragmentOfSubquery() {
+		SqlFragment first = render(PostLite.class,
+				SqlCriterion.exists(Author.class, and(eq("id", SqlReference.of("outer.authorId")), eq("username", "a"))));
+		SqlFragment second = render(PostLite.class,
+				SqlCriterion.exists(Author.class, and(eq("id", SqlReference.of("outer.authorId")), eq("username", "b"))));
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.getParameters()).hasSize(1);
+		assertThat(first.toScript()).contains("FROM `author` s1 WHERE (s1.`id` = t.`author_id`");
+	}
+
+	@Test
+	public void shouldDistinguishEntities() {
+		SqlFragment post = render(PostLite.class, eq("id", 1));
+		SqlFragment author = render(Author.class, eq("id", 1));
+
+		assertThat(author).isNotSameAs(post);
+		assertThat(dialect.getFragmentCache().getStats().hitCount()).isZero();
+	}
+
+	@Test
+	public void shouldEvictBeyondMaximumSize() {
+		render(PostLite.class, eq("id", 1));
+		render(PostLite.class, in("id", 1, 2));
+		render(PostLite.class, in("id", 1, 2, 3));
+
+		assertThat(dialect.getFragmentCache().size()).isEqualTo(2);
+		assertThat(dialect.getFragmentCache().getStats().evictionCount()).isEqualTo(1);
+	}
+
+	private SqlFragment render(Class<?> entityType, SqlCriterion criterion) {
+		SqlContext ctx = registry.getContext(entityType).putObject(SqlDialect.CRITERION_KEY, criterion);
+		return dialect.getFragment(ctx, ctx.getObjectPath(SqlDialect.CRITERION_KEY), criterion);
+	}
+}
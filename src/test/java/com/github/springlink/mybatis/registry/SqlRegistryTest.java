@@ -1,35 +1,133 @@
-/*
- * Copyright 2019 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      https://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.github.springlink.mybatis.registry;
-
-import java.io.IOException;
-
-import org.apache.ibatis.session.Configuration;
-import org.junit.Test;
-import org.mockito.Mockito;
-
-import com.github.springlink.mybatis.registry.SqlDialect;
-import com.github.springlink.mybatis.registry.SqlRegistry;
-
-public class SqlRegistryTest {
-	@Test
-	public void test() throws ClassNotFoundException, IOException {
-		Configuration config = Mockito.mock(Configuration.class);
-		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
-		registry.addPackage("com.github.springlink.mybatis.blog", getClass().getClassLoader());
-	}
-}
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.github.springlink.mybatis.entity.Author;
+import com.github.springlink.mybatis.entity.Blog;
+import com.github.springlink.mybatis.entity.PostLite;
+import com.github.springlink.mybatis.registry.SqlDialect;
+import com.github.springlink.mybatis.registry.SqlRegistry;
+
+public class SqlRegistryTest {
+	@Test
+	public void test() throws ClassNotFoundException, IOException {
+		Configuration config = Mockito.mock(Configuration.class);
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addPackage("com.github.springlink.mybatis.blog", getClass().getClassLoader());
+	}
+
+	@Test
+	public void shouldInstallObjectWrapperFactoryOnRequest() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(PostLite.class);
+
+		assertThat(config.getObjectWrapperFactory()).isInstanceOf(DefaultObjectWrapperFactory.class);
+		registry.installObjectWrapperFactory();
+		registry.addType(Author.class);
+		assertThat(config.getObjectWrapperFactory().hasWrapperFor(new PostLite())).isTrue();
+		assertThat(config.getObjectWrapperFactory().hasWrapperFor(new Author())).isTrue();
+
+		Configuration customConfig = new Configuration();
+		customConfig.setObjectWrapperFactory(Mockito.mock(ObjectWrapperFactory.class));
+		assertThatThrownBy(() -> new SqlRegistry(customConfig, SqlDialect.get("mysql")).installObjectWrapperFactory())
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void shouldNotRegisterResultSetTypeHandler() {
+		Configuration config = new Configuration();
+		SqlRegistry registry = new SqlRegistry(config, SqlDialect.get("mysql"));
+		registry.addType(PostLite.class);
+
+		assertThat(config.getTypeHandlerRegistry().hasTypeHandler(ResultSet.class)).isFalse();
+		assertThat(config.getMappedStatement(PostLite.class.getName() + "." + SqlDialect.SELECT_PROJECTION_ROWS_ID)
+				.getResultMaps().get(0).getType()).isEqualTo(ResultSetRow.class);
+	}
+
+	@Test
+	public void shouldShareContextTemplate() {
+		SqlRegistry registry = new SqlRegistry(new Configuration(), SqlDialect.get("mysql"));
+		registry.addType(PostLite.class);
+
+		SqlContext ctx1 = registry.getContext(PostLite.class);
+		SqlContext ctx2 = registry.getContext(PostLite.class).putObject(SqlDialect.VALUE_KEY, new PostLite());
+
+		assertThat(ctx1).isNotSameAs(ctx2);
+		assertThat(ctx1.getTemplate()).isSameAs(ctx2.getTemplate());
+		assertThat(ctx1.getObjects()).isEmpty();
+	}
+
+	@Test
+	public void shouldResolveJoinedProperties() {
+		SqlRegistry registry = new SqlRegistry(new Configuration(), SqlDialect.get("mysql"));
+		registry.addType(PostLite.class);
+
+		SqlContext ctx = registry.getContext(PostLite.class);
+		String blogAlias = ctx.getTableAlias("joinBlog");
+
+		assertThat(ctx.getTableAlias()).isEqualTo("t");
+		assertThat(blogAlias).matches("j\\d");
+		assertThat(ctx.getPropertyEntity("joinBlog.#id").getType()).isEqualTo(Blog.class);
+		assertThat(ctx.getColumnAlias("joinBlog.#id")).isEqualTo(blogAlias);
+		assertThat(ctx.getPropertyEntity("joinAuthor.username").getType()).isEqualTo(Author.class);
+		assertThat(ctx.getProperty("id").getName()).isEqualTo("id");
+		assertThatThrownBy(() -> ctx.getProperty("noSuchProperty"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("noSuchProperty");
+	}
+
+	@Test
+	public void shouldKeepTemplateWhenBindingEntities() {
+		SqlRegistry registry = new SqlRegistry(new Configuration(), SqlDialect.get("mysql"));
+		registry.addType(PostLite.class);
+
+		SqlContext ctx = registry.getContext(PostLite.class);
+		SqlContextTemplate template = ctx.getTemplate();
+		ctx.putEntity("extra", Author.class, "x");
+
+		assertThat(ctx.getTemplate()).isNotEqualTo(template);
+		assertThat(ctx.getColumnAlias("extra.username")).isEqualTo("x");
+		assertThat(registry.getContext(PostLite.class).getTemplate()).isSameAs(template);
+	}
+
+	@Test
+	public void shouldBuildCursorStatements() {
+		Configuration config = new Configuration();
+		new SqlRegistry(config, SqlDialect.get("mysql")).addType(PostLite.class);
+		Configuration h2Config = new Configuration();
+		new SqlRegistry(h2Config, SqlDialect.get("h2")).addType(PostLite.class);
+
+		String id = PostLite.class.getName() + "." + SqlDialect.SELECT_ENTITY_CURSOR_ID;
+		assertThat(config.getMappedStatement(id).getFetchSize()).isEqualTo(MySQLDialect.STREAMING_FETCH_SIZE);
+		assertThat(config.getMappedStatement(id).getResultSetType()).isEqualTo(ResultSetType.FORWARD_ONLY);
+		assertThat(h2Config.getMappedStatement(id).getFetchSize()).isNull();
+	}
+}
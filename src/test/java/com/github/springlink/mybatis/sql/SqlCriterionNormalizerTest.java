@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.sql;
+
+import static com.github.springlink.mybatis.sql.SqlCriterion.and;
+import static com.github.springlink.mybatis.sql.SqlCriterion.eq;
+import static com.github.springlink.mybatis.sql.SqlCriterion.falseValue;
+import static com.github.springlink.mybatis.sql.SqlCriterion.gt;
+import static com.github.springlink.mybatis.sql.SqlCriterion.in;
+import static com.github.springlink.mybatis.sql.SqlCriterion.none;
+import static com.github.springlink.mybatis.sql.SqlCriterion.not;
+import static com.github.springlink.mybatis.sql.SqlCriterion.or;
+import static com.github.springlink.mybatis.sql.SqlCriterion.trueValue;
+import static com.github.springlink.mybatis.sql.SqlCriterionNormalizer.isFalse;
+import static com.github.springlink.mybatis.sql.SqlCriterionNormalizer.normalize;
+import static com.github.springlink.mybatis.sql.SqlCriterionNormalizer.splitInList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class SqlCriterionNormalizerTest {
+	@Test
+	public void shouldFoldConstants() {
+		assertThat(isFalse(normalize(and(eq("a", 1), falseValue())))).isTrue();
+		assertThat(isFalse(normalize(or(falseValue(), not(trueValue()))))).isTrue();
+		assertThat(normalize(or(eq("a", 1), trueValue()))).isSameAs(none());
+		assertThat(normalize(and(trueValue(), eq("a", 1))).toString()).isEqualTo("a=1");
+		assertThat(normalize(or(falseValue(), eq("a", 1), gt("b", 2))).toString()).isEqualTo("(a=1 OR b>2)");
+		assertThat(normalize(null)).isSameAs(none());
+	}
+
+	@Test
+	public void shouldTurnEmptyInIntoFalse() {
+		assertThat(isFalse(normalize(in("a", Collections.emptyList())))).isTrue();
+		assertThat(isFalse(normalize(and(eq("b", 1), in("a"))))).isTrue();
+		assertThat(normalize(not(in("a")))).isSameAs(none());
+	}
+
+	@Test
+	public void shouldDropEmptyJunctions() {
+		assertThat(normalize(and(none(), or()))).isSameAs(none());
+		assertThat(normalize(or(none(), eq("a", 1))).toString()).isEqualTo("a=1");
+		assertThat(normalize(not(and()))).isSameAs(none());
+	}
+
+	@Test
+	public void shouldFlattenJunctions() {
+		assertThat(normalize(and(eq("a", 1), and(eq("b", 2), and(eq("c", 3))))).toString())
+				.isEqualTo("(a=1 AND b=2 AND c=3)");
+		assertThat(normalize(or(gt("a", 1), or(gt("b", 2), gt("c", 3)))).toString())
+				.isEqualTo("(a>1 OR b>2 OR c>3)");
+		assertThat(normalize(not(not(eq("a", 1)))).toString()).isEqualTo("a=1");
+	}
+
+	@Test
+	public void shouldCollapseEqualitiesIntoIn() {
+		assertThat(normalize(or(eq("a", 1), eq("a", 2))).toString()).isEqualTo("a IN(1,2)");
+		assertThat(normalize(or(eq("a", 1), gt("b", 2), in("a", 3, 4), eq("c", 5))).toString())
+				.isEqualTo("(a IN(1,3,4) OR b>2 OR c=5)");
+		assertThat(normalize(or(eq("a", SqlReference.of("b")), eq("a", 2))).toString())
+				.isEqualTo("(a=b OR a=2)");
+	}
+
+	@Test
+	public void shouldSimplifySubqueries() {
+		assertThat(normalize(SqlCriterion.exists(Object.class, and(eq("a", 1), trueValue()))).toString())
+				.isEqualTo("EXISTS(Object WHERE a=1)");
+		assertThat(normalize(SqlCriterion.inSubquery("a", Object.class, "b", trueValue())).toString())
+				.isEqualTo("a IN(Object.b)");
+		assertThat(isFalse(normalize(SqlCriterion.inSubquery("a", Object.class, "b", in("c"))))).isTrue();
+		assertThat(normalize(not(SqlCriterion.exists(Object.class, or(falseValue()))))).isSameAs(none());
+	}
+
+	@Test
+	public void shouldKeepNormalizedCriteria() {
+		SqlCriterion criterion = and(eq("a", 1), or(gt("b", 2), eq("c", 3)));
+		assertThat(normalize(criterion)).isSameAs(criterion);
+	}
+
+	@Test
+	public void shouldSplitLongInLists() {
+		assertThat(splitInList(in("a", 1, 2, 3, 2, 4, 5), 2)).extracting(String::valueOf)
+				.containsExactly("a IN(1,2)", "a IN(3,4)", "a IN(5)");
+		assertThat(splitInList(and(eq("b", 1), in("a", 1, 2, 3)), 2)).extracting(String::valueOf)
+				.containsExactly("(b=1 AND a IN(1,2))", "(b=1 AND a IN(3))");
+	}
+
+	@Test
+	public void shouldKeepShortOrNestedInLists() {
+		SqlCriterion shortList = in("a", 1, 2);
+		SqlCriterion nested = or(eq("b", 1), in("a", 1, 2, 3));
+		SqlCriterion references = in("a", 1, 2, SqlReference.of("b"));
+
+		assertThat(splitInList(shortList, 2)).containsExactly(shortList);
+		assertThat(splitInList(nested, 2)).containsExactly(nested);
+		assertThat(splitInList(references, 2)).containsExactly(references);
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.type.JdbcType;
+import org.junit.Test;
+
+public class KeysetTokensTest {
+	@Test
+	public void shouldRoundTripValues() {
+		List<Object> values = Arrays.asList(1, 2L, "a,b", null, new BigDecimal("1.50"), new Date(1234567890L),
+				new java.sql.Timestamp(1234567890123L), LocalDateTime.of(2019, 5, 1, 12, 30), JdbcType.INTEGER);
+		List<Class<?>> types = Arrays.asList(int.class, Long.class, String.class, Integer.class, BigDecimal.class,
+				Date.class, java.sql.Timestamp.class, LocalDateTime.class, JdbcType.class);
+
+		String token = KeysetTokens.encode(values);
+
+		assertThat(token).matches("[A-Za-z0-9_-]+");
+		assertThat(KeysetTokens.decode(token, types)).containsExactlyElementsOf(values);
+	}
+
+	@Test
+	public void shouldRejectInvalidTokens() {
+		String token = KeysetTokens.encode(Arrays.asList(1, 2));
+
+		assertThatThrownBy(() -> KeysetTokens.decode(token, Arrays.asList(Integer.class)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> KeysetTokens.decode("not a token", Arrays.asList(Integer.class)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> KeysetTokens.encode(Arrays.asList(new Object())))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+}
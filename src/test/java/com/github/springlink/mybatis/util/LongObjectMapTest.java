@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.springlink.mybatis.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+public class LongObjectMapTest {
+	@Test
+	public void shouldPutAndGet() {
+		LongObjectMap<String> map = new LongObjectMap<>(2);
+
+		assertThat(map.put(0, "zero")).isNull();
+		assertThat(map.put(-1, "minus")).isNull();
+		assertThat(map.put(0, "nil")).isEqualTo("zero");
+		assertThat(map.putIfAbsent(-1, "other")).isEqualTo("minus");
+		assertThat(map.putIfAbsent(Long.MIN_VALUE, "min")).isNull();
+
+		assertThat(map.size()).isEqualTo(3);
+		assertThat(map.get(0)).isEqualTo("nil");
+		assertThat(map.get(-1)).isEqualTo("minus");
+		assertThat(map.get(Long.MIN_VALUE)).isEqualTo("min");
+		assertThat(map.containsKey(1)).isFalse();
+		assertThat(map.get(1)).isNull();
+	}
+
+	@Test
+	public void shouldGrow() {
+		LongObjectMap<Long> map = new LongObjectMap<>();
+		for (long key = 0; key < 10000; ++key) {
+			map.put(key << 32, key);
+		}
+
+		assertThat(map.size()).isEqualTo(10000);
+		assertThat(map.keys()).hasSize(10000).contains(0L, 9999L << 32);
+		Map<Long, Long> entries = Maps.newHashMap();
+		map.forEach(entries::put);
+		assertThat(entries).hasSize(10000);
+		entries.forEach((key, value) -> assertThat(key).isEqualTo(value << 32));
+
+		map.clear();
+		assertThat(map.isEmpty()).isTrue();
+		assertThat(map.get(0)).isNull();
+	}
+
+	@Test
+	public void shouldViewPrimitiveArraysAsLists() {
+		PrimitiveArrayList<Long> longs = PrimitiveArrayList.of(new long[] { 3, 1, 3, 2, 1 });
+		PrimitiveArrayList<Integer> ints = PrimitiveArrayList.of(new int[] { 3, 1, 3, 2, 1 });
+
+		assertThat(longs).containsExactly(3L, 1L, 3L, 2L, 1L);
+		assertThat(longs.distinct()).containsExactly(3L, 1L, 2L);
+		assertThat(ints.distinct()).containsExactly(3, 1, 2);
+		assertThat(longs.subList(1, 4)).containsExactly(1L, 3L, 2L).isEqualTo(Arrays.asList(1L, 3L, 2L));
+		assertThat(longs.subList(1, 4).subList(1, 3).getLong(1)).isEqualTo(2L);
+		assertThat(longs.hashCode()).isEqualTo(Arrays.asList(3L, 1L, 3L, 2L, 1L).hashCode());
+		assertThat(ints).isEqualTo(Arrays.asList(3, 1, 3, 2, 1)).isNotEqualTo(longs);
+	}
+
+	@Test
+	public void shouldBindElementsWithoutBoxing() throws SQLException {
+		PreparedStatement ps = mock(PreparedStatement.class);
+
+		PrimitiveArrayList.getElementTypeHandler(2).setParameter(ps, 1, PrimitiveArrayList.of(new long[] { 1, 2, 3 }),
+				null);
+		PrimitiveArrayList.getElementTypeHandler(1).setParameter(ps, 2, PrimitiveArrayList.of(new int[] { 4, 5 }),
+				null);
+		PrimitiveArrayList.getElementTypeHandler(0).setParameter(ps, 3, Arrays.asList("a"), null);
+
+		verify(ps).setLong(1, 3L);
+		verify(ps).setInt(2, 5);
+		verify(ps).setObject(3, "a");
+	}
+}
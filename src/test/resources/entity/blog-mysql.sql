@@ -83,6 +83,21 @@ id2  INT NOT NULL DEFAULT 123,
 PRIMARY KEY(id1)
 );
 
+CREATE TABLE generated_rows_table (
+id    INT NOT NULL AUTO_INCREMENT,
+name  VARCHAR(255),
+PRIMARY KEY(id)
+);
+
+DROP TABLE IF EXISTS post_archive;
+CREATE TABLE post_archive (
+id          INT NOT NULL,
+subject     VARCHAR(255) NOT NULL,
+star        INT,
+blog_title  VARCHAR(255),
+PRIMARY KEY (id)
+);
+
 INSERT INTO author (id,username, password, email, bio, favourite_section) VALUES (101,'jim','********','jim@ibatis.apache.org','','NEWS');
 INSERT INTO author (id,username, password, email, bio, favourite_section) VALUES (102,'sally','********','sally@ibatis.apache.org',null,'VIDEOS');
 